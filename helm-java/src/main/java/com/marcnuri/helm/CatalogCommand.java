@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.CatalogOptions;
+import com.marcnuri.helm.jni.HelmLib;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * @author Marc Nuri
+ */
+public class CatalogCommand extends HelmCommand<Void> {
+
+  private final Consumer<CatalogEntry> consumer;
+  private final Set<String> repos;
+  private final Set<String> sections;
+  private Path repositoryConfig;
+  private boolean latest;
+  private int concurrency;
+
+  public CatalogCommand(HelmLib helmLib, Consumer<CatalogEntry> consumer) {
+    super(helmLib);
+    this.consumer = Objects.requireNonNull(consumer, "Consumer is required");
+    this.repos = new LinkedHashSet<>();
+    this.sections = new LinkedHashSet<>();
+  }
+
+  /**
+   * Execute the catalog command.
+   * <p>
+   * The chart archives of the cached repository indexes are downloaded concurrently (or read from the chart cache
+   * if enabled) and kept in memory, the extracted entries are provided to the consumer as soon as they are available.
+   * The consumer is never invoked concurrently, failures are reported per chart in each {@link CatalogEntry}.
+   * The catalog extraction stops if the consumer throws an exception.
+   *
+   * @return null.
+   */
+  @Override
+  public Void call() {
+    final NativeCatalogConsumer nativeConsumer = new NativeCatalogConsumer(consumer);
+    try {
+      run(hl -> hl.Catalog(new CatalogOptions(
+        toString(repositoryConfig),
+        String.join("\n", repos),
+        String.join(",", sections),
+        toInt(latest),
+        concurrency,
+        nativeConsumer
+      )));
+      return null;
+    } catch (IllegalStateException ex) {
+      throw nativeConsumer.withCause(ex);
+    }
+  }
+
+  /**
+   * Path to the file containing repository names and URLs (default "~/.config/helm/repositories.yaml").
+   *
+   * @param repositoryConfig a {@link Path} to the repository configuration file.
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withRepositoryConfig(Path repositoryConfig) {
+    this.repositoryConfig = repositoryConfig;
+    return this;
+  }
+
+  /**
+   * Name of a repository to catalog (all the configured repositories if none is specified).
+   * <p>
+   * Can be invoked multiple times to catalog several repositories.
+   *
+   * @param repo the name of the repository (its index must be cached, e.g. after a repository update).
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withRepo(String repo) {
+    this.repos.add(repo);
+    return this;
+  }
+
+  /**
+   * Include the chart's values ({@link ChartInfo#getValues()}).
+   *
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withValues() {
+    this.sections.add("values");
+    return this;
+  }
+
+  /**
+   * Include the chart's README ({@link ChartInfo#getReadme()}).
+   *
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withReadme() {
+    this.sections.add("readme");
+    return this;
+  }
+
+  /**
+   * Include the chart's CRDs ({@link ChartInfo#getCrds()}).
+   *
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withCrds() {
+    this.sections.add("crds");
+    return this;
+  }
+
+  /**
+   * Only catalog the latest version of each chart instead of every version.
+   *
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand latest() {
+    this.latest = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of chart archives downloaded in parallel (default 8).
+   *
+   * @param concurrency the maximum number of concurrent downloads.
+   * @return this {@link CatalogCommand} instance.
+   */
+  public CatalogCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * Chart information of a chart version extracted by the {@link CatalogCommand}.
+ *
+ * @author Marc Nuri
+ */
+public class CatalogEntry {
+
+  private final String repo;
+  private final String chart;
+  private final String version;
+  private final int completed;
+  private final int total;
+  private final ChartInfo info;
+  private final String error;
+
+  public CatalogEntry(String repo, String chart, String version, int completed, int total, ChartInfo info, String error) {
+    this.repo = repo;
+    this.chart = chart;
+    this.version = version;
+    this.completed = completed;
+    this.total = total;
+    this.info = info;
+    this.error = error;
+  }
+
+  public String getRepo() {
+    return repo;
+  }
+
+  public String getChart() {
+    return chart;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * The number of chart versions processed so far (including this one).
+   *
+   * @return the number of processed chart versions.
+   */
+  public int getCompleted() {
+    return completed;
+  }
+
+  /**
+   * The total number of chart versions to process.
+   *
+   * @return the total number of chart versions.
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * The chart information, including the requested sections.
+   *
+   * @return the chart information, or null if the extraction failed.
+   */
+  public ChartInfo getInfo() {
+    return info;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static CatalogEntry parse(String entry) {
+    final List<Map<String, String>> lines = parseUrlEncodedLines(entry);
+    if (lines.isEmpty()) {
+      throw new IllegalArgumentException("Catalog entry cannot be empty");
+    }
+    final Map<String, String> header = lines.get(0);
+    final String error = header.get("error");
+    return new CatalogEntry(
+      header.get("repo"),
+      header.get("chart"),
+      header.get("version"),
+      Integer.parseInt(header.getOrDefault("completed", "0")),
+      Integer.parseInt(header.getOrDefault("total", "0")),
+      error == null ? ChartInfo.parse(lines.subList(1, lines.size())) : null,
+      error
+    );
+  }
+}
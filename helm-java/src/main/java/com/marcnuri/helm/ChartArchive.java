@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * In-memory chart archive (.tgz) that is handed over to the native library without touching the filesystem.
+ * <p>
+ * Direct buffers are shared with the native library as they are, other sources are copied once into native memory.
+ *
+ * @author Marc Nuri
+ */
+final class ChartArchive {
+
+  private final Pointer pointer;
+  private final int size;
+  // Keeps the backing memory reachable for as long as the archive is referenced
+  private final Object owner;
+
+  private ChartArchive(Pointer pointer, int size, Object owner) {
+    this.pointer = pointer;
+    this.size = size;
+    this.owner = owner;
+  }
+
+  static ChartArchive of(byte[] archive) {
+    return copyOf(archive, 0, archive.length);
+  }
+
+  static ChartArchive of(ByteBuffer archive) {
+    if (archive.isDirect()) {
+      final Pointer pointer = Native.getDirectBufferPointer(archive);
+      return new ChartArchive(pointer.share(archive.position()), archive.remaining(), archive);
+    }
+    if (archive.hasArray()) {
+      return copyOf(archive.array(), archive.arrayOffset() + archive.position(), archive.remaining());
+    }
+    final byte[] bytes = new byte[archive.remaining()];
+    archive.duplicate().get(bytes);
+    return of(bytes);
+  }
+
+  static ChartArchive of(InputStream archive) {
+    try {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = archive.read(buffer)) != -1) {
+        baos.write(buffer, 0, read);
+      }
+      return of(baos.toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read chart archive", e);
+    }
+  }
+
+  private static ChartArchive copyOf(byte[] archive, int offset, int length) {
+    if (length == 0) {
+      throw new IllegalArgumentException("Chart archive is empty");
+    }
+    final Memory memory = new Memory(length);
+    memory.write(0, archive, offset, length);
+    return new ChartArchive(memory, length, memory);
+  }
+
+  static Pointer pointer(ChartArchive chartArchive) {
+    return chartArchive == null ? null : chartArchive.pointer;
+  }
+
+  static int size(ChartArchive chartArchive) {
+    return chartArchive == null ? 0 : chartArchive.size;
+  }
+}
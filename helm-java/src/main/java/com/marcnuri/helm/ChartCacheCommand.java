@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.ChartCacheOptions;
+import com.marcnuri.helm.jni.HelmLib;
+
+import java.nio.file.Path;
+
+/**
+ * Configures the process-wide chart cache used to resolve remote charts.
+ * <p>
+ * Chart archives downloaded by install, upgrade, template, and show are stored in a content-addressed directory
+ * keyed by repository URL, chart name, and version (or OCI digest).
+ * Digest-pinned OCI references and repository charts whose archive digest is already cached are resolved
+ * without any network access.
+ * Charts referenced by a plain URL or an OCI tag aren't cached since their content might change.
+ * <p>
+ * The cache directory can be safely shared by several processes.
+ *
+ * @author Marc Nuri
+ */
+public class ChartCacheCommand extends HelmCommand<Void> {
+
+  private Path directory;
+  private long maxSize;
+
+  public ChartCacheCommand(HelmLib helmLib) {
+    super(helmLib);
+  }
+
+  /**
+   * Apply the chart cache configuration.
+   * <p>
+   * If no directory is provided, the chart cache is disabled.
+   *
+   * @return {@code null}.
+   */
+  @Override
+  public Void call() {
+    run(hl -> hl.ChartCacheConfigure(new ChartCacheOptions(toString(directory), maxSize)));
+    return null;
+  }
+
+  /**
+   * Directory where the chart archives are cached.
+   *
+   * @param directory the path to the cache directory.
+   * @return this {@link ChartCacheCommand} instance.
+   */
+  public ChartCacheCommand withDirectory(Path directory) {
+    this.directory = directory;
+    return this;
+  }
+
+  /**
+   * Maximum size in bytes of the cached chart archives.
+   * <p>
+   * The least recently used chart archives are evicted when the limit is exceeded (unlimited by default).
+   *
+   * @param maxSize the maximum size in bytes.
+   * @return this {@link ChartCacheCommand} instance.
+   */
+  public ChartCacheCommand withMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+}
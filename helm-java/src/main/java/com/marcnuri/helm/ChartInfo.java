@@ -0,0 +1,326 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * Chart metadata read without loading the chart (see {@link ShowCommand#info()}).
+ *
+ * @author Marc Nuri
+ */
+public class ChartInfo {
+
+  private final String name;
+  private final String version;
+  private final String appVersion;
+  private final String apiVersion;
+  private final String description;
+  private final String type;
+  private final String kubeVersion;
+  private final String home;
+  private final String icon;
+  private final List<String> keywords;
+  private final List<String> sources;
+  private final boolean deprecated;
+  private final boolean valuesSchema;
+  private final List<Maintainer> maintainers;
+  private final List<Dependency> dependencies;
+  private final Map<String, String> annotations;
+  private final Map<String, String> sections;
+
+  public ChartInfo(
+    String name, String version, String appVersion, String apiVersion, String description, String type,
+    String kubeVersion, String home, String icon, List<String> keywords, List<String> sources, boolean deprecated,
+    boolean valuesSchema, List<Maintainer> maintainers, List<Dependency> dependencies,
+    Map<String, String> annotations, Map<String, String> sections
+  ) {
+    this.name = name;
+    this.version = version;
+    this.appVersion = appVersion;
+    this.apiVersion = apiVersion;
+    this.description = description;
+    this.type = type;
+    this.kubeVersion = kubeVersion;
+    this.home = home;
+    this.icon = icon;
+    this.keywords = keywords;
+    this.sources = sources;
+    this.deprecated = deprecated;
+    this.valuesSchema = valuesSchema;
+    this.maintainers = maintainers;
+    this.dependencies = dependencies;
+    this.annotations = annotations;
+    this.sections = sections;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public String getAppVersion() {
+    return appVersion;
+  }
+
+  public String getApiVersion() {
+    return apiVersion;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * The type of the chart (application or library).
+   *
+   * @return the chart type, or null if not specified.
+   */
+  public String getType() {
+    return type;
+  }
+
+  public String getKubeVersion() {
+    return kubeVersion;
+  }
+
+  public String getHome() {
+    return home;
+  }
+
+  public String getIcon() {
+    return icon;
+  }
+
+  public List<String> getKeywords() {
+    return keywords;
+  }
+
+  public List<String> getSources() {
+    return sources;
+  }
+
+  public boolean isDeprecated() {
+    return deprecated;
+  }
+
+  /**
+   * Whether the chart provides a values schema (values.schema.json).
+   *
+   * @return true if the chart has a values schema.
+   */
+  public boolean hasValuesSchema() {
+    return valuesSchema;
+  }
+
+  public List<Maintainer> getMaintainers() {
+    return maintainers;
+  }
+
+  /**
+   * The chart dependencies (from Chart.yaml, or requirements.yaml for apiVersion v1 charts).
+   *
+   * @return the chart dependencies.
+   */
+  public List<Dependency> getDependencies() {
+    return dependencies;
+  }
+
+  public Map<String, String> getAnnotations() {
+    return annotations;
+  }
+
+  /**
+   * The chart's values (as {@link ShowCommand#values()}), only if requested.
+   *
+   * @return the chart's values, or null if not requested or not available.
+   */
+  public String getValues() {
+    return sections.get("values");
+  }
+
+  /**
+   * The chart's README (as {@link ShowCommand#readme()}), only if requested.
+   *
+   * @return the chart's README, or null if not requested or not available.
+   */
+  public String getReadme() {
+    return sections.get("readme");
+  }
+
+  /**
+   * The chart's CRDs (as {@link ShowCommand#crds()}), only if requested.
+   *
+   * @return the chart's CRDs, or null if not requested or not available.
+   */
+  public String getCrds() {
+    return sections.get("crds");
+  }
+
+  static ChartInfo parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    return parse(parseUrlEncodedLines(result.out));
+  }
+
+  static ChartInfo parse(List<Map<String, String>> lines) {
+    Map<String, String> chart = null;
+    final List<Maintainer> maintainers = new ArrayList<>();
+    final List<Dependency> dependencies = new ArrayList<>();
+    final Map<String, String> annotations = new LinkedHashMap<>();
+    final Map<String, String> sections = new LinkedHashMap<>();
+    for (Map<String, String> entries : lines) {
+      switch (entries.getOrDefault("type", "")) {
+        case "chart":
+          chart = entries;
+          break;
+        case "maintainer":
+          maintainers.add(new Maintainer(entries.get("name"), entries.get("email"), entries.get("url")));
+          break;
+        case "dependency":
+          dependencies.add(new Dependency(
+            entries.get("name"),
+            entries.get("version"),
+            entries.get("repository"),
+            entries.get("condition"),
+            entries.get("alias"),
+            split(entries.get("tags"))
+          ));
+          break;
+        case "annotation":
+          annotations.put(entries.get("key"), entries.getOrDefault("value", ""));
+          break;
+        case "section":
+          if (entries.containsKey("content")) {
+            sections.put(entries.get("name"), entries.get("content"));
+          }
+          break;
+        default:
+      }
+    }
+    if (chart == null) {
+      throw new IllegalStateException("Chart information is missing");
+    }
+    return new ChartInfo(
+      chart.get("name"),
+      chart.get("version"),
+      chart.get("appVersion"),
+      chart.get("apiVersion"),
+      chart.get("description"),
+      chart.get("chartType"),
+      chart.get("kubeVersion"),
+      chart.get("home"),
+      chart.get("icon"),
+      split(chart.get("keywords")),
+      split(chart.get("sources")),
+      Boolean.parseBoolean(chart.get("deprecated")),
+      Boolean.parseBoolean(chart.get("hasValuesSchema")),
+      Collections.unmodifiableList(maintainers),
+      Collections.unmodifiableList(dependencies),
+      Collections.unmodifiableMap(annotations),
+      sections
+    );
+  }
+
+  private static List<String> split(String value) {
+    if (value == null || value.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(Arrays.asList(value.split(",")));
+  }
+
+  public static final class Maintainer {
+
+    private final String name;
+    private final String email;
+    private final String url;
+
+    public Maintainer(String name, String email, String url) {
+      this.name = name;
+      this.email = email;
+      this.url = url;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+  }
+
+  public static final class Dependency {
+
+    private final String name;
+    private final String version;
+    private final String repository;
+    private final String condition;
+    private final String alias;
+    private final List<String> tags;
+
+    public Dependency(String name, String version, String repository, String condition, String alias, List<String> tags) {
+      this.name = name;
+      this.version = version;
+      this.repository = repository;
+      this.condition = condition;
+      this.alias = alias;
+      this.tags = tags;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    public String getRepository() {
+      return repository;
+    }
+
+    public String getCondition() {
+      return condition;
+    }
+
+    public String getAlias() {
+      return alias;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+  }
+}
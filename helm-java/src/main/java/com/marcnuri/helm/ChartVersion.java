@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * A chart version available in a repository index.
+ *
+ * @author Marc Nuri
+ */
+public class ChartVersion {
+
+  private final String name;
+  private final String version;
+  private final String appVersion;
+  private final String description;
+  private final String digest;
+  private final ZonedDateTime created;
+  private final boolean deprecated;
+
+  public ChartVersion(String name, String version, String appVersion, String description, String digest,
+    ZonedDateTime created, boolean deprecated) {
+    this.name = name;
+    this.version = version;
+    this.appVersion = appVersion;
+    this.description = description;
+    this.digest = digest;
+    this.created = created;
+    this.deprecated = deprecated;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public String getAppVersion() {
+    return appVersion;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public ZonedDateTime getCreated() {
+    return created;
+  }
+
+  public boolean isDeprecated() {
+    return deprecated;
+  }
+
+  static List<ChartVersion> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<ChartVersion> chartVersions = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      final String created = entries.get("created");
+      chartVersions.add(new ChartVersion(
+        entries.get("name"),
+        entries.get("version"),
+        entries.get("appVersion"),
+        entries.get("description"),
+        entries.get("digest"),
+        created == null ? null : ZonedDateTime.parse(created),
+        Boolean.parseBoolean(entries.get("deprecated"))
+      ));
+    }
+    return chartVersions;
+  }
+}
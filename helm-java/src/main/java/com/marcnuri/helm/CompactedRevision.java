@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * A release revision removed (or to be removed in dry-run mode) by the {@link HistoryCompactCommand}.
+ *
+ * @author Marc Nuri
+ */
+public class CompactedRevision {
+
+  public static final String DELETED = "deleted";
+  public static final String FAILED = "failed";
+  public static final String DRY_RUN = "dry-run";
+
+  private final String name;
+  private final String namespace;
+  private final int revision;
+  private final ZonedDateTime updated;
+  private final String status;
+  private final String chart;
+  private final String appVersion;
+  private final String outcome;
+  private final String error;
+
+  @SuppressWarnings("java:S107")
+  private CompactedRevision(
+    String name, String namespace, int revision, ZonedDateTime updated, String status, String chart, String appVersion,
+    String outcome, String error
+  ) {
+    this.name = name;
+    this.namespace = namespace;
+    this.revision = revision;
+    this.updated = updated;
+    this.status = status;
+    this.chart = chart;
+    this.appVersion = appVersion;
+    this.outcome = outcome;
+    this.error = error;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public int getRevision() {
+    return revision;
+  }
+
+  public ZonedDateTime getUpdated() {
+    return updated;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public String getChart() {
+    return chart;
+  }
+
+  public String getAppVersion() {
+    return appVersion;
+  }
+
+  /**
+   * The result of the revision deletion ({@link #DELETED}, {@link #FAILED}, or {@link #DRY_RUN}).
+   *
+   * @return the deletion outcome.
+   */
+  public String getOutcome() {
+    return outcome;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<CompactedRevision> parseMultiple(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<CompactedRevision> revisions = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      revisions.add(new CompactedRevision(
+        entries.get("name"),
+        entries.get("namespace"),
+        Integer.parseInt(entries.get("revision")),
+        parseDate(entries.get("updated")),
+        entries.get("status"),
+        entries.get("chart"),
+        entries.get("appVersion"),
+        entries.get("outcome"),
+        entries.get("error")
+      ));
+    }
+    return revisions;
+  }
+
+  private static ZonedDateTime parseDate(String date) {
+    if (date == null || date.isEmpty()) {
+      return null;
+    }
+    return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME);
+  }
+}
@@ -70,6 +70,7 @@ public class DependencyCommand {
     private final Path path;
     private Path keyring;
     private boolean skipRefresh;
+    private int refreshTtl;
     private boolean verify;
     private boolean debug;
 
@@ -90,7 +91,8 @@ public class DependencyCommand {
         toString(keyring),
         toInt(skipRefresh),
         toInt(verify),
-        toInt(debug)
+        toInt(debug),
+        refreshTtl
       ))));
     }
 
@@ -115,6 +117,21 @@ public class DependencyCommand {
       return this;
     }
 
+    /**
+     * Time to live (in seconds) of the local repository cache.
+     * <p>
+     * Repositories refreshed within this window (by any command or process) aren't refreshed again,
+     * stale repositories are refreshed using conditional requests when supported.
+     * By default, the repositories are always refreshed.
+     *
+     * @param refreshTtl the repository refresh time to live in seconds.
+     * @return this {@link DependencySubcommand} instance.
+     */
+    public DependencySubcommand<T> withRefreshTtl(int refreshTtl) {
+      this.refreshTtl = refreshTtl;
+      return this;
+    }
+
     /**
      * Verify the packages against signatures.
      *
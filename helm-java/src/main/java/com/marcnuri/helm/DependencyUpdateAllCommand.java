@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.DependencyUpdateAllOptions;
+import com.marcnuri.helm.jni.HelmLib;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Marc Nuri
+ */
+public class DependencyUpdateAllCommand extends HelmCommand<List<DependencyUpdateResult>> {
+
+  private final List<Path> charts;
+  private Path repositoryConfig;
+  private boolean skipRefresh;
+  private int concurrency;
+
+  public DependencyUpdateAllCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.charts = new ArrayList<>();
+  }
+
+  /**
+   * Execute the dependency update command.
+   * <p>
+   * The repository indexes are refreshed and loaded once for all the charts.
+   * The distinct dependency archives are downloaded concurrently (or read from the chart cache if enabled)
+   * and hard-linked (or copied) into each chart's charts/ directory.
+   * Charts with dependencies that aren't served by a configured repository (local, OCI, or unconfigured URL)
+   * are updated by the standard dependency manager.
+   * Failures are reported per chart in the returned {@link DependencyUpdateResult}s.
+   *
+   * @return a {@link List} of {@link DependencyUpdateResult} (one per chart, in the same order).
+   */
+  @Override
+  public List<DependencyUpdateResult> call() {
+    return DependencyUpdateResult.parse(run(hl -> hl.DependencyUpdateAll(new DependencyUpdateAllOptions(
+      charts.stream().map(c -> c.normalize().toFile().getAbsolutePath()).collect(Collectors.joining("\n")),
+      toString(repositoryConfig),
+      toInt(skipRefresh),
+      concurrency
+    ))));
+  }
+
+  /**
+   * Location of a chart directory whose dependencies should be updated.
+   * <p>
+   * Can be invoked multiple times to update several charts at once.
+   *
+   * @param chart the path to the chart directory.
+   * @return this {@link DependencyUpdateAllCommand} instance.
+   */
+  public DependencyUpdateAllCommand withChart(Path chart) {
+    this.charts.add(chart);
+    return this;
+  }
+
+  /**
+   * Path to the file containing repository names and URLs (default "~/.config/helm/repositories.yaml").
+   *
+   * @param repositoryConfig a {@link Path} to the repository configuration file.
+   * @return this {@link DependencyUpdateAllCommand} instance.
+   */
+  public DependencyUpdateAllCommand withRepositoryConfig(Path repositoryConfig) {
+    this.repositoryConfig = repositoryConfig;
+    return this;
+  }
+
+  /**
+   * Do not refresh the local repository cache.
+   *
+   * @return this {@link DependencyUpdateAllCommand} instance.
+   */
+  public DependencyUpdateAllCommand skipRefresh() {
+    this.skipRefresh = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of concurrent repository refreshes, downloads, and chart updates (default 8).
+   *
+   * @param concurrency the maximum number of concurrent workers.
+   * @return this {@link DependencyUpdateAllCommand} instance.
+   */
+  public DependencyUpdateAllCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class DependencyUpdateResult {
+
+  private final Path chart;
+  private final String name;
+  private final int dependencies;
+  private final boolean lockUpdated;
+  private final String error;
+
+  public DependencyUpdateResult(Path chart, String name, int dependencies, boolean lockUpdated, String error) {
+    this.chart = chart;
+    this.name = name;
+    this.dependencies = dependencies;
+    this.lockUpdated = lockUpdated;
+    this.error = error;
+  }
+
+  public Path getChart() {
+    return chart;
+  }
+
+  /**
+   * The name of the chart.
+   *
+   * @return the name of the chart, or null if the chart couldn't be loaded.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The number of dependencies declared by the chart.
+   *
+   * @return the number of dependencies.
+   */
+  public int getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Whether the Chart.lock file was (re)written.
+   * <p>
+   * The lock file is left untouched if it already locked the resolved dependency versions.
+   *
+   * @return true if the lock file was written, false otherwise.
+   */
+  public boolean isLockUpdated() {
+    return lockUpdated;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<DependencyUpdateResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<DependencyUpdateResult> dependencyUpdateResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      dependencyUpdateResults.add(new DependencyUpdateResult(
+        Paths.get(entries.get("path")),
+        entries.get("name"),
+        Integer.parseInt(entries.getOrDefault("dependencies", "0")),
+        Boolean.parseBoolean(entries.get("lockUpdated")),
+        entries.get("error")
+      ));
+    }
+    return dependencyUpdateResults;
+  }
+}
@@ -19,6 +19,8 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.NativeLibrary;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -43,6 +45,15 @@ public class Helm {
     this.path = path;
   }
 
+  /**
+   * This command configures the local cache used to resolve remote charts.
+   *
+   * @return the {@link ChartCacheCommand} callable command.
+   */
+  public static ChartCacheCommand chartCache() {
+    return new ChartCacheCommand(HelmLibHolder.INSTANCE);
+  }
+
   /**
    * This command creates a chart directory along with the common files and directories used in a chart.
    *
@@ -61,6 +72,15 @@ public class Helm {
     return new DependencyCommand(HelmLibHolder.INSTANCE, path);
   }
 
+  /**
+   * This command updates the on-disk dependencies (charts/) of multiple charts at once.
+   *
+   * @return the {@link DependencyUpdateAllCommand} callable command.
+   */
+  public static DependencyUpdateAllCommand dependencyUpdateAll() {
+    return new DependencyUpdateAllCommand(HelmLibHolder.INSTANCE);
+  }
+
   /**
    * Fetch release history.
    *
@@ -71,6 +91,16 @@ public class Helm {
     return new HistoryCommand(HelmLibHolder.INSTANCE, releaseName);
   }
 
+  /**
+   * Compact the release history of every release in a namespace by deleting the superseded revisions.
+   *
+   * @param keep the number of most recent revisions to keep per release.
+   * @return a new {@link HistoryCompactCommand} instance.
+   */
+  public static HistoryCompactCommand compactHistory(int keep) {
+    return new HistoryCompactCommand(HelmLibHolder.INSTANCE, keep);
+  }
+
   /**
    * This commands installs the referenced chart archive.
    *
@@ -81,6 +111,36 @@ public class Helm {
     return new InstallCommand(HelmLibHolder.INSTANCE).withChart(chart);
   }
 
+  /**
+   * This commands installs the provided in-memory chart archive.
+   *
+   * @param chartArchive the chart archive (.tgz) bytes.
+   * @return the {@link InstallCommand} callable command.
+   */
+  public static InstallCommand install(byte[] chartArchive) {
+    return new InstallCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This commands installs the provided in-memory chart archive.
+   *
+   * @param chartArchive the buffer containing the chart archive (.tgz), direct buffers are not copied.
+   * @return the {@link InstallCommand} callable command.
+   */
+  public static InstallCommand install(ByteBuffer chartArchive) {
+    return new InstallCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This commands installs the provided in-memory chart archive.
+   *
+   * @param chartArchive the stream providing the chart archive (.tgz).
+   * @return the {@link InstallCommand} callable command.
+   */
+  public static InstallCommand install(InputStream chartArchive) {
+    return new InstallCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
   /**
    * This commands installs the current chart.
    *
@@ -147,6 +207,24 @@ public class Helm {
     return new PackageCommand(HelmLibHolder.INSTANCE, this, path);
   }
 
+  /**
+   * This command packages multiple charts concurrently into reproducible chart archive files.
+   *
+   * @return the {@link PackageAllCommand} callable command.
+   */
+  public static PackageAllCommand packageAll() {
+    return new PackageAllCommand(HelmLibHolder.INSTANCE);
+  }
+
+  /**
+   * This command downloads charts from a repository or registry and (optionally) unpacks them in a local directory.
+   *
+   * @return the {@link PullCommand} callable command.
+   */
+  public static PullCommand pull() {
+    return new PullCommand(HelmLibHolder.INSTANCE);
+  }
+
   /**
    * This command uploads a chart to a registry.
    *
@@ -156,6 +234,15 @@ public class Helm {
     return new PushCommand(HelmLibHolder.INSTANCE);
   }
 
+  /**
+   * This command uploads multiple charts to a registry concurrently.
+   *
+   * @return the {@link PushAllCommand} callable command.
+   */
+  public static PushAllCommand pushAll() {
+    return new PushAllCommand(HelmLibHolder.INSTANCE);
+  }
+
   /**
    * This command allows you to log in to or out from a Helm registry.
    *
@@ -165,6 +252,25 @@ public class Helm {
     return new RegistryCommand(HelmLibHolder.INSTANCE);
   }
 
+  /**
+   * This command installs or upgrades a set of releases honoring the dependencies between them.
+   *
+   * @return the {@link ReleaseSetCommand} callable command.
+   */
+  public static ReleaseSetCommand releaseSet() {
+    return new ReleaseSetCommand(HelmLibHolder.INSTANCE);
+  }
+
+  /**
+   * This command rolls back a release to a previous revision.
+   *
+   * @param releaseName name of the release.
+   * @return the {@link RollbackCommand} callable command.
+   */
+  public static RollbackCommand rollback(String releaseName) {
+    return new RollbackCommand(HelmLibHolder.INSTANCE, releaseName);
+  }
+
   /**
    * This command allows you to add, list, remove, update, and index chart repositories.
    *
@@ -194,6 +300,36 @@ public class Helm {
     return new ShowCommand(HelmLibHolder.INSTANCE, chart);
   }
 
+  /**
+   * This command shows information about the provided in-memory chart archive.
+   *
+   * @param chartArchive the chart archive (.tgz) bytes.
+   * @return the {@link ShowCommand} command.
+   */
+  public static ShowCommand show(byte[] chartArchive) {
+    return new ShowCommand(HelmLibHolder.INSTANCE, ChartArchive.of(chartArchive));
+  }
+
+  /**
+   * This command shows information about the provided in-memory chart archive.
+   *
+   * @param chartArchive the buffer containing the chart archive (.tgz), direct buffers are not copied.
+   * @return the {@link ShowCommand} command.
+   */
+  public static ShowCommand show(ByteBuffer chartArchive) {
+    return new ShowCommand(HelmLibHolder.INSTANCE, ChartArchive.of(chartArchive));
+  }
+
+  /**
+   * This command shows information about the provided in-memory chart archive.
+   *
+   * @param chartArchive the stream providing the chart archive (.tgz).
+   * @return the {@link ShowCommand} command.
+   */
+  public static ShowCommand show(InputStream chartArchive) {
+    return new ShowCommand(HelmLibHolder.INSTANCE, ChartArchive.of(chartArchive));
+  }
+
   /**
    * This command shows information about a chart.
    *
@@ -213,6 +349,36 @@ public class Helm {
     return new TemplateCommand(HelmLibHolder.INSTANCE).withChart(chart);
   }
 
+  /**
+   * This command renders the templates of the provided in-memory chart archive locally and displays the output.
+   *
+   * @param chartArchive the chart archive (.tgz) bytes.
+   * @return the {@link TemplateCommand} callable command.
+   */
+  public static TemplateCommand template(byte[] chartArchive) {
+    return new TemplateCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This command renders the templates of the provided in-memory chart archive locally and displays the output.
+   *
+   * @param chartArchive the buffer containing the chart archive (.tgz), direct buffers are not copied.
+   * @return the {@link TemplateCommand} callable command.
+   */
+  public static TemplateCommand template(ByteBuffer chartArchive) {
+    return new TemplateCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This command renders the templates of the provided in-memory chart archive locally and displays the output.
+   *
+   * @param chartArchive the stream providing the chart archive (.tgz).
+   * @return the {@link TemplateCommand} callable command.
+   */
+  public static TemplateCommand template(InputStream chartArchive) {
+    return new TemplateCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
   /**
    * This command renders chart templates locally and displays the output.
    *
@@ -242,6 +408,15 @@ public class Helm {
     return new UninstallCommand(HelmLibHolder.INSTANCE, releaseName);
   }
 
+  /**
+   * This command uninstalls multiple releases (by name and/or release label selector) concurrently.
+   *
+   * @return the {@link UninstallAllCommand} callable command.
+   */
+  public static UninstallAllCommand uninstallAll() {
+    return new UninstallAllCommand(HelmLibHolder.INSTANCE);
+  }
+
   /**
    * This commands upgrades a release to a new version of a chart.
    *
@@ -252,6 +427,36 @@ public class Helm {
     return new UpgradeCommand(HelmLibHolder.INSTANCE).withChart(chart);
   }
 
+  /**
+   * This commands upgrades a release to the provided in-memory chart archive.
+   *
+   * @param chartArchive the chart archive (.tgz) bytes.
+   * @return the {@link UpgradeCommand} callable command.
+   */
+  public static UpgradeCommand upgrade(byte[] chartArchive) {
+    return new UpgradeCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This commands upgrades a release to the provided in-memory chart archive.
+   *
+   * @param chartArchive the buffer containing the chart archive (.tgz), direct buffers are not copied.
+   * @return the {@link UpgradeCommand} callable command.
+   */
+  public static UpgradeCommand upgrade(ByteBuffer chartArchive) {
+    return new UpgradeCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
+  /**
+   * This commands upgrades a release to the provided in-memory chart archive.
+   *
+   * @param chartArchive the stream providing the chart archive (.tgz).
+   * @return the {@link UpgradeCommand} callable command.
+   */
+  public static UpgradeCommand upgrade(InputStream chartArchive) {
+    return new UpgradeCommand(HelmLibHolder.INSTANCE).withChartArchive(chartArchive);
+  }
+
   /**
    * This commands upgrades a release to a new version of the current chart.
    *
@@ -26,6 +26,7 @@ import java.util.List;
  */
 public class HistoryCommand extends HelmCommand<List<ReleaseHistory>>{
 
+  private final HelmLib helmLib;
   private final String releaseName;
   private int max;
   private String namespace;
@@ -34,6 +35,7 @@ public class HistoryCommand extends HelmCommand<List<ReleaseHistory>>{
 
   public HistoryCommand(HelmLib helmLib, String releaseName) {
     super(helmLib);
+    this.helmLib = helmLib;
     this.releaseName = releaseName;
   }
 
@@ -48,6 +50,22 @@ public class HistoryCommand extends HelmCommand<List<ReleaseHistory>>{
     ))));
   }
 
+  /**
+   * Compact the history of this release by deleting its superseded revisions.
+   * <p>
+   * The namespace and Kube config of this command are preserved.
+   *
+   * @param keep the number of most recent revisions to keep.
+   * @return a new {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand compact(int keep) {
+    return new HistoryCompactCommand(helmLib, keep)
+      .withReleaseName(releaseName)
+      .withNamespace(namespace)
+      .withKubeConfig(kubeConfig)
+      .withKubeConfigContents(kubeConfigContents);
+  }
+
   /**
    * Maximum number of revisions to include in history.
    * Default is 256.
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.HistoryCompactOptions;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Deletes the superseded revisions of a release (or of all the releases in a namespace) from the release storage.
+ * <p>
+ * The most recent revisions, the last deployed revision, and pending revisions are always kept.
+ *
+ * @author Marc Nuri
+ */
+public class HistoryCompactCommand extends HelmCommand<List<CompactedRevision>> {
+
+  private final int keep;
+  private String releaseName;
+  private String namespace;
+  private boolean allNamespaces;
+  private int concurrency;
+  private int rateLimit;
+  private boolean dryRun;
+  private Path kubeConfig;
+  private String kubeConfigContents;
+
+  public HistoryCompactCommand(HelmLib helmLib, int keep) {
+    super(helmLib);
+    this.keep = keep;
+  }
+
+  @Override
+  public List<CompactedRevision> call() {
+    return CompactedRevision.parseMultiple(run(hl -> hl.HistoryCompact(new HistoryCompactOptions(
+      releaseName,
+      keep,
+      namespace,
+      toInt(allNamespaces),
+      concurrency,
+      rateLimit,
+      toInt(dryRun),
+      toString(kubeConfig),
+      kubeConfigContents
+    ))));
+  }
+
+  /**
+   * Name of the release to compact.
+   * <p>
+   * If not set, the history of every release in the namespace is compacted.
+   *
+   * @param releaseName name of the release.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withReleaseName(String releaseName) {
+    this.releaseName = releaseName;
+    return this;
+  }
+
+  /**
+   * Kubernetes namespace scope for this request.
+   *
+   * @param namespace the Kubernetes namespace for this request.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withNamespace(String namespace) {
+    this.namespace = namespace;
+    return this;
+  }
+
+  /**
+   * Compact the releases across all namespaces.
+   *
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand allNamespaces() {
+    this.allNamespaces = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of revisions deleted in parallel (default 4).
+   *
+   * @param concurrency the maximum number of parallel deletions.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Maximum number of revisions deleted per second (default 10).
+   *
+   * @param rateLimit the maximum number of deletions per second.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withRateLimit(int rateLimit) {
+    this.rateLimit = rateLimit;
+    return this;
+  }
+
+  /**
+   * List the revisions that would be deleted without deleting them.
+   *
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand dryRun() {
+    this.dryRun = true;
+    return this;
+  }
+
+  /**
+   * Set the path to the ~/.kube/config file to use.
+   *
+   * @param kubeConfig the path to Kube config file.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withKubeConfig(Path kubeConfig) {
+    this.kubeConfig = kubeConfig;
+    return this;
+  }
+
+  /**
+   * Set the Kube config to use.
+   *
+   * @param kubeConfigContents the contents of the Kube config file.
+   * @return this {@link HistoryCompactCommand} instance.
+   */
+  public HistoryCompactCommand withKubeConfigContents(String kubeConfigContents) {
+    this.kubeConfigContents = kubeConfigContents;
+    return this;
+  }
+}
@@ -19,12 +19,16 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.InstallOptions;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static com.marcnuri.helm.Release.parseSingle;
 
@@ -49,6 +53,7 @@ public class InstallCommand extends HelmCommand<Release> {
   private String description;
   private boolean devel;
   private boolean dependencyUpdate;
+  private int dependencyRefreshTtl;
   private boolean disableOpenApiValidation;
   private boolean dryRun;
   private DryRun dryRunOption;
@@ -69,6 +74,10 @@ public class InstallCommand extends HelmCommand<Release> {
   private boolean debug;
   private boolean clientOnly;
   private Path repositoryConfig;
+  private Function<RenderedManifests, RenderedManifests> postRenderer;
+  private ChartArchive chartArchive;
+  private WaitStrategy waitStrategy;
+  private Consumer<WaitEvent> waitListener;
 
   public InstallCommand(HelmLib helmLib) {
     this(helmLib, null);
@@ -84,40 +93,52 @@ public class InstallCommand extends HelmCommand<Release> {
 
   @Override
   public Release call() {
-    return parseSingle(run(hl -> hl.Install(new InstallOptions(
-      name,
-      toInt(generateName),
-      nameTemplate,
-      version,
-      chart,
-      namespace,
-      kubeVersion,
-      toInt(atomic),
-      toInt(createNamespace),
-      description,
-      toInt(devel),
-      toInt(dependencyUpdate),
-      toInt(disableOpenApiValidation),
-      toInt(dryRun),
-      dryRunOption == null ? null : dryRunOption.name().toLowerCase(Locale.ROOT),
-      toInt(skipCrds),
-      toInt(wait),
-      timeout,
-      urlEncode(values),
-      urlEncode(toStringValues(fileValues)),
-      toString(valuesFiles),
-      toString(kubeConfig),
-      kubeConfigContents,
-      toString(certFile),
-      toString(keyFile),
-      toString(caFile),
-      toInt(insecureSkipTlsVerify),
-      toInt(plainHttp),
-      toString(keyring),
-      toInt(debug),
-      toInt(clientOnly),
-      toString(repositoryConfig)
-    ))));
+    final NativePostRenderer nativePostRenderer = NativePostRenderer.of(postRenderer);
+    final NativeWaitListener nativeWaitListener = NativeWaitListener.of(waitListener);
+    try {
+      return parseSingle(run(hl -> hl.Install(new InstallOptions(
+        name,
+        toInt(generateName),
+        nameTemplate,
+        version,
+        chart,
+        namespace,
+        kubeVersion,
+        toInt(atomic),
+        toInt(createNamespace),
+        description,
+        toInt(devel),
+        toInt(dependencyUpdate),
+        toInt(disableOpenApiValidation),
+        toInt(dryRun),
+        dryRunOption == null ? null : dryRunOption.name().toLowerCase(Locale.ROOT),
+        toInt(skipCrds),
+        toInt(wait),
+        timeout,
+        urlEncode(values),
+        urlEncode(toStringValues(fileValues)),
+        toString(valuesFiles),
+        toString(kubeConfig),
+        kubeConfigContents,
+        toString(certFile),
+        toString(keyFile),
+        toString(caFile),
+        toInt(insecureSkipTlsVerify),
+        toInt(plainHttp),
+        toString(keyring),
+        toInt(debug),
+        toInt(clientOnly),
+        toString(repositoryConfig),
+        nativePostRenderer,
+        ChartArchive.pointer(chartArchive),
+        ChartArchive.size(chartArchive),
+        dependencyRefreshTtl,
+        waitStrategy == null ? null : waitStrategy.name().toLowerCase(Locale.ROOT),
+        nativeWaitListener
+      ))));
+    } catch (IllegalStateException ex) {
+      throw NativeWaitListener.withCause(nativeWaitListener, NativePostRenderer.withCause(nativePostRenderer, ex));
+    }
   }
 
   /**
@@ -178,6 +199,46 @@ public class InstallCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * In-memory chart archive (.tgz) to install.
+   * <p>
+   * The archive is loaded by the native library without being written to disk, it takes precedence over any
+   * chart path or reference.
+   *
+   * @param chartArchive the chart archive bytes.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withChartArchive(byte[] chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to install.
+   * <p>
+   * The remaining bytes of the buffer are used, direct buffers are shared with the native library without copying.
+   *
+   * @param chartArchive the buffer containing the chart archive.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withChartArchive(ByteBuffer chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to install.
+   * <p>
+   * The stream is fully read (but not closed) when this method is invoked.
+   *
+   * @param chartArchive the stream providing the chart archive.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withChartArchive(InputStream chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
   /**
    * Kubernetes namespace scope for this request.
    *
@@ -258,6 +319,21 @@ public class InstallCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * Time to live (in seconds) of the repository indexes when updating the dependencies ({@link #dependencyUpdate()}).
+   * <p>
+   * Repositories refreshed within this window (by any command or process) aren't refreshed again,
+   * stale repositories are refreshed using conditional requests when supported.
+   * By default, the repositories are always refreshed.
+   *
+   * @param dependencyRefreshTtl the repository refresh time to live in seconds.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withDependencyRefreshTtl(int dependencyRefreshTtl) {
+    this.dependencyRefreshTtl = dependencyRefreshTtl;
+    return this;
+  }
+
   /**
    * The installation process will not validate rendered templates against the Kubernetes OpenAPI Schema.
    *
@@ -326,6 +402,32 @@ public class InstallCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * Strategy used to wait for the release resources when {@link #waitReady()} (or {@link #atomic()}) is set
+   * (default {@link WaitStrategy#LEGACY}).
+   *
+   * @param waitStrategy the {@link WaitStrategy}.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Listener notified with each resource status change while waiting for the release resources.
+   * <p>
+   * Only supported by the {@link WaitStrategy#WATCHER} strategy, the listener is never invoked concurrently.
+   * The wait is aborted if the listener throws an exception.
+   *
+   * @param waitListener the {@link WaitEvent} listener.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withWaitListener(Consumer<WaitEvent> waitListener) {
+    this.waitListener = waitListener;
+    return this;
+  }
+
   /**
    * Set values for the chart.
    *
@@ -485,4 +587,18 @@ public class InstallCommand extends HelmCommand<Release> {
     this.repositoryConfig = repositoryConfig;
     return this;
   }
+
+  /**
+   * Post-process the rendered manifests before they are installed.
+   * <p>
+   * The post-renderer runs in-process, it receives the rendered manifests and must return the (modified) manifests.
+   * The provided {@link RenderedManifests} is only valid for the duration of the invocation.
+   *
+   * @param postRenderer the function to post-process the rendered manifests.
+   * @return this {@link InstallCommand} instance.
+   */
+  public InstallCommand withPostRenderer(Function<RenderedManifests, RenderedManifests> postRenderer) {
+    this.postRenderer = postRenderer;
+    return this;
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.ArchiveWriter;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Bridges a Java {@link OutputStream} with the native archive writer callback.
+ * <p>
+ * Each chunk is copied straight from native memory into the stream, the archive is never written to disk.
+ *
+ * @author Marc Nuri
+ */
+final class NativeArchiveWriter implements ArchiveWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream outputStream;
+  private final byte[] buffer;
+  private IOException exception;
+
+  NativeArchiveWriter(OutputStream outputStream) {
+    this.outputStream = outputStream;
+    this.buffer = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public int invoke(Pointer data, int length) {
+    try {
+      for (int offset = 0; offset < length; offset += buffer.length) {
+        final int chunk = Math.min(buffer.length, length - offset);
+        data.read(offset, buffer, 0, chunk);
+        outputStream.write(buffer, 0, chunk);
+      }
+      return 0;
+    } catch (IOException ex) {
+      exception = ex;
+      return 1;
+    }
+  }
+
+  /**
+   * Sets the stream failure (if any) as the cause of the provided command failure.
+   *
+   * @param ex the command failure.
+   * @return the provided command failure.
+   */
+  IllegalStateException withCause(IllegalStateException ex) {
+    if (exception != null && ex.getCause() == null) {
+      ex.initCause(new UncheckedIOException("Unable to write chart archive", exception));
+    }
+    return ex;
+  }
+}
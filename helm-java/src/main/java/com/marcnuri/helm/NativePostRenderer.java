@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.PostRenderer;
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * Bridges a Java post-renderer function with the native post-renderer callback.
+ * <p>
+ * The rendered manifests are exposed to the function without copying them into the Java heap.
+ * The returned manifests are kept in native memory owned by this instance until it's garbage collected,
+ * which can't happen before the native command completes since the options structure references it.
+ *
+ * @author Marc Nuri
+ */
+final class NativePostRenderer implements PostRenderer {
+
+  private final Function<RenderedManifests, RenderedManifests> postRenderer;
+  private Memory result;
+  private RuntimeException exception;
+
+  private NativePostRenderer(Function<RenderedManifests, RenderedManifests> postRenderer) {
+    this.postRenderer = postRenderer;
+  }
+
+  static NativePostRenderer of(Function<RenderedManifests, RenderedManifests> postRenderer) {
+    return postRenderer == null ? null : new NativePostRenderer(postRenderer);
+  }
+
+  @Override
+  public Pointer invoke(Pointer manifests, int length, Pointer resultLength) {
+    try {
+      final ByteBuffer source = length == 0 ? ByteBuffer.allocate(0) : manifests.getByteBuffer(0, length);
+      final RenderedManifests rendered = postRenderer.apply(RenderedManifests.of(source.asReadOnlyBuffer()));
+      if (rendered == null) {
+        throw new IllegalStateException("Post-renderer returned no manifests");
+      }
+      final ByteBuffer output = rendered.getBuffer();
+      final int size = output.remaining();
+      // Memory can't be zero-sized, the native side relies on resultLength anyway
+      result = new Memory(Math.max(size, 1));
+      result.getByteBuffer(0, Math.max(size, 1)).put(output);
+      resultLength.setInt(0, size);
+      return result;
+    } catch (RuntimeException ex) {
+      exception = ex;
+      return null;
+    }
+  }
+
+  /**
+   * Sets the post-renderer failure (if any) as the cause of the provided command failure.
+   *
+   * @param nativePostRenderer the post-renderer used by the command (might be null).
+   * @param ex the command failure.
+   * @return the provided command failure.
+   */
+  static IllegalStateException withCause(NativePostRenderer nativePostRenderer, IllegalStateException ex) {
+    if (nativePostRenderer != null && nativePostRenderer.exception != null && ex.getCause() == null) {
+      ex.initCause(nativePostRenderer.exception);
+    }
+    return ex;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.ReleaseSetConsumer;
+
+import java.util.function.Consumer;
+
+/**
+ * Bridges a Java {@link ReleaseOutcome} consumer with the native release set consumer callback.
+ *
+ * @author Marc Nuri
+ */
+final class NativeReleaseSetConsumer implements ReleaseSetConsumer {
+
+  private final Consumer<ReleaseOutcome> consumer;
+  private RuntimeException exception;
+
+  NativeReleaseSetConsumer(Consumer<ReleaseOutcome> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public int invoke(String outcome) {
+    try {
+      consumer.accept(ReleaseOutcome.parse(outcome));
+      return 0;
+    } catch (RuntimeException ex) {
+      exception = ex;
+      return 1;
+    }
+  }
+
+  /**
+   * Sets the consumer failure (if any) as the cause of the provided command failure.
+   *
+   * @param ex the command failure.
+   * @return the provided command failure.
+   */
+  IllegalStateException withCause(IllegalStateException ex) {
+    if (exception != null && ex.getCause() == null) {
+      ex.initCause(exception);
+    }
+    return ex;
+  }
+}
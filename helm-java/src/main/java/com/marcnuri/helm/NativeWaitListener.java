@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.WaitListener;
+
+import java.util.function.Consumer;
+
+/**
+ * Bridges a Java {@link WaitEvent} listener with the native wait listener callback.
+ *
+ * @author Marc Nuri
+ */
+final class NativeWaitListener implements WaitListener {
+
+  private final Consumer<WaitEvent> listener;
+  private RuntimeException exception;
+
+  private NativeWaitListener(Consumer<WaitEvent> listener) {
+    this.listener = listener;
+  }
+
+  static NativeWaitListener of(Consumer<WaitEvent> listener) {
+    return listener == null ? null : new NativeWaitListener(listener);
+  }
+
+  @Override
+  public int invoke(String event) {
+    try {
+      listener.accept(WaitEvent.parse(event));
+      return 0;
+    } catch (RuntimeException ex) {
+      exception = ex;
+      return 1;
+    }
+  }
+
+  /**
+   * Sets the listener failure (if any) as the cause of the provided command failure.
+   *
+   * @param nativeWaitListener the wait listener used by the command (might be null).
+   * @param ex the command failure.
+   * @return the provided command failure.
+   */
+  static IllegalStateException withCause(NativeWaitListener nativeWaitListener, IllegalStateException ex) {
+    if (nativeWaitListener != null && nativeWaitListener.exception != null && ex.getCause() == null) {
+      ex.initCause(nativeWaitListener.exception);
+    }
+    return ex;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.PackageAllOptions;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Marc Nuri
+ */
+public class PackageAllCommand extends HelmCommand<List<PackageResult>> {
+
+  private final List<Path> charts;
+  private Path destination;
+  private int concurrency;
+
+  public PackageAllCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.charts = new ArrayList<>();
+  }
+
+  /**
+   * Execute the package command.
+   * <p>
+   * The charts are packaged concurrently, large chart archives are compressed in parallel too.
+   * The archives are reproducible, packaging the same chart always produces the same bytes (and digest).
+   * Failures are reported per chart in the returned {@link PackageResult}s.
+   *
+   * @return a {@link List} of {@link PackageResult} (one per chart, in the same order).
+   */
+  @Override
+  public List<PackageResult> call() {
+    return PackageResult.parse(run(hl -> hl.PackageAll(new PackageAllOptions(
+      charts.stream().map(c -> c.normalize().toFile().getAbsolutePath()).collect(Collectors.joining("\n")),
+      toString(destination),
+      concurrency
+    ))));
+  }
+
+  /**
+   * Location of a chart directory to package.
+   * <p>
+   * Can be invoked multiple times to package several charts at once.
+   *
+   * @param chart the path to the chart directory.
+   * @return this {@link PackageAllCommand} instance.
+   */
+  public PackageAllCommand withChart(Path chart) {
+    this.charts.add(chart);
+    return this;
+  }
+
+  /**
+   * Location to write the charts (default ".").
+   *
+   * @param destination a {@link Path} with the location for the new packages.
+   * @return this {@link PackageAllCommand} instance.
+   */
+  public PackageAllCommand withDestination(Path destination) {
+    this.destination = destination;
+    return this;
+  }
+
+  /**
+   * Maximum number of charts packaged in parallel (default 4).
+   * <p>
+   * Workers not used by any chart help compressing the large chart archives.
+   *
+   * @param concurrency the maximum number of concurrent workers.
+   * @return this {@link PackageAllCommand} instance.
+   */
+  public PackageAllCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+}
@@ -19,6 +19,9 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.PackageOptions;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -58,6 +61,48 @@ public class PackageCommand extends HelmCommand<Helm> {
     return helm;
   }
 
+  /**
+   * Execute the package command writing the chart archive to the provided stream instead of the destination.
+   * <p>
+   * The archive is streamed by the native library as it's being compressed, no files are written.
+   * The stream is not closed. Signing is not supported.
+   *
+   * @param outputStream the stream to write the chart archive to.
+   * @return the {@link PackagedChart} with the details of the chart archive.
+   */
+  public PackagedChart writeTo(OutputStream outputStream) {
+    return packageArchive(outputStream, null);
+  }
+
+  /**
+   * Execute the package command keeping the chart archive in memory instead of writing it to the destination.
+   * <p>
+   * Signing is not supported.
+   *
+   * @return the {@link PackagedChart} with the details and contents ({@link PackagedChart#getArchive()}) of the chart archive.
+   */
+  public PackagedChart toMemory() {
+    final ArchiveOutputStream archive = new ArchiveOutputStream();
+    return packageArchive(archive, archive);
+  }
+
+  private PackagedChart packageArchive(OutputStream outputStream, ArchiveOutputStream archive) {
+    final NativeArchiveWriter archiveWriter = new NativeArchiveWriter(outputStream);
+    try {
+      return PackagedChart.parse(run(hl -> hl.Package(new PackageOptions(
+        path.normalize().toFile().getAbsolutePath(),
+        null,
+        toInt(sign),
+        key,
+        toString(keyring),
+        toString(passphraseFile),
+        archiveWriter
+      ))), archive == null ? null : archive.toByteBuffer());
+    } catch (IllegalStateException ex) {
+      throw archiveWriter.withCause(ex);
+    }
+  }
+
   /**
    * Location to write the chart  (default ".").
    *
@@ -113,4 +158,12 @@ public class PackageCommand extends HelmCommand<Helm> {
     this.passphraseFile = passphraseFile;
     return this;
   }
+
+  private static final class ArchiveOutputStream extends ByteArrayOutputStream {
+
+    // Exposes the written bytes without copying them
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class PackageResult {
+
+  private final Path chart;
+  private final String name;
+  private final String version;
+  private final Path archive;
+  private final String digest;
+  private final long size;
+  private final Duration duration;
+  private final String error;
+
+  public PackageResult(
+    Path chart, String name, String version, Path archive, String digest, long size, Duration duration, String error
+  ) {
+    this.chart = chart;
+    this.name = name;
+    this.version = version;
+    this.archive = archive;
+    this.digest = digest;
+    this.size = size;
+    this.duration = duration;
+    this.error = error;
+  }
+
+  public Path getChart() {
+    return chart;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * The location of the packaged chart archive (.tgz).
+   *
+   * @return the path to the chart archive, or null if the packaging failed.
+   */
+  public Path getArchive() {
+    return archive;
+  }
+
+  /**
+   * The digest of the chart archive (e.g. sha256:0123...).
+   *
+   * @return the digest of the chart archive, or null if the packaging failed.
+   */
+  public String getDigest() {
+    return digest;
+  }
+
+  /**
+   * The size of the chart archive.
+   *
+   * @return the number of bytes of the chart archive, or 0 if the packaging failed.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<PackageResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<PackageResult> packageResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      final String archive = entries.get("archive");
+      packageResults.add(new PackageResult(
+        Paths.get(entries.get("path")),
+        entries.get("name"),
+        entries.get("version"),
+        archive == null ? null : Paths.get(archive),
+        entries.get("digest"),
+        Long.parseLong(entries.getOrDefault("size", "0")),
+        Duration.ofMillis(Long.parseLong(entries.getOrDefault("durationMillis", "0"))),
+        entries.get("error")
+      ));
+    }
+    return packageResults;
+  }
+}
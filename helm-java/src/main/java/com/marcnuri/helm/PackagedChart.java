@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * Chart archive packaged by the native library into a stream or memory.
+ *
+ * @author Marc Nuri
+ */
+public class PackagedChart {
+
+  private final String name;
+  private final String version;
+  private final String digest;
+  private final long size;
+  private final ByteBuffer archive;
+
+  public PackagedChart(String name, String version, String digest, long size, ByteBuffer archive) {
+    this.name = name;
+    this.version = version;
+    this.digest = digest;
+    this.size = size;
+    this.archive = archive;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * The digest of the chart archive (e.g. sha256:0123...).
+   * <p>
+   * This is the same digest the chart archive layer gets when pushed to an OCI registry.
+   *
+   * @return the digest of the chart archive.
+   */
+  public String getDigest() {
+    return digest;
+  }
+
+  /**
+   * The size of the chart archive.
+   *
+   * @return the number of bytes of the chart archive.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * The chart archive (.tgz) contents.
+   * <p>
+   * The buffer can be provided to {@link PushCommand#withChartArchive(ByteBuffer)} to push the chart
+   * without writing it to disk.
+   *
+   * @return the chart archive, or null if the chart was packaged into a stream.
+   */
+  public ByteBuffer getArchive() {
+    return archive;
+  }
+
+  static PackagedChart parse(Result result, ByteBuffer archive) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<Map<String, String>> lines = parseUrlEncodedLines(result.out);
+    if (lines.isEmpty()) {
+      throw new IllegalStateException("Package returned no chart archive details");
+    }
+    final Map<String, String> entries = lines.get(0);
+    return new PackagedChart(
+      entries.get("name"),
+      entries.get("version"),
+      entries.get("digest"),
+      Long.parseLong(entries.getOrDefault("size", "0")),
+      archive
+    );
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.PullOptions;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author Marc Nuri
+ */
+public class PullCommand extends HelmCommand<List<PullResult>> {
+
+  private final List<Map<String, String>> charts;
+  private Path destination;
+  private boolean untar;
+  private Path untarDir;
+  private boolean verify;
+  private Path keyring;
+  private boolean devel;
+  private String username;
+  private String password;
+  private Path certFile;
+  private Path keyFile;
+  private Path caFile;
+  private boolean insecureSkipTlsVerify;
+  private boolean plainHttp;
+  private int concurrency;
+  private Path repositoryConfig;
+
+  public PullCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.charts = new ArrayList<>();
+  }
+
+  /**
+   * Execute the pull command.
+   * <p>
+   * The charts are downloaded concurrently, failures are reported per chart in the returned {@link PullResult}s.
+   *
+   * @return a {@link List} of {@link PullResult} (one per requested chart, in the same order).
+   */
+  @Override
+  public List<PullResult> call() {
+    return PullResult.parse(run(hl -> hl.Pull(new PullOptions(
+      charts.stream().map(HelmCommand::urlEncode).collect(Collectors.joining("\n")),
+      toString(destination),
+      toInt(untar),
+      toString(untarDir),
+      toInt(verify),
+      toString(keyring),
+      toInt(devel),
+      username,
+      password,
+      toString(certFile),
+      toString(keyFile),
+      toString(caFile),
+      toInt(insecureSkipTlsVerify),
+      toInt(plainHttp),
+      concurrency,
+      toString(repositoryConfig)
+    ))));
+  }
+
+  /**
+   * Chart to pull (latest version).
+   * <p>
+   * Can be invoked multiple times to pull several charts at once.
+   *
+   * @param chart the chart reference (repo/name, URL, or OCI reference).
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withChart(String chart) {
+    return withChart(chart, null);
+  }
+
+  /**
+   * Chart to pull.
+   * <p>
+   * Can be invoked multiple times to pull several charts at once.
+   *
+   * @param chart   the chart reference (repo/name, URL, or OCI reference).
+   * @param version the version constraint (e.g. 1.1.1 or ^2.0.0), latest if null.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withChart(String chart, String version) {
+    final Map<String, String> entry = new LinkedHashMap<>();
+    entry.put("chart", chart);
+    if (version != null) {
+      entry.put("version", version);
+    }
+    this.charts.add(entry);
+    return this;
+  }
+
+  /**
+   * Location to write the charts to (defaults to the current directory).
+   *
+   * @param destination the path to the destination directory.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withDestination(Path destination) {
+    this.destination = destination;
+    return this;
+  }
+
+  /**
+   * Expand the charts after downloading them (the archives are not kept).
+   *
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand untar() {
+    this.untar = true;
+    return this;
+  }
+
+  /**
+   * Directory into which the charts are expanded if {@link #untar()} is enabled.
+   * <p>
+   * Relative paths are resolved against the destination directory.
+   *
+   * @param untarDir the path to the untar directory.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withUntarDir(Path untarDir) {
+    this.untarDir = untarDir;
+    return this;
+  }
+
+  /**
+   * Verify the packages against their signatures before using them.
+   *
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand verify() {
+    this.verify = true;
+    return this;
+  }
+
+  /**
+   * Location of the public keys used for verification.
+   *
+   * @param keyring a {@link Path} with the keyring location.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withKeyring(Path keyring) {
+    this.keyring = keyring;
+    return this;
+  }
+
+  /**
+   * Use development versions, too. Equivalent to version '&gt;0.0.0-0'.
+   * <p>
+   * Only applies to charts with no version constraint.
+   *
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand devel() {
+    this.devel = true;
+    return this;
+  }
+
+  /**
+   * Chart repository username where to locate the requested charts.
+   *
+   * @param username the repository username.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withUsername(String username) {
+    this.username = username;
+    return this;
+  }
+
+  /**
+   * Chart repository password where to locate the requested charts.
+   *
+   * @param password the repository password.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withPassword(String password) {
+    this.password = password;
+    return this;
+  }
+
+  /**
+   * Identify registry client using this SSL certificate file.
+   *
+   * @param certFile the path to the certificate file.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withCertFile(Path certFile) {
+    this.certFile = certFile;
+    return this;
+  }
+
+  /**
+   * Identify registry client using this SSL key file.
+   *
+   * @param keyFile the path to the key file.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withKeyFile(Path keyFile) {
+    this.keyFile = keyFile;
+    return this;
+  }
+
+  /**
+   * Verify certificates of HTTPS-enabled servers using this CA bundle.
+   *
+   * @param caFile the path to the CA bundle file.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withCaFile(Path caFile) {
+    this.caFile = caFile;
+    return this;
+  }
+
+  /**
+   * Skip TLS certificate checks of HTTPS-enabled servers.
+   *
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand insecureSkipTlsVerify() {
+    this.insecureSkipTlsVerify = true;
+    return this;
+  }
+
+  /**
+   * Allow insecure plain HTTP connections for the chart download.
+   *
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand plainHttp() {
+    this.plainHttp = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of charts downloaded concurrently (defaults to 4).
+   *
+   * @param concurrency the maximum number of concurrent downloads.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Path to the file containing repository names and URLs
+   * (default "~/.config/helm/repositories.yaml")
+   *
+   * @param repositoryConfig a {@link Path} to the repository configuration file.
+   * @return this {@link PullCommand} instance.
+   */
+  public PullCommand withRepositoryConfig(Path repositoryConfig) {
+    this.repositoryConfig = repositoryConfig;
+    return this;
+  }
+}
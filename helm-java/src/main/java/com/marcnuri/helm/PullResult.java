@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class PullResult {
+
+  private final String chart;
+  private final String version;
+  private final Path path;
+  private final long bytes;
+  private final Duration duration;
+  private final String error;
+
+  public PullResult(String chart, String version, Path path, long bytes, Duration duration, String error) {
+    this.chart = chart;
+    this.version = version;
+    this.path = path;
+    this.bytes = bytes;
+    this.duration = duration;
+    this.error = error;
+  }
+
+  public String getChart() {
+    return chart;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * The location of the pulled chart archive (or of the expanded chart directory if untar was requested).
+   *
+   * @return the path of the pulled chart, or null if the pull failed.
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * The number of bytes transferred (size of the chart archive).
+   *
+   * @return the number of bytes transferred.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<PullResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<PullResult> pullResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      final String path = entries.get("path");
+      pullResults.add(new PullResult(
+        entries.get("chart"),
+        entries.getOrDefault("version", ""),
+        path == null ? null : Paths.get(path),
+        Long.parseLong(entries.getOrDefault("bytes", "0")),
+        Duration.ofMillis(Long.parseLong(entries.getOrDefault("durationMillis", "0"))),
+        entries.get("error")
+      ));
+    }
+    return pullResults;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.PushAllOptions;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author Marc Nuri
+ */
+public class PushAllCommand extends HelmCommand<List<PushResult>> {
+
+  private final List<Map<String, String>> charts;
+  private URI remote;
+  private Path certFile;
+  private Path keyFile;
+  private Path caFile;
+  private boolean insecureSkipTlsVerify;
+  private boolean plainHttp;
+  private int concurrency;
+
+  public PushAllCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.charts = new ArrayList<>();
+  }
+
+  /**
+   * Execute the push command.
+   * <p>
+   * The charts are uploaded concurrently sharing a single registry client, blobs already present in the registry
+   * are not uploaded again.
+   * Failures are reported per chart in the returned {@link PushResult}s.
+   *
+   * @return a {@link List} of {@link PushResult} (one per chart, in the same order).
+   */
+  @Override
+  public List<PushResult> call() {
+    return PushResult.parse(run(hl -> hl.PushAll(new PushAllOptions(
+      charts.stream().map(HelmCommand::urlEncode).collect(Collectors.joining("\n")),
+      toString(remote),
+      toString(certFile),
+      toString(keyFile),
+      toString(caFile),
+      toInt(insecureSkipTlsVerify),
+      toInt(plainHttp),
+      concurrency
+    ))));
+  }
+
+  /**
+   * Location of a packaged chart (.tgz) to push to the default remote ({@link #withRemote(URI)}).
+   * <p>
+   * Can be invoked multiple times to push several charts at once.
+   *
+   * @param chart the path to the packaged chart.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withChart(Path chart) {
+    return withChart(chart, null);
+  }
+
+  /**
+   * Location of a packaged chart (.tgz) to push and the remote to push it to.
+   * <p>
+   * Can be invoked multiple times to push several charts at once.
+   *
+   * @param chart  the path to the packaged chart.
+   * @param remote the URI of the remote chart repository, the default remote if null.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withChart(Path chart, URI remote) {
+    final Map<String, String> entry = new LinkedHashMap<>();
+    entry.put("chart", chart.normalize().toFile().getAbsolutePath());
+    if (remote != null) {
+      entry.put("remote", remote.toString());
+    }
+    this.charts.add(entry);
+    return this;
+  }
+
+  /**
+   * The URI of the remote chart repository for the charts that don't specify one.
+   *
+   * @param remote the URI of the remote chart repository.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withRemote(URI remote) {
+    this.remote = remote;
+    return this;
+  }
+
+  /**
+   * Identify registry client using this SSL certificate file.
+   *
+   * @param certFile the path to the certificate file.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withCertFile(Path certFile) {
+    this.certFile = certFile;
+    return this;
+  }
+
+  /**
+   * Identify registry client using this SSL key file.
+   *
+   * @param keyFile the path to the key file.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withKeyFile(Path keyFile) {
+    this.keyFile = keyFile;
+    return this;
+  }
+
+  /**
+   * Verify certificates of HTTPS-enabled servers using this CA bundle.
+   *
+   * @param caFile the path to the CA bundle file.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withCaFile(Path caFile) {
+    this.caFile = caFile;
+    return this;
+  }
+
+  /**
+   * Skip TLS certificate checks of HTTPS-enabled servers.
+   *
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand insecureSkipTlsVerify() {
+    this.insecureSkipTlsVerify = true;
+    return this;
+  }
+
+  /**
+   * Allow insecure plain HTTP connections for the chart upload.
+   *
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand plainHttp() {
+    this.plainHttp = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of charts uploaded in parallel (default 4).
+   *
+   * @param concurrency the maximum number of concurrent uploads.
+   * @return this {@link PushAllCommand} instance.
+   */
+  public PushAllCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+}
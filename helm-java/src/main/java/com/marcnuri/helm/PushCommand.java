@@ -19,7 +19,9 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.PushOptions;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 /**
@@ -28,6 +30,7 @@ import java.nio.file.Path;
 public class PushCommand extends HelmCommand<String> {
 
   private Path chart;
+  private ChartArchive chartArchive;
   private URI remote;
   private Path certFile;
   private Path keyFile;
@@ -43,14 +46,16 @@ public class PushCommand extends HelmCommand<String> {
   @Override
   public String call() {
     return run(hl -> hl.Push(new PushOptions(
-      chart.normalize().toFile().getAbsolutePath(),
+      chart == null ? null : chart.normalize().toFile().getAbsolutePath(),
       toString(remote),
       toString(certFile),
       toString(keyFile),
       toString(caFile),
       toInt(insecureSkipTlsVerify),
       toInt(plainHttp),
-      toInt(debug)
+      toInt(debug),
+      ChartArchive.pointer(chartArchive),
+      ChartArchive.size(chartArchive)
     ))).out;
   }
 
@@ -65,6 +70,46 @@ public class PushCommand extends HelmCommand<String> {
     return this;
   }
 
+  /**
+   * In-memory chart archive (.tgz) to push.
+   * <p>
+   * The archive is pushed by the native library without being written to disk, it takes precedence over
+   * {@link #withChart(Path)}.
+   *
+   * @param chartArchive the chart archive bytes.
+   * @return this {@link PushCommand} instance.
+   */
+  public PushCommand withChartArchive(byte[] chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to push (e.g. {@link PackagedChart#getArchive()}).
+   * <p>
+   * The remaining bytes of the buffer are used, direct buffers are shared with the native library without copying.
+   *
+   * @param chartArchive the buffer containing the chart archive.
+   * @return this {@link PushCommand} instance.
+   */
+  public PushCommand withChartArchive(ByteBuffer chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to push.
+   * <p>
+   * The stream is fully read (but not closed) when this method is invoked.
+   *
+   * @param chartArchive the stream providing the chart archive.
+   * @return this {@link PushCommand} instance.
+   */
+  public PushCommand withChartArchive(InputStream chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
   /**
    * The URI of the remote chart repository.
    *
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class PushResult {
+
+  private final Path chart;
+  private final String ref;
+  private final String digest;
+  private final long bytes;
+  private final Duration duration;
+  private final String error;
+
+  public PushResult(Path chart, String ref, String digest, long bytes, Duration duration, String error) {
+    this.chart = chart;
+    this.ref = ref;
+    this.digest = digest;
+    this.bytes = bytes;
+    this.duration = duration;
+    this.error = error;
+  }
+
+  public Path getChart() {
+    return chart;
+  }
+
+  /**
+   * The reference the chart was pushed to (e.g. localhost:5000/helm-charts/chart:0.1.0).
+   *
+   * @return the reference of the pushed chart, or null if it couldn't be computed.
+   */
+  public String getRef() {
+    return ref;
+  }
+
+  /**
+   * The digest of the pushed manifest.
+   *
+   * @return the manifest digest, or null if the push failed.
+   */
+  public String getDigest() {
+    return digest;
+  }
+
+  /**
+   * The size of the chart archive.
+   *
+   * @return the number of bytes of the chart archive, or 0 if the push failed.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<PushResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<PushResult> pushResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      pushResults.add(new PushResult(
+        Paths.get(entries.get("chart")),
+        entries.get("ref"),
+        entries.get("digest"),
+        Long.parseLong(entries.getOrDefault("bytes", "0")),
+        Duration.ofMillis(Long.parseLong(entries.getOrDefault("durationMillis", "0"))),
+        entries.get("error")
+      ));
+    }
+    return pushResults;
+  }
+}
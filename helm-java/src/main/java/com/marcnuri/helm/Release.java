@@ -38,9 +38,10 @@ public class Release {
   private final String chart;
   private final String appVersion;
   private final String output;
+  private final boolean unchanged;
 
   @SuppressWarnings("java:S107")
-  private Release(String name, String namespace, String status, String revision, ZonedDateTime lastDeployed, String chart, String appVersion, String output) {
+  private Release(String name, String namespace, String status, String revision, ZonedDateTime lastDeployed, String chart, String appVersion, String output, boolean unchanged) {
     this.name = name;
     this.namespace = namespace;
     this.status = status;
@@ -49,6 +50,7 @@ public class Release {
     this.chart = chart;
     this.appVersion = appVersion;
     this.output = output;
+    this.unchanged = unchanged;
   }
 
   public String getName() {
@@ -83,6 +85,15 @@ public class Release {
     return output;
   }
 
+  /**
+   * Whether the upgrade was skipped because the release was unchanged (see {@link UpgradeCommand#skipUnchanged()}).
+   *
+   * @return true if the returned release is the already deployed revision, false otherwise.
+   */
+  public boolean isUnchanged() {
+    return unchanged;
+  }
+
   static Release parseSingle(Result result) {
     if (result == null) {
       throw new IllegalArgumentException("Result cannot be null");
@@ -99,7 +110,8 @@ public class Release {
       parse(extract(out, "LAST DEPLOYED")),
       extract(out, "CHART"),
       extract(out, "APP VERSION"),
-      out
+      out,
+      out.startsWith("UNCHANGED: true\n")
     );
   }
 
@@ -117,7 +129,8 @@ public class Release {
         parse(entries.get("lastDeployed")),
         entries.get("chart"),
         entries.get("appVersion"),
-        ""
+        "",
+        false
       ));
     }
     return releases;
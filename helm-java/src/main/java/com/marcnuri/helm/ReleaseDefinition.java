@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Definition of a release to install or upgrade as part of a {@link ReleaseSetCommand}.
+ *
+ * @author Marc Nuri
+ */
+public class ReleaseDefinition {
+
+  private final String name;
+  private final String chart;
+  private final Map<String, String> values;
+  private final List<Path> valuesFiles;
+  private final Set<String> dependsOn;
+  private String namespace;
+  private String version;
+  private String description;
+  private boolean createNamespace;
+  private boolean atomic;
+  private boolean wait;
+  private int timeout;
+  private boolean devel;
+
+  /**
+   * Creates a release definition.
+   *
+   * @param name  the release name.
+   * @param chart the chart reference (local path, repo/chart, URL, or OCI reference).
+   */
+  public ReleaseDefinition(String name, String chart) {
+    this.name = Objects.requireNonNull(name, "Name is required");
+    this.chart = Objects.requireNonNull(chart, "Chart is required");
+    this.values = new LinkedHashMap<>();
+    this.valuesFiles = new ArrayList<>();
+    this.dependsOn = new LinkedHashSet<>();
+  }
+
+  /**
+   * Creates a release definition for a local chart.
+   *
+   * @param name  the release name.
+   * @param chart the path to the chart directory or archive.
+   */
+  public ReleaseDefinition(String name, Path chart) {
+    this(name, HelmCommand.toString(Objects.requireNonNull(chart, "Chart is required")));
+  }
+
+  /**
+   * Kubernetes namespace scope for this release.
+   *
+   * @param namespace the Kubernetes namespace for this release.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition withNamespace(String namespace) {
+    this.namespace = namespace;
+    return this;
+  }
+
+  /**
+   * Specify a version constraint for the chart version to use.
+   *
+   * @param version the version to search for.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition withVersion(String version) {
+    this.version = version;
+    return this;
+  }
+
+  /**
+   * Release that must be deployed before this one.
+   * <p>
+   * Can be invoked multiple times to depend on several releases.
+   * This release is skipped if any of its dependencies fails or is skipped.
+   *
+   * @param release the release name (looked up in this release's namespace first) or namespace/name.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition dependsOn(String release) {
+    this.dependsOn.add(release);
+    return this;
+  }
+
+  /**
+   * Add a custom description.
+   *
+   * @param description the description.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition withDescription(String description) {
+    this.description = description;
+    return this;
+  }
+
+  /**
+   * Create the release namespace if not present.
+   *
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition createNamespace() {
+    this.createNamespace = true;
+    return this;
+  }
+
+  /**
+   * If set, the upgrade process rolls back changes made in case of failed upgrade.
+   * <p>
+   * The {@link #waitReady()} flag will be set automatically if used.
+   *
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition atomic() {
+    this.atomic = true;
+    return this;
+  }
+
+  /**
+   * Waits until all Pods are in a ready state, PVCs are bound, Deployments have minimum (Desired minus maxUnavailable)
+   * Pods in ready state and Services have an IP address (and Ingress if a LoadBalancer) before marking the release as
+   * successful.
+   * <p>
+   * Dependent releases are only started once this release is ready.
+   *
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition waitReady() {
+    this.wait = true;
+    return this;
+  }
+
+  /**
+   * Time (in seconds) to wait for any individual Kubernetes operation (like Jobs for hooks) (default 300).
+   *
+   * @param timeout the timeout in seconds.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition withTimeout(int timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Set values for the chart.
+   *
+   * @param key   the key.
+   * @param value the value for this key.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition set(String key, Object value) {
+    this.values.put(key, value == null ? "" : value.toString());
+    return this;
+  }
+
+  /**
+   * Adds a values (YAML) file to source values for the chart (can specify multiple).
+   *
+   * @param valuesFile the path to a values file.
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition withValuesFile(Path valuesFile) {
+    this.valuesFiles.add(valuesFile);
+    return this;
+  }
+
+  /**
+   * Use development versions, too. Equivalent to version '&gt;0.0.0-0'. If a version is set, this is ignored.
+   *
+   * @return this {@link ReleaseDefinition} instance.
+   */
+  public ReleaseDefinition devel() {
+    this.devel = true;
+    return this;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  String toUrlEncoded() {
+    final Map<String, String> encoded = new LinkedHashMap<>();
+    encoded.put("name", name);
+    encoded.put("chart", chart);
+    putIfNotEmpty(encoded, "namespace", namespace);
+    putIfNotEmpty(encoded, "version", version);
+    putIfNotEmpty(encoded, "description", description);
+    putIfNotEmpty(encoded, "values", HelmCommand.urlEncode(values));
+    putIfNotEmpty(encoded, "valuesFiles", HelmCommand.toString(valuesFiles));
+    putIfNotEmpty(encoded, "dependsOn", String.join(",", dependsOn));
+    if (timeout > 0) {
+      encoded.put("timeout", String.valueOf(timeout));
+    }
+    encoded.put("createNamespace", String.valueOf(createNamespace));
+    encoded.put("atomic", String.valueOf(atomic));
+    encoded.put("wait", String.valueOf(wait));
+    encoded.put("devel", String.valueOf(devel));
+    return HelmCommand.urlEncode(encoded);
+  }
+
+  private static void putIfNotEmpty(Map<String, String> map, String key, String value) {
+    if (value != null && !value.isEmpty()) {
+      map.put(key, value);
+    }
+  }
+}
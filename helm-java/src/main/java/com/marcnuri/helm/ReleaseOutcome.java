@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * Outcome of a release processed by the {@link ReleaseSetCommand}.
+ *
+ * @author Marc Nuri
+ */
+public class ReleaseOutcome {
+
+  public static final String DEPLOYED = "deployed";
+  public static final String FAILED = "failed";
+  public static final String SKIPPED = "skipped";
+
+  private final String name;
+  private final String namespace;
+  private final String status;
+  private final int revision;
+  private final int wave;
+  private final long startedMillis;
+  private final long durationMillis;
+  private final int completed;
+  private final int total;
+  private final String error;
+
+  public ReleaseOutcome(String name, String namespace, String status, int revision, int wave, long startedMillis,
+    long durationMillis, int completed, int total, String error) {
+    this.name = name;
+    this.namespace = namespace;
+    this.status = status;
+    this.revision = revision;
+    this.wave = wave;
+    this.startedMillis = startedMillis;
+    this.durationMillis = durationMillis;
+    this.completed = completed;
+    this.total = total;
+    this.error = error;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  /**
+   * The release status, one of {@link #DEPLOYED}, {@link #FAILED}, or {@link #SKIPPED}.
+   *
+   * @return the release status.
+   */
+  public String getStatus() {
+    return status;
+  }
+
+  /**
+   * The revision of the deployed (or failed) release.
+   *
+   * @return the release revision, or 0 if the release wasn't processed.
+   */
+  public int getRevision() {
+    return revision;
+  }
+
+  /**
+   * The topological level of the release (0 for releases without dependencies).
+   *
+   * @return the release wave.
+   */
+  public int getWave() {
+    return wave;
+  }
+
+  /**
+   * The time the release processing started (milliseconds since the epoch).
+   *
+   * @return the start time, or 0 if the release was skipped.
+   */
+  public long getStartedMillis() {
+    return startedMillis;
+  }
+
+  /**
+   * The time the release processing took (excluding the time waiting for its dependencies).
+   *
+   * @return the duration in milliseconds.
+   */
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * The number of releases processed so far (including this one).
+   *
+   * @return the number of processed releases.
+   */
+  public int getCompleted() {
+    return completed;
+  }
+
+  /**
+   * The total number of releases in the set.
+   *
+   * @return the total number of releases.
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return DEPLOYED.equals(status);
+  }
+
+  static ReleaseOutcome parse(String outcome) {
+    final Map<String, String> values = parseUrlEncodedLines(outcome).stream().findFirst()
+      .orElseThrow(() -> new IllegalArgumentException("Release outcome cannot be empty"));
+    return new ReleaseOutcome(
+      values.get("name"),
+      values.get("namespace"),
+      values.get("status"),
+      Integer.parseInt(values.getOrDefault("revision", "0")),
+      Integer.parseInt(values.getOrDefault("wave", "0")),
+      Long.parseLong(values.getOrDefault("startedMillis", "0")),
+      Long.parseLong(values.getOrDefault("durationMillis", "0")),
+      Integer.parseInt(values.getOrDefault("completed", "0")),
+      Integer.parseInt(values.getOrDefault("total", "0")),
+      values.get("error")
+    );
+  }
+}
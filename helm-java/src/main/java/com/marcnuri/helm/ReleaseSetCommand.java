@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.ReleaseSetOptions;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * @author Marc Nuri
+ */
+public class ReleaseSetCommand extends HelmCommand<List<ReleaseOutcome>> {
+
+  private final List<ReleaseDefinition> releases;
+  private int concurrency;
+  private boolean failFast;
+  private Path kubeConfig;
+  private String kubeConfigContents;
+  private Path repositoryConfig;
+  private Consumer<ReleaseOutcome> listener;
+
+  public ReleaseSetCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.releases = new ArrayList<>();
+  }
+
+  /**
+   * Execute the release set command.
+   * <p>
+   * Each release is installed or upgraded as soon as all of its dependencies are deployed, bounded by the
+   * configured concurrency. The Kubernetes clients are shared per namespace and each distinct chart is
+   * located (downloaded) only once.
+   * Failures are reported per release, the dependents of a failed release are skipped (or every pending
+   * release if {@link #failFast()} is enabled).
+   * The release set stops (the in-flight releases complete) if the listener throws an exception.
+   *
+   * @return a {@link List} of {@link ReleaseOutcome} (one per release, in completion order).
+   */
+  @Override
+  public List<ReleaseOutcome> call() {
+    final List<ReleaseOutcome> outcomes = new ArrayList<>();
+    final NativeReleaseSetConsumer nativeConsumer = new NativeReleaseSetConsumer(outcome -> {
+      outcomes.add(outcome);
+      if (listener != null) {
+        listener.accept(outcome);
+      }
+    });
+    try {
+      run(hl -> hl.ReleaseSet(new ReleaseSetOptions(
+        releases.stream().map(ReleaseDefinition::toUrlEncoded).collect(Collectors.joining("\n")),
+        concurrency,
+        toInt(failFast),
+        toString(kubeConfig),
+        kubeConfigContents,
+        toString(repositoryConfig),
+        nativeConsumer
+      )));
+      return Collections.unmodifiableList(outcomes);
+    } catch (IllegalStateException ex) {
+      throw nativeConsumer.withCause(ex);
+    }
+  }
+
+  /**
+   * Release to install or upgrade as part of the set.
+   * <p>
+   * Can be invoked multiple times to add several releases.
+   *
+   * @param release the {@link ReleaseDefinition}.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withRelease(ReleaseDefinition release) {
+    this.releases.add(release);
+    return this;
+  }
+
+  /**
+   * Maximum number of releases processed in parallel (default 4).
+   *
+   * @param concurrency the maximum number of concurrent releases.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Skip every pending release after the first failure.
+   * <p>
+   * By default, only the releases that depend (directly or transitively) on a failed release are skipped.
+   *
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand failFast() {
+    this.failFast = true;
+    return this;
+  }
+
+  /**
+   * Set the path to the ~/.kube/config file to use.
+   *
+   * @param kubeConfig the path to kube config file.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withKubeConfig(Path kubeConfig) {
+    this.kubeConfig = kubeConfig;
+    return this;
+  }
+
+  /**
+   * Set the kube config to use.
+   *
+   * @param kubeConfigContents the contents of the kube config file.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withKubeConfigContents(String kubeConfigContents) {
+    this.kubeConfigContents = kubeConfigContents;
+    return this;
+  }
+
+  /**
+   * Path to the file containing repository names and URLs (default "~/.config/helm/repositories.yaml").
+   *
+   * @param repositoryConfig a {@link Path} to the repository configuration file.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withRepositoryConfig(Path repositoryConfig) {
+    this.repositoryConfig = repositoryConfig;
+    return this;
+  }
+
+  /**
+   * Listener notified with each {@link ReleaseOutcome} as soon as the release is processed.
+   * <p>
+   * The listener is never invoked concurrently.
+   *
+   * @param listener the {@link ReleaseOutcome} listener.
+   * @return this {@link ReleaseSetCommand} instance.
+   */
+  public ReleaseSetCommand withListener(Consumer<ReleaseOutcome> listener) {
+    this.listener = listener;
+    return this;
+  }
+}
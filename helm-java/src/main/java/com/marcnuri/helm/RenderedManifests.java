@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Manifests rendered by Helm that are provided to (and returned from) a post-renderer.
+ * <p>
+ * When provided to a post-renderer, the buffer is a read-only view of the native memory holding the rendered
+ * manifests. It's only valid for the duration of the post-renderer invocation and must not be retained.
+ *
+ * @author Marc Nuri
+ */
+public final class RenderedManifests {
+
+  private final ByteBuffer buffer;
+
+  private RenderedManifests(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Create a new {@link RenderedManifests} instance from the provided String (UTF-8 encoded).
+   *
+   * @param manifests the manifests.
+   * @return a new {@link RenderedManifests} instance.
+   */
+  public static RenderedManifests of(String manifests) {
+    return of(manifests.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Create a new {@link RenderedManifests} instance from the provided bytes.
+   *
+   * @param manifests the manifests.
+   * @return a new {@link RenderedManifests} instance.
+   */
+  public static RenderedManifests of(byte[] manifests) {
+    return new RenderedManifests(ByteBuffer.wrap(manifests));
+  }
+
+  /**
+   * Create a new {@link RenderedManifests} instance from the remaining bytes of the provided buffer.
+   *
+   * @param manifests the manifests.
+   * @return a new {@link RenderedManifests} instance.
+   */
+  public static RenderedManifests of(ByteBuffer manifests) {
+    return new RenderedManifests(manifests.slice());
+  }
+
+  /**
+   * A read-only view of the manifests.
+   *
+   * @return the manifests buffer.
+   */
+  public ByteBuffer getBuffer() {
+    return buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * The size in bytes of the manifests.
+   *
+   * @return the size of the manifests.
+   */
+  public int size() {
+    return buffer.remaining();
+  }
+
+  /**
+   * Copy the manifests into a new byte array.
+   *
+   * @return the manifests bytes.
+   */
+  public byte[] toByteArray() {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Decode the manifests as an UTF-8 String.
+   *
+   * @return the manifests.
+   */
+  public String asString() {
+    return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+  }
+
+  @Override
+  public String toString() {
+    return asString();
+  }
+}
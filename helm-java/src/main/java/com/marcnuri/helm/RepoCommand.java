@@ -22,11 +22,17 @@ import com.marcnuri.helm.jni.Result;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Marc Nuri
@@ -48,6 +54,54 @@ public class RepoCommand {
     return new RepoCommand.RepoSubcommand<>(helmLib, hl -> hl::RepoAdd, r -> null);
   }
 
+  /**
+   * Add multiple chart repositories at once.
+   * <p>
+   * The repository configuration is locked, read and written only once and the repository indexes are downloaded concurrently.
+   * The configuration is left untouched if any of the repositories is not valid or cannot be reached.
+   * <p>
+   * The TLS settings of the subcommand (certificate, key, and CA files, and insecure skip TLS verify)
+   * apply to every repository.
+   *
+   * @param repositories the repositories to add.
+   * @return the {@link RepoCommand.RepoSubcommand} subcommand.
+   */
+  public RepoCommand.RepoSubcommand<Void> add(Collection<Repository> repositories) {
+    final RepoCommand.RepoSubcommand<Void> add = add();
+    add.repositories.addAll(repositories);
+    return add;
+  }
+
+  /**
+   * Extract the chart information of the charts in the cached repository indexes.
+   *
+   * @param consumer the consumer of the extracted catalog entries.
+   * @return the {@link CatalogCommand} subcommand.
+   */
+  public CatalogCommand catalog(Consumer<CatalogEntry> consumer) {
+    return new CatalogCommand(helmLib, consumer);
+  }
+
+  /**
+   * Generate an index file given a directory containing packaged charts.
+   *
+   * @param dir the directory containing the packaged charts (the index file is written there).
+   * @return the {@link RepoIndexCommand} subcommand.
+   */
+  public RepoIndexCommand index(Path dir) {
+    return new RepoIndexCommand(helmLib, dir);
+  }
+
+  /**
+   * Typed view of the locally cached index of a chart repository (the repository must have been added or updated).
+   *
+   * @param repo the name of the repository.
+   * @return the {@link RepositoryIndex} of the repository.
+   */
+  public RepositoryIndex index(String repo) {
+    return new RepositoryIndex(helmLib, repo);
+  }
+
   /**
    * List chart repositories.
    *
@@ -66,19 +120,43 @@ public class RepoCommand {
     return new RepoCommand.RepoSubcommand<>(helmLib, hl -> hl::RepoRemove, r -> null);
   }
 
+  /**
+   * Remove multiple chart repositories at once (the repository configuration is written only once).
+   *
+   * @param names the names of the repositories to remove.
+   * @return the {@link WithRepo} subcommand.
+   */
+  public WithRepo<Void> remove(Collection<String> names) {
+    final RepoCommand.RepoSubcommand<Void> remove = new RepoCommand.RepoSubcommand<>(helmLib, hl -> hl::RepoRemove, r -> null);
+    remove.names.addAll(names);
+    return remove;
+  }
+
   /**
    * Update information of available charts locally from chart repositories.
    * <p>
    * Update gets the latest information about charts from the respective chart repositories.
    * Information is cached locally, where it is used by commands like 'helm search'.
    *
-   * @return the {@link WithRepo} subcommand.
+   * @return the {@link WithRepoUpdate} subcommand.
    */
-  public WithRepo<List<Repository>> update() {
+  public WithRepoUpdate<List<Repository>> update() {
     return new RepoCommand.RepoSubcommand<>(helmLib, hl -> hl::RepoUpdate, Repository::parse);
   }
 
-  public static final class RepoSubcommand<T> extends HelmCommand<T> implements WithRepositoryConfig<T>, WithRepo<T> {
+  /**
+   * Update information of available charts locally from chart repositories reporting the outcome for each repository.
+   * <p>
+   * Indexes that haven't changed since the last update (according to their ETag/Last-Modified) aren't downloaded again.
+   * Unlike {@link #update()}, failures are reported for each repository instead of failing the command.
+   *
+   * @return the {@link WithRepoUpdate} subcommand.
+   */
+  public WithRepoUpdate<List<RepoUpdateResult>> updateWithResults() {
+    return new RepoCommand.RepoSubcommand<>(helmLib, hl -> hl::RepoUpdateResults, RepoUpdateResult::parse);
+  }
+
+  public static final class RepoSubcommand<T> extends HelmCommand<T> implements WithRepositoryConfig<T>, WithRepo<T>, WithRepoUpdate<T> {
 
     private final Function<HelmLib, Function<RepoOptions, Result>> callable;
     private final Function<Result, T> transformer;
@@ -92,13 +170,16 @@ public class RepoCommand {
     private Path keyFile;
     private Path caFile;
     private boolean insecureSkipTlsVerify;
-
+    private final List<Repository> repositories;
+    private int concurrency;
+    private int timeout;
 
     RepoSubcommand(HelmLib helmLib, Function<HelmLib, Function<RepoOptions, Result>> callable, Function<Result, T> transformer) {
       super(helmLib);
       this.callable = callable;
       this.transformer = transformer;
       names = new LinkedHashSet<>();
+      repositories = new ArrayList<>();
     }
 
     @Override
@@ -113,10 +194,37 @@ public class RepoCommand {
         toString(certFile),
         toString(keyFile),
         toString(caFile),
-        toInt(insecureSkipTlsVerify)
+        toInt(insecureSkipTlsVerify),
+        repositories.stream().map(this::urlEncode).collect(Collectors.joining("\n")),
+        concurrency,
+        timeout
       ))));
     }
 
+    // The TLS settings of the subcommand apply to every repository of the batch
+    private String urlEncode(Repository repository) {
+      final Map<String, String> entry = new LinkedHashMap<>();
+      entry.put("name", repository.getName());
+      entry.put("url", repository.getUrl().toString());
+      if (repository.getUsername() != null) {
+        entry.put("username", repository.getUsername());
+      }
+      if (repository.getPassword() != null) {
+        entry.put("password", repository.getPassword());
+      }
+      if (certFile != null) {
+        entry.put("certFile", toString(certFile));
+      }
+      if (keyFile != null) {
+        entry.put("keyFile", toString(keyFile));
+      }
+      if (caFile != null) {
+        entry.put("caFile", toString(caFile));
+      }
+      entry.put("insecureSkipTlsVerify", Boolean.toString(repository.isInsecureSkipTlsVerify() || insecureSkipTlsVerify));
+      return HelmCommand.urlEncode(entry);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -135,6 +243,24 @@ public class RepoCommand {
       return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RepoCommand.RepoSubcommand<T> withConcurrency(int concurrency) {
+      this.concurrency = concurrency;
+      return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RepoCommand.RepoSubcommand<T> withTimeout(int timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
     /**
      * The name of the repository.
      *
@@ -249,6 +375,34 @@ public class RepoCommand {
     WithRepo<T> withRepo(String repo);
   }
 
+  public interface WithRepoUpdate<T> extends WithRepo<T> {
+    /**
+     * {@inheritDoc}
+     */
+    WithRepoUpdate<T> withRepositoryConfig(Path repositoryConfig);
+
+    /**
+     * {@inheritDoc}
+     */
+    WithRepoUpdate<T> withRepo(String repo);
+
+    /**
+     * Maximum number of repositories updated in parallel (default 8).
+     *
+     * @param concurrency the maximum number of concurrent repository updates.
+     * @return this {@link WithRepoUpdate} instance.
+     */
+    WithRepoUpdate<T> withConcurrency(int concurrency);
+
+    /**
+     * Time (in seconds) to wait for the index of each individual repository (default no timeout).
+     *
+     * @param timeout the timeout in seconds.
+     * @return this {@link WithRepoUpdate} instance.
+     */
+    WithRepoUpdate<T> withTimeout(int timeout);
+  }
+
   public interface RepoCallable<T> extends Callable<T> {
     @Override
     T call();
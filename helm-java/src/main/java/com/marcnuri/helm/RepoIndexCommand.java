@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.RepoIndexOptions;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Generate an index file given a directory containing packaged charts.
+ * <p>
+ * Archives are hashed and their Chart.yaml extracted in parallel.
+ * Entries of archives whose size and modification time didn't change since the previous run are reused
+ * from the existing index file instead of reading the archives again.
+ * Archives that aren't valid charts are skipped and reported in the {@link RepoIndexResult}.
+ *
+ * @author Marc Nuri
+ */
+public class RepoIndexCommand extends HelmCommand<RepoIndexResult> {
+
+  private final Path dir;
+  private URI url;
+  private Path merge;
+
+  public RepoIndexCommand(HelmLib helmLib, Path dir) {
+    super(helmLib);
+    this.dir = dir;
+  }
+
+  /**
+   * Execute the repo index command.
+   *
+   * @return the {@link RepoIndexResult} with the generated index file and the skipped charts.
+   */
+  @Override
+  public RepoIndexResult call() {
+    return RepoIndexResult.parse(run(hl -> hl.RepoIndex(new RepoIndexOptions(
+      toString(dir),
+      toString(url),
+      toString(merge)
+    ))));
+  }
+
+  /**
+   * URL of the chart repository.
+   *
+   * @param url a {@link URI} with the url of the chart repository.
+   * @return this {@link RepoIndexCommand} instance.
+   */
+  public RepoIndexCommand withUrl(URI url) {
+    this.url = url;
+    return this;
+  }
+
+  /**
+   * Merge the generated index into the given index.
+   *
+   * @param merge the path to the index file to merge.
+   * @return this {@link RepoIndexCommand} instance.
+   */
+  public RepoIndexCommand withMerge(Path merge) {
+    this.merge = merge;
+    return this;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class RepoIndexResult {
+
+  private final Path index;
+  private final Map<String, String> skippedCharts;
+
+  public RepoIndexResult(Path index, Map<String, String> skippedCharts) {
+    this.index = index;
+    this.skippedCharts = skippedCharts;
+  }
+
+  /**
+   * The location of the generated index file.
+   *
+   * @return the path to the index file.
+   */
+  public Path getIndex() {
+    return index;
+  }
+
+  /**
+   * Archives that were skipped because they aren't valid charts.
+   *
+   * @return a {@link Map} of the skipped archive paths (relative to the indexed directory) to the reason they were skipped.
+   */
+  public Map<String, String> getSkippedCharts() {
+    return skippedCharts;
+  }
+
+  static RepoIndexResult parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    Path index = null;
+    final Map<String, String> skippedCharts = new LinkedHashMap<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      if (entries.containsKey("index")) {
+        index = Paths.get(entries.get("index"));
+      } else if (entries.containsKey("skipped")) {
+        skippedCharts.put(entries.get("skipped"), entries.get("error"));
+      }
+    }
+    return new RepoIndexResult(index, Collections.unmodifiableMap(skippedCharts));
+  }
+}
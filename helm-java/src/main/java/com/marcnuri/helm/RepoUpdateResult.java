@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class RepoUpdateResult {
+
+  public enum Status {
+    /**
+     * The repository index was downloaded.
+     */
+    UPDATED,
+    /**
+     * The repository index didn't change since the last update.
+     */
+    UNCHANGED,
+    /**
+     * The repository index couldn't be downloaded.
+     */
+    FAILED
+  }
+
+  private final String name;
+  private final String url;
+  private final Status status;
+  private final long bytes;
+  private final Duration duration;
+  private final String error;
+
+  public RepoUpdateResult(String name, String url, Status status, long bytes, Duration duration, String error) {
+    this.name = name;
+    this.url = url;
+    this.status = status;
+    this.bytes = bytes;
+    this.duration = duration;
+    this.error = error;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * The number of bytes transferred (size of the downloaded index, 0 if unchanged).
+   *
+   * @return the number of bytes transferred.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  static List<RepoUpdateResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<RepoUpdateResult> repoUpdateResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      repoUpdateResults.add(new RepoUpdateResult(
+        entries.get("name"),
+        entries.get("url"),
+        Status.valueOf(entries.getOrDefault("status", "failed").toUpperCase(Locale.ROOT)),
+        Long.parseLong(entries.getOrDefault("bytes", "0")),
+        Duration.ofMillis(Long.parseLong(entries.getOrDefault("durationMillis", "0"))),
+        entries.get("error")
+      ));
+    }
+    return repoUpdateResults;
+  }
+}
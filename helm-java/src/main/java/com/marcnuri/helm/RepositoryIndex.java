@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.RepoIndexQueryOptions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Typed view of the locally cached index of a chart repository.
+ * <p>
+ * The index is loaded once by the native library and reused until the cached index file changes
+ * (e.g. after a repository update), version constraint queries are evaluated natively.
+ *
+ * @author Marc Nuri
+ */
+public class RepositoryIndex {
+
+  private final HelmLib helmLib;
+  private final String repo;
+
+  RepositoryIndex(HelmLib helmLib, String repo) {
+    this.helmLib = helmLib;
+    this.repo = repo;
+  }
+
+  public String getRepo() {
+    return repo;
+  }
+
+  /**
+   * The names of the charts available in the repository (sorted).
+   *
+   * @return the chart names.
+   */
+  public List<String> charts() {
+    return new Query(helmLib, repo, null, null, true).call().stream()
+      .map(ChartVersion::getName)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * All the versions of the chart, newest first.
+   *
+   * @param chart the name of the chart.
+   * @return the versions of the chart.
+   */
+  public List<ChartVersion> versions(String chart) {
+    return versions(chart, null);
+  }
+
+  /**
+   * The versions of the chart matching the semver constraint (e.g. {@code ^1.2.0}), newest first.
+   *
+   * @param chart      the name of the chart.
+   * @param constraint the semver constraint, or null to return all versions.
+   * @return the matching versions of the chart.
+   */
+  public List<ChartVersion> versions(String chart, String constraint) {
+    return new Query(helmLib, repo, requireChart(chart), constraint, false).call();
+  }
+
+  /**
+   * The latest stable (non pre-release) version of the chart.
+   *
+   * @param chart the name of the chart.
+   * @return the latest version of the chart, or null if there are no stable versions.
+   */
+  public ChartVersion latest(String chart) {
+    return latest(chart, ">=0.0.0");
+  }
+
+  /**
+   * The latest version of the chart matching the semver constraint (e.g. {@code ~1.2}).
+   *
+   * @param chart      the name of the chart.
+   * @param constraint the semver constraint.
+   * @return the latest matching version of the chart, or null if there's no match.
+   */
+  public ChartVersion latest(String chart, String constraint) {
+    final List<ChartVersion> result = new Query(helmLib, repo, requireChart(chart), constraint, true).call();
+    return result.isEmpty() ? null : result.get(0);
+  }
+
+  private static String requireChart(String chart) {
+    if (chart == null || chart.isEmpty()) {
+      throw new IllegalArgumentException("Chart name is required");
+    }
+    return chart;
+  }
+
+  private static final class Query extends HelmCommand<List<ChartVersion>> {
+
+    private final String repo;
+    private final String chart;
+    private final String constraint;
+    private final boolean latest;
+
+    private Query(HelmLib helmLib, String repo, String chart, String constraint, boolean latest) {
+      super(helmLib);
+      this.repo = repo;
+      this.chart = chart;
+      this.constraint = constraint;
+      this.latest = latest;
+    }
+
+    @Override
+    public List<ChartVersion> call() {
+      return ChartVersion.parse(run(hl -> hl.RepoIndexQuery(new RepoIndexQueryOptions(
+        repo,
+        chart,
+        constraint,
+        toInt(latest)
+      ))));
+    }
+  }
+}
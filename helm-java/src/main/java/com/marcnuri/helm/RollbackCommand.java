@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.RollbackOptions;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Rolls back a release to a previous revision.
+ * <p>
+ * Only the current and target revisions are fetched and decoded from the release storage, the rest of the release
+ * history is resolved from the storage object labels.
+ *
+ * @author Marc Nuri
+ */
+public class RollbackCommand extends HelmCommand<Release> {
+
+  private final String releaseName;
+  private int revision;
+  private String namespace;
+  private boolean wait;
+  private boolean waitForJobs;
+  private int timeout;
+  private boolean cleanupOnFail;
+  private boolean force;
+  private boolean noHooks;
+  private int maxHistory;
+  private boolean dryRun;
+  private Path kubeConfig;
+  private String kubeConfigContents;
+  private boolean debug;
+  private WaitStrategy waitStrategy;
+  private Consumer<WaitEvent> waitListener;
+
+  public RollbackCommand(HelmLib helmLib, String releaseName) {
+    super(helmLib);
+    this.releaseName = releaseName;
+  }
+
+  @Override
+  public Release call() {
+    final NativeWaitListener nativeWaitListener = NativeWaitListener.of(waitListener);
+    try {
+      return Release.parseSingle(run(hl -> hl.Rollback(new RollbackOptions(
+        releaseName,
+        revision,
+        namespace,
+        toInt(wait),
+        toInt(waitForJobs),
+        timeout,
+        toInt(cleanupOnFail),
+        toInt(force),
+        toInt(noHooks),
+        maxHistory,
+        toInt(dryRun),
+        toString(kubeConfig),
+        kubeConfigContents,
+        toInt(debug),
+        waitStrategy == null ? null : waitStrategy.name().toLowerCase(Locale.ROOT),
+        nativeWaitListener
+      ))));
+    } catch (IllegalStateException ex) {
+      throw NativeWaitListener.withCause(nativeWaitListener, ex);
+    }
+  }
+
+  /**
+   * Revision to roll back to (default, the previous revision).
+   *
+   * @param revision the target revision.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withRevision(int revision) {
+    this.revision = revision;
+    return this;
+  }
+
+  /**
+   * Kubernetes namespace scope for this request.
+   *
+   * @param namespace the Kubernetes namespace for this request.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withNamespace(String namespace) {
+    this.namespace = namespace;
+    return this;
+  }
+
+  /**
+   * Waits until all Pods are in a ready state, PVCs are bound, Deployments have minimum (Desired minus maxUnavailable)
+   * Pods in ready state and Services have an IP address (and Ingress if a LoadBalancer) before marking the release as
+   * successful.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand waitReady() {
+    this.wait = true;
+    return this;
+  }
+
+  /**
+   * Waits until all Jobs have been completed before marking the release as successful (requires {@link #waitReady()}).
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand waitForJobs() {
+    this.waitForJobs = true;
+    return this;
+  }
+
+  /**
+   * Time (in seconds) to wait for any individual Kubernetes operation (like Jobs for hooks) (default 300).
+   *
+   * @param timeout the timeout in seconds.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withTimeout(int timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Strategy used to wait for the release resources when {@link #waitReady()} is set
+   * (default {@link WaitStrategy#LEGACY}).
+   *
+   * @param waitStrategy the {@link WaitStrategy}.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Listener notified with each resource status change while waiting for the release resources.
+   * <p>
+   * Only supported by the {@link WaitStrategy#WATCHER} strategy, the listener is never invoked concurrently.
+   * The wait is aborted if the listener throws an exception.
+   *
+   * @param waitListener the {@link WaitEvent} listener.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withWaitListener(Consumer<WaitEvent> waitListener) {
+    this.waitListener = waitListener;
+    return this;
+  }
+
+  /**
+   * Allow deletion of new resources created in this rollback when rollback fails.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand cleanupOnFail() {
+    this.cleanupOnFail = true;
+    return this;
+  }
+
+  /**
+   * Force resource updates through a replacement strategy.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand force() {
+    this.force = true;
+    return this;
+  }
+
+  /**
+   * Prevent hooks from running during rollback.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand noHooks() {
+    this.noHooks = true;
+    return this;
+  }
+
+  /**
+   * Limit the maximum number of revisions saved per release (default 0, no limit).
+   *
+   * @param maxHistory the maximum number of revisions to keep.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withMaxHistory(int maxHistory) {
+    this.maxHistory = maxHistory;
+    return this;
+  }
+
+  /**
+   * Simulate a rollback.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand dryRun() {
+    this.dryRun = true;
+    return this;
+  }
+
+  /**
+   * Set the path to the ~/.kube/config file to use.
+   *
+   * @param kubeConfig the path to kube config file.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withKubeConfig(Path kubeConfig) {
+    this.kubeConfig = kubeConfig;
+    return this;
+  }
+
+  /**
+   * Set the kube config to use
+   *
+   * @param kubeConfigContents the contents of the kube config file.
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand withKubeConfigContents(String kubeConfigContents) {
+    this.kubeConfigContents = kubeConfigContents;
+    return this;
+  }
+
+  /**
+   * Enable verbose output.
+   * <p>
+   * The command execution output ({@link #call}) will include verbose debug messages.
+   *
+   * @return this {@link RollbackCommand} instance.
+   */
+  public RollbackCommand debug() {
+    this.debug = true;
+    return this;
+  }
+}
@@ -53,6 +53,7 @@ public class SearchCommand {
     private boolean regexp;
     private boolean devel;
     private String version;
+    private int maxResults;
 
     SearchSubcommand(HelmLib helmLib, Function<HelmLib, Function<SearchOptions, Result>> callable, Function<Result, T> transformer) {
       super(helmLib);
@@ -67,7 +68,8 @@ public class SearchCommand {
         keyword,
         toInt(regexp),
         toInt(devel),
-        version
+        version,
+        maxResults
       ))));
     }
 
@@ -126,5 +128,16 @@ public class SearchCommand {
       this.version = version;
       return this;
     }
+
+    /**
+     * Maximum number of results to return (the best scored results are kept).
+     *
+     * @param maxResults the maximum number of results.
+     * @return this {@link SearchCommand.SearchSubcommand} instance.
+     */
+    public SearchCommand.SearchSubcommand<T> withMaxResults(int maxResults) {
+      this.maxResults = maxResults;
+      return this;
+    }
   }
 }
@@ -16,10 +16,13 @@
 
 package com.marcnuri.helm;
 
+import com.marcnuri.helm.jni.ChartInfoOptions;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.ShowOptions;
 
 import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * @author Marc Nuri
@@ -28,15 +31,24 @@ public class ShowCommand {
 
   private final HelmLib helmLib;
   private final String chart;
+  private final ChartArchive chartArchive;
 
   ShowCommand(HelmLib helmLib, Path path) {
-    this.helmLib = helmLib;
-    this.chart = HelmCommand.toString(path);
+    this(helmLib, HelmCommand.toString(path), null);
   }
 
   ShowCommand(HelmLib helmLib, String chart) {
+    this(helmLib, chart, null);
+  }
+
+  ShowCommand(HelmLib helmLib, ChartArchive chartArchive) {
+    this(helmLib, null, chartArchive);
+  }
+
+  private ShowCommand(HelmLib helmLib, String chart, ChartArchive chartArchive) {
     this.helmLib = helmLib;
     this.chart = chart;
+    this.chartArchive = chartArchive;
   }
 
   /**
@@ -44,7 +56,7 @@ public class ShowCommand {
    * @return the {@link ShowSubcommand} subcommand.
    */
   public ShowSubcommand all() {
-    return new ShowSubcommand(helmLib, chart, "all");
+    return new ShowSubcommand(helmLib, chart, chartArchive, "all");
   }
 
   /**
@@ -52,7 +64,7 @@ public class ShowCommand {
    * @return the {@link ShowSubcommand} subcommand.
    */
   public ShowSubcommand chart() {
-    return new ShowSubcommand(helmLib, chart, "chart");
+    return new ShowSubcommand(helmLib, chart, chartArchive, "chart");
   }
 
   /**
@@ -60,7 +72,7 @@ public class ShowCommand {
    * @return the {@link ShowSubcommand} subcommand.
    */
   public ShowSubcommand crds() {
-    return new ShowSubcommand(helmLib, chart, "crds");
+    return new ShowSubcommand(helmLib, chart, chartArchive, "crds");
   }
 
   /**
@@ -68,7 +80,7 @@ public class ShowCommand {
    * @return the {@link ShowSubcommand} subcommand.
    */
   public ShowSubcommand readme() {
-    return new ShowSubcommand(helmLib, chart, "readme");
+    return new ShowSubcommand(helmLib, chart, chartArchive, "readme");
   }
 
   /**
@@ -76,12 +88,24 @@ public class ShowCommand {
    * @return the {@link ShowSubcommand} subcommand.
    */
   public ShowSubcommand values() {
-    return new ShowSubcommand(helmLib, chart, "values");
+    return new ShowSubcommand(helmLib, chart, chartArchive, "values");
+  }
+
+  /**
+   * This command shows the chart's metadata as a typed {@link ChartInfo}.
+   * <p>
+   * Only the required chart files are read (the chart is never fully loaded), additional sections can be
+   * included in the same read.
+   * @return the {@link ChartInfoSubcommand} subcommand.
+   */
+  public ChartInfoSubcommand info() {
+    return new ChartInfoSubcommand(helmLib, chart, chartArchive);
   }
 
   public static final class ShowSubcommand extends HelmCommand<String> {
 
     private final String chart;
+    private final ChartArchive chartArchive;
     private final String outputFormat;
     private String version;
     private Path certFile;
@@ -91,9 +115,10 @@ public class ShowCommand {
     private boolean plainHttp;
     private boolean debug;
 
-    private ShowSubcommand(HelmLib helmLib, String chart,String outputFormat) {
+    private ShowSubcommand(HelmLib helmLib, String chart, ChartArchive chartArchive, String outputFormat) {
       super(helmLib);
       this.chart = chart;
+      this.chartArchive = chartArchive;
       this.outputFormat = outputFormat;
     }
     /**
@@ -111,7 +136,9 @@ public class ShowCommand {
         toString(caFile),
         toInt(insecureSkipTlsVerify),
         toInt(plainHttp),
-        toInt(debug)
+        toInt(debug),
+        ChartArchive.pointer(chartArchive),
+        ChartArchive.size(chartArchive)
       ))).out;
     }
 
@@ -195,4 +222,154 @@ public class ShowCommand {
       return this;
     }
   }
+
+  public static final class ChartInfoSubcommand extends HelmCommand<ChartInfo> {
+
+    private final String chart;
+    private final ChartArchive chartArchive;
+    private final Set<String> sections;
+    private String version;
+    private Path certFile;
+    private Path keyFile;
+    private Path caFile;
+    private boolean insecureSkipTlsVerify;
+    private boolean plainHttp;
+    private boolean debug;
+
+    private ChartInfoSubcommand(HelmLib helmLib, String chart, ChartArchive chartArchive) {
+      super(helmLib);
+      this.chart = chart;
+      this.chartArchive = chartArchive;
+      this.sections = new LinkedHashSet<>();
+    }
+
+    /**
+     * Execute the info subcommand.
+     * @return the {@link ChartInfo} of the chart.
+     */
+    @Override
+    public ChartInfo call() {
+      return ChartInfo.parse(run(hl -> hl.ChartInfo(new ChartInfoOptions(
+        chart,
+        String.join(",", sections),
+        version,
+        toString(certFile),
+        toString(keyFile),
+        toString(caFile),
+        toInt(insecureSkipTlsVerify),
+        toInt(plainHttp),
+        toInt(debug),
+        ChartArchive.pointer(chartArchive),
+        ChartArchive.size(chartArchive)
+      ))));
+    }
+
+    /**
+     * Include the chart's values ({@link ChartInfo#getValues()}).
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withValues() {
+      this.sections.add("values");
+      return this;
+    }
+
+    /**
+     * Include the chart's README ({@link ChartInfo#getReadme()}).
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withReadme() {
+      this.sections.add("readme");
+      return this;
+    }
+
+    /**
+     * Include the chart's CRDs ({@link ChartInfo#getCrds()}).
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withCrds() {
+      this.sections.add("crds");
+      return this;
+    }
+
+    /**
+     * Specify a version constraint for the chart version to use.
+     * <p>
+     * This constraint can be a specific tag (e.g. 1.1.1) or it may reference a valid range (e.g. ^2.0.0).
+     * <p>
+     * If this is not specified, the latest version is used.
+     *
+     * @param version the version to search for.
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withVersion(String version) {
+      this.version = version;
+      return this;
+    }
+
+    /**
+     * Identify registry client using this SSL certificate file.
+     *
+     * @param certFile the path to the certificate file.
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withCertFile(Path certFile) {
+      this.certFile = certFile;
+      return this;
+    }
+
+    /**
+     * Identify registry client using this SSL key file.
+     *
+     * @param keyFile the path to the key file.
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withKeyFile(Path keyFile) {
+      this.keyFile = keyFile;
+      return this;
+    }
+
+    /**
+     * Verify certificates of HTTPS-enabled servers using this CA bundle.
+     *
+     * @param caFile the path to the CA bundle file.
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand withCaFile(Path caFile) {
+      this.caFile = caFile;
+      return this;
+    }
+
+    /**
+     * Skip TLS certificate checks of HTTPS-enabled servers.
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand insecureSkipTlsVerify() {
+      this.insecureSkipTlsVerify = true;
+      return this;
+    }
+
+    /**
+     * Allow insecure plain HTTP connections for the chart download.
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand plainHttp() {
+      this.plainHttp = true;
+      return this;
+    }
+
+    /**
+     * Enable verbose output.
+     *
+     * @return this {@link ChartInfoSubcommand} instance.
+     */
+    public ChartInfoSubcommand debug() {
+      this.debug = true;
+      return this;
+    }
+  }
 }
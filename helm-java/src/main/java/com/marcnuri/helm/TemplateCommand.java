@@ -19,11 +19,14 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.TemplateOptions;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * @author Marc Nuri
@@ -38,6 +41,7 @@ public class TemplateCommand extends HelmCommand<String> {
   private String namespace;
   private String kubeVersion;
   private boolean dependencyUpdate;
+  private int dependencyRefreshTtl;
   private boolean skipCrds;
   private final Map<String, String> values;
   private final Map<String, Path> fileValues;
@@ -50,6 +54,8 @@ public class TemplateCommand extends HelmCommand<String> {
   private Path keyring;
   private boolean debug;
   private Path repositoryConfig;
+  private Function<RenderedManifests, RenderedManifests> postRenderer;
+  private ChartArchive chartArchive;
 
   public TemplateCommand(HelmLib helmLib) {
     this(helmLib, null);
@@ -65,26 +71,35 @@ public class TemplateCommand extends HelmCommand<String> {
 
   @Override
   public String call() {
-    return run(hl -> hl.Template(new TemplateOptions(
-      name,
-      version,
-      chart,
-      namespace,
-      kubeVersion,
-      toInt(dependencyUpdate),
-      toInt(skipCrds),
-      urlEncode(values),
-      urlEncode(toStringValues(fileValues)),
-      toString(valuesFiles),
-      toString(certFile),
-      toString(keyFile),
-      toString(caFile),
-      toInt(insecureSkipTlsVerify),
-      toInt(plainHttp),
-      toString(keyring),
-      toInt(debug),
-      toString(repositoryConfig)
-    ))).out;
+    final NativePostRenderer nativePostRenderer = NativePostRenderer.of(postRenderer);
+    try {
+      return run(hl -> hl.Template(new TemplateOptions(
+        name,
+        version,
+        chart,
+        namespace,
+        kubeVersion,
+        toInt(dependencyUpdate),
+        toInt(skipCrds),
+        urlEncode(values),
+        urlEncode(toStringValues(fileValues)),
+        toString(valuesFiles),
+        toString(certFile),
+        toString(keyFile),
+        toString(caFile),
+        toInt(insecureSkipTlsVerify),
+        toInt(plainHttp),
+        toString(keyring),
+        toInt(debug),
+        toString(repositoryConfig),
+        nativePostRenderer,
+        ChartArchive.pointer(chartArchive),
+        ChartArchive.size(chartArchive),
+        dependencyRefreshTtl
+      ))).out;
+    } catch (IllegalStateException ex) {
+      throw NativePostRenderer.withCause(nativePostRenderer, ex);
+    }
   }
 
   /**
@@ -124,6 +139,46 @@ public class TemplateCommand extends HelmCommand<String> {
     return this;
   }
 
+  /**
+   * In-memory chart archive (.tgz) to render the templates for.
+   * <p>
+   * The archive is loaded by the native library without being written to disk, it takes precedence over any
+   * chart path or reference.
+   *
+   * @param chartArchive the chart archive bytes.
+   * @return this {@link TemplateCommand} instance.
+   */
+  public TemplateCommand withChartArchive(byte[] chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to render the templates for.
+   * <p>
+   * The remaining bytes of the buffer are used, direct buffers are shared with the native library without copying.
+   *
+   * @param chartArchive the buffer containing the chart archive.
+   * @return this {@link TemplateCommand} instance.
+   */
+  public TemplateCommand withChartArchive(ByteBuffer chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to render the templates for.
+   * <p>
+   * The stream is fully read (but not closed) when this method is invoked.
+   *
+   * @param chartArchive the stream providing the chart archive.
+   * @return this {@link TemplateCommand} instance.
+   */
+  public TemplateCommand withChartArchive(InputStream chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
   /**
    * Kubernetes namespace scope for this request.
    *
@@ -161,6 +216,21 @@ public class TemplateCommand extends HelmCommand<String> {
     return this;
   }
 
+  /**
+   * Time to live (in seconds) of the repository indexes when updating the dependencies ({@link #dependencyUpdate()}).
+   * <p>
+   * Repositories refreshed within this window (by any command or process) aren't refreshed again,
+   * stale repositories are refreshed using conditional requests when supported.
+   * By default, the repositories are always refreshed.
+   *
+   * @param dependencyRefreshTtl the repository refresh time to live in seconds.
+   * @return this {@link TemplateCommand} instance.
+   */
+  public TemplateCommand withDependencyRefreshTtl(int dependencyRefreshTtl) {
+    this.dependencyRefreshTtl = dependencyRefreshTtl;
+    return this;
+  }
+
   /**
    * Skip CRDs during template rendering.
    * <p>
@@ -299,4 +369,18 @@ public class TemplateCommand extends HelmCommand<String> {
     return this;
   }
 
+  /**
+   * Post-process the rendered manifests before they are returned.
+   * <p>
+   * The post-renderer runs in-process, it receives the rendered manifests and must return the (modified) manifests.
+   * The provided {@link RenderedManifests} is only valid for the duration of the invocation.
+   *
+   * @param postRenderer the function to post-process the rendered manifests.
+   * @return this {@link TemplateCommand} instance.
+   */
+  public TemplateCommand withPostRenderer(Function<RenderedManifests, RenderedManifests> postRenderer) {
+    this.postRenderer = postRenderer;
+    return this;
+  }
+
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.HelmLib;
+import com.marcnuri.helm.jni.UninstallAllOptions;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * @author Marc Nuri
+ */
+public class UninstallAllCommand extends HelmCommand<List<UninstallResult>> {
+
+  private final List<String> releaseNames;
+  private String selector;
+  private String namespace;
+  private boolean allNamespaces;
+  private int concurrency;
+  private boolean dryRun;
+  private boolean noHooks;
+  private boolean ignoreNotFound;
+  private boolean keepHistory;
+  private UninstallCommand.Cascade cascade;
+  private boolean wait;
+  private int timeout;
+  private WaitStrategy waitStrategy;
+  private Consumer<WaitEvent> waitListener;
+  private Path kubeConfig;
+  private String kubeConfigContents;
+
+  public UninstallAllCommand(HelmLib helmLib) {
+    super(helmLib);
+    this.releaseNames = new ArrayList<>();
+  }
+
+  /**
+   * Execute the uninstall command.
+   * <p>
+   * The releases are uninstalled concurrently sharing the Kubernetes clients of each namespace.
+   * Failures are reported per release in the returned {@link UninstallResult}s.
+   *
+   * @return a {@link List} of {@link UninstallResult} (one per release, named releases first in the same order).
+   */
+  @Override
+  public List<UninstallResult> call() {
+    final NativeWaitListener nativeWaitListener = NativeWaitListener.of(waitListener);
+    try {
+      return UninstallResult.parse(run(hl -> hl.UninstallAll(new UninstallAllOptions(
+        String.join("\n", releaseNames),
+        selector,
+        namespace,
+        toInt(allNamespaces),
+        concurrency,
+        toInt(dryRun),
+        toInt(noHooks),
+        toInt(ignoreNotFound),
+        toInt(keepHistory),
+        cascade == null ? null : cascade.name().toLowerCase(Locale.ROOT),
+        toInt(wait),
+        timeout,
+        waitStrategy == null ? null : waitStrategy.name().toLowerCase(Locale.ROOT),
+        nativeWaitListener,
+        toString(kubeConfig),
+        kubeConfigContents
+      ))));
+    } catch (IllegalStateException ex) {
+      throw NativeWaitListener.withCause(nativeWaitListener, ex);
+    }
+  }
+
+  /**
+   * Names of the releases to uninstall from the namespace.
+   * <p>
+   * Can be invoked multiple times and combined with {@link #withSelector(String)}.
+   *
+   * @param releaseNames the names of the releases to uninstall.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withReleaseNames(String... releaseNames) {
+    this.releaseNames.addAll(Arrays.asList(releaseNames));
+    return this;
+  }
+
+  /**
+   * Uninstall the releases matching this release label selector (e.g. {@code env=preview,team!=core}).
+   * <p>
+   * The selector applies to the labels of the release storage (custom release labels).
+   *
+   * @param selector the release label selector.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withSelector(String selector) {
+    this.selector = selector;
+    return this;
+  }
+
+  /**
+   * Kubernetes namespace scope for this request.
+   *
+   * @param namespace the Kubernetes namespace for this request.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withNamespace(String namespace) {
+    this.namespace = namespace;
+    return this;
+  }
+
+  /**
+   * Match the {@link #withSelector(String)} releases across all namespaces.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand allNamespaces() {
+    this.allNamespaces = true;
+    return this;
+  }
+
+  /**
+   * Maximum number of releases uninstalled in parallel (default 8).
+   *
+   * @param concurrency the maximum number of concurrent uninstallations.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withConcurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Simulate the uninstallation.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand dryRun() {
+    this.dryRun = true;
+    return this;
+  }
+
+  /**
+   * Prevent hooks from running during uninstallation.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand noHooks() {
+    this.noHooks = true;
+    return this;
+  }
+
+  /**
+   * Treat "release not found" as a successful uninstall.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand ignoreNotFound() {
+    this.ignoreNotFound = true;
+    return this;
+  }
+
+  /**
+   * Remove all associated resources and mark the releases as deleted, but retain the release history.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand keepHistory() {
+    this.keepHistory = true;
+    return this;
+  }
+
+  /**
+   * Selects the deletion cascading strategy for the dependents (default "background").
+   *
+   * @param cascade the deletion cascading strategy for the dependents.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withCascade(UninstallCommand.Cascade cascade) {
+    this.cascade = cascade;
+    return this;
+  }
+
+  /**
+   * Waits until all the resources of each release are deleted before reporting its result.
+   *
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand waitDeleted() {
+    this.wait = true;
+    return this;
+  }
+
+  /**
+   * Time (in seconds) to wait for any individual Kubernetes operation (like Jobs for hooks) (default 300).
+   *
+   * @param timeout the timeout in seconds.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withTimeout(int timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Strategy used to wait for the deletion of the release resources when {@link #waitDeleted()} is set
+   * (default {@link WaitStrategy#LEGACY}).
+   *
+   * @param waitStrategy the {@link WaitStrategy}.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Listener notified with each resource status change while waiting for the deletion of the release resources.
+   * <p>
+   * Only supported by the {@link WaitStrategy#WATCHER} strategy, the listener is never invoked concurrently
+   * (not even for different releases).
+   * The wait is aborted if the listener throws an exception.
+   *
+   * @param waitListener the {@link WaitEvent} listener.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withWaitListener(Consumer<WaitEvent> waitListener) {
+    this.waitListener = waitListener;
+    return this;
+  }
+
+  /**
+   * Set the path to the ~/.kube/config file to use.
+   *
+   * @param kubeConfig the path to kube config file.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withKubeConfig(Path kubeConfig) {
+    this.kubeConfig = kubeConfig;
+    return this;
+  }
+
+  /**
+   * Set the kube config to use
+   *
+   * @param kubeConfigContents the contents of the kube config file.
+   * @return this {@link UninstallAllCommand} instance.
+   */
+  public UninstallAllCommand withKubeConfigContents(String kubeConfigContents) {
+    this.kubeConfigContents = kubeConfigContents;
+    return this;
+  }
+}
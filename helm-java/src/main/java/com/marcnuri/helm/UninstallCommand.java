@@ -21,6 +21,7 @@ import com.marcnuri.helm.jni.UninstallOptions;
 
 import java.nio.file.Path;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * @author Marc Nuri
@@ -42,6 +43,10 @@ public class UninstallCommand extends HelmCommand<String> {
   private Path kubeConfig;
   private String kubeConfigContents;
   private boolean debug;
+  private boolean wait;
+  private int timeout;
+  private WaitStrategy waitStrategy;
+  private Consumer<WaitEvent> waitListener;
 
   public UninstallCommand(HelmLib helmLib, String releaseName) {
     super(helmLib);
@@ -50,18 +55,27 @@ public class UninstallCommand extends HelmCommand<String> {
 
   @Override
   public String call() {
-    return run(hl -> hl.Uninstall(new UninstallOptions(
-      releaseName,
-      toInt(dryRun),
-      toInt(noHooks),
-      toInt(ignoreNotFound),
-      toInt(keepHistory),
-      cascade == null ? null : cascade.name().toLowerCase(Locale.ROOT),
-      namespace,
-      toString(kubeConfig),
-      kubeConfigContents,
-      toInt(debug)
-    ))).out;
+    final NativeWaitListener nativeWaitListener = NativeWaitListener.of(waitListener);
+    try {
+      return run(hl -> hl.Uninstall(new UninstallOptions(
+        releaseName,
+        toInt(dryRun),
+        toInt(noHooks),
+        toInt(ignoreNotFound),
+        toInt(keepHistory),
+        cascade == null ? null : cascade.name().toLowerCase(Locale.ROOT),
+        namespace,
+        toString(kubeConfig),
+        kubeConfigContents,
+        toInt(debug),
+        toInt(wait),
+        timeout,
+        waitStrategy == null ? null : waitStrategy.name().toLowerCase(Locale.ROOT),
+        nativeWaitListener
+      ))).out;
+    } catch (IllegalStateException ex) {
+      throw NativeWaitListener.withCause(nativeWaitListener, ex);
+    }
   }
 
   /**
@@ -104,6 +118,53 @@ public class UninstallCommand extends HelmCommand<String> {
     return this;
   }
 
+  /**
+   * Waits until all the release resources are deleted before returning.
+   *
+   * @return this {@link UninstallCommand} instance.
+   */
+  public UninstallCommand waitDeleted() {
+    this.wait = true;
+    return this;
+  }
+
+  /**
+   * Time (in seconds) to wait for any individual Kubernetes operation (like Jobs for hooks) (default 300).
+   *
+   * @param timeout the timeout in seconds.
+   * @return this {@link UninstallCommand} instance.
+   */
+  public UninstallCommand withTimeout(int timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Strategy used to wait for the deletion of the release resources when {@link #waitDeleted()} is set
+   * (default {@link WaitStrategy#LEGACY}).
+   *
+   * @param waitStrategy the {@link WaitStrategy}.
+   * @return this {@link UninstallCommand} instance.
+   */
+  public UninstallCommand withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Listener notified with each resource status change while waiting for the deletion of the release resources.
+   * <p>
+   * Only supported by the {@link WaitStrategy#WATCHER} strategy, the listener is never invoked concurrently.
+   * The wait is aborted if the listener throws an exception.
+   *
+   * @param waitListener the {@link WaitEvent} listener.
+   * @return this {@link UninstallCommand} instance.
+   */
+  public UninstallCommand withWaitListener(Consumer<WaitEvent> waitListener) {
+    this.waitListener = waitListener;
+    return this;
+  }
+
 
   /**
    * Selects the deletion cascading strategy for the dependents. Defaults to background. (default "background")
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.Result;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * @author Marc Nuri
+ */
+public class UninstallResult {
+
+  public static final String UNINSTALLED = "uninstalled";
+  public static final String NOT_FOUND = "not-found";
+  public static final String FAILED = "failed";
+
+  private final String name;
+  private final String namespace;
+  private final String status;
+  private final String info;
+  private final Duration duration;
+  private final String error;
+
+  public UninstallResult(String name, String namespace, String status, String info, Duration duration, String error) {
+    this.name = name;
+    this.namespace = namespace;
+    this.status = status;
+    this.info = info;
+    this.duration = duration;
+    this.error = error;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  /**
+   * The result of the uninstallation ({@link #UNINSTALLED}, {@link #NOT_FOUND}, or {@link #FAILED}).
+   *
+   * @return the uninstallation status.
+   */
+  public String getStatus() {
+    return status;
+  }
+
+  /**
+   * Additional information provided by the uninstallation (e.g. resources kept due to the resource policy).
+   *
+   * @return the uninstallation info, or null if none.
+   */
+  public String getInfo() {
+    return info;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  static List<UninstallResult> parse(Result result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null");
+    }
+    final List<UninstallResult> uninstallResults = new ArrayList<>();
+    for (Map<String, String> entries : parseUrlEncodedLines(result.out)) {
+      uninstallResults.add(new UninstallResult(
+        entries.get("name"),
+        entries.get("namespace"),
+        entries.get("status"),
+        entries.get("info"),
+        Duration.ofMillis(Long.parseLong(entries.getOrDefault("durationMillis", "0"))),
+        entries.get("error")
+      ));
+    }
+    return uninstallResults;
+  }
+}
@@ -19,12 +19,16 @@ package com.marcnuri.helm;
 import com.marcnuri.helm.jni.HelmLib;
 import com.marcnuri.helm.jni.UpgradeOptions;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static com.marcnuri.helm.Release.parseSingle;
 
@@ -53,6 +57,7 @@ public class UpgradeCommand extends HelmCommand<Release> {
   private String description;
   private boolean devel;
   private boolean dependencyUpdate;
+  private int dependencyRefreshTtl;
   private boolean disableOpenApiValidation;
   private boolean dryRun;
   private DryRun dryRunOption;
@@ -73,6 +78,12 @@ public class UpgradeCommand extends HelmCommand<Release> {
   private boolean debug;
   private boolean clientOnly;
   private Path repositoryConfig;
+  private Function<RenderedManifests, RenderedManifests> postRenderer;
+  private ChartArchive chartArchive;
+  private WaitStrategy waitStrategy;
+  private Consumer<WaitEvent> waitListener;
+  private boolean skipUnchanged;
+  private int maxHistory;
 
   public UpgradeCommand(HelmLib helmLib) {
     this(helmLib, null);
@@ -88,44 +99,58 @@ public class UpgradeCommand extends HelmCommand<Release> {
 
   @Override
   public Release call() {
-    return parseSingle(run(hl -> hl.Upgrade(new UpgradeOptions(
-      name,
-      version,
-      chart,
-      namespace,
-      kubeVersion,
-      toInt(install),
-      toInt(force),
-      toInt(resetValues),
-      toInt(reuseValues),
-      toInt(resetThenReuseValues),
-      toInt(atomic),
-      toInt(cleanupOnFail),
-      toInt(createNamespace),
-      description,
-      toInt(devel),
-      toInt(dependencyUpdate),
-      toInt(disableOpenApiValidation),
-      toInt(dryRun),
-      dryRunOption == null ? null : dryRunOption.name().toLowerCase(Locale.ROOT),
-      toInt(skipCrds),
-      toInt(wait),
-      timeout,
-      urlEncode(values),
-      urlEncode(toStringValues(fileValues)),
-      toString(valuesFiles),
-      toString(kubeConfig),
-      kubeConfigContents,
-      toString(certFile),
-      toString(keyFile),
-      toString(caFile),
-      toInt(insecureSkipTlsVerify),
-      toInt(plainHttp),
-      toString(keyring),
-      toInt(debug),
-      toInt(clientOnly),
-      toString(repositoryConfig)
-    ))));
+    final NativePostRenderer nativePostRenderer = NativePostRenderer.of(postRenderer);
+    final NativeWaitListener nativeWaitListener = NativeWaitListener.of(waitListener);
+    try {
+      return parseSingle(run(hl -> hl.Upgrade(new UpgradeOptions(
+        name,
+        version,
+        chart,
+        namespace,
+        kubeVersion,
+        toInt(install),
+        toInt(force),
+        toInt(resetValues),
+        toInt(reuseValues),
+        toInt(resetThenReuseValues),
+        toInt(atomic),
+        toInt(cleanupOnFail),
+        toInt(createNamespace),
+        description,
+        toInt(devel),
+        toInt(dependencyUpdate),
+        toInt(disableOpenApiValidation),
+        toInt(dryRun),
+        dryRunOption == null ? null : dryRunOption.name().toLowerCase(Locale.ROOT),
+        toInt(skipCrds),
+        toInt(wait),
+        timeout,
+        urlEncode(values),
+        urlEncode(toStringValues(fileValues)),
+        toString(valuesFiles),
+        toString(kubeConfig),
+        kubeConfigContents,
+        toString(certFile),
+        toString(keyFile),
+        toString(caFile),
+        toInt(insecureSkipTlsVerify),
+        toInt(plainHttp),
+        toString(keyring),
+        toInt(debug),
+        toInt(clientOnly),
+        toString(repositoryConfig),
+        nativePostRenderer,
+        ChartArchive.pointer(chartArchive),
+        ChartArchive.size(chartArchive),
+        dependencyRefreshTtl,
+        waitStrategy == null ? null : waitStrategy.name().toLowerCase(Locale.ROOT),
+        nativeWaitListener,
+        toInt(skipUnchanged),
+        maxHistory
+      ))));
+    } catch (IllegalStateException ex) {
+      throw NativeWaitListener.withCause(nativeWaitListener, NativePostRenderer.withCause(nativePostRenderer, ex));
+    }
   }
 
   /**
@@ -165,6 +190,46 @@ public class UpgradeCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * In-memory chart archive (.tgz) to upgrade.
+   * <p>
+   * The archive is loaded by the native library without being written to disk, it takes precedence over any
+   * chart path or reference.
+   *
+   * @param chartArchive the chart archive bytes.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withChartArchive(byte[] chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to upgrade.
+   * <p>
+   * The remaining bytes of the buffer are used, direct buffers are shared with the native library without copying.
+   *
+   * @param chartArchive the buffer containing the chart archive.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withChartArchive(ByteBuffer chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
+  /**
+   * In-memory chart archive (.tgz) to upgrade.
+   * <p>
+   * The stream is fully read (but not closed) when this method is invoked.
+   *
+   * @param chartArchive the stream providing the chart archive.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withChartArchive(InputStream chartArchive) {
+    this.chartArchive = ChartArchive.of(chartArchive);
+    return this;
+  }
+
   /**
    * Kubernetes namespace scope for this request.
    *
@@ -309,6 +374,21 @@ public class UpgradeCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * Time to live (in seconds) of the repository indexes when updating the dependencies ({@link #dependencyUpdate()}).
+   * <p>
+   * Repositories refreshed within this window (by any command or process) aren't refreshed again,
+   * stale repositories are refreshed using conditional requests when supported.
+   * By default, the repositories are always refreshed.
+   *
+   * @param dependencyRefreshTtl the repository refresh time to live in seconds.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withDependencyRefreshTtl(int dependencyRefreshTtl) {
+    this.dependencyRefreshTtl = dependencyRefreshTtl;
+    return this;
+  }
+
   /**
    * The upgrade process will not validate rendered templates against the Kubernetes OpenAPI Schema.
    *
@@ -378,6 +458,62 @@ public class UpgradeCommand extends HelmCommand<Release> {
     return this;
   }
 
+  /**
+   * Strategy used to wait for the release resources when {@link #waitReady()} (or {@link #atomic()}) is set
+   * (default {@link WaitStrategy#LEGACY}).
+   *
+   * @param waitStrategy the {@link WaitStrategy}.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withWaitStrategy(WaitStrategy waitStrategy) {
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  /**
+   * Listener notified with each resource status change while waiting for the release resources.
+   * <p>
+   * Only supported by the {@link WaitStrategy#WATCHER} strategy, the listener is never invoked concurrently.
+   * The wait is aborted if the listener throws an exception.
+   *
+   * @param waitListener the {@link WaitEvent} listener.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withWaitListener(Consumer<WaitEvent> waitListener) {
+    this.waitListener = waitListener;
+    return this;
+  }
+
+  /**
+   * Limit the maximum number of revisions saved per release (default 0, no limit).
+   * <p>
+   * Older revisions (except the last deployed one) are removed from the release storage after the upgrade.
+   *
+   * @param maxHistory the maximum number of revisions to keep.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withMaxHistory(int maxHistory) {
+    this.maxHistory = maxHistory;
+    return this;
+  }
+
+  /**
+   * Skip the upgrade if the release is unchanged.
+   * <p>
+   * The upgrade is rendered (client-side) and its fingerprint (manifest, hooks, values, and chart) is compared
+   * with the one of the deployed revision.
+   * If they match, the deployed revision is returned without modifying the cluster (see {@link Release#isUnchanged()}).
+   * <p>
+   * Charts whose templates produce a different output on each render (e.g. random values, lookup functions)
+   * are always upgraded.
+   *
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand skipUnchanged() {
+    this.skipUnchanged = true;
+    return this;
+  }
+
   /**
    * Set values for the chart.
    *
@@ -537,4 +673,18 @@ public class UpgradeCommand extends HelmCommand<Release> {
     this.repositoryConfig = repositoryConfig;
     return this;
   }
+
+  /**
+   * Post-process the rendered manifests before they are applied.
+   * <p>
+   * The post-renderer runs in-process, it receives the rendered manifests and must return the (modified) manifests.
+   * The provided {@link RenderedManifests} is only valid for the duration of the invocation.
+   *
+   * @param postRenderer the function to post-process the rendered manifests.
+   * @return this {@link UpgradeCommand} instance.
+   */
+  public UpgradeCommand withPostRenderer(Function<RenderedManifests, RenderedManifests> postRenderer) {
+    this.postRenderer = postRenderer;
+    return this;
+  }
 }
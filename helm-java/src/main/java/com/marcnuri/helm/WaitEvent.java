@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+import java.util.Map;
+
+import static com.marcnuri.helm.HelmCommand.parseUrlEncodedLines;
+
+/**
+ * Status change of a release resource reported by the {@link WaitStrategy#WATCHER} waiter.
+ *
+ * @author Marc Nuri
+ */
+public class WaitEvent {
+
+  public static final String CURRENT = "Current";
+  public static final String IN_PROGRESS = "InProgress";
+  public static final String FAILED = "Failed";
+  public static final String NOT_FOUND = "NotFound";
+
+  private final boolean deletion;
+  private final String kind;
+  private final String namespace;
+  private final String name;
+  private final String status;
+  private final String message;
+  private final int pending;
+  private final int total;
+
+  public WaitEvent(boolean deletion, String kind, String namespace, String name, String status, String message,
+    int pending, int total) {
+    this.deletion = deletion;
+    this.kind = kind;
+    this.namespace = namespace;
+    this.name = name;
+    this.status = status;
+    this.message = message;
+    this.pending = pending;
+    this.total = total;
+  }
+
+  /**
+   * Whether the waiter is waiting for the resources to be deleted (uninstall) instead of ready.
+   *
+   * @return true if waiting for the deletion of the resources.
+   */
+  public boolean isDeletion() {
+    return deletion;
+  }
+
+  public String getKind() {
+    return kind;
+  }
+
+  public String getNamespace() {
+    return namespace;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The resource status, one of {@link #CURRENT}, {@link #IN_PROGRESS}, {@link #FAILED}, or {@link #NOT_FOUND}.
+   *
+   * @return the resource status.
+   */
+  public String getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * The number of resources that haven't reached the desired status yet (after this change).
+   *
+   * @return the number of pending resources.
+   */
+  public int getPending() {
+    return pending;
+  }
+
+  /**
+   * The total number of resources being waited for.
+   *
+   * @return the total number of resources.
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  static WaitEvent parse(String event) {
+    final Map<String, String> values = parseUrlEncodedLines(event).stream().findFirst()
+      .orElseThrow(() -> new IllegalArgumentException("Wait event cannot be empty"));
+    return new WaitEvent(
+      "delete".equals(values.get("wait")),
+      values.get("kind"),
+      values.get("namespace"),
+      values.get("name"),
+      values.get("status"),
+      values.get("message"),
+      Integer.parseInt(values.getOrDefault("pending", "0")),
+      Integer.parseInt(values.getOrDefault("total", "0"))
+    );
+  }
+}
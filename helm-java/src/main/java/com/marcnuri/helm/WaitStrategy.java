@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm;
+
+/**
+ * Strategy used to wait for the release resources.
+ *
+ * @author Marc Nuri
+ */
+public enum WaitStrategy {
+  /**
+   * Helm's default waiter, polls every resource until it's ready (or deleted).
+   */
+  LEGACY,
+  /**
+   * Watches the resources (a single list and watch per resource type and namespace) and evaluates their
+   * kstatus-style readiness on every change, reporting the progress to the {@link WaitEvent} listener.
+   * The wait fails as soon as any of the resources fails (e.g. a Job exceeds its backoff limit).
+   */
+  WATCHER
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.RepoServerOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Marc Nuri
+ */
+class HelmChartCacheTest {
+
+  @TempDir
+  private Path tempDir;
+  private Path cacheDir;
+  private String chartUrl;
+
+  @BeforeEach
+  void setUp() {
+    cacheDir = tempDir.resolve("cache");
+    Helm.chartCache().withDirectory(cacheDir).call();
+    final Path charts = tempDir.resolve("charts");
+    Helm.create().withName("cached-chart").withDir(tempDir).call()
+      .packageIt().withDestination(charts).call();
+    final String serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+      new RepoServerOptions(charts.resolve("*.tgz").toString(), null, null)).out;
+    chartUrl = serverUrl + "/cached-chart-0.1.0.tgz";
+  }
+
+  @AfterEach
+  void tearDown() {
+    Helm.chartCache().call();
+    Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+  }
+
+  @Test
+  void storesRemoteChartInCache() {
+    final String result = Helm.template(chartUrl).call();
+    assertThat(result).contains("name: release-name-cached-chart");
+    assertThat(cacheDir.resolve("blobs"))
+      .isDirectoryContaining(p -> p.getFileName().toString().endsWith(".tgz"));
+  }
+
+  @Test
+  void resolvesCachedChartWithoutServer() {
+    Helm.template(chartUrl).call();
+    Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    final String result = Helm.template(chartUrl).withName("offline").call();
+    assertThat(result).contains("name: offline-cached-chart");
+  }
+
+  @Test
+  void disabledCacheDoesNotStoreCharts() {
+    Helm.chartCache().call();
+    Helm.template(chartUrl).call();
+    assertThat(cacheDir.resolve("blobs")).isEmptyDirectory();
+  }
+}
@@ -16,7 +16,9 @@
 
 package com.marcnuri.helm;
 
+import com.marcnuri.helm.jni.RepoServerOptions;
 import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,6 +35,7 @@ import java.util.Comparator;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * @author Marc Nuri
@@ -144,6 +148,16 @@ class HelmDependencyTest {
         .content().contains("name: the-dependency");
     }
 
+    @Test
+    void withRefreshTtl() {
+      final String result = helm.dependency().update().withRefreshTtl(3600).call();
+      assertThat(result)
+        .contains("Saving 1 charts")
+        .doesNotContain("Hang tight while we grab the latest from your chart repositories");
+      assertThat(tempDir.resolve("test").resolve("charts").resolve("the-dependency-0.1.0.tgz"))
+        .exists();
+    }
+
     @Test
     void withDebug() {
       final String result = helm.dependency().update().debug().call();
@@ -171,4 +185,84 @@ class HelmDependencyTest {
         );
     }
   }
+  @Nested
+  class UpdateAll {
+
+    private Path repositoryConfig;
+
+    @BeforeEach
+    void setUp() throws IOException {
+      Helm.create().withName("shared").withDir(tempDir).call()
+        .packageIt().withDestination(tempDir.resolve("repo")).call();
+      final String serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+        new RepoServerOptions(tempDir.resolve("repo").resolve("*.tgz").toString(), null, null)).out;
+      repositoryConfig = tempDir.resolve("repositories.yaml");
+      Helm.repo().add().withRepositoryConfig(repositoryConfig)
+        .withName("deps").withUrl(URI.create(serverUrl)).call();
+      for (String umbrella : new String[]{"umbrella-1", "umbrella-2"}) {
+        Helm.create().withName(umbrella).withDir(tempDir).call();
+        Files.write(tempDir.resolve(umbrella).resolve("Chart.yaml"),
+          ("\ndependencies:\n" +
+            "  - name: shared\n" +
+            "    version: ^0.1.0\n" +
+            "    repository: \"@deps\"\n").getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.APPEND);
+      }
+    }
+
+    @AfterEach
+    void tearDown() {
+      Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    }
+
+    @Test
+    void withSharedAndLocalDependencies() {
+      final java.util.List<DependencyUpdateResult> result = Helm.dependencyUpdateAll()
+        .withRepositoryConfig(repositoryConfig)
+        .withChart(tempDir.resolve("umbrella-1"))
+        .withChart(tempDir.resolve("umbrella-2"))
+        .withChart(tempDir.resolve("test"))
+        .call();
+      assertThat(result)
+        .extracting(DependencyUpdateResult::getName, DependencyUpdateResult::getDependencies,
+          DependencyUpdateResult::isLockUpdated, DependencyUpdateResult::getError)
+        .containsExactly(
+          tuple("umbrella-1", 1, true, null),
+          tuple("umbrella-2", 1, true, null),
+          tuple("test", 1, true, null)
+        );
+      assertThat(tempDir.resolve("umbrella-1").resolve("charts").resolve("shared-0.1.0.tgz")).isNotEmptyFile();
+      assertThat(tempDir.resolve("umbrella-2").resolve("charts").resolve("shared-0.1.0.tgz")).isNotEmptyFile();
+      assertThat(tempDir.resolve("test").resolve("charts").resolve("the-dependency-0.1.0.tgz")).isNotEmptyFile();
+      assertThat(tempDir.resolve("umbrella-1").resolve("Chart.lock"))
+        .content().contains("name: shared", "version: 0.1.0");
+    }
+
+    @Test
+    void withUnchangedLock() {
+      final DependencyUpdateAllCommand updateAll = Helm.dependencyUpdateAll()
+        .withRepositoryConfig(repositoryConfig)
+        .withChart(tempDir.resolve("umbrella-1"));
+      updateAll.call();
+      assertThat(updateAll.call())
+        .singleElement()
+        .hasFieldOrPropertyWithValue("lockUpdated", false)
+        .hasFieldOrPropertyWithValue("successful", true);
+    }
+
+    @Test
+    void withUnsatisfiableDependency() throws IOException {
+      Files.write(tempDir.resolve("umbrella-2").resolve("Chart.yaml"),
+        new String(Files.readAllBytes(tempDir.resolve("umbrella-2").resolve("Chart.yaml")), StandardCharsets.UTF_8)
+          .replace("^0.1.0", "^2.0.0").getBytes(StandardCharsets.UTF_8));
+      final java.util.List<DependencyUpdateResult> result = Helm.dependencyUpdateAll()
+        .withRepositoryConfig(repositoryConfig)
+        .withChart(tempDir.resolve("umbrella-1"))
+        .withChart(tempDir.resolve("umbrella-2"))
+        .call();
+      assertThat(result.get(0).isSuccessful()).isTrue();
+      assertThat(result.get(1).getError())
+        .contains("dependency \"shared\" can't be satisfied by repository \"deps\"");
+    }
+  }
 }
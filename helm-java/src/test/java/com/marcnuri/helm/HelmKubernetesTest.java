@@ -34,10 +34,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * @author Marc Nuri
@@ -128,6 +130,32 @@ class HelmKubernetesTest {
           );
       }
 
+      @Test
+      void withWaitReadyAndWatcherStrategy() {
+        final List<WaitEvent> events = new ArrayList<>();
+        final Release result = helm.install()
+          .withKubeConfig(kubeConfigFile)
+          .withName("helm-install-with-watcher")
+          .set("fullnameOverride", "helm-install-with-watcher")
+          .set("image.repository", "ghcr.io/linuxserver/nginx")
+          .set("image.tag", "latest")
+          .waitReady()
+          .withWaitStrategy(WaitStrategy.WATCHER)
+          .withWaitListener(events::add)
+          .call();
+        assertThat(result)
+          .returns("deployed", Release::getStatus);
+        assertThat(events)
+          .filteredOn(e -> e.getKind().equals("Deployment"))
+          .extracting(WaitEvent::getName)
+          .containsOnly("helm-install-with-watcher");
+        assertThat(events)
+          .last()
+          .returns(0, WaitEvent::getPending)
+          .returns(3, WaitEvent::getTotal)
+          .returns(WaitEvent.CURRENT, WaitEvent::getStatus);
+      }
+
       @Test
       void withWaitReadyAndCustomTimeout() {
         final Release result = helm.install()
@@ -292,6 +320,22 @@ class HelmKubernetesTest {
                 .returns("failed", Release::getStatus);
       }
 
+      @Test
+      void withFailingWaitListener() {
+        final InstallCommand installCommand = helm.install()
+          .withKubeConfig(kubeConfigFile)
+          .withName("install-failing-wait-listener")
+          .waitReady()
+          .withWaitStrategy(WaitStrategy.WATCHER)
+          .withWaitListener(event -> {
+            throw new IllegalArgumentException("Listener failure");
+          });
+        assertThatThrownBy(installCommand::call)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("wait progress consumer failed")
+          .hasRootCauseMessage("Listener failure");
+      }
+
       @Test
       void withAtomic() {
         InstallCommand atomicInstallCommand =
@@ -435,6 +479,113 @@ class HelmKubernetesTest {
     }
   }
 
+  @Nested
+  class Rollback {
+
+    @Nested
+    class Valid {
+
+      @Test
+      void toPreviousRevision() {
+        helm.install().withName("rollback-previous").withKubeConfig(kubeConfigFile).call();
+        helm.upgrade().withName("rollback-previous").withKubeConfig(kubeConfigFile).set("replicaCount", 2).call();
+        final Release result = Helm.rollback("rollback-previous")
+          .withKubeConfig(kubeConfigFile)
+          .call();
+        assertThat(result)
+          .returns("rollback-previous", Release::getName)
+          .returns("3", Release::getRevision)
+          .returns("deployed", Release::getStatus);
+        assertThat(Helm.history("rollback-previous").withKubeConfig(kubeConfigFile).call())
+          .extracting(ReleaseHistory::getDescription)
+          .last().asString()
+          .contains("Rollback to 1");
+      }
+
+      @Test
+      void withRevision() {
+        helm.install().withName("rollback-with-revision").withKubeConfig(kubeConfigFile).call();
+        helm.upgrade().withName("rollback-with-revision").withKubeConfig(kubeConfigFile).set("replicaCount", 2).call();
+        helm.upgrade().withName("rollback-with-revision").withKubeConfig(kubeConfigFile).set("replicaCount", 3).call();
+        final Release result = Helm.rollback("rollback-with-revision")
+          .withKubeConfig(kubeConfigFile)
+          .withRevision(1)
+          .call();
+        assertThat(result)
+          .returns("4", Release::getRevision)
+          .returns("deployed", Release::getStatus);
+        assertThat(Helm.get("rollback-with-revision").values().withKubeConfig(kubeConfigFile).call())
+          .doesNotContain("replicaCount");
+      }
+
+      @Test
+      void withKubeConfigContentsAndDryRun() {
+        helm.install().withName("rollback-dry-run").withKubeConfig(kubeConfigFile).call();
+        helm.upgrade().withName("rollback-dry-run").withKubeConfig(kubeConfigFile).set("replicaCount", 2).call();
+        final Release result = Helm.rollback("rollback-dry-run")
+          .withKubeConfigContents(kubeConfigContents)
+          .dryRun()
+          .call();
+        assertThat(result)
+          .returns("2", Release::getRevision)
+          .returns("deployed", Release::getStatus);
+      }
+
+      @Test
+      void withWaitReadyAndWatcherStrategy() {
+        helm.install().withName("rollback-wait-ready").withKubeConfig(kubeConfigFile)
+          .set("fullnameOverride", "rollback-wait-ready")
+          .set("image.repository", "ghcr.io/linuxserver/nginx")
+          .set("image.tag", "latest")
+          .call();
+        helm.upgrade().withName("rollback-wait-ready").withKubeConfig(kubeConfigFile)
+          .set("fullnameOverride", "rollback-wait-ready")
+          .set("image.repository", "ghcr.io/linuxserver/nginx")
+          .set("image.tag", "latest")
+          .set("replicaCount", 2)
+          .call();
+        final List<WaitEvent> events = new ArrayList<>();
+        final Release result = Helm.rollback("rollback-wait-ready")
+          .withKubeConfig(kubeConfigFile)
+          .waitReady()
+          .withWaitStrategy(WaitStrategy.WATCHER)
+          .withWaitListener(events::add)
+          .call();
+        assertThat(result)
+          .returns("3", Release::getRevision)
+          .returns("deployed", Release::getStatus);
+        assertThat(events)
+          .isNotEmpty()
+          .last()
+          .returns(0, WaitEvent::getPending);
+      }
+    }
+
+    @Nested
+    class Invalid {
+
+      @Test
+      void nonExistentRelease() {
+        final RollbackCommand rollbackCommand = Helm.rollback("rollback-non-existent")
+          .withKubeConfig(kubeConfigFile);
+        assertThatThrownBy(rollbackCommand::call)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("release: not found");
+      }
+
+      @Test
+      void nonExistentRevision() {
+        helm.install().withName("rollback-non-existent-revision").withKubeConfig(kubeConfigFile).call();
+        final RollbackCommand rollbackCommand = Helm.rollback("rollback-non-existent-revision")
+          .withKubeConfig(kubeConfigFile)
+          .withRevision(5);
+        assertThatThrownBy(rollbackCommand::call)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("release has no 5 version");
+      }
+    }
+  }
+
   @Nested
   class Uninstall {
 
@@ -450,6 +601,64 @@ class HelmKubernetesTest {
         );
       }
 
+      @Test
+      void withWaitDeletedAndWatcherStrategy() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-with-watcher").call();
+        final List<WaitEvent> events = new ArrayList<>();
+        final String out = Helm.uninstall("uninstall-with-watcher")
+          .withKubeConfig(kubeConfigFile)
+          .waitDeleted()
+          .withWaitStrategy(WaitStrategy.WATCHER)
+          .withWaitListener(events::add)
+          .call();
+        assertThat(out).contains(
+          "release \"uninstall-with-watcher\" uninstalled\n"
+        );
+        assertThat(events)
+          .allMatch(WaitEvent::isDeletion)
+          .filteredOn(e -> e.getStatus().equals(WaitEvent.NOT_FOUND))
+          .hasSize(3);
+      }
+
+      @Test
+      void allWithReleaseNames() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-all-1").call();
+        helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-all-2").call();
+        final List<UninstallResult> results = Helm.uninstallAll()
+          .withKubeConfig(kubeConfigFile)
+          .withReleaseNames("uninstall-all-1", "uninstall-all-2", "uninstall-all-missing")
+          .ignoreNotFound()
+          .call();
+        assertThat(results)
+          .extracting(UninstallResult::getName, UninstallResult::getStatus, UninstallResult::isSuccessful)
+          .containsExactly(
+            tuple("uninstall-all-1", UninstallResult.UNINSTALLED, true),
+            tuple("uninstall-all-2", UninstallResult.UNINSTALLED, true),
+            tuple("uninstall-all-missing", UninstallResult.NOT_FOUND, true)
+          );
+      }
+
+      @Test
+      void allWithWaitDeletedAndWatcherStrategy() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-all-with-watcher-1").call();
+        helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-all-with-watcher-2").call();
+        final List<WaitEvent> events = new ArrayList<>();
+        final List<UninstallResult> results = Helm.uninstallAll()
+          .withKubeConfig(kubeConfigFile)
+          .withReleaseNames("uninstall-all-with-watcher-1", "uninstall-all-with-watcher-2")
+          .waitDeleted()
+          .withWaitStrategy(WaitStrategy.WATCHER)
+          .withWaitListener(events::add)
+          .call();
+        assertThat(results)
+          .allMatch(UninstallResult::isSuccessful)
+          .hasSize(2);
+        assertThat(events)
+          .allMatch(WaitEvent::isDeletion)
+          .filteredOn(e -> e.getStatus().equals(WaitEvent.NOT_FOUND))
+          .hasSize(6);
+      }
+
       @Test
       void withNamespace() {
         helm.install().withKubeConfig(kubeConfigFile).withName("uninstall-with-namespace")
@@ -549,6 +758,28 @@ class HelmKubernetesTest {
           .message()
           .isEqualTo("uninstall: Release not loaded: i-was-never-created: release: not found");
       }
+
+      @Test
+      void allWithMissingRelease() {
+        final List<UninstallResult> results = Helm.uninstallAll()
+          .withKubeConfig(kubeConfigFile)
+          .withReleaseNames("i-was-never-created-either")
+          .call();
+        assertThat(results)
+          .singleElement()
+          .returns(UninstallResult.FAILED, UninstallResult::getStatus)
+          .returns(false, UninstallResult::isSuccessful)
+          .extracting(UninstallResult::getError).asString()
+          .contains("release: not found");
+      }
+
+      @Test
+      void allWithoutReleases() {
+        final UninstallAllCommand uninstallAll = Helm.uninstallAll().withKubeConfig(kubeConfigFile);
+        assertThatThrownBy(uninstallAll::call)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessage("at least one release name or a selector is required");
+      }
     }
   }
 
@@ -634,6 +865,35 @@ class HelmKubernetesTest {
           );
       }
 
+      @Test
+      void withSkipUnchanged() {
+        helm.install().withName("upgrade-skip-unchanged").withKubeConfig(kubeConfigFile).call();
+        final Release result = helm.upgrade()
+          .withKubeConfig(kubeConfigFile)
+          .withName("upgrade-skip-unchanged")
+          .skipUnchanged()
+          .call();
+        assertThat(result)
+          .returns("1", Release::getRevision)
+          .returns("deployed", Release::getStatus)
+          .returns(true, Release::isUnchanged);
+      }
+
+      @Test
+      void withSkipUnchangedAndChangedValues() {
+        helm.install().withName("upgrade-skip-unchanged-changed").withKubeConfig(kubeConfigFile).call();
+        final Release result = helm.upgrade()
+          .withKubeConfig(kubeConfigFile)
+          .withName("upgrade-skip-unchanged-changed")
+          .set("replicaCount", 2)
+          .skipUnchanged()
+          .call();
+        assertThat(result)
+          .returns("2", Release::getRevision)
+          .returns("deployed", Release::getStatus)
+          .returns(false, Release::isUnchanged);
+      }
+
       @Test
       void skipCrdsWithoutCrdsInChart() {
         helm.install().withName("upgrade-skip-crds").withKubeConfig(kubeConfigFile).call();
@@ -889,7 +1149,9 @@ class HelmKubernetesTest {
         "test-history-after-install",
         "test-history-after-install-and-upgrade",
         "test-history-with-max",
-        "test-history-with-kube-config-contents"
+        "test-history-with-kube-config-contents",
+        "test-history-compact",
+        "test-history-upgrade-max-history"
       }) {
         try {
           Helm.uninstall(release).withKubeConfig(kubeConfigFile).call();
@@ -903,6 +1165,12 @@ class HelmKubernetesTest {
       } catch (Exception ignored) {
         // release may not exist
       }
+      try {
+        Helm.uninstall("test-history-compact-dry-run").withKubeConfig(kubeConfigFile)
+          .withNamespace("history-compact-namespace").call();
+      } catch (Exception ignored) {
+        // release may not exist
+      }
     }
 
     @Nested
@@ -1021,11 +1289,85 @@ class HelmKubernetesTest {
           .returns(1, ReleaseHistory::getRevision);
       }
 
+      @Test
+      void compact() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("test-history-compact").call();
+        helm.upgrade().withKubeConfig(kubeConfigFile).withName("test-history-compact").set("image.tag", "v1").call();
+        helm.upgrade().withKubeConfig(kubeConfigFile).withName("test-history-compact").set("image.tag", "v2").call();
+
+        final List<CompactedRevision> compacted = Helm.history("test-history-compact")
+          .withKubeConfig(kubeConfigFile)
+          .compact(1)
+          .call();
+
+        assertThat(compacted)
+          .extracting(CompactedRevision::getRevision)
+          .containsExactly(1, 2);
+        assertThat(compacted)
+          .extracting(CompactedRevision::getOutcome, CompactedRevision::getError)
+          .containsOnly(tuple(CompactedRevision.DELETED, null));
+        assertThat(Helm.history("test-history-compact").withKubeConfig(kubeConfigFile).call())
+          .singleElement()
+          .returns(3, ReleaseHistory::getRevision)
+          .returns("deployed", ReleaseHistory::getStatus);
+      }
+
+      @Test
+      void compactNamespaceWithDryRun() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("test-history-compact-dry-run")
+          .withNamespace("history-compact-namespace").createNamespace().call();
+        helm.upgrade().withKubeConfig(kubeConfigFile).withName("test-history-compact-dry-run")
+          .withNamespace("history-compact-namespace").set("image.tag", "v1").call();
+
+        final List<CompactedRevision> compacted = Helm.compactHistory(1)
+          .withKubeConfig(kubeConfigFile)
+          .withNamespace("history-compact-namespace")
+          .dryRun()
+          .call();
+
+        assertThat(compacted)
+          .singleElement()
+          .returns("test-history-compact-dry-run", CompactedRevision::getName)
+          .returns("history-compact-namespace", CompactedRevision::getNamespace)
+          .returns(1, CompactedRevision::getRevision)
+          .returns("superseded", CompactedRevision::getStatus)
+          .returns(CompactedRevision.DRY_RUN, CompactedRevision::getOutcome);
+        assertThat(Helm.history("test-history-compact-dry-run").withKubeConfig(kubeConfigFile)
+          .withNamespace("history-compact-namespace").call())
+          .hasSize(2);
+      }
+
+      @Test
+      void upgradeWithMaxHistory() {
+        helm.install().withKubeConfig(kubeConfigFile).withName("test-history-upgrade-max-history").call();
+        for (String tag : new String[]{"v1", "v2", "v3"}) {
+          helm.upgrade().withKubeConfig(kubeConfigFile).withName("test-history-upgrade-max-history")
+            .set("image.tag", tag).withMaxHistory(2).call();
+        }
+
+        final List<ReleaseHistory> releaseHistories = Helm.history("test-history-upgrade-max-history")
+          .withKubeConfig(kubeConfigFile)
+          .call();
+
+        assertThat(releaseHistories)
+          .extracting(ReleaseHistory::getRevision)
+          .containsExactly(3, 4);
+      }
+
     }
 
     @Nested
     class Invalid {
 
+      @Test
+      void compactWithInvalidKeep() {
+        final HistoryCompactCommand historyCompactCommand = Helm.compactHistory(0)
+          .withKubeConfig(kubeConfigFile);
+        assertThatThrownBy(historyCompactCommand::call)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("invalid number of revisions to keep (0), must be at least 1");
+      }
+
       @Test
       void nonExistentRelease() {
         final HistoryCommand historyCommand = Helm.history("non-existent-release")
@@ -1146,4 +1488,96 @@ class HelmKubernetesTest {
       }
     }
   }
+
+  @Nested
+  class ReleaseSet {
+
+    private Path chart;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+      Helm.create().withName("release-set").withDir(tempDir).call();
+      chart = tempDir.resolve("release-set");
+    }
+
+    @Test
+    void deploysDependenciesFirst() {
+      final List<ReleaseOutcome> listened = new ArrayList<>();
+      final List<ReleaseOutcome> result = Helm.releaseSet()
+        .withKubeConfig(kubeConfigFile)
+        .withRelease(new ReleaseDefinition("release-set-frontend", chart)
+          .dependsOn("release-set-backend"))
+        .withRelease(new ReleaseDefinition("release-set-backend", chart)
+          .dependsOn("release-set-database"))
+        .withRelease(new ReleaseDefinition("release-set-database", chart))
+        .withListener(listened::add)
+        .call();
+      assertThat(result)
+        .isEqualTo(listened)
+        .allMatch(ReleaseOutcome::isSuccessful)
+        .extracting(ReleaseOutcome::getName, ReleaseOutcome::getWave, ReleaseOutcome::getRevision)
+        .containsExactly(
+          tuple("release-set-database", 0, 1),
+          tuple("release-set-backend", 1, 1),
+          tuple("release-set-frontend", 2, 1)
+        );
+    }
+
+    @Test
+    void upgradesExistingRelease() {
+      helm.install().withName("release-set-existing").withKubeConfig(kubeConfigFile).call();
+      final List<ReleaseOutcome> result = Helm.releaseSet()
+        .withKubeConfigContents(kubeConfigContents)
+        .withRelease(new ReleaseDefinition("release-set-existing", chart))
+        .call();
+      assertThat(result)
+        .singleElement()
+        .returns(ReleaseOutcome.DEPLOYED, ReleaseOutcome::getStatus)
+        .returns(2, ReleaseOutcome::getRevision);
+    }
+
+    @Test
+    void skipsDependentsOfFailedRelease() {
+      final List<ReleaseOutcome> result = Helm.releaseSet()
+        .withKubeConfig(kubeConfigFile)
+        .withRelease(new ReleaseDefinition("release-set-broken", chart)
+          .withNamespace("release-set-non-existent"))
+        .withRelease(new ReleaseDefinition("release-set-dependent", chart)
+          .dependsOn("release-set-non-existent/release-set-broken"))
+        .call();
+      assertThat(result)
+        .extracting(ReleaseOutcome::getName, ReleaseOutcome::getStatus)
+        .containsExactly(
+          tuple("release-set-broken", ReleaseOutcome.FAILED),
+          tuple("release-set-dependent", ReleaseOutcome.SKIPPED)
+        );
+      assertThat(result.get(1).getError())
+        .isEqualTo("dependency \"release-set-non-existent/release-set-broken\" was not deployed");
+    }
+
+    @Test
+    void withCycle() {
+      final ReleaseSetCommand releaseSetCommand = Helm.releaseSet()
+        .withKubeConfig(kubeConfigFile)
+        .withRelease(new ReleaseDefinition("release-set-a", chart).dependsOn("release-set-b"))
+        .withRelease(new ReleaseDefinition("release-set-b", chart).dependsOn("release-set-a"));
+      assertThatThrownBy(releaseSetCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("release dependencies contain a cycle: default/release-set-a, default/release-set-b");
+    }
+
+    @Test
+    void withFailingListener() {
+      final ReleaseSetCommand releaseSetCommand = Helm.releaseSet()
+        .withKubeConfig(kubeConfigFile)
+        .withRelease(new ReleaseDefinition("release-set-listener", chart))
+        .withListener(outcome -> {
+          throw new IllegalArgumentException("Listener failure");
+        });
+      assertThatThrownBy(releaseSetCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("release set consumer failed")
+        .hasRootCauseMessage("Listener failure");
+    }
+  }
 }
@@ -20,13 +20,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Objects;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -130,4 +135,95 @@ class HelmPackageTest {
     assertThat(tempDir)
       .isDirectoryContaining(p -> p.toFile().getName().equals("test-0.1.0.tgz"));
   }
+
+  @Test
+  void writeToStream() throws NoSuchAlgorithmException {
+    final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    final PackagedChart result = helm.packageIt().writeTo(archive);
+    assertThat(result)
+      .returns("test", PackagedChart::getName)
+      .returns("0.1.0", PackagedChart::getVersion)
+      .returns((long) archive.size(), PackagedChart::getSize)
+      .returns(sha256(archive.toByteArray()), PackagedChart::getDigest)
+      .returns(null, PackagedChart::getArchive);
+    assertThat(tempDir)
+      .isDirectoryNotContaining(p -> p.toFile().getName().endsWith(".tgz"));
+  }
+
+  @Test
+  void toMemory() {
+    final PackagedChart result = helm.packageIt().toMemory();
+    assertThat(result.getArchive().remaining()).isEqualTo(result.getSize());
+    assertThat(Helm.template(result.getArchive()).call())
+      .contains("name: release-name-test");
+  }
+
+  @Test
+  void writeToFailingStream() {
+    final OutputStream failing = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Stream closed");
+      }
+    };
+    final PackageCommand packageCommand = helm.packageIt();
+    assertThatIllegalStateException()
+      .isThrownBy(() -> packageCommand.writeTo(failing))
+      .withMessageContaining("archive writer callback failed")
+      .withRootCauseInstanceOf(IOException.class);
+  }
+
+  @Test
+  void toMemoryWithSign() {
+    final PackageCommand packageCommand = helm.packageIt()
+      .sign().withKey("KEY <KEY@example.com>").withKeyring(keyring);
+    assertThatIllegalStateException()
+      .isThrownBy(packageCommand::toMemory)
+      .withMessage("signing is only supported when packaging to a destination directory");
+  }
+
+  @Test
+  void packageAllReproducible() {
+    final Path other = tempDir.resolve("other");
+    Helm.create().withName("other").withDir(tempDir).call();
+    final List<PackageResult> first = Helm.packageAll()
+      .withChart(tempDir.resolve("test"))
+      .withChart(other)
+      .withDestination(tempDir.resolve("first"))
+      .withConcurrency(2)
+      .call();
+    final List<PackageResult> second = Helm.packageAll()
+      .withChart(other)
+      .withChart(tempDir.resolve("test"))
+      .withDestination(tempDir.resolve("second"))
+      .call();
+    assertThat(first)
+      .allMatch(PackageResult::isSuccessful)
+      .extracting(PackageResult::getArchive)
+      .containsExactly(tempDir.resolve("first").resolve("test-0.1.0.tgz"), tempDir.resolve("first").resolve("other-0.1.0.tgz"))
+      .allMatch(Files::exists);
+    assertThat(first.get(0).getDigest()).isEqualTo(second.get(1).getDigest());
+    assertThat(first.get(1).getDigest()).isEqualTo(second.get(0).getDigest());
+  }
+
+  @Test
+  void packageAllReportsFailuresPerChart() {
+    final List<PackageResult> result = Helm.packageAll()
+      .withChart(tempDir.resolve("test"))
+      .withChart(tempDir.resolve("missing"))
+      .withDestination(tempDir)
+      .call();
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0).isSuccessful()).isTrue();
+    assertThat(result.get(1).getError()).isNotBlank();
+    assertThat(result.get(1).getArchive()).isNull();
+  }
+
+  private static String sha256(byte[] bytes) throws NoSuchAlgorithmException {
+    final StringBuilder digest = new StringBuilder("sha256:");
+    for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+      digest.append(String.format("%02x", b));
+    }
+    return digest.toString();
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm;
+
+import com.marcnuri.helm.jni.RepoServerOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Marc Nuri
+ */
+class HelmPullTest {
+
+  @TempDir
+  private Path tempDir;
+  private Path destination;
+  private String serverUrl;
+
+  @BeforeEach
+  void setUp() {
+    final Path charts = tempDir.resolve("charts");
+    Helm.create().withName("first").withDir(tempDir).call().packageIt().withDestination(charts).call();
+    Helm.create().withName("second").withDir(tempDir).call().packageIt().withDestination(charts).call();
+    serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+      new RepoServerOptions(charts.resolve("*.tgz").toString(), null, null)).out;
+    destination = tempDir.resolve("destination");
+  }
+
+  @AfterEach
+  void tearDown() {
+    Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+  }
+
+  @Test
+  void pullsMultipleCharts() {
+    final List<PullResult> result = Helm.pull()
+      .withChart(serverUrl + "/first-0.1.0.tgz")
+      .withChart(serverUrl + "/second-0.1.0.tgz")
+      .withDestination(destination)
+      .withConcurrency(2)
+      .call();
+    assertThat(result)
+      .hasSize(2)
+      .allMatch(PullResult::isSuccessful)
+      .allMatch(r -> r.getBytes() > 0);
+    assertThat(destination.resolve("first-0.1.0.tgz")).isRegularFile();
+    assertThat(destination.resolve("second-0.1.0.tgz")).isRegularFile();
+  }
+
+  @Test
+  void pullsAndUntarsCharts() {
+    final List<PullResult> result = Helm.pull()
+      .withChart(serverUrl + "/first-0.1.0.tgz")
+      .withDestination(destination)
+      .untar()
+      .call();
+    assertThat(result).singleElement()
+      .hasFieldOrPropertyWithValue("path", destination.resolve("first"));
+    assertThat(destination.resolve("first").resolve("Chart.yaml")).isRegularFile();
+    assertThat(destination.resolve("first-0.1.0.tgz")).doesNotExist();
+  }
+
+  @Test
+  void reportsFailuresPerChart() {
+    final List<PullResult> result = Helm.pull()
+      .withChart(serverUrl + "/first-0.1.0.tgz")
+      .withChart(serverUrl + "/missing-0.1.0.tgz")
+      .withDestination(destination)
+      .call();
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0).isSuccessful()).isTrue();
+    assertThat(result.get(1))
+      .returns(false, PullResult::isSuccessful)
+      .returns(null, PullResult::getPath);
+  }
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -108,4 +109,68 @@ class HelmPushTest {
     assertThat(result)
       .contains("level=DEBUG", "status=\"201 Created\"", "Pushed: ", "test:0.1.0", "Digest: ");
   }
+
+  @Test
+  void pushChartArchiveFromMemory() {
+    Helm.registry().login().withHost(remoteServer).withUsername("username").withPassword(password).call();
+    final PackagedChart packaged = Helm.create().withName("in-memory").withDir(tempDir).call()
+      .packageIt().toMemory();
+    final String result = Helm.push()
+      .withChartArchive(packaged.getArchive())
+      .withRemote(URI.create("oci://" + remoteServer))
+      .call();
+    assertThat(result)
+      .contains("Pushed: ", "in-memory:0.1.0", "Digest: ");
+  }
+
+  @Test
+  void pushAllAuthorized() {
+    Helm.registry().login().withHost(remoteServer).withUsername("username").withPassword(password).call();
+    Helm.create().withName("other").withDir(tempDir).call()
+      .packageIt().withDestination(tempDir.resolve("target")).call();
+    final List<PushResult> result = Helm.pushAll()
+      .withChart(packagedChart)
+      .withChart(tempDir.resolve("target").resolve("other-0.1.0.tgz"))
+      .withRemote(URI.create("oci://" + remoteServer))
+      .withConcurrency(2)
+      .call();
+    assertThat(result)
+      .hasSize(2)
+      .allMatch(PushResult::isSuccessful)
+      .allMatch(r -> r.getDigest().startsWith("sha256:"))
+      .allMatch(r -> r.getBytes() > 0)
+      .extracting(PushResult::getRef)
+      .containsExactly(remoteServer + "/test:0.1.0", remoteServer + "/other:0.1.0");
+  }
+
+  @Test
+  void pushAllReportsFailuresPerChart() {
+    Helm.registry().login().withHost(remoteServer).withUsername("username").withPassword(password).call();
+    final List<PushResult> result = Helm.pushAll()
+      .withChart(packagedChart)
+      .withChart(tempDir.resolve("missing-0.1.0.tgz"))
+      .withRemote(URI.create("oci://" + remoteServer))
+      .call();
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0).isSuccessful()).isTrue();
+    assertThat(result.get(1).getError()).contains("no such file");
+  }
+
+  @Test
+  void pushToFilesystemBackedServerAndStop() {
+    final Path storageRoot = tempDir.resolve("storage");
+    final String server = Helm.HelmLibHolder.INSTANCE.RepoOciServerStart(
+      new RepoServerOptions(null, null, password, storageRoot.toString(), 32)).out;
+    Helm.registry().login().withHost(server).withUsername("username").withPassword(password).call();
+    final PushCommand pushCommand = Helm.push()
+      .withChart(packagedChart)
+      .withRemote(URI.create("oci://" + server));
+    assertThat(pushCommand.call()).contains("Pushed: ", "test:0.1.0");
+    assertThat(storageRoot.resolve("docker").resolve("registry").resolve("v2").resolve("repositories").resolve("test"))
+      .isDirectory();
+    Helm.HelmLibHolder.INSTANCE.RepoServerStop(server);
+    assertThat(storageRoot).isDirectory();
+    assertThatIllegalStateException()
+      .isThrownBy(pushCommand::call);
+  }
 }
@@ -16,6 +16,8 @@
 
 package com.marcnuri.helm;
 
+import com.marcnuri.helm.jni.RepoServerOptions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -73,6 +77,304 @@ class HelmRepoTest {
     }
   }
 
+  @Nested
+  class RepoAddBatch {
+    @TempDir
+    Path tempDir;
+    Path config;
+    URI serverUrl;
+
+    @BeforeEach
+    void setUp() {
+      Helm.create().withName("batch").withDir(tempDir).call()
+        .packageIt().withDestination(tempDir.resolve("charts")).call();
+      serverUrl = URI.create(Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+        new RepoServerOptions(tempDir.resolve("charts").resolve("*.tgz").toString(), null, null)).out);
+      config = tempDir.resolve("repositories.yaml");
+    }
+
+    @AfterEach
+    void tearDown() {
+      Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    }
+
+    @Test
+    void withValidRepos() {
+      Helm.repo().add(Arrays.asList(
+          new Repository("batch-1", serverUrl, null, null, false),
+          new Repository("batch-2", serverUrl, "user", "pass", true)))
+        .withRepositoryConfig(config)
+        .withConcurrency(2)
+        .call();
+      final List<Repository> result = Helm.repo().list().withRepositoryConfig(config).call();
+      assertThat(result)
+        .extracting(Repository::getName, Repository::getUsername, Repository::isInsecureSkipTlsVerify)
+        .containsExactlyInAnyOrder(tuple("batch-1", null, false), tuple("batch-2", "user", true));
+    }
+
+    @Test
+    void withInvalidRepoLeavesConfigUntouched() {
+      final RepoCommand.RepoSubcommand<Void> callable = Helm.repo().add(Arrays.asList(
+          new Repository("batch-1", serverUrl, null, null, false),
+          new Repository("invalid-repo", URI.create("https://localhost/stable"), null, null, false)))
+        .withRepositoryConfig(config);
+      assertThatThrownBy(callable::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("looks like \"https://localhost/stable\" is not a valid chart repository or cannot be reached:");
+      assertThat(config).doesNotExist();
+    }
+
+    @Test
+    void withDuplicateNames() {
+      final RepoCommand.RepoSubcommand<Void> callable = Helm.repo().add(Arrays.asList(
+          new Repository("batch-1", serverUrl, null, null, false),
+          new Repository("batch-1", serverUrl, null, null, false)))
+        .withRepositoryConfig(config);
+      assertThatThrownBy(callable::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("repository name (batch-1) is specified more than once");
+    }
+  }
+
+  @Nested
+  class RepoIndex {
+    @TempDir
+    Path tempDir;
+    Path charts;
+
+    @BeforeEach
+    void setUp() {
+      charts = tempDir.resolve("charts");
+      Helm.create().withName("first").withDir(tempDir).call().packageIt().withDestination(charts).call();
+      Helm.create().withName("second").withDir(tempDir).call().packageIt().withDestination(charts).call();
+    }
+
+    @Test
+    void withUrl() throws IOException {
+      final Path index = Helm.repo().index(charts).withUrl(URI.create("https://example.com/charts")).call().getIndex();
+      assertThat(index).isEqualTo(charts.resolve("index.yaml"));
+      assertThat(new String(Files.readAllBytes(index), StandardCharsets.UTF_8))
+        .contains("- https://example.com/charts/first-0.1.0.tgz")
+        .contains("- https://example.com/charts/second-0.1.0.tgz");
+    }
+
+    @Test
+    void reusesUnchangedEntries() throws IOException {
+      final Path index = Helm.repo().index(charts).call().getIndex();
+      final String first = entries(index);
+      Helm.repo().index(charts).call();
+      // The created timestamps would change if the entries were regenerated
+      assertThat(entries(index)).isEqualTo(first);
+    }
+
+    private String entries(Path index) throws IOException {
+      final String content = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+      return content.substring(content.indexOf("entries:"), content.indexOf("generated:"));
+    }
+
+    @Test
+    void withMerge() throws IOException {
+      final Path merge = Files.write(tempDir.resolve("merge.yaml"),
+        ("apiVersion: v1\n" +
+          "entries:\n" +
+          "  other:\n" +
+          "  - name: other\n" +
+          "    version: 1.0.0\n" +
+          "    urls: [https://example.com/other-1.0.0.tgz]\n"
+        ).getBytes(StandardCharsets.UTF_8));
+      final Path index = Helm.repo().index(charts).withMerge(merge).call().getIndex();
+      assertThat(new String(Files.readAllBytes(index), StandardCharsets.UTF_8))
+        .contains("name: first")
+        .contains("name: other");
+    }
+
+    @Test
+    void skipsInvalidCharts() throws IOException {
+      Files.write(charts.resolve("not-a-chart.tgz"), "not an archive".getBytes(StandardCharsets.UTF_8));
+      final RepoIndexResult result = Helm.repo().index(charts).call();
+      assertThat(result.getSkippedCharts())
+        .containsOnlyKeys("not-a-chart.tgz")
+        .doesNotContainValue(null);
+      assertThat(new String(Files.readAllBytes(result.getIndex()), StandardCharsets.UTF_8))
+        .contains("name: first")
+        .contains("name: second");
+    }
+
+    @Test
+    void withMissingDirectory() {
+      final RepoIndexCommand callable = Helm.repo().index(tempDir.resolve("missing"));
+      assertThatThrownBy(callable::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("is not a directory");
+    }
+  }
+
+  @Nested
+  class RepoIndexView {
+    @TempDir
+    Path tempDir;
+    RepositoryIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+      final Helm helm = Helm.create().withName("indexed").withDir(tempDir).call();
+      final Path chartYaml = tempDir.resolve("indexed").resolve("Chart.yaml");
+      final String chart = new String(Files.readAllBytes(chartYaml), StandardCharsets.UTF_8);
+      for (String version : Arrays.asList("0.1.0", "1.0.0", "1.1.0", "2.0.0-rc.1")) {
+        Files.write(chartYaml, chart.replace("version: 0.1.0", "version: " + version).getBytes(StandardCharsets.UTF_8));
+        helm.packageIt().withDestination(tempDir.resolve("charts")).call();
+      }
+      final String serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+        new RepoServerOptions(tempDir.resolve("charts").resolve("*.tgz").toString(), null, null)).out;
+      Helm.repo().add().withRepositoryConfig(tempDir.resolve("repositories.yaml"))
+        .withName("index-view").withUrl(URI.create(serverUrl)).call();
+      index = Helm.repo().index("index-view");
+    }
+
+    @AfterEach
+    void tearDown() {
+      Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    }
+
+    @Test
+    void charts() {
+      assertThat(index.charts()).containsExactly("indexed");
+    }
+
+    @Test
+    void versions() {
+      assertThat(index.versions("indexed"))
+        .extracting(ChartVersion::getVersion)
+        .containsExactly("2.0.0-rc.1", "1.1.0", "1.0.0", "0.1.0");
+      assertThat(index.versions("indexed").get(0))
+        .hasFieldOrPropertyWithValue("appVersion", "1.16.0")
+        .satisfies(v -> assertThat(v.getDigest()).isNotBlank())
+        .satisfies(v -> assertThat(v.getCreated()).isNotNull());
+    }
+
+    @Test
+    void versionsWithConstraint() {
+      assertThat(index.versions("indexed", "^1.0.0"))
+        .extracting(ChartVersion::getVersion)
+        .containsExactly("1.1.0", "1.0.0");
+    }
+
+    @Test
+    void latest() {
+      assertThat(index.latest("indexed"))
+        .hasFieldOrPropertyWithValue("version", "1.1.0");
+    }
+
+    @Test
+    void latestWithConstraint() {
+      assertThat(index.latest("indexed", "<1.0.0"))
+        .hasFieldOrPropertyWithValue("version", "0.1.0");
+      assertThat(index.latest("indexed", ">3.0.0")).isNull();
+    }
+
+    @Test
+    void withMissingChart() {
+      assertThatThrownBy(() -> index.versions("missing"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("chart \"missing\" not found in repository \"index-view\"");
+    }
+
+    @Test
+    void withMissingRepository() {
+      final RepositoryIndex missing = Helm.repo().index("index-view-missing");
+      assertThatThrownBy(missing::charts)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("no cached index found for repository \"index-view-missing\"");
+    }
+  }
+
+  @Nested
+  class RepoCatalog {
+    @TempDir
+    Path tempDir;
+    Path repositoryConfig;
+
+    @BeforeEach
+    void setUp() throws IOException {
+      final Helm helm = Helm.create().withName("cataloged").withDir(tempDir).call();
+      final Path chartYaml = tempDir.resolve("cataloged").resolve("Chart.yaml");
+      final String chart = new String(Files.readAllBytes(chartYaml), StandardCharsets.UTF_8);
+      for (String version : Arrays.asList("0.1.0", "1.0.0")) {
+        Files.write(chartYaml, chart.replace("version: 0.1.0", "version: " + version).getBytes(StandardCharsets.UTF_8));
+        helm.packageIt().withDestination(tempDir.resolve("charts")).call();
+      }
+      final String serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+        new RepoServerOptions(tempDir.resolve("charts").resolve("*.tgz").toString(), null, null)).out;
+      repositoryConfig = tempDir.resolve("repositories.yaml");
+      Helm.repo().add().withRepositoryConfig(repositoryConfig)
+        .withName("catalog").withUrl(URI.create(serverUrl)).call();
+    }
+
+    @AfterEach
+    void tearDown() {
+      Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    }
+
+    @Test
+    void withValues() {
+      final List<CatalogEntry> entries = new ArrayList<>();
+      Helm.repo().catalog(entries::add)
+        .withRepositoryConfig(repositoryConfig)
+        .withValues()
+        .call();
+      assertThat(entries)
+        .extracting(CatalogEntry::getRepo, CatalogEntry::getChart, CatalogEntry::getError, CatalogEntry::getTotal)
+        .containsOnly(tuple("catalog", "cataloged", null, 2));
+      assertThat(entries)
+        .extracting(CatalogEntry::getCompleted)
+        .containsExactly(1, 2);
+      assertThat(entries)
+        .extracting(CatalogEntry::getVersion)
+        .containsExactlyInAnyOrder("0.1.0", "1.0.0");
+      assertThat(entries.get(0).getInfo())
+        .hasFieldOrPropertyWithValue("name", "cataloged")
+        .satisfies(info -> assertThat(info.getValues()).contains("replicaCount: 1"))
+        .satisfies(info -> assertThat(info.getReadme()).isNull());
+    }
+
+    @Test
+    void latest() {
+      final List<CatalogEntry> entries = new ArrayList<>();
+      Helm.repo().catalog(entries::add)
+        .withRepositoryConfig(repositoryConfig)
+        .withRepo("catalog")
+        .latest()
+        .call();
+      assertThat(entries)
+        .singleElement()
+        .hasFieldOrPropertyWithValue("version", "1.0.0")
+        .satisfies(e -> assertThat(e.getInfo().getValues()).isNull());
+    }
+
+    @Test
+    void withFailingConsumer() {
+      final CatalogCommand catalogCommand = Helm.repo()
+        .catalog(entry -> {
+          throw new IllegalArgumentException("Consumer failure");
+        })
+        .withRepositoryConfig(repositoryConfig);
+      assertThatThrownBy(catalogCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("catalog consumer failed")
+        .hasRootCauseMessage("Consumer failure");
+    }
+
+    @Test
+    void withMissingRepository() {
+      final CatalogCommand catalogCommand = Helm.repo().catalog(entry -> {})
+        .withRepositoryConfig(repositoryConfig)
+        .withRepo("missing");
+      assertThatThrownBy(catalogCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("no repo named \"missing\" found");
+    }
+  }
+
   @Nested
   class RepoList {
     @Test
@@ -140,6 +442,17 @@ class HelmRepoTest {
         StandardOpenOption.CREATE);
     }
 
+    @Test
+    void withNameList() {
+      Helm.repo().remove(Arrays.asList("repo-1", "other"))
+        .withRepositoryConfig(repositoryConfig)
+        .call();
+      final List<Repository> result = Helm.repo().list().withRepositoryConfig(repositoryConfig).call();
+      assertThat(result)
+        .extracting(Repository::getName)
+        .containsExactly("valid-repo");
+    }
+
     @Test
     void withValidRepos() {
       Helm.repo().remove()
@@ -270,4 +583,60 @@ class HelmRepoTest {
     }
 
   }
+
+  @Nested
+  class RepoUpdateWithResults {
+
+    Path repositoryConfig;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+      Helm.create().withName("update-results").withDir(tempDir).call()
+        .packageIt().withDestination(tempDir.resolve("charts")).call();
+      final String serverUrl = Helm.HelmLibHolder.INSTANCE.RepoServerStart(
+        new RepoServerOptions(tempDir.resolve("charts").resolve("*.tgz").toString(), null, null)).out;
+      repositoryConfig = tempDir.resolve("repositories.yaml");
+      Files.write(repositoryConfig,
+        ("repositories:\n" +
+          "  - name: update-results-local\n" +
+          "    url: " + serverUrl + "\n" +
+          "  - name: update-results-invalid\n" +
+          "    url: https://charts.example.com/repo-1?i=31&test\n"
+        ).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+    }
+
+    @AfterEach
+    void tearDown() {
+      Helm.HelmLibHolder.INSTANCE.RepoServerStopAll();
+    }
+
+    @Test
+    void reportsEachRepository() {
+      final List<RepoUpdateResult> result = Helm.repo().updateWithResults()
+        .withRepositoryConfig(repositoryConfig)
+        .withConcurrency(1)
+        .withTimeout(30)
+        .call();
+      assertThat(result)
+        .extracting(RepoUpdateResult::getName, RepoUpdateResult::getStatus)
+        .containsExactly(
+          tuple("update-results-local", RepoUpdateResult.Status.UPDATED),
+          tuple("update-results-invalid", RepoUpdateResult.Status.FAILED));
+      assertThat(result.get(0).getBytes()).isPositive();
+      assertThat(result.get(1).getError()).isNotBlank();
+    }
+
+    @Test
+    void skipsUnchangedIndex() {
+      Helm.repo().updateWithResults().withRepositoryConfig(repositoryConfig).withRepo("update-results-local").call();
+      final List<RepoUpdateResult> result = Helm.repo().updateWithResults()
+        .withRepositoryConfig(repositoryConfig)
+        .withRepo("update-results-local")
+        .call();
+      assertThat(result)
+        .singleElement()
+        .hasFieldOrPropertyWithValue("status", RepoUpdateResult.Status.UNCHANGED)
+        .hasFieldOrPropertyWithValue("bytes", 0L);
+    }
+  }
 }
@@ -92,5 +92,22 @@ public class HelmSearchTest {
         .anyMatch(chartVersion -> chartVersion.contains("-"));
     }
 
+    @Test
+    void withMaxResults() {
+      final List<SearchResult> all = Helm.search().repo()
+        .withRepositoryConfig(tempDir.resolve("repositories.yaml"))
+        .withKeyword("nginx")
+        .call();
+      final List<SearchResult> result = Helm.search().repo()
+        .withRepositoryConfig(tempDir.resolve("repositories.yaml"))
+        .withKeyword("nginx")
+        .withMaxResults(2)
+        .call();
+      assertThat(result)
+        .hasSize(2)
+        .extracting(SearchResult::getName)
+        .containsExactly(all.get(0).getName(), all.get(1).getName());
+    }
+
   }
 }
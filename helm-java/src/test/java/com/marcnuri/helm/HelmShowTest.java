@@ -127,6 +127,77 @@ class HelmShowTest {
       );
   }
 
+  @Test
+  void chartFromArchive() throws IOException {
+    helm.packageIt().withDestination(tempDir).call();
+    final byte[] chartArchive = Files.readAllBytes(tempDir.resolve("test-0.1.0.tgz"));
+    final String result = Helm.show(chartArchive).all().call();
+    assertThat(result).contains(
+      "name: test\n",
+      "# Default values for test.",
+      "kind: CustomResourceDefinition\n",
+      "# Readme"
+    );
+  }
+
+  @Nested
+  class Info {
+
+    @Test
+    void metadataOnly() {
+      final ChartInfo result = helm.show().info().call();
+      assertThat(result)
+        .returns("test", ChartInfo::getName)
+        .returns("0.1.0", ChartInfo::getVersion)
+        .returns("1.16.0", ChartInfo::getAppVersion)
+        .returns("v2", ChartInfo::getApiVersion)
+        .returns("application", ChartInfo::getType)
+        .returns(false, ChartInfo::hasValuesSchema)
+        .returns(null, ChartInfo::getValues)
+        .returns(null, ChartInfo::getReadme)
+        .returns(null, ChartInfo::getCrds);
+      assertThat(result.getDependencies()).isEmpty();
+    }
+
+    @Test
+    void withSections() {
+      final ChartInfo result = helm.show().info().withValues().withReadme().withCrds().call();
+      assertThat(result.getValues()).contains("# Default values for test.");
+      assertThat(result.getReadme()).contains("# Readme");
+      assertThat(result.getCrds())
+        .contains("kind: CustomResourceDefinition\n", "name: tests.marcnuri.com")
+        .doesNotStartWith("---");
+    }
+
+    @Test
+    void fromArchiveWithDependenciesAndSchema() throws IOException {
+      final Path chartYaml = tempDir.resolve("test").resolve("Chart.yaml");
+      Files.write(chartYaml, ("\nannotations:\n  category: Testing\n" +
+          "dependencies:\n  - name: sub\n    version: 0.1.0\n    condition: sub.enabled\n").getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+      Helm.create().withName("sub").withDir(tempDir.resolve("test").resolve("charts")).call();
+      Files.write(tempDir.resolve("test").resolve("values.schema.json"),
+        "{}".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+      final PackagedChart packaged = helm.packageIt().toMemory();
+      final ChartInfo result = Helm.show(packaged.getArchive()).info().withValues().call();
+      assertThat(result.hasValuesSchema()).isTrue();
+      assertThat(result.getAnnotations()).containsEntry("category", "Testing");
+      assertThat(result.getDependencies())
+        .singleElement()
+        .returns("sub", ChartInfo.Dependency::getName)
+        .returns("sub.enabled", ChartInfo.Dependency::getCondition);
+      assertThat(result.getValues()).contains("# Default values for test.");
+    }
+
+    @Test
+    void invalidChart() {
+      final ShowCommand.ChartInfoSubcommand info = Helm.show(tempDir.toString()).info();
+      assertThatIllegalStateException()
+        .isThrownBy(info::call)
+        .withMessageContaining("Chart.yaml file is missing");
+    }
+  }
+
   @Nested
   class RemoteOciChart {
 
@@ -21,8 +21,10 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -147,6 +149,29 @@ class HelmTemplateTest {
       assertThat(result)
         .contains("name: release-name-local-chart-test");
     }
+
+    @Test
+    void withPostRenderer() {
+      final String result = helm.template()
+        .withPostRenderer(manifests -> RenderedManifests.of(
+          manifests.asString().replace("release-name", "post-rendered")))
+        .call();
+      assertThat(result)
+        .contains("name: post-rendered-local-chart-test")
+        .doesNotContain("release-name");
+    }
+
+    @Test
+    void withFailingPostRenderer() {
+      final TemplateCommand templateCommand = helm.template()
+        .withPostRenderer(manifests -> {
+          throw new IllegalArgumentException("Post-renderer failure");
+        });
+      assertThatThrownBy(templateCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("post-renderer callback failed")
+        .hasRootCauseMessage("Post-renderer failure");
+    }
   }
 
   @Nested
@@ -202,6 +227,55 @@ class HelmTemplateTest {
     }
   }
 
+  @Nested
+  class FromChartArchive {
+
+    @TempDir
+    private Path tempDir;
+    private byte[] chartArchive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+      Helm.create().withName("archive-chart-test").withDir(tempDir).call()
+        .packageIt().withDestination(tempDir).call();
+      chartArchive = Files.readAllBytes(tempDir.resolve("archive-chart-test-0.1.0.tgz"));
+      Files.delete(tempDir.resolve("archive-chart-test-0.1.0.tgz"));
+    }
+
+    @Test
+    void fromBytes() {
+      final String result = Helm.template(chartArchive).call();
+      assertThat(result)
+        .contains("name: release-name-archive-chart-test");
+    }
+
+    @Test
+    void fromDirectByteBuffer() {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(chartArchive.length);
+      buffer.put(chartArchive).flip();
+      final String result = Helm.template(buffer).withName("direct").call();
+      assertThat(result)
+        .contains("name: direct-archive-chart-test");
+    }
+
+    @Test
+    void fromInputStream() {
+      final String result = Helm.template(new ByteArrayInputStream(chartArchive))
+        .set("replicaCount", 1337)
+        .call();
+      assertThat(result)
+        .contains("replicas: 1337");
+    }
+
+    @Test
+    void withInvalidArchive() {
+      final TemplateCommand templateCommand = Helm.template("invalid".getBytes(StandardCharsets.UTF_8));
+      assertThatThrownBy(templateCommand::call)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("unable to load chart archive");
+    }
+  }
+
   @Nested
   class FromRepo {
 
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Callback;
+import com.sun.jna.Pointer;
+
+/**
+ * Native callback invoked with consecutive chunks of a chart archive as it's being packaged.
+ *
+ * @author Marc Nuri
+ */
+public interface ArchiveWriter extends Callback {
+
+  /**
+   * Write the next chunk of the chart archive.
+   * <p>
+   * The data pointer references memory owned by the native library and is only valid during the invocation.
+   *
+   * @param data   pointer to the archive chunk.
+   * @param length the length in bytes of the archive chunk.
+   * @return 0 if the chunk was written or any other value if the write failed.
+   */
+  int invoke(Pointer data, int length);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Callback;
+
+/**
+ * Native callback invoked with each catalog entry as soon as it's extracted.
+ *
+ * @author Marc Nuri
+ */
+public interface CatalogConsumer extends Callback {
+
+  /**
+   * Consume the next catalog entry.
+   * <p>
+   * The callback is never invoked concurrently.
+   *
+   * @param entry the url-encoded lines of the catalog entry.
+   * @return 0 if the entry was consumed or any other value to stop the catalog extraction.
+   */
+  int invoke(String entry);
+}
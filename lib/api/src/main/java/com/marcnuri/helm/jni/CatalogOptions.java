@@ -0,0 +1,41 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({"repositoryConfig", "repos", "sections", "latest", "concurrency", "consumer"})
+public class CatalogOptions extends Structure {
+  public String repositoryConfig;
+  public String repos;
+  public String sections;
+  public int latest;
+  public int concurrency;
+  public CatalogConsumer consumer;
+
+  public CatalogOptions(String repositoryConfig, String repos, String sections, int latest, int concurrency, CatalogConsumer consumer) {
+    this.repositoryConfig = repositoryConfig;
+    this.repos = repos;
+    this.sections = sections;
+    this.latest = latest;
+    this.concurrency = concurrency;
+    this.consumer = consumer;
+  }
+}
@@ -26,7 +26,8 @@ import com.sun.jna.Structure;
   "keyring",
   "skipRefresh",
   "verify",
-  "debug"
+  "debug",
+  "refreshTtl"
 })
 public class DependencyOptions extends Structure {
   public String path;
@@ -34,12 +35,14 @@ public class DependencyOptions extends Structure {
   public int skipRefresh;
   public int verify;
   public int debug;
+  public int refreshTtl;
 
-  public DependencyOptions(String path, String keyring, int skipRefresh, int verify, int debug) {
+  public DependencyOptions(String path, String keyring, int skipRefresh, int verify, int debug, int refreshTtl) {
     this.path = path;
     this.keyring = keyring;
     this.skipRefresh = skipRefresh;
     this.verify = verify;
     this.debug = debug;
+    this.refreshTtl = refreshTtl;
   }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({"paths", "repositoryConfig", "skipRefresh", "concurrency"})
+public class DependencyUpdateAllOptions extends Structure {
+  public String paths;
+  public String repositoryConfig;
+  public int skipRefresh;
+  public int concurrency;
+
+  public DependencyUpdateAllOptions(String paths, String repositoryConfig, int skipRefresh, int concurrency) {
+    this.paths = paths;
+    this.repositoryConfig = repositoryConfig;
+    this.skipRefresh = skipRefresh;
+    this.concurrency = concurrency;
+  }
+}
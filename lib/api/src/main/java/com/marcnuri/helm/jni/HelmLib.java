@@ -25,6 +25,8 @@ import com.sun.jna.Library;
  */
 public interface HelmLib extends Library {
 
+  Result ChartCacheConfigure(ChartCacheOptions options);
+
   Result Create(CreateOptions options);
 
   Result DependencyBuild(DependencyOptions options);
@@ -33,8 +35,12 @@ public interface HelmLib extends Library {
 
   Result DependencyUpdate(DependencyOptions options);
 
+  Result DependencyUpdateAll(DependencyUpdateAllOptions options);
+
   Result History(HistoryOptions options);
 
+  Result HistoryCompact(HistoryCompactOptions options);
+
   Result Install(InstallOptions options);
 
   Result Lint(LintOptions options);
@@ -45,20 +51,34 @@ public interface HelmLib extends Library {
 
   Result Package(PackageOptions options);
 
+  Result PackageAll(PackageAllOptions options);
+
+  Result Pull(PullOptions options);
+
   Result Push(PushOptions options);
 
+  Result PushAll(PushAllOptions options);
+
   Result RegistryLogin(RegistryOptions options);
 
   Result RegistryLogout(RegistryOptions options);
 
+  Result ReleaseSet(ReleaseSetOptions options);
+
   Result RepoAdd(RepoOptions options);
 
+  Result RepoIndex(RepoIndexOptions options);
+
+  Result RepoIndexQuery(RepoIndexQueryOptions options);
+
   Result RepoList(RepoOptions options);
 
   Result RepoRemove(RepoOptions options);
 
   Result RepoUpdate(RepoOptions options);
 
+  Result RepoUpdateResults(RepoOptions options);
+
   Result RepoServerStart(RepoServerOptions options);
 
   Result RepoOciServerStart(RepoServerOptions options);
@@ -67,10 +87,16 @@ public interface HelmLib extends Library {
 
   Result RepoServerStopAll();
 
+  Result Rollback(RollbackOptions options);
+
   Result SearchRepo(SearchOptions options);
 
   Result Show(ShowOptions options);
 
+  Result ChartInfo(ChartInfoOptions options);
+
+  Result Catalog(CatalogOptions options);
+
   Result Status(StatusOptions options);
 
   Result Template(TemplateOptions options);
@@ -79,6 +105,8 @@ public interface HelmLib extends Library {
 
   Result Uninstall(UninstallOptions options);
 
+  Result UninstallAll(UninstallAllOptions options);
+
   Result Upgrade(UpgradeOptions options);
 
   Result Version();
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({
+  "releaseName",
+  "keep",
+  "namespace",
+  "allNamespaces",
+  "concurrency",
+  "rateLimit",
+  "dryRun",
+  "kubeConfig",
+  "kubeConfigContents"
+})
+public class HistoryCompactOptions extends Structure {
+  public String releaseName;
+  public int keep;
+  public String namespace;
+  public int allNamespaces;
+  public int concurrency;
+  public int rateLimit;
+  public int dryRun;
+  public String kubeConfig;
+  public String kubeConfigContents;
+
+  public HistoryCompactOptions(
+    String releaseName,
+    int keep,
+    String namespace,
+    int allNamespaces,
+    int concurrency,
+    int rateLimit,
+    int dryRun,
+    String kubeConfig,
+    String kubeConfigContents
+  ) {
+    this.releaseName = releaseName;
+    this.keep = keep;
+    this.namespace = namespace;
+    this.allNamespaces = allNamespaces;
+    this.concurrency = concurrency;
+    this.rateLimit = rateLimit;
+    this.dryRun = dryRun;
+    this.kubeConfig = kubeConfig;
+    this.kubeConfigContents = kubeConfigContents;
+  }
+}
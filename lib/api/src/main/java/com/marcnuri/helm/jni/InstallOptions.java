@@ -16,6 +16,7 @@
 
 package com.marcnuri.helm.jni;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 
 /**
@@ -57,7 +58,13 @@ import com.sun.jna.Structure;
   "keyring",
   "debug",
   "clientOnly",
-  "repositoryConfig"
+  "repositoryConfig",
+  "postRenderer",
+  "chartArchive",
+  "chartArchiveSize",
+  "refreshTtl",
+  "waitStrategy",
+  "waitListener"
 })
 public class InstallOptions extends Structure {
 
@@ -93,6 +100,12 @@ public class InstallOptions extends Structure {
   public int debug;
   public int clientOnly;
   public String repositoryConfig;
+  public PostRenderer postRenderer;
+  public Pointer chartArchive;
+  public int chartArchiveSize;
+  public int refreshTtl;
+  public String waitStrategy;
+  public WaitListener waitListener;
 
   public InstallOptions(
     String name,
@@ -126,7 +139,13 @@ public class InstallOptions extends Structure {
     String keyring,
     int debug,
     int clientOnly,
-    String repositoryConfig
+    String repositoryConfig,
+    PostRenderer postRenderer,
+    Pointer chartArchive,
+    int chartArchiveSize,
+    int refreshTtl,
+    String waitStrategy,
+    WaitListener waitListener
   ) {
     this.name = name;
     this.generateName = generateName;
@@ -160,5 +179,11 @@ public class InstallOptions extends Structure {
     this.debug = debug;
     this.clientOnly = clientOnly;
     this.repositoryConfig = repositoryConfig;
+    this.postRenderer = postRenderer;
+    this.chartArchive = chartArchive;
+    this.chartArchiveSize = chartArchiveSize;
+    this.refreshTtl = refreshTtl;
+    this.waitStrategy = waitStrategy;
+    this.waitListener = waitListener;
   }
 }
@@ -21,7 +21,7 @@ import com.sun.jna.Structure;
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"path", "destination", "sign", "key", "keyring", "passphraseFile"})
+@Structure.FieldOrder({"path", "destination", "sign", "key", "keyring", "passphraseFile", "archiveWriter"})
 public class PackageOptions extends Structure {
   public String path;
   public String destination;
@@ -29,13 +29,19 @@ public class PackageOptions extends Structure {
   public String key;
   public String keyring;
   public String passphraseFile;
+  public ArchiveWriter archiveWriter;
 
   public PackageOptions(String path, String destination, int sign, String key, String keyring, String passphraseFile) {
+    this(path, destination, sign, key, keyring, passphraseFile, null);
+  }
+
+  public PackageOptions(String path, String destination, int sign, String key, String keyring, String passphraseFile, ArchiveWriter archiveWriter) {
     this.path = path;
     this.destination = destination;
     this.sign = sign;
     this.key = key;
     this.keyring = keyring;
     this.passphraseFile = passphraseFile;
+    this.archiveWriter = archiveWriter;
   }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Callback;
+import com.sun.jna.Pointer;
+
+/**
+ * Native callback invoked with the rendered manifests before they are installed, upgraded, or returned by template.
+ *
+ * @author Marc Nuri
+ */
+public interface PostRenderer extends Callback {
+
+  /**
+   * Post-process the rendered manifests.
+   * <p>
+   * The manifests pointer references memory owned by the native library and is only valid during the invocation.
+   *
+   * @param manifests    pointer to the rendered manifests.
+   * @param length       the length in bytes of the rendered manifests.
+   * @param resultLength pointer to an int where the length of the returned manifests must be written.
+   * @return a pointer to the post-rendered manifests (must remain valid until the native call completes)
+   * or {@code null} if the post-rendering failed.
+   */
+  Pointer invoke(Pointer manifests, int length, Pointer resultLength);
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({
+  "charts",
+  "destination",
+  "untar",
+  "untarDir",
+  "verify",
+  "keyring",
+  "devel",
+  "username",
+  "password",
+  "certFile",
+  "keyFile",
+  "caFile",
+  "insecureSkipTlsVerify",
+  "plainHttp",
+  "concurrency",
+  "repositoryConfig"
+})
+public class PullOptions extends Structure {
+  public String charts;
+  public String destination;
+  public int untar;
+  public String untarDir;
+  public int verify;
+  public String keyring;
+  public int devel;
+  public String username;
+  public String password;
+  public String certFile;
+  public String keyFile;
+  public String caFile;
+  public int insecureSkipTlsVerify;
+  public int plainHttp;
+  public int concurrency;
+  public String repositoryConfig;
+
+  public PullOptions(
+    String charts,
+    String destination,
+    int untar,
+    String untarDir,
+    int verify,
+    String keyring,
+    int devel,
+    String username,
+    String password,
+    String certFile,
+    String keyFile,
+    String caFile,
+    int insecureSkipTlsVerify,
+    int plainHttp,
+    int concurrency,
+    String repositoryConfig
+  ) {
+    this.charts = charts;
+    this.destination = destination;
+    this.untar = untar;
+    this.untarDir = untarDir;
+    this.verify = verify;
+    this.keyring = keyring;
+    this.devel = devel;
+    this.username = username;
+    this.password = password;
+    this.certFile = certFile;
+    this.keyFile = keyFile;
+    this.caFile = caFile;
+    this.insecureSkipTlsVerify = insecureSkipTlsVerify;
+    this.plainHttp = plainHttp;
+    this.concurrency = concurrency;
+    this.repositoryConfig = repositoryConfig;
+  }
+}
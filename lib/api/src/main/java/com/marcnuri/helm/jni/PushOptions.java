@@ -16,12 +16,13 @@
 
 package com.marcnuri.helm.jni;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"chart", "remote", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify", "plainHttp", "debug"})
+@Structure.FieldOrder({"chart", "remote", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify", "plainHttp", "debug", "chartArchive", "chartArchiveSize"})
 public class PushOptions extends Structure {
   public String chart;
   public String remote;
@@ -31,8 +32,14 @@ public class PushOptions extends Structure {
   public int insecureSkipTlsVerify;
   public int plainHttp;
   public int debug;
+  public Pointer chartArchive;
+  public int chartArchiveSize;
 
   public PushOptions(String chart, String remote, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify, int plainHttp, int debug) {
+    this(chart, remote, certFile, keyFile, caFile, insecureSkipTlsVerify, plainHttp, debug, null, 0);
+  }
+
+  public PushOptions(String chart, String remote, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify, int plainHttp, int debug, Pointer chartArchive, int chartArchiveSize) {
     this.chart = chart;
     this.remote = remote;
     this.certFile = certFile;
@@ -41,5 +48,7 @@ public class PushOptions extends Structure {
     this.insecureSkipTlsVerify = insecureSkipTlsVerify;
     this.plainHttp = plainHttp;
     this.debug = debug;
+    this.chartArchive = chartArchive;
+    this.chartArchiveSize = chartArchiveSize;
   }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Callback;
+
+/**
+ * Native callback invoked with each release outcome as soon as the release is processed.
+ *
+ * @author Marc Nuri
+ */
+public interface ReleaseSetConsumer extends Callback {
+
+  /**
+   * Consume the next release outcome.
+   * <p>
+   * The callback is never invoked concurrently.
+   *
+   * @param outcome the url-encoded release outcome.
+   * @return 0 if the outcome was consumed or any other value to stop the release set.
+   */
+  int invoke(String outcome);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({"releases", "concurrency", "failFast", "kubeConfig", "kubeConfigContents", "repositoryConfig", "consumer"})
+public class ReleaseSetOptions extends Structure {
+  public String releases;
+  public int concurrency;
+  public int failFast;
+  public String kubeConfig;
+  public String kubeConfigContents;
+  public String repositoryConfig;
+  public ReleaseSetConsumer consumer;
+
+  public ReleaseSetOptions(String releases, int concurrency, int failFast, String kubeConfig, String kubeConfigContents, String repositoryConfig, ReleaseSetConsumer consumer) {
+    this.releases = releases;
+    this.concurrency = concurrency;
+    this.failFast = failFast;
+    this.kubeConfig = kubeConfig;
+    this.kubeConfigContents = kubeConfigContents;
+    this.repositoryConfig = repositoryConfig;
+    this.consumer = consumer;
+  }
+}
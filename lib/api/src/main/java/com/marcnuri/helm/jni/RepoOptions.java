@@ -21,7 +21,7 @@ import com.sun.jna.Structure;
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"repositoryConfig", "name", "names", "url", "username", "password", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify"})
+@Structure.FieldOrder({"repositoryConfig", "name", "names", "url", "username", "password", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify", "repositories", "concurrency", "timeout"})
 public class RepoOptions extends Structure {
   public String repositoryConfig;
   public String name;
@@ -33,8 +33,11 @@ public class RepoOptions extends Structure {
   public String keyFile;
   public String caFile;
   public int insecureSkipTlsVerify;
+  public String repositories;
+  public int concurrency;
+  public int timeout;
 
-  public RepoOptions(String repositoryConfig, String name, String names, String url, String username, String password, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify) {
+  public RepoOptions(String repositoryConfig, String name, String names, String url, String username, String password, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify, String repositories, int concurrency, int timeout) {
     this.repositoryConfig = repositoryConfig;
     this.name = name;
     this.names = names;
@@ -45,5 +48,8 @@ public class RepoOptions extends Structure {
     this.keyFile = keyFile;
     this.caFile = caFile;
     this.insecureSkipTlsVerify = insecureSkipTlsVerify;
+    this.repositories = repositories;
+    this.concurrency = concurrency;
+    this.timeout = timeout;
   }
 }
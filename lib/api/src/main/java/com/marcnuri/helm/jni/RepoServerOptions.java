@@ -21,19 +21,27 @@ import com.sun.jna.Structure;
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"glob", "username", "password"})
+@Structure.FieldOrder({"glob", "username", "password", "storageRoot", "concurrency"})
 public class RepoServerOptions extends Structure {
   public String glob;
   public String username;
   public String password;
+  public String storageRoot;
+  public int concurrency;
 
   public RepoServerOptions() {
     this(null, null, null);
   }
 
   public RepoServerOptions(String glob, String username, String password) {
+    this(glob, username, password, null, 0);
+  }
+
+  public RepoServerOptions(String glob, String username, String password, String storageRoot, int concurrency) {
     this.glob = glob;
     this.username = username;
     this.password = password;
+    this.storageRoot = storageRoot;
+    this.concurrency = concurrency;
   }
 }
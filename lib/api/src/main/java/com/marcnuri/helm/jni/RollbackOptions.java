@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({
+  "releaseName",
+  "revision",
+  "namespace",
+  "wait",
+  "waitForJobs",
+  "timeout",
+  "cleanupOnFail",
+  "force",
+  "noHooks",
+  "maxHistory",
+  "dryRun",
+  "kubeConfig",
+  "kubeConfigContents",
+  "debug",
+  "waitStrategy",
+  "waitListener"
+})
+public class RollbackOptions extends Structure {
+  public String releaseName;
+  public int revision;
+  public String namespace;
+  public int wait;
+  public int waitForJobs;
+  public int timeout;
+  public int cleanupOnFail;
+  public int force;
+  public int noHooks;
+  public int maxHistory;
+  public int dryRun;
+  public String kubeConfig;
+  public String kubeConfigContents;
+  public int debug;
+  public String waitStrategy;
+  public WaitListener waitListener;
+
+  public RollbackOptions(
+    String releaseName,
+    int revision,
+    String namespace,
+    int wait,
+    int waitForJobs,
+    int timeout,
+    int cleanupOnFail,
+    int force,
+    int noHooks,
+    int maxHistory,
+    int dryRun,
+    String kubeConfig,
+    String kubeConfigContents,
+    int debug,
+    String waitStrategy,
+    WaitListener waitListener
+  ) {
+    this.releaseName = releaseName;
+    this.revision = revision;
+    this.namespace = namespace;
+    this.wait = wait;
+    this.waitForJobs = waitForJobs;
+    this.timeout = timeout;
+    this.cleanupOnFail = cleanupOnFail;
+    this.force = force;
+    this.noHooks = noHooks;
+    this.maxHistory = maxHistory;
+    this.dryRun = dryRun;
+    this.kubeConfig = kubeConfig;
+    this.kubeConfigContents = kubeConfigContents;
+    this.debug = debug;
+    this.waitStrategy = waitStrategy;
+    this.waitListener = waitListener;
+  }
+}
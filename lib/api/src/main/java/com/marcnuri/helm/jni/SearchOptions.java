@@ -21,7 +21,7 @@ import com.sun.jna.Structure;
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"repositoryConfig", "keyword", "regexp", "devel", "version"})
+@Structure.FieldOrder({"repositoryConfig", "keyword", "regexp", "devel", "version", "maxResults"})
 public class SearchOptions extends Structure {
 
   public String repositoryConfig;
@@ -29,12 +29,14 @@ public class SearchOptions extends Structure {
   public int regexp;
   public int devel;
   public String version;
+  public int maxResults;
 
-  public SearchOptions(String repositoryConfig, String keyword, int regexp, int devel, String version) {
+  public SearchOptions(String repositoryConfig, String keyword, int regexp, int devel, String version, int maxResults) {
     this.repositoryConfig = repositoryConfig;
     this.keyword = keyword;
     this.regexp = regexp;
     this.devel = devel;
     this.version = version;
+    this.maxResults = maxResults;
   }
 }
@@ -16,12 +16,13 @@
 
 package com.marcnuri.helm.jni;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 
 /**
  * @author Marc Nuri
  */
-@Structure.FieldOrder({"path", "outputFormat", "version", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify", "plainHttp", "debug"})
+@Structure.FieldOrder({"path", "outputFormat", "version", "certFile", "keyFile", "caFile", "insecureSkipTlsVerify", "plainHttp", "debug", "chartArchive", "chartArchiveSize"})
 public class ShowOptions extends Structure {
   public String path;
   public String outputFormat;
@@ -32,8 +33,10 @@ public class ShowOptions extends Structure {
   public int insecureSkipTlsVerify;
   public int plainHttp;
   public int debug;
+  public Pointer chartArchive;
+  public int chartArchiveSize;
 
-  public ShowOptions(String path, String outputFormat, String version, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify, int plainHttp, int debug) {
+  public ShowOptions(String path, String outputFormat, String version, String certFile, String keyFile, String caFile, int insecureSkipTlsVerify, int plainHttp, int debug, Pointer chartArchive, int chartArchiveSize) {
     this.path = path;
     this.outputFormat = outputFormat;
     this.version = version;
@@ -43,5 +46,7 @@ public class ShowOptions extends Structure {
     this.insecureSkipTlsVerify = insecureSkipTlsVerify;
     this.plainHttp = plainHttp;
     this.debug = debug;
+    this.chartArchive = chartArchive;
+    this.chartArchiveSize = chartArchiveSize;
   }
 }
@@ -16,6 +16,7 @@
 
  package com.marcnuri.helm.jni;
 
+ import com.sun.jna.Pointer;
  import com.sun.jna.Structure;
 
 /**
@@ -41,7 +42,11 @@
   "plainHttp",
   "keyring",
   "debug",
-  "repositoryConfig"
+  "repositoryConfig",
+  "postRenderer",
+  "chartArchive",
+  "chartArchiveSize",
+  "refreshTtl"
 })
 public class TemplateOptions extends Structure {
   public String name;
@@ -62,6 +67,10 @@ public class TemplateOptions extends Structure {
   public String keyring;
   public int debug;
   public String repositoryConfig;
+  public PostRenderer postRenderer;
+  public Pointer chartArchive;
+  public int chartArchiveSize;
+  public int refreshTtl;
 
   public TemplateOptions(
     String name,
@@ -81,7 +90,11 @@ public class TemplateOptions extends Structure {
     int plainHttp,
     String keyring,
     int debug,
-    String repositoryConfig
+    String repositoryConfig,
+    PostRenderer postRenderer,
+    Pointer chartArchive,
+    int chartArchiveSize,
+    int refreshTtl
   ) {
     this.name = name;
     this.version = version;
@@ -101,5 +114,9 @@ public class TemplateOptions extends Structure {
     this.keyring = keyring;
     this.debug = debug;
     this.repositoryConfig = repositoryConfig;
+    this.postRenderer = postRenderer;
+    this.chartArchive = chartArchive;
+    this.chartArchiveSize = chartArchiveSize;
+    this.refreshTtl = refreshTtl;
   }
 }
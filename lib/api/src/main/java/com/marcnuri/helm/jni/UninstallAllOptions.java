@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcnuri.helm.jni;
+
+import com.sun.jna.Structure;
+
+/**
+ * @author Marc Nuri
+ */
+@Structure.FieldOrder({
+  "releaseNames",
+  "selector",
+  "namespace",
+  "allNamespaces",
+  "concurrency",
+  "dryRun",
+  "noHooks",
+  "ignoreNotFound",
+  "keepHistory",
+  "cascade",
+  "wait",
+  "timeout",
+  "waitStrategy",
+  "waitListener",
+  "kubeConfig",
+  "kubeConfigContents"
+})
+public class UninstallAllOptions extends Structure {
+  public String releaseNames;
+  public String selector;
+  public String namespace;
+  public int allNamespaces;
+  public int concurrency;
+  public int dryRun;
+  public int noHooks;
+  public int ignoreNotFound;
+  public int keepHistory;
+  public String cascade;
+  public int wait;
+  public int timeout;
+  public String waitStrategy;
+  public WaitListener waitListener;
+  public String kubeConfig;
+  public String kubeConfigContents;
+
+  public UninstallAllOptions(
+    String releaseNames,
+    String selector,
+    String namespace,
+    int allNamespaces,
+    int concurrency,
+    int dryRun,
+    int noHooks,
+    int ignoreNotFound,
+    int keepHistory,
+    String cascade,
+    int wait,
+    int timeout,
+    String waitStrategy,
+    WaitListener waitListener,
+    String kubeConfig,
+    String kubeConfigContents
+  ) {
+    this.releaseNames = releaseNames;
+    this.selector = selector;
+    this.namespace = namespace;
+    this.allNamespaces = allNamespaces;
+    this.concurrency = concurrency;
+    this.dryRun = dryRun;
+    this.noHooks = noHooks;
+    this.ignoreNotFound = ignoreNotFound;
+    this.keepHistory = keepHistory;
+    this.cascade = cascade;
+    this.wait = wait;
+    this.timeout = timeout;
+    this.waitStrategy = waitStrategy;
+    this.waitListener = waitListener;
+    this.kubeConfig = kubeConfig;
+    this.kubeConfigContents = kubeConfigContents;
+  }
+}
@@ -32,7 +32,11 @@ import com.sun.jna.Structure;
   "namespace",
   "kubeConfig",
   "kubeConfigContents",
-  "debug"
+  "debug",
+  "wait",
+  "timeout",
+  "waitStrategy",
+  "waitListener"
 })
 public class UninstallOptions extends Structure {
   public String releaseName;
@@ -45,6 +49,10 @@ public class UninstallOptions extends Structure {
   public String kubeConfig;
   public String kubeConfigContents;
   public int debug;
+  public int wait;
+  public int timeout;
+  public String waitStrategy;
+  public WaitListener waitListener;
 
   public UninstallOptions(
     String releaseName,
@@ -56,7 +64,11 @@ public class UninstallOptions extends Structure {
     String namespace,
     String kubeConfig,
     String kubeConfigContents,
-    int debug
+    int debug,
+    int wait,
+    int timeout,
+    String waitStrategy,
+    WaitListener waitListener
   ) {
     this.releaseName = releaseName;
     this.dryRun = dryRun;
@@ -68,5 +80,9 @@ public class UninstallOptions extends Structure {
     this.kubeConfig = kubeConfig;
     this.kubeConfigContents = kubeConfigContents;
     this.debug = debug;
+    this.wait = wait;
+    this.timeout = timeout;
+    this.waitStrategy = waitStrategy;
+    this.waitListener = waitListener;
   }
 }
@@ -16,6 +16,7 @@
 
 package com.marcnuri.helm.jni;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 
 /**
@@ -61,7 +62,15 @@ import com.sun.jna.Structure;
   "keyring",
   "debug",
   "clientOnly",
-  "repositoryConfig"
+  "repositoryConfig",
+  "postRenderer",
+  "chartArchive",
+  "chartArchiveSize",
+  "refreshTtl",
+  "waitStrategy",
+  "waitListener",
+  "skipUnchanged",
+  "maxHistory"
 })
 public class UpgradeOptions extends Structure {
   public String name;
@@ -100,6 +109,14 @@ public class UpgradeOptions extends Structure {
   public int debug;
   public int clientOnly;
   public String repositoryConfig;
+  public PostRenderer postRenderer;
+  public Pointer chartArchive;
+  public int chartArchiveSize;
+  public int refreshTtl;
+  public String waitStrategy;
+  public WaitListener waitListener;
+  public int skipUnchanged;
+  public int maxHistory;
 
   public UpgradeOptions(
     String name,
@@ -137,7 +154,15 @@ public class UpgradeOptions extends Structure {
     String keyring,
     int debug,
     int clientOnly,
-    String repositoryConfig
+    String repositoryConfig,
+    PostRenderer postRenderer,
+    Pointer chartArchive,
+    int chartArchiveSize,
+    int refreshTtl,
+    String waitStrategy,
+    WaitListener waitListener,
+    int skipUnchanged,
+    int maxHistory
   ) {
     this.name = name;
     this.version = version;
@@ -175,5 +200,13 @@ public class UpgradeOptions extends Structure {
     this.debug = debug;
     this.clientOnly = clientOnly;
     this.repositoryConfig = repositoryConfig;
+    this.postRenderer = postRenderer;
+    this.chartArchive = chartArchive;
+    this.chartArchiveSize = chartArchiveSize;
+    this.refreshTtl = refreshTtl;
+    this.waitStrategy = waitStrategy;
+    this.waitListener = waitListener;
+    this.skipUnchanged = skipUnchanged;
+    this.maxHistory = maxHistory;
   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package main
+
+/*
+typedef int (*archive_writer_fn)(char* data, int length);
+
+static inline int invokeArchiveWriter(void* fn, char* data, int length) {
+	return ((archive_writer_fn) fn)(data, length);
+}
+*/
+import "C"
+import (
+	"errors"
+	"io"
+	"unsafe"
+)
+
+// callbackArchiveWriter is an io.Writer that delegates to a function pointer provided by the caller.
+// The written bytes are shared with the callback (no copy), the callback must not retain the pointer.
+type callbackArchiveWriter struct {
+	callback unsafe.Pointer
+}
+
+func newArchiveWriter(callback unsafe.Pointer) io.Writer {
+	if callback == nil {
+		return nil
+	}
+	return &callbackArchiveWriter{callback: callback}
+}
+
+func (w *callbackArchiveWriter) Write(p []byte) (int, error) {
+	if len(p) == 0 {
+		return 0, nil
+	}
+	if C.invokeArchiveWriter(w.callback, (*C.char)(unsafe.Pointer(&p[0])), C.int(len(p))) != 0 {
+		return 0, errors.New("archive writer callback failed")
+	}
+	return len(p), nil
+}
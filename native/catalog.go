@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package main
+
+/*
+#include <stdlib.h>
+
+typedef int (*catalog_consumer_fn)(char* entry);
+
+static inline int invokeCatalogConsumer(void* fn, char* entry) {
+	return ((catalog_consumer_fn) fn)(entry);
+}
+*/
+import "C"
+import (
+	"errors"
+	"unsafe"
+)
+
+// newCatalogConsumer returns a function that delegates each catalog entry to a function pointer provided by the caller.
+// The entry is only valid during the invocation, the callback must not retain the pointer.
+func newCatalogConsumer(callback unsafe.Pointer) func(entry string) error {
+	if callback == nil {
+		return nil
+	}
+	return func(entry string) error {
+		cEntry := C.CString(entry)
+		defer C.free(unsafe.Pointer(cEntry))
+		if C.invokeCatalogConsumer(callback, cEntry) != 0 {
+			return errors.New("catalog consumer callback failed")
+		}
+		return nil
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"encoding/binary"
+	"os"
+	"sort"
+	"strconv"
+	"strings"
+	"time"
+
+	"github.com/Masterminds/semver/v3"
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+// Compact binary representation of a repository index.yaml written next to it (<name>-index.bin).
+//
+// All integers are little endian:
+//
+//	magic           [8]byte
+//	sourceSize      int64    size of the index.yaml the binary index was generated from
+//	sourceModTime   int64    modification time (unix nanoseconds) of the index.yaml
+//	recordCount     uint32
+//	stringTableSize uint32
+//	records         [recordCount][binaryIndexFields]{offset uint32, length uint32}
+//	stringTable     [stringTableSize]byte (deduplicated strings)
+//
+// Records are sorted by chart name, versions of the same chart keep the index.yaml order (newest first).
+// The binary index is ignored if the index.yaml changed since it was generated.
+const (
+	binaryIndexHeaderSize = 32
+	binaryIndexFieldSize  = 8
+)
+
+var binaryIndexMagic = []byte("HJIDX\x00\x00\x02")
+
+const (
+	binaryIndexFieldName = iota
+	binaryIndexFieldVersion
+	binaryIndexFieldAppVersion
+	binaryIndexFieldDescription
+	binaryIndexFieldKeywords
+	binaryIndexFieldDigest
+	binaryIndexFieldUrls
+	binaryIndexFieldCreated
+	binaryIndexFieldDeprecated
+	binaryIndexFields
+)
+
+// binaryIndexListSeparator separates the elements of list fields (keywords, urls)
+const binaryIndexListSeparator = "\n"
+
+var errStaleBinaryIndex = errors.New("binary index is stale")
+
+func binaryIndexPath(indexPath string) string {
+	return strings.TrimSuffix(indexPath, ".yaml") + ".bin"
+}
+
+// writeBinaryIndex generates the binary index for the provided (already downloaded) index.yaml
+func writeBinaryIndex(indexPath string) error {
+	info, err := os.Stat(indexPath)
+	if err != nil {
+		return err
+	}
+	indexFile, err := repo.LoadIndexFile(indexPath)
+	if err != nil {
+		return err
+	}
+	names := make([]string, 0, len(indexFile.Entries))
+	for name := range indexFile.Entries {
+		names = append(names, name)
+	}
+	sort.Strings(names)
+	var records bytes.Buffer
+	var stringTable bytes.Buffer
+	offsets := map[string]uint32{}
+	writeString := func(s string) {
+		offset, found := offsets[s]
+		if !found {
+			offset = uint32(stringTable.Len())
+			offsets[s] = offset
+			stringTable.WriteString(s)
+		}
+		_ = binary.Write(&records, binary.LittleEndian, [2]uint32{offset, uint32(len(s))})
+	}
+	recordCount := 0
+	for _, name := range names {
+		for _, chartVersion := range indexFile.Entries[name] {
+			if chartVersion == nil || chartVersion.Metadata == nil {
+				continue
+			}
+			writeString(name)
+			writeString(chartVersion.Version)
+			writeString(chartVersion.AppVersion)
+			writeString(chartVersion.Description)
+			writeString(strings.Join(chartVersion.Keywords, binaryIndexListSeparator))
+			writeString(chartVersion.Digest)
+			writeString(strings.Join(chartVersion.URLs, binaryIndexListSeparator))
+			created := ""
+			if !chartVersion.Created.IsZero() {
+				created = chartVersion.Created.Format(time.RFC3339Nano)
+			}
+			writeString(created)
+			writeString(strconv.FormatBool(chartVersion.Deprecated))
+			recordCount++
+		}
+	}
+	var out bytes.Buffer
+	out.Grow(binaryIndexHeaderSize + records.Len() + stringTable.Len())
+	out.Write(binaryIndexMagic)
+	_ = binary.Write(&out, binary.LittleEndian, info.Size())
+	_ = binary.Write(&out, binary.LittleEndian, info.ModTime().UnixNano())
+	_ = binary.Write(&out, binary.LittleEndian, uint32(recordCount))
+	_ = binary.Write(&out, binary.LittleEndian, uint32(stringTable.Len()))
+	out.Write(records.Bytes())
+	out.Write(stringTable.Bytes())
+	return writeFileAtomically(binaryIndexPath(indexPath), out.Bytes())
+}
+
+type binaryIndex struct {
+	data        []byte
+	records     []byte
+	stringTable []byte
+	count       int
+	release     func() error
+}
+
+// openBinaryIndex maps the binary index of the provided index.yaml, it must be closed after use
+func openBinaryIndex(indexPath string) (*binaryIndex, error) {
+	info, err := os.Stat(indexPath)
+	if err != nil {
+		return nil, err
+	}
+	data, release, err := mapFile(binaryIndexPath(indexPath))
+	if err != nil {
+		return nil, err
+	}
+	index := &binaryIndex{data: data, release: release}
+	if err = index.init(info); err != nil {
+		_ = index.Close()
+		return nil, err
+	}
+	return index, nil
+}
+
+func (b *binaryIndex) init(source os.FileInfo) error {
+	if len(b.data) < binaryIndexHeaderSize || !bytes.Equal(b.data[:len(binaryIndexMagic)], binaryIndexMagic) {
+		return errors.New("invalid binary index")
+	}
+	sourceSize := int64(binary.LittleEndian.Uint64(b.data[8:16]))
+	sourceModTime := int64(binary.LittleEndian.Uint64(b.data[16:24]))
+	if sourceSize != source.Size() || sourceModTime != source.ModTime().UnixNano() {
+		return errStaleBinaryIndex
+	}
+	b.count = int(binary.LittleEndian.Uint32(b.data[24:28]))
+	stringTableSize := int(binary.LittleEndian.Uint32(b.data[28:32]))
+	recordsEnd := binaryIndexHeaderSize + b.count*binaryIndexFields*binaryIndexFieldSize
+	if recordsEnd+stringTableSize != len(b.data) {
+		return errors.New("invalid binary index size")
+	}
+	b.records = b.data[binaryIndexHeaderSize:recordsEnd]
+	b.stringTable = b.data[recordsEnd:]
+	return nil
+}
+
+func (b *binaryIndex) Close() error {
+	if b.release == nil {
+		return nil
+	}
+	release := b.release
+	b.release = nil
+	b.data, b.records, b.stringTable = nil, nil, nil
+	return release()
+}
+
+// fieldBytes returns a view of the field (only valid until the index is closed)
+func (b *binaryIndex) fieldBytes(record, field int) []byte {
+	position := (record*binaryIndexFields + field) * binaryIndexFieldSize
+	offset := binary.LittleEndian.Uint32(b.records[position:])
+	length := binary.LittleEndian.Uint32(b.records[position+4:])
+	if uint64(offset)+uint64(length) > uint64(len(b.stringTable)) {
+		return nil
+	}
+	return b.stringTable[offset : offset+length]
+}
+
+// field returns a copy of the field
+func (b *binaryIndex) field(record, field int) string {
+	return string(b.fieldBytes(record, field))
+}
+
+func (b *binaryIndex) list(record, field int) []string {
+	value := b.field(record, field)
+	if value == "" {
+		return nil
+	}
+	return strings.Split(value, binaryIndexListSeparator)
+}
+
+// find returns the range of records for the chart name
+func (b *binaryIndex) find(name string) (int, int) {
+	key := []byte(name)
+	start := sort.Search(b.count, func(i int) bool {
+		return bytes.Compare(b.fieldBytes(i, binaryIndexFieldName), key) >= 0
+	})
+	end := start
+	for end < b.count && bytes.Equal(b.fieldBytes(end, binaryIndexFieldName), key) {
+		end++
+	}
+	return start, end
+}
+
+// get replicates repo.IndexFile.Get, returning the record of the chart version matching the constraint
+func (b *binaryIndex) get(name, version string) (int, error) {
+	start, end := b.find(name)
+	if start == end {
+		return -1, repo.ErrNoChartName
+	}
+	constraint, err := semver.NewConstraint("*")
+	if version != "" {
+		if constraint, err = semver.NewConstraint(version); err != nil {
+			return -1, err
+		}
+		// Exact match takes precedence
+		for record := start; record < end; record++ {
+			if string(b.fieldBytes(record, binaryIndexFieldVersion)) == version {
+				return record, nil
+			}
+		}
+	}
+	for record := start; record < end; record++ {
+		test, err := semver.NewVersion(b.field(record, binaryIndexFieldVersion))
+		if err != nil {
+			continue
+		}
+		if constraint.Check(test) {
+			return record, nil
+		}
+	}
+	return -1, errors.Errorf("no chart version found for %s-%s", name, version)
+}
+
+// lookupIndexChartVersion resolves the chart version and archive digest using the binary index (or the index.yaml as fallback)
+func lookupIndexChartVersion(indexPath, name, version string) (string, string, error) {
+	if index, err := openBinaryIndex(indexPath); err == nil {
+		defer func() { _ = index.Close() }()
+		record, err := index.get(name, version)
+		if err != nil {
+			return "", "", err
+		}
+		return index.field(record, binaryIndexFieldVersion), index.field(record, binaryIndexFieldDigest), nil
+	}
+	indexFile, err := repo.LoadIndexFile(indexPath)
+	if err != nil {
+		return "", "", err
+	}
+	chartVersion, err := indexFile.Get(name, version)
+	if err != nil {
+		return "", "", err
+	}
+	return chartVersion.Version, chartVersion.Digest, nil
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"os"
+	"path/filepath"
+	"testing"
+	"time"
+)
+
+func newTestBinaryIndex(t *testing.T) string {
+	indexPath := filepath.Join(t.TempDir(), "repo-index.yaml")
+	if err := os.WriteFile(indexPath, []byte(searchIndexYamlForTests), 0644); err != nil {
+		t.Fatal(err)
+	}
+	if err := writeBinaryIndex(indexPath); err != nil {
+		t.Fatalf("Expected binary index to be written, got %s", err)
+	}
+	return indexPath
+}
+
+func TestBinaryIndexWritten(t *testing.T) {
+	indexPath := newTestBinaryIndex(t)
+	if _, err := os.Stat(filepath.Join(filepath.Dir(indexPath), "repo-index.bin")); err != nil {
+		t.Errorf("Expected binary index next to the index.yaml, got %s", err)
+	}
+}
+
+func TestBinaryIndexRecords(t *testing.T) {
+	index, err := openBinaryIndex(newTestBinaryIndex(t))
+	if err != nil {
+		t.Fatalf("Expected binary index to be opened, got %s", err)
+	}
+	defer func() { _ = index.Close() }()
+	if index.count != 4 {
+		t.Fatalf("Expected 4 records, got %d", index.count)
+	}
+	if name := index.field(0, binaryIndexFieldName); name != "nginx" {
+		t.Errorf("Expected records sorted by name, got %s first", name)
+	}
+	if keywords := index.list(2, binaryIndexFieldKeywords); len(keywords) != 2 || keywords[0] != "http" || keywords[1] != "proxy" {
+		t.Errorf("Expected nginx 1.0.0 keywords, got %v", keywords)
+	}
+	if start, end := index.find("proxy-tools"); end-start != 1 {
+		t.Errorf("Expected a single proxy-tools record, got %d", end-start)
+	}
+	if start, end := index.find("missing"); start != end {
+		t.Errorf("Expected no records for missing chart, got %d", end-start)
+	}
+}
+
+func TestBinaryIndexGet(t *testing.T) {
+	index, err := openBinaryIndex(newTestBinaryIndex(t))
+	if err != nil {
+		t.Fatalf("Expected binary index to be opened, got %s", err)
+	}
+	defer func() { _ = index.Close() }()
+	for constraint, expected := range map[string]string{"": "1.1.0", "1.0.0": "1.0.0", "~1.0": "1.0.0", "1.1.0-rc.1": "1.1.0-rc.1"} {
+		record, err := index.get("nginx", constraint)
+		if err != nil {
+			t.Errorf("Expected %q to resolve, got %s", constraint, err)
+			continue
+		}
+		if version := index.field(record, binaryIndexFieldVersion); version != expected {
+			t.Errorf("Expected %q to resolve to %s, got %s", constraint, expected, version)
+		}
+	}
+	if _, err := index.get("nginx", "2.0.0"); err == nil {
+		t.Error("Expected error for unavailable version")
+	}
+	if _, err := index.get("missing", ""); err == nil {
+		t.Error("Expected error for missing chart")
+	}
+}
+
+func TestBinaryIndexStale(t *testing.T) {
+	indexPath := newTestBinaryIndex(t)
+	modTime := time.Now().Add(time.Hour)
+	if err := os.Chtimes(indexPath, modTime, modTime); err != nil {
+		t.Fatal(err)
+	}
+	if _, err := openBinaryIndex(indexPath); err != errStaleBinaryIndex {
+		t.Errorf("Expected stale binary index, got %v", err)
+	}
+	version, _, err := lookupIndexChartVersion(indexPath, "nginx", "")
+	if err != nil || version != "1.1.0" {
+		t.Errorf("Expected fallback to index.yaml, got %s %v", version, err)
+	}
+}
+
+func TestRepoSearchIndexFromBinaryIndex(t *testing.T) {
+	index, err := newRepoSearchIndex("repo", newTestBinaryIndex(t))
+	if err != nil {
+		t.Fatalf("Expected index to be built, got %s", err)
+	}
+	if matches := index.search("proxy", false, nil); len(matches) != 2 {
+		t.Errorf("Expected 2 matches (keyword and description), got %d", len(matches))
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"context"
+	"net/url"
+	"os"
+	"slices"
+	"strconv"
+	"strings"
+	"sync"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+type CatalogOptions struct {
+	RepositoryConfig string
+	// Repos are the names of the repositories to catalog (one per line), all the configured repositories if empty
+	Repos string
+	// Sections are the comma-separated chart contents to include besides the metadata (values, readme, crds)
+	Sections string
+	// Latest limits the catalog to the latest version of each chart
+	Latest      bool
+	Concurrency int
+	// Consumer is invoked (never concurrently) with each catalog entry as soon as it's available
+	Consumer func(entry string) error
+}
+
+type catalogTask struct {
+	entry        *repo.Entry
+	chartVersion *repo.ChartVersion
+}
+
+type catalogResult struct {
+	// entry is the url-encoded entry line followed by the chart info lines
+	entry  string
+	failed bool
+}
+
+const defaultCatalogConcurrency = 8
+
+// Catalog extracts the chart information of the charts in the cached repository indexes.
+// The archives are downloaded concurrently (bounded by Concurrency) and kept in memory, or read from the chart
+// cache if enabled, the entries are streamed to the Consumer in completion order.
+// Failures are reported per chart, the returned error is only set if the catalog couldn't be completed.
+func Catalog(options *CatalogOptions) (string, error) {
+	if options.Consumer == nil {
+		return "", errors.New("a consumer is required to receive the catalog entries")
+	}
+	if _, err := parseChartInfoSections(options.Sections); err != nil {
+		return "", err
+	}
+	tasks, err := catalogTasks(options)
+	if err != nil {
+		return "", err
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultCatalogConcurrency
+	}
+	ctx, cancel := context.WithCancel(context.Background())
+	defer cancel()
+	settings := cli.New()
+	getters := getter.All(settings)
+	results := make(chan *catalogResult, concurrency)
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	go func() {
+		defer close(results)
+	dispatch:
+		for _, task := range tasks {
+			select {
+			case semaphore <- struct{}{}:
+			case <-ctx.Done():
+				break dispatch
+			}
+			wg.Add(1)
+			go func(task *catalogTask) {
+				defer wg.Done()
+				defer func() { <-semaphore }()
+				results <- catalogChart(getters, options.Sections, task)
+			}(task)
+		}
+		wg.Wait()
+	}()
+	completed := 0
+	failed := 0
+	var consumerErr error
+	for result := range results {
+		if consumerErr != nil {
+			// Drain the in-flight workers
+			continue
+		}
+		completed++
+		if result.failed {
+			failed++
+		}
+		progress := make(url.Values)
+		progress.Set("completed", strconv.Itoa(completed))
+		progress.Set("total", strconv.Itoa(len(tasks)))
+		if err := options.Consumer(progress.Encode() + "&" + result.entry); err != nil {
+			consumerErr = err
+			cancel()
+		}
+	}
+	if consumerErr != nil {
+		return "", errors.Wrap(consumerErr, "catalog consumer failed")
+	}
+	summary := make(url.Values)
+	summary.Set("total", strconv.Itoa(len(tasks)))
+	summary.Set("failed", strconv.Itoa(failed))
+	return summary.Encode(), nil
+}
+
+// catalogTasks returns the chart versions of the cached indexes of the requested repositories
+func catalogTasks(options *CatalogOptions) ([]*catalogTask, error) {
+	repositories, err := repo.LoadFile(repositoryConfig(&RepoOptions{RepositoryConfig: options.RepositoryConfig}))
+	if err != nil {
+		return nil, err
+	}
+	var entries []*repo.Entry
+	if strings.TrimSpace(options.Repos) == "" {
+		entries = repositories.Repositories
+	} else {
+		for _, name := range strings.Split(options.Repos, "\n") {
+			if strings.TrimSpace(name) == "" {
+				continue
+			}
+			entry := repositories.Get(name)
+			if entry == nil {
+				return nil, errors.Errorf("no repo named %q found", name)
+			}
+			entries = append(entries, entry)
+		}
+	}
+	var tasks []*catalogTask
+	for _, entry := range entries {
+		index, err := repo.LoadIndexFile(searchIndexPath(entry.Name))
+		if err != nil {
+			return nil, errors.Wrapf(err, "no cached index found for repository %q (update the repository first)", entry.Name)
+		}
+		// LoadIndexFile sorts the versions (newest first)
+		names := make([]string, 0, len(index.Entries))
+		for name := range index.Entries {
+			names = append(names, name)
+		}
+		slices.Sort(names)
+		for _, name := range names {
+			for _, chartVersion := range index.Entries[name] {
+				tasks = append(tasks, &catalogTask{entry: entry, chartVersion: chartVersion})
+				if options.Latest {
+					break
+				}
+			}
+		}
+	}
+	return tasks, nil
+}
+
+func catalogChart(getters getter.Providers, sections string, task *catalogTask) *catalogResult {
+	values := make(url.Values)
+	values.Set("type", "entry")
+	values.Set("repo", task.entry.Name)
+	values.Set("chart", task.chartVersion.Name)
+	values.Set("version", task.chartVersion.Version)
+	archive, err := catalogChartArchive(getters, task)
+	var info string
+	if err == nil {
+		info, err = ChartInfo(&ChartInfoOptions{ShowOptions: ShowOptions{ChartArchive: archive}, Sections: sections})
+	}
+	if err != nil {
+		values.Set("error", err.Error())
+		return &catalogResult{entry: values.Encode(), failed: true}
+	}
+	return &catalogResult{entry: values.Encode() + "\n" + info}
+}
+
+// catalogChartArchive returns the chart archive from the chart cache (if enabled and available) or downloads it
+func catalogChartArchive(getters getter.Providers, task *catalogTask) ([]byte, error) {
+	if cache := currentChartCache(); cache != nil {
+		if cachedPath, ok := cache.lookupDigest(task.chartVersion.Digest); ok {
+			if archive, err := os.ReadFile(cachedPath); err == nil {
+				return archive, nil
+			}
+		}
+	}
+	return downloadRepoChart(getters, task.entry, task.chartVersion)
+}
+
+// downloadRepoChart downloads a chart archive of a repository index into memory
+func downloadRepoChart(getters getter.Providers, entry *repo.Entry, chartVersion *repo.ChartVersion) ([]byte, error) {
+	if len(chartVersion.URLs) == 0 {
+		return nil, errors.Errorf("chart %q version %q has no downloadable URLs", chartVersion.Name, chartVersion.Version)
+	}
+	chartUrl, err := repo.ResolveReferenceURL(entry.URL, chartVersion.URLs[0])
+	if err != nil {
+		return nil, err
+	}
+	u, err := url.Parse(chartUrl)
+	if err != nil {
+		return nil, err
+	}
+	g, err := getters.ByScheme(u.Scheme)
+	if err != nil {
+		return nil, err
+	}
+	// Same options as the chart downloader uses for repository charts
+	data, err := g.Get(chartUrl,
+		getter.WithURL(entry.URL),
+		getter.WithBasicAuth(entry.Username, entry.Password),
+		getter.WithPassCredentialsAll(entry.PassCredentialsAll),
+		getter.WithTLSClientConfig(entry.CertFile, entry.KeyFile, entry.CAFile),
+		getter.WithInsecureSkipVerifyTLS(entry.InsecureSkipTLSverify),
+	)
+	if err != nil {
+		return nil, err
+	}
+	return bytes.Clone(data.Bytes()), nil
+}
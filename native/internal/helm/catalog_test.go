@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"errors"
+	"net/http"
+	"net/http/httptest"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/chartutil"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+// newTestCatalog serves a packaged chart and configures a "catalog" repository with a cached index
+// containing a downloadable version (0.1.0) and a missing one (0.0.1)
+func newTestCatalog(t *testing.T) string {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	chartPath, err := chartutil.Create("cataloged", t.TempDir())
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	archive := &bytes.Buffer{}
+	if _, err = PackageArchive(&PackageOptions{Path: chartPath, Writer: archive}); err != nil {
+		t.Fatalf("Expected chart to be packaged, got %s", err)
+	}
+	server := httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		if r.URL.Path != "/cataloged-0.1.0.tgz" {
+			http.NotFound(w, r)
+			return
+		}
+		_, _ = w.Write(archive.Bytes())
+	}))
+	t.Cleanup(server.Close)
+	indexPath := searchIndexPath("catalog")
+	if err := os.MkdirAll(filepath.Dir(indexPath), 0755); err != nil {
+		t.Fatal(err)
+	}
+	index := "apiVersion: v1\n" +
+		"entries:\n" +
+		"  cataloged:\n" +
+		"    - name: cataloged\n" +
+		"      version: 0.1.0\n" +
+		"      apiVersion: v2\n" +
+		"      urls: [cataloged-0.1.0.tgz]\n" +
+		"    - name: cataloged\n" +
+		"      version: 0.0.1\n" +
+		"      apiVersion: v2\n" +
+		"      urls: [cataloged-0.0.1.tgz]\n"
+	if err := os.WriteFile(indexPath, []byte(index), 0644); err != nil {
+		t.Fatal(err)
+	}
+	repositoryConfig := filepath.Join(t.TempDir(), "repositories.yaml")
+	f := repo.NewFile()
+	f.Update(&repo.Entry{Name: "catalog", URL: server.URL})
+	if err := f.WriteFile(repositoryConfig, 0600); err != nil {
+		t.Fatal(err)
+	}
+	return repositoryConfig
+}
+
+func TestCatalogStreamsEntries(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	var entries []url.Values
+	out, err := Catalog(&CatalogOptions{
+		RepositoryConfig: repositoryConfig,
+		Sections:         "values",
+		Consumer: func(entry string) error {
+			values, _ := url.ParseQuery(strings.SplitN(entry, "\n", 2)[0])
+			entries = append(entries, values)
+			if values.Get("error") == "" && !strings.Contains(entry, "name=values") {
+				t.Errorf("Expected entry to include the values section, got %s", entry)
+			}
+			return nil
+		},
+	})
+	if err != nil {
+		t.Fatalf("Expected catalog to succeed, got %s", err)
+	}
+	if out != "failed=1&total=2" {
+		t.Errorf("Expected summary with a failed chart, got %s", out)
+	}
+	if len(entries) != 2 {
+		t.Fatalf("Expected 2 entries, got %d", len(entries))
+	}
+	for i, entry := range entries {
+		if entry.Get("completed") != strconv.Itoa(i+1) || entry.Get("total") != "2" {
+			t.Errorf("Expected progress %d/2, got %v", i+1, entry)
+		}
+		switch entry.Get("version") {
+		case "0.1.0":
+			if entry.Get("error") != "" {
+				t.Errorf("Expected 0.1.0 to be cataloged, got %s", entry.Get("error"))
+			}
+		case "0.0.1":
+			if entry.Get("error") == "" {
+				t.Error("Expected 0.0.1 to fail")
+			}
+		default:
+			t.Errorf("Unexpected entry %v", entry)
+		}
+	}
+}
+
+func TestCatalogLatest(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	tasks, err := catalogTasks(&CatalogOptions{RepositoryConfig: repositoryConfig, Repos: "catalog", Latest: true})
+	if err != nil {
+		t.Fatalf("Expected tasks, got %s", err)
+	}
+	if len(tasks) != 1 || tasks[0].chartVersion.Version != "0.1.0" {
+		t.Errorf("Expected the latest version only, got %v", tasks)
+	}
+}
+
+func TestCatalogConsumerFailureStops(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	invocations := 0
+	_, err := Catalog(&CatalogOptions{
+		RepositoryConfig: repositoryConfig,
+		Concurrency:      1,
+		Consumer: func(entry string) error {
+			invocations++
+			return errors.New("consumer closed")
+		},
+	})
+	if err == nil || !strings.Contains(err.Error(), "consumer closed") {
+		t.Errorf("Expected consumer error, got %v", err)
+	}
+	if invocations != 1 {
+		t.Errorf("Expected consumer to be invoked once, got %d", invocations)
+	}
+}
+
+func TestCatalogErrors(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	consumer := func(string) error { return nil }
+	if _, err := Catalog(&CatalogOptions{RepositoryConfig: repositoryConfig}); err == nil {
+		t.Error("Expected error for missing consumer")
+	}
+	if _, err := Catalog(&CatalogOptions{RepositoryConfig: repositoryConfig, Sections: "templates", Consumer: consumer}); err == nil {
+		t.Error("Expected error for invalid section")
+	}
+	if _, err := Catalog(&CatalogOptions{RepositoryConfig: repositoryConfig, Repos: "missing", Consumer: consumer}); err == nil {
+		t.Error("Expected error for missing repository")
+	}
+}
+
+func TestCatalogChartArchiveFromCacheWithPrefixedDigest(t *testing.T) {
+	cache := newTestChartCache(t, 0)
+	archive, digest := writeTestArchive(t, "cataloged-archive")
+	if _, err := cache.store(nil, archive); err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	task := &catalogTask{
+		entry:        &repo.Entry{Name: "catalog", URL: "http://127.0.0.1:1"},
+		chartVersion: &repo.ChartVersion{Digest: "sha256:" + digest, URLs: []string{"cataloged-0.1.0.tgz"}},
+	}
+	data, err := catalogChartArchive(nil, task)
+	if err != nil || string(data) != "cataloged-archive" {
+		t.Errorf("Expected archive to be read from the cache, got %q (%v)", data, err)
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"context"
+	"crypto/sha256"
+	"encoding/hex"
+	"io"
+	"os"
+	"path/filepath"
+	"sort"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/gofrs/flock"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/helmpath"
+	"helm.sh/helm/v3/pkg/registry"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+type ChartCacheOptions struct {
+	// Directory where the chart archives are cached, the cache is disabled if empty
+	Directory string
+	// MaxSize in bytes of the cached chart archives, unlimited if <= 0
+	MaxSize int64
+}
+
+// chartCache is a content-addressed store of chart archives shared by every process pointing to the same directory.
+//
+//	blobs/<sha256>.tgz  chart archive (the blob modification time tracks the last access for LRU eviction)
+//	keys/<sha256(key)>  digest of the chart archive resolved for a chart key (repository URL + name + version, OCI reference)
+//
+// Files are written to a temporary file and renamed so that concurrent readers never see partial content.
+// Eviction is serialized across processes with a file lock.
+type chartCache struct {
+	directory string
+	maxSize   int64
+}
+
+var (
+	chartCacheMutex  sync.RWMutex
+	activeChartCache *chartCache
+)
+
+const chartCacheTmpPrefix = ".tmp-"
+
+// chartCacheLockTimeout is the maximum time to wait for the eviction lock held by other processes
+var chartCacheLockTimeout = 30 * time.Second
+
+func ChartCacheConfigure(options *ChartCacheOptions) error {
+	chartCacheMutex.Lock()
+	defer chartCacheMutex.Unlock()
+	if options.Directory == "" {
+		activeChartCache = nil
+		return nil
+	}
+	for _, dir := range []string{"blobs", "keys"} {
+		if err := os.MkdirAll(filepath.Join(options.Directory, dir), 0755); err != nil {
+			return err
+		}
+	}
+	activeChartCache = &chartCache{directory: options.Directory, maxSize: options.MaxSize}
+	return activeChartCache.evict("")
+}
+
+func currentChartCache() *chartCache {
+	chartCacheMutex.RLock()
+	defer chartCacheMutex.RUnlock()
+	return activeChartCache
+}
+
+// locateChart resolves the chartReference to a local chart path, the chart cache (if enabled) is used for remote charts
+func locateChart(chartPathOptions action.ChartPathOptions, settings *cli.EnvSettings, chartReference string) (string, error) {
+	cache := currentChartCache()
+	if cache == nil {
+		return chartPathOptions.LocateChart(chartReference, settings)
+	}
+	keys, digest := chartCacheKeys(chartPathOptions, settings, chartReference)
+	if len(keys) == 0 {
+		return chartPathOptions.LocateChart(chartReference, settings)
+	}
+	// Provenance files aren't cached, charts that must be verified are always located (and verified) again
+	if !chartPathOptions.Verify {
+		if cachedPath, ok := cache.lookupAny(keys, digest); ok {
+			return cachedPath, nil
+		}
+	}
+	chartPath, err := chartPathOptions.LocateChart(chartReference, settings)
+	if err != nil {
+		return "", err
+	}
+	if cachedPath, storeErr := cache.store(keys, chartPath); storeErr == nil {
+		return cachedPath, nil
+	}
+	// The cache is a best-effort optimization, the located chart is still valid
+	return chartPath, nil
+}
+
+// chartCacheKeys computes the cache keys for an immutable remote chart reference (empty for local or mutable charts).
+// For repository charts, the version constraint is resolved with the locally cached repository index,
+// which also provides the expected archive digest.
+func chartCacheKeys(chartPathOptions action.ChartPathOptions, settings *cli.EnvSettings, chartReference string) ([]string, string) {
+	version := strings.TrimSpace(chartPathOptions.Version)
+	if registry.IsOCI(chartReference) {
+		// Only digest-pinned references are immutable, tags are always resolved against the registry
+		if strings.Contains(chartReference, "@sha256:") {
+			return []string{"oci|" + chartReference}, ""
+		}
+		return nil, ""
+	}
+	if strings.HasPrefix(chartReference, "http://") || strings.HasPrefix(chartReference, "https://") {
+		// Archives behind a plain URL aren't content-addressed and might be republished, they're always downloaded
+		return nil, ""
+	}
+	if _, err := os.Stat(chartReference); err == nil || filepath.IsAbs(chartReference) {
+		return nil, ""
+	}
+	repoName, chartName, found := strings.Cut(chartReference, "/")
+	if !found || repoName == "" || chartName == "" || chartPathOptions.RepoURL != "" {
+		return nil, ""
+	}
+	repositories, err := repo.LoadFile(settings.RepositoryConfig)
+	if err != nil || !repositories.Has(repoName) {
+		return nil, ""
+	}
+	resolvedVersion, digest, err := lookupIndexChartVersion(
+		filepath.Join(settings.RepositoryCache, helmpath.CacheIndexFile(repoName)), chartName, version)
+	if err != nil {
+		return nil, ""
+	}
+	key := "repo|" + repositories.Get(repoName).URL + "|" + chartName + "|" + resolvedVersion
+	return []string{key}, digest
+}
+
+func (c *chartCache) blobPath(digest string) string {
+	return filepath.Join(c.directory, "blobs", digest+".tgz")
+}
+
+func (c *chartCache) keyPath(key string) string {
+	sum := sha256.Sum256([]byte(key))
+	return filepath.Join(c.directory, "keys", hex.EncodeToString(sum[:]))
+}
+
+// lookupAny returns the cached archive for the expected digest if known (repository index), it takes precedence over
+// the keys, or for any of the keys otherwise
+func (c *chartCache) lookupAny(keys []string, digest string) (string, bool) {
+	if digest != "" {
+		return c.lookupDigest(digest)
+	}
+	for _, key := range keys {
+		if cachedPath, ok := c.lookup(key); ok {
+			return cachedPath, true
+		}
+	}
+	return "", false
+}
+
+func (c *chartCache) lookup(key string) (string, bool) {
+	digest, err := os.ReadFile(c.keyPath(key))
+	if err != nil {
+		return "", false
+	}
+	return c.lookupDigest(strings.TrimSpace(string(digest)))
+}
+
+// lookupDigest returns the cached archive with the digest, either hex encoded or prefixed (sha256:<hex>) as in
+// repository indexes
+func (c *chartCache) lookupDigest(digest string) (string, bool) {
+	digest = strings.TrimPrefix(digest, "sha256:")
+	if !isSha256Hex(digest) {
+		return "", false
+	}
+	blob := c.blobPath(digest)
+	if _, err := os.Stat(blob); err != nil {
+		return "", false
+	}
+	// Record the access for LRU eviction
+	now := time.Now()
+	_ = os.Chtimes(blob, now, now)
+	return blob, true
+}
+
+// store copies the chart archive into the cache and records the keys that resolve to it
+func (c *chartCache) store(keys []string, chartPath string) (string, error) {
+	info, err := os.Stat(chartPath)
+	if err != nil || info.IsDir() {
+		return "", os.ErrInvalid
+	}
+	source, err := os.Open(chartPath)
+	if err != nil {
+		return "", err
+	}
+	defer func() { _ = source.Close() }()
+	tmp, err := os.CreateTemp(filepath.Join(c.directory, "blobs"), chartCacheTmpPrefix+"*")
+	if err != nil {
+		return "", err
+	}
+	defer func() { _ = os.Remove(tmp.Name()) }()
+	hash := sha256.New()
+	_, err = io.Copy(io.MultiWriter(tmp, hash), source)
+	if closeErr := tmp.Close(); err == nil {
+		err = closeErr
+	}
+	if err != nil {
+		return "", err
+	}
+	digest := hex.EncodeToString(hash.Sum(nil))
+	blob := c.blobPath(digest)
+	if _, statErr := os.Stat(blob); statErr != nil {
+		if err = os.Rename(tmp.Name(), blob); err != nil {
+			return "", err
+		}
+	} else {
+		// Already cached (e.g. stored through a different key), record the access for LRU eviction
+		now := time.Now()
+		_ = os.Chtimes(blob, now, now)
+	}
+	for _, key := range keys {
+		if err = writeFileAtomically(c.keyPath(key), []byte(digest)); err != nil {
+			return "", err
+		}
+	}
+	// Eviction is best-effort (e.g. the lock might be held by another process),
+	// the archive that was just stored is always kept so that the returned path remains valid
+	_ = c.evict(digest)
+	return blob, nil
+}
+
+// evict removes the least recently used chart archives until the cache fits in its maximum size,
+// the archive for the keep digest (if any) is never removed even if it exceeds the maximum size on its own
+func (c *chartCache) evict(keep string) error {
+	if c.maxSize <= 0 {
+		return nil
+	}
+	fileLock := flock.New(filepath.Join(c.directory, "cache.lock"))
+	lockCtx, cancel := context.WithTimeout(context.Background(), chartCacheLockTimeout)
+	defer cancel()
+	locked, err := fileLock.TryLockContext(lockCtx, 100*time.Millisecond)
+	if err == nil && locked {
+		defer func() { _ = fileLock.Unlock() }()
+	}
+	if err != nil {
+		return err
+	}
+	type blobEntry struct {
+		path    string
+		size    int64
+		modTime time.Time
+	}
+	entries, err := os.ReadDir(filepath.Join(c.directory, "blobs"))
+	if err != nil {
+		return err
+	}
+	var blobs []blobEntry
+	var total int64
+	for _, entry := range entries {
+		info, infoErr := entry.Info()
+		if infoErr != nil || entry.IsDir() {
+			continue
+		}
+		path := filepath.Join(c.directory, "blobs", entry.Name())
+		if strings.HasPrefix(entry.Name(), chartCacheTmpPrefix) {
+			// Leftovers from interrupted writes
+			if time.Since(info.ModTime()) > time.Hour {
+				_ = os.Remove(path)
+			}
+			continue
+		}
+		total += info.Size()
+		if keep != "" && path == c.blobPath(keep) {
+			continue
+		}
+		blobs = append(blobs, blobEntry{path: path, size: info.Size(), modTime: info.ModTime()})
+	}
+	if total <= c.maxSize {
+		return nil
+	}
+	sort.Slice(blobs, func(i, j int) bool { return blobs[i].modTime.Before(blobs[j].modTime) })
+	for _, blob := range blobs {
+		if total <= c.maxSize {
+			break
+		}
+		if err := os.Remove(blob.path); err == nil || os.IsNotExist(err) {
+			total -= blob.size
+		}
+	}
+	// Keys pointing to evicted archives are treated as misses and overwritten on the next store
+	return nil
+}
+
+func writeFileAtomically(path string, data []byte) error {
+	tmp, err := os.CreateTemp(filepath.Dir(path), chartCacheTmpPrefix+"*")
+	if err != nil {
+		return err
+	}
+	defer func() { _ = os.Remove(tmp.Name()) }()
+	_, err = tmp.Write(data)
+	if closeErr := tmp.Close(); err == nil {
+		err = closeErr
+	}
+	if err != nil {
+		return err
+	}
+	return os.Rename(tmp.Name(), path)
+}
+
+func isSha256Hex(digest string) bool {
+	if len(digest) != sha256.Size*2 {
+		return false
+	}
+	_, err := hex.DecodeString(digest)
+	return err == nil
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"crypto/sha256"
+	"encoding/hex"
+	"os"
+	"path/filepath"
+	"testing"
+	"time"
+
+	"github.com/gofrs/flock"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/cli"
+)
+
+func newTestChartCache(t *testing.T, maxSize int64) *chartCache {
+	t.Cleanup(func() { _ = ChartCacheConfigure(&ChartCacheOptions{}) })
+	if err := ChartCacheConfigure(&ChartCacheOptions{Directory: t.TempDir(), MaxSize: maxSize}); err != nil {
+		t.Fatalf("Expected cache configuration to succeed, got %s", err)
+	}
+	return currentChartCache()
+}
+
+func writeTestArchive(t *testing.T, contents string) (string, string) {
+	archive := filepath.Join(t.TempDir(), "chart.tgz")
+	if err := os.WriteFile(archive, []byte(contents), 0644); err != nil {
+		t.Fatal(err)
+	}
+	sum := sha256.Sum256([]byte(contents))
+	return archive, hex.EncodeToString(sum[:])
+}
+
+func TestChartCacheStoreAndLookup(t *testing.T) {
+	cache := newTestChartCache(t, 0)
+	archive, digest := writeTestArchive(t, "chart-contents")
+	stored, err := cache.store([]string{"repo|https://charts.example.com|chart|1.0.0"}, archive)
+	if err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	if stored != cache.blobPath(digest) {
+		t.Errorf("Expected archive to be stored by digest %s, got %s", digest, stored)
+	}
+	t.Run("by key", func(t *testing.T) {
+		cached, ok := cache.lookup("repo|https://charts.example.com|chart|1.0.0")
+		if !ok || cached != stored {
+			t.Errorf("Expected lookup by key to hit %s, got %s (%v)", stored, cached, ok)
+		}
+	})
+	t.Run("by digest", func(t *testing.T) {
+		cached, ok := cache.lookupDigest(digest)
+		if !ok || cached != stored {
+			t.Errorf("Expected lookup by digest to hit %s, got %s (%v)", stored, cached, ok)
+		}
+	})
+	t.Run("by prefixed digest", func(t *testing.T) {
+		cached, ok := cache.lookupDigest("sha256:" + digest)
+		if !ok || cached != stored {
+			t.Errorf("Expected lookup by prefixed digest to hit %s, got %s (%v)", stored, cached, ok)
+		}
+	})
+	t.Run("unknown key", func(t *testing.T) {
+		if _, ok := cache.lookup("repo|https://charts.example.com|chart|2.0.0"); ok {
+			t.Error("Expected lookup of unknown key to miss")
+		}
+	})
+	t.Run("invalid digest", func(t *testing.T) {
+		if _, ok := cache.lookupDigest("../../etc/passwd"); ok {
+			t.Error("Expected lookup of invalid digest to miss")
+		}
+	})
+}
+
+func TestChartCacheEvictsLeastRecentlyUsed(t *testing.T) {
+	cache := newTestChartCache(t, 20)
+	first, _ := writeTestArchive(t, "first-chart")
+	second, _ := writeTestArchive(t, "second-chart")
+	firstBlob, _ := cache.store([]string{"first"}, first)
+	old := time.Now().Add(-time.Hour)
+	_ = os.Chtimes(firstBlob, old, old)
+	if _, err := cache.store([]string{"second"}, second); err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	if _, ok := cache.lookup("first"); ok {
+		t.Error("Expected least recently used archive to be evicted")
+	}
+	if _, ok := cache.lookup("second"); !ok {
+		t.Error("Expected most recently used archive to be kept")
+	}
+}
+
+func TestChartCacheKeysLocalChart(t *testing.T) {
+	create, _ := Create(&CreateOptions{
+		Name: "chart-for-cache-tests",
+		Dir:  t.TempDir(),
+	})
+	if keys, _ := chartCacheKeys(action.ChartPathOptions{}, cli.New(), create); len(keys) != 0 {
+		t.Errorf("Expected local charts not to be cached, got %v", keys)
+	}
+}
+
+func TestChartCacheStoreLargerThanMaxSize(t *testing.T) {
+	cache := newTestChartCache(t, 5)
+	archive, digest := writeTestArchive(t, "chart-larger-than-the-cache")
+	stored, err := cache.store([]string{"large"}, archive)
+	if err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	if stored != cache.blobPath(digest) {
+		t.Errorf("Expected archive to be stored by digest %s, got %s", digest, stored)
+	}
+	if _, err := os.Stat(stored); err != nil {
+		t.Errorf("Expected stored archive to be kept even if larger than the maximum size, got %s", err)
+	}
+	if cached, ok := cache.lookup("large"); !ok || cached != stored {
+		t.Errorf("Expected lookup by key to hit %s, got %s (%v)", stored, cached, ok)
+	}
+}
+
+func TestChartCacheStoreExistingRefreshesAccessTime(t *testing.T) {
+	cache := newTestChartCache(t, 25)
+	first, _ := writeTestArchive(t, "first-chart")
+	second, _ := writeTestArchive(t, "second-chart")
+	firstBlob, _ := cache.store([]string{"first"}, first)
+	older := time.Now().Add(-2 * time.Hour)
+	_ = os.Chtimes(firstBlob, older, older)
+	secondBlob, _ := cache.store([]string{"second"}, second)
+	old := time.Now().Add(-time.Hour)
+	_ = os.Chtimes(secondBlob, old, old)
+	// Storing the first archive again (through a different key) marks it as the most recently used
+	if _, err := cache.store([]string{"first-alias"}, first); err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	third, _ := writeTestArchive(t, "third")
+	if _, err := cache.store([]string{"third"}, third); err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	if _, ok := cache.lookup("first-alias"); !ok {
+		t.Error("Expected re-stored archive to be kept")
+	}
+	if _, ok := cache.lookup("second"); ok {
+		t.Error("Expected least recently used archive to be evicted")
+	}
+}
+
+func TestChartCacheStoreWithEvictionLockHeld(t *testing.T) {
+	cache := newTestChartCache(t, 5)
+	previousTimeout := chartCacheLockTimeout
+	chartCacheLockTimeout = 200 * time.Millisecond
+	t.Cleanup(func() { chartCacheLockTimeout = previousTimeout })
+	fileLock := flock.New(filepath.Join(cache.directory, "cache.lock"))
+	if _, err := fileLock.TryLock(); err != nil {
+		t.Fatal(err)
+	}
+	defer func() { _ = fileLock.Unlock() }()
+	archive, digest := writeTestArchive(t, "chart-contents")
+	stored, err := cache.store([]string{"locked"}, archive)
+	if err != nil {
+		t.Fatalf("Expected store to succeed when eviction lock is held, got %s", err)
+	}
+	if stored != cache.blobPath(digest) {
+		t.Errorf("Expected archive to be stored by digest %s, got %s", digest, stored)
+	}
+}
+
+func TestLocateChartVerifyBypassesCache(t *testing.T) {
+	cache := newTestChartCache(t, 0)
+	archive, digest := writeTestArchive(t, "chart-contents")
+	reference := "oci://127.0.0.1:1/charts/test@sha256:" + digest
+	stored, err := cache.store([]string{"oci|" + reference}, archive)
+	if err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	if located, err := locateChart(action.ChartPathOptions{}, cli.New(), reference); err != nil || located != stored {
+		t.Errorf("Expected cached archive %s, got %s (%v)", stored, located, err)
+	}
+	if located, _ := locateChart(action.ChartPathOptions{Verify: true}, cli.New(), reference); located == stored {
+		t.Error("Expected cached archive not to be returned when the chart must be verified")
+	}
+}
+
+func TestChartCacheKeysMutableReferences(t *testing.T) {
+	for _, reference := range []string{
+		"https://charts.example.com/chart-1.0.0.tgz",
+		"http://charts.example.com/chart-1.0.0.tgz",
+		"oci://registry.example.com/charts/chart",
+	} {
+		if keys, _ := chartCacheKeys(action.ChartPathOptions{}, cli.New(), reference); len(keys) != 0 {
+			t.Errorf("Expected mutable reference %s not to be cached, got %v", reference, keys)
+		}
+	}
+}
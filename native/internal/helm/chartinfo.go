@@ -0,0 +1,414 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"archive/tar"
+	"bufio"
+	"bytes"
+	"compress/gzip"
+	"fmt"
+	"io"
+	"io/fs"
+	"net/url"
+	"os"
+	"path"
+	"path/filepath"
+	"slices"
+	"strconv"
+	"strings"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chartutil"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/ignore"
+	"sigs.k8s.io/yaml"
+)
+
+type ChartInfoOptions struct {
+	ShowOptions
+	// Sections are the comma-separated chart contents to include besides the metadata (values, readme, crds)
+	Sections string
+}
+
+// chartInfo is the chart metadata and the requested sections, read without loading the chart
+type chartInfo struct {
+	sections     []string
+	metadata     *chart.Metadata
+	requirements []*chart.Dependency
+	hasSchema    bool
+	values       []byte
+	readme       []byte
+	crds         [][]byte
+	subchartCrds [][]byte
+}
+
+// ChartInfo returns the chart metadata (and the requested sections) reading only the required chart files.
+// Unlike Show, the chart is never fully loaded, the archive entries that aren't needed are skipped.
+func ChartInfo(options *ChartInfoOptions) (string, error) {
+	sections, err := parseChartInfoSections(options.Sections)
+	if err != nil {
+		return "", err
+	}
+	info := &chartInfo{sections: sections}
+	if options.ChartArchive != nil {
+		if err := walkChartArchive(bytes.NewReader(options.ChartArchive), info.visit); err != nil {
+			return "", errors.Wrap(err, "unable to load chart archive")
+		}
+		return info.encode()
+	}
+	registryClient, _, releaseRegistryClient, err := newRegistryClient(
+		options.CertFile,
+		options.KeyFile,
+		options.CaFile,
+		options.Insecure,
+		options.PlainHttp,
+		options.Debug,
+	)
+	defer releaseRegistryClient()
+	if err != nil {
+		return "", err
+	}
+	cfg, err := NewCfg(&CfgOptions{})
+	if err != nil {
+		return "", err
+	}
+	client := action.NewShowWithConfig(action.ShowChart, cfg)
+	client.SetRegistryClient(registryClient)
+	client.Version = options.Version
+	cp, err := locateChart(client.ChartPathOptions, cli.New(), options.Path)
+	if err != nil {
+		return "", err
+	}
+	stat, err := os.Stat(cp)
+	if err != nil {
+		return "", err
+	}
+	if stat.IsDir() {
+		err = walkChartDir(cp, info.visit)
+	} else {
+		var f *os.File
+		if f, err = os.Open(cp); err != nil {
+			return "", err
+		}
+		defer func() { _ = f.Close() }()
+		err = walkChartArchive(bufio.NewReader(f), info.visit)
+	}
+	if err != nil {
+		return "", err
+	}
+	return info.encode()
+}
+
+func parseChartInfoSections(sections string) ([]string, error) {
+	var parsed []string
+	for _, section := range strings.Split(sections, ",") {
+		section = strings.ToLower(strings.TrimSpace(section))
+		switch section {
+		case "":
+		case action.ShowValues.String(), action.ShowReadme.String(), action.ShowCRDs.String():
+			parsed = append(parsed, section)
+		default:
+			return nil, fmt.Errorf("invalid section: %s", section)
+		}
+	}
+	return parsed, nil
+}
+
+// walkChartArchive invokes fn for each file of the chart archive with its path relative to the chart root
+func walkChartArchive(r io.Reader, fn func(name string, contents func() ([]byte, error)) error) error {
+	gz, err := gzip.NewReader(r)
+	if err != nil {
+		return err
+	}
+	defer func() { _ = gz.Close() }()
+	tr := tar.NewReader(gz)
+	for {
+		header, err := tr.Next()
+		if err == io.EOF {
+			return nil
+		}
+		if err != nil {
+			return err
+		}
+		if header.Typeflag == tar.TypeDir {
+			continue
+		}
+		parts := strings.SplitN(strings.TrimPrefix(filepath.ToSlash(header.Name), "/"), "/", 2)
+		if len(parts) != 2 {
+			continue
+		}
+		if err = fn(parts[1], func() ([]byte, error) { return io.ReadAll(tr) }); err != nil {
+			return err
+		}
+	}
+}
+
+// walkChartDir invokes fn for each file of the chart directory with its path relative to the chart root.
+// Files excluded by the chart's .helmignore are skipped (same as loader.LoadDir).
+func walkChartDir(dir string, fn func(name string, contents func() ([]byte, error)) error) error {
+	rules := ignore.Empty()
+	if _, err := os.Stat(filepath.Join(dir, ignore.HelmIgnore)); err == nil {
+		if rules, err = ignore.ParseFile(filepath.Join(dir, ignore.HelmIgnore)); err != nil {
+			return err
+		}
+	}
+	rules.AddDefaults()
+	return filepath.WalkDir(dir, func(p string, d fs.DirEntry, err error) error {
+		if err != nil || p == dir {
+			return err
+		}
+		rel, err := filepath.Rel(dir, p)
+		if err != nil {
+			return err
+		}
+		rel = filepath.ToSlash(rel)
+		fi, err := d.Info()
+		if err != nil {
+			return err
+		}
+		if rules.Ignore(rel, fi) {
+			if d.IsDir() {
+				return filepath.SkipDir
+			}
+			return nil
+		}
+		if d.IsDir() {
+			return nil
+		}
+		return fn(rel, func() ([]byte, error) { return os.ReadFile(p) })
+	})
+}
+
+func (info *chartInfo) visit(name string, contents func() ([]byte, error)) error {
+	var target *[]byte
+	switch {
+	case name == chartutil.ChartfileName:
+		data, err := contents()
+		if err != nil {
+			return err
+		}
+		info.metadata = new(chart.Metadata)
+		if err = yaml.Unmarshal(data, info.metadata); err != nil {
+			return errors.Wrap(err, "cannot load Chart.yaml")
+		}
+		return nil
+	case name == "requirements.yaml":
+		data, err := contents()
+		if err != nil {
+			return err
+		}
+		requirements := struct {
+			Dependencies []*chart.Dependency `json:"dependencies"`
+		}{}
+		if err = yaml.Unmarshal(data, &requirements); err != nil {
+			return errors.Wrap(err, "cannot load requirements.yaml")
+		}
+		info.requirements = requirements.Dependencies
+		return nil
+	case name == chartutil.SchemafileName:
+		// Presence is enough, the schema isn't read
+		info.hasSchema = true
+		return nil
+	case name == chartutil.ValuesfileName && info.includes(action.ShowValues):
+		target = &info.values
+	case slices.Contains(readmeFileNames, strings.ToLower(name)) && info.includes(action.ShowReadme):
+		if info.readme != nil {
+			return nil
+		}
+		target = &info.readme
+	case info.includes(action.ShowCRDs) && isSubchartArchive(name):
+		// Packaged subcharts (e.g. vendored by helm dependency build) are opened to extract their CRDs
+		data, err := contents()
+		if err != nil {
+			return err
+		}
+		return walkChartArchive(bytes.NewReader(data), info.visitSubchart)
+	case info.includes(action.ShowCRDs):
+		crd, subchart := isCRDFile(name)
+		if !crd {
+			return nil
+		}
+		data, err := contents()
+		if err != nil {
+			return err
+		}
+		if subchart {
+			info.subchartCrds = append(info.subchartCrds, data)
+		} else {
+			info.crds = append(info.crds, data)
+		}
+		return nil
+	default:
+		return nil
+	}
+	data, err := contents()
+	if err != nil {
+		return err
+	}
+	*target = data
+	return nil
+}
+
+// visitSubchart collects the CRDs of a packaged subchart (and of its own subcharts)
+func (info *chartInfo) visitSubchart(name string, contents func() ([]byte, error)) error {
+	if isSubchartArchive(name) {
+		data, err := contents()
+		if err != nil {
+			return err
+		}
+		return walkChartArchive(bytes.NewReader(data), info.visitSubchart)
+	}
+	if crd, _ := isCRDFile(name); !crd {
+		return nil
+	}
+	data, err := contents()
+	if err != nil {
+		return err
+	}
+	info.subchartCrds = append(info.subchartCrds, data)
+	return nil
+}
+
+func (info *chartInfo) includes(section action.ShowOutputFormat) bool {
+	return slices.Contains(info.sections, section.String())
+}
+
+// isCRDFile returns whether the chart file is a CRD (as in chart.CRDObjects) and if it belongs to a subchart
+func isCRDFile(name string) (bool, bool) {
+	subchart := false
+	for strings.HasPrefix(name, chartutil.ChartsDir+"/") {
+		i := strings.Index(name[len(chartutil.ChartsDir)+1:], "/")
+		if i < 0 {
+			return false, false
+		}
+		name = name[len(chartutil.ChartsDir)+1+i+1:]
+		subchart = true
+	}
+	ext := strings.ToLower(path.Ext(name))
+	return strings.HasPrefix(name, "crds/") && (ext == ".yaml" || ext == ".yml" || ext == ".json"), subchart
+}
+
+// isSubchartArchive returns whether the chart file is a packaged subchart (charts/<name>.tgz, as loaded by the chart
+// loader), including the packaged subcharts of unpacked subcharts
+func isSubchartArchive(name string) bool {
+	for strings.HasPrefix(name, chartutil.ChartsDir+"/") {
+		rest := name[len(chartutil.ChartsDir)+1:]
+		i := strings.Index(rest, "/")
+		if i < 0 {
+			return path.Ext(rest) == ".tgz"
+		}
+		name = rest[i+1:]
+	}
+	return false
+}
+
+// encode returns the url-encoded lines of the chart information, each line has a type
+// (chart, maintainer, dependency, annotation, or section)
+func (info *chartInfo) encode() (string, error) {
+	if info.metadata == nil {
+		return "", errors.New("Chart.yaml file is missing")
+	}
+	metadata := info.metadata
+	if metadata.APIVersion == "" {
+		metadata.APIVersion = chart.APIVersionV1
+	}
+	dependencies := metadata.Dependencies
+	if metadata.APIVersion == chart.APIVersionV1 && len(info.requirements) > 0 {
+		dependencies = info.requirements
+	}
+	out := bytes.NewBuffer(make([]byte, 0))
+	values := make(url.Values)
+	values.Set("type", "chart")
+	values.Set("name", metadata.Name)
+	values.Set("version", metadata.Version)
+	values.Set("appVersion", metadata.AppVersion)
+	values.Set("apiVersion", metadata.APIVersion)
+	values.Set("description", metadata.Description)
+	values.Set("chartType", metadata.Type)
+	values.Set("kubeVersion", metadata.KubeVersion)
+	values.Set("home", metadata.Home)
+	values.Set("icon", metadata.Icon)
+	values.Set("keywords", strings.Join(metadata.Keywords, ","))
+	values.Set("sources", strings.Join(metadata.Sources, ","))
+	values.Set("deprecated", strconv.FormatBool(metadata.Deprecated))
+	values.Set("hasValuesSchema", strconv.FormatBool(info.hasSchema))
+	_, _ = fmt.Fprintln(out, values.Encode())
+	for _, maintainer := range metadata.Maintainers {
+		values = make(url.Values)
+		values.Set("type", "maintainer")
+		values.Set("name", maintainer.Name)
+		values.Set("email", maintainer.Email)
+		values.Set("url", maintainer.URL)
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	for _, dependency := range dependencies {
+		values = make(url.Values)
+		values.Set("type", "dependency")
+		values.Set("name", dependency.Name)
+		values.Set("version", dependency.Version)
+		values.Set("repository", dependency.Repository)
+		values.Set("condition", dependency.Condition)
+		values.Set("alias", dependency.Alias)
+		values.Set("tags", strings.Join(dependency.Tags, ","))
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	annotations := make([]string, 0, len(metadata.Annotations))
+	for key := range metadata.Annotations {
+		annotations = append(annotations, key)
+	}
+	slices.Sort(annotations)
+	for _, key := range annotations {
+		values = make(url.Values)
+		values.Set("type", "annotation")
+		values.Set("key", key)
+		values.Set("value", metadata.Annotations[key])
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	// Sections are formatted as the equivalent Show output formats
+	for _, section := range info.sections {
+		var content strings.Builder
+		switch section {
+		case action.ShowValues.String():
+			if info.values == nil {
+				continue
+			}
+			_, _ = fmt.Fprintln(&content, string(info.values))
+		case action.ShowReadme.String():
+			if info.readme == nil {
+				continue
+			}
+			_, _ = fmt.Fprintf(&content, "%s\n", info.readme)
+		case action.ShowCRDs.String():
+			for i, crd := range append(info.crds, info.subchartCrds...) {
+				// Separate the documents, no leading separator
+				if i > 0 && !bytes.HasPrefix(crd, []byte("---")) {
+					_, _ = fmt.Fprintln(&content, "---")
+				}
+				_, _ = fmt.Fprintf(&content, "%s\n", string(crd))
+			}
+		}
+		values = make(url.Values)
+		values.Set("type", "section")
+		values.Set("name", section)
+		values.Set("content", content.String())
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strings"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/chartutil"
+)
+
+func TestIsCRDFile(t *testing.T) {
+	for name, expected := range map[string][2]bool{
+		"crds/crd.yaml":                      {true, false},
+		"crds/nested/crd.json":               {true, false},
+		"crds/README.md":                     {false, false},
+		"templates/crd.yaml":                 {false, false},
+		"charts/sub/crds/crd.yml":            {true, true},
+		"charts/sub/charts/deep/crds/a.yaml": {true, true},
+		"charts/sub-0.1.0.tgz":               {false, false},
+	} {
+		crd, subchart := isCRDFile(name)
+		if crd != expected[0] || (crd && subchart != expected[1]) {
+			t.Errorf("Expected %s to be %v, got %v %v", name, expected, crd, subchart)
+		}
+	}
+}
+
+func TestChartInfoFromArchive(t *testing.T) {
+	chartPath, err := chartutil.Create("info", t.TempDir())
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	_ = os.MkdirAll(filepath.Join(chartPath, "crds"), 0755)
+	_ = os.WriteFile(filepath.Join(chartPath, "crds", "crd.yaml"), []byte("kind: CustomResourceDefinition"), 0644)
+	archive := &bytes.Buffer{}
+	if _, err = PackageArchive(&PackageOptions{Path: chartPath, Writer: archive}); err != nil {
+		t.Fatalf("Expected chart to be packaged, got %s", err)
+	}
+	out, err := ChartInfo(&ChartInfoOptions{ShowOptions: ShowOptions{ChartArchive: archive.Bytes()}, Sections: "crds"})
+	if err != nil {
+		t.Fatalf("Expected chart info, got %s", err)
+	}
+	lines := strings.Split(strings.TrimSpace(out), "\n")
+	chart, _ := url.ParseQuery(lines[0])
+	if chart.Get("type") != "chart" || chart.Get("name") != "info" || chart.Get("hasValuesSchema") != "false" {
+		t.Errorf("Expected chart line, got %s", lines[0])
+	}
+	section, _ := url.ParseQuery(lines[len(lines)-1])
+	if section.Get("name") != "crds" || !strings.Contains(section.Get("content"), "CustomResourceDefinition") {
+		t.Errorf("Expected crds section, got %s", lines[len(lines)-1])
+	}
+	for _, line := range lines {
+		if values, _ := url.ParseQuery(line); values.Get("name") == "values" {
+			t.Error("Expected values section not to be included")
+		}
+	}
+}
+
+func TestIsSubchartArchive(t *testing.T) {
+	for name, expected := range map[string]bool{
+		"charts/sub-0.1.0.tgz":                  true,
+		"charts/sub/charts/deep-0.1.0.tgz":      true,
+		"charts/sub-0.1.0.tgz.prov":             false,
+		"charts/sub/crds/crd.yaml":              false,
+		"templates/sub-0.1.0.tgz":               false,
+		"charts/sub/templates/nested-0.1.0.tgz": false,
+	} {
+		if isSubchartArchive(name) != expected {
+			t.Errorf("Expected %s to be %v", name, expected)
+		}
+	}
+}
+
+func TestChartInfoPackagedSubchartCrds(t *testing.T) {
+	dir := t.TempDir()
+	subchartPath, err := chartutil.Create("sub", dir)
+	if err != nil {
+		t.Fatalf("Expected subchart to be created, got %s", err)
+	}
+	_ = os.MkdirAll(filepath.Join(subchartPath, "crds"), 0755)
+	_ = os.WriteFile(filepath.Join(subchartPath, "crds", "crd.yaml"), []byte("kind: CustomResourceDefinition\nname: subchart-crd"), 0644)
+	chartPath, err := chartutil.Create("parent", dir)
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	// Vendored the same way as helm dependency build
+	if err = Package(&PackageOptions{Path: subchartPath, Destination: filepath.Join(chartPath, "charts")}); err != nil {
+		t.Fatalf("Expected subchart to be packaged, got %s", err)
+	}
+	archive := &bytes.Buffer{}
+	if _, err = PackageArchive(&PackageOptions{Path: chartPath, Writer: archive}); err != nil {
+		t.Fatalf("Expected chart to be packaged, got %s", err)
+	}
+	for source, options := range map[string]*ChartInfoOptions{
+		"archive":   {ShowOptions: ShowOptions{ChartArchive: archive.Bytes()}, Sections: "crds"},
+		"directory": {ShowOptions: ShowOptions{Path: chartPath}, Sections: "crds"},
+	} {
+		out, err := ChartInfo(options)
+		if err != nil {
+			t.Fatalf("Expected chart info from %s, got %s", source, err)
+		}
+		if !strings.Contains(out, "subchart-crd") {
+			t.Errorf("Expected packaged subchart CRD in the crds section from %s, got %s", source, out)
+		}
+	}
+}
+
+func TestChartInfoFromDirectoryWithHelmIgnore(t *testing.T) {
+	chartPath, err := chartutil.Create("ignored", t.TempDir())
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	_ = os.MkdirAll(filepath.Join(chartPath, "crds"), 0755)
+	_ = os.WriteFile(filepath.Join(chartPath, "crds", "kept.yaml"), []byte("name: kept-crd"), 0644)
+	_ = os.WriteFile(filepath.Join(chartPath, "crds", "ignored.yaml"), []byte("name: ignored-crd"), 0644)
+	_ = os.WriteFile(filepath.Join(chartPath, "README.md"), []byte("# Ignored readme"), 0644)
+	_ = os.WriteFile(filepath.Join(chartPath, ".helmignore"), []byte("crds/ignored.yaml\nREADME.md\n"), 0644)
+	out, err := ChartInfo(&ChartInfoOptions{ShowOptions: ShowOptions{Path: chartPath}, Sections: "crds,readme"})
+	if err != nil {
+		t.Fatalf("Expected chart info, got %s", err)
+	}
+	if !strings.Contains(out, "kept-crd") {
+		t.Errorf("Expected kept CRD in the crds section, got %s", out)
+	}
+	if strings.Contains(out, "ignored-crd") || strings.Contains(out, "Ignored+readme") {
+		t.Errorf("Expected files excluded by .helmignore to be skipped, got %s", out)
+	}
+}
+
+func TestChartInfoInvalidSection(t *testing.T) {
+	if _, err := ChartInfo(&ChartInfoOptions{Sections: "templates"}); err == nil {
+		t.Error("Expected error for invalid section")
+	}
+}
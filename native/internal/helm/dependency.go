@@ -18,30 +18,49 @@ package helm
 
 import (
 	"bytes"
+	"fmt"
 	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart/loader"
 	"helm.sh/helm/v3/pkg/cli"
 	"helm.sh/helm/v3/pkg/downloader"
 	"helm.sh/helm/v3/pkg/getter"
 	"helm.sh/helm/v3/pkg/registry"
+	"helm.sh/helm/v3/pkg/repo"
+	"os"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
 )
 
 type DependencyOptions struct {
 	Path        string
 	Keyring     string
 	SkipRefresh bool
-	Verify      bool
-	Debug       bool
+	// RefreshTtl limits the repository refreshes, repositories refreshed within the TTL aren't refreshed again
+	RefreshTtl       time.Duration
+	RepositoryConfig string
+	Verify           bool
+	Debug            bool
 }
 
+// repoRefreshes serializes the TTL-based refreshes so that concurrent calls refresh a repository once per window
+var repoRefreshes sync.Mutex
+
 func DependencyBuild(options *DependencyOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		"", "", "", false, false,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
-	manager, out := newManager(options, registryClient)
+	manager, out, err := newManager(options, registryClient)
+	if err != nil {
+		return appendToOutOrErr(getRegistryClientOut(), out.String(), err)
+	}
 	if options.Verify {
 		// https://github.com/helm/helm/blob/1135392b482f26f244c3c69f51511a1d82590eb7/cmd/helm/dependency_build.go#L69
 		manager.Verify = downloader.VerifyIfPossible
@@ -58,14 +77,18 @@ func DependencyList(options *DependencyOptions) (string, error) {
 }
 
 func DependencyUpdate(options *DependencyOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		"", "", "", false, false,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
-	manager, out := newManager(options, registryClient)
+	manager, out, err := newManager(options, registryClient)
+	if err != nil {
+		return appendToOutOrErr(getRegistryClientOut(), out.String(), err)
+	}
 	if options.Verify {
 		// https://github.com/helm/helm/blob/3ad08f3ea9c09d16ddf6519d65f3f6f2ceee2c37/cmd/helm/dependency_update.go#L72
 		manager.Verify = downloader.VerifyAlways
@@ -74,17 +97,74 @@ func DependencyUpdate(options *DependencyOptions) (string, error) {
 	return appendToOutOrErr(getRegistryClientOut(), out.String(), err)
 }
 
-func newManager(options *DependencyOptions, registryClient *registry.Client) (*downloader.Manager, *bytes.Buffer) {
+func newManager(options *DependencyOptions, registryClient *registry.Client) (*downloader.Manager, *bytes.Buffer, error) {
 	out := bytes.NewBuffer(make([]byte, 0))
 	settings := cli.New()
 	manager := &downloader.Manager{
-		Out:            out,
-		ChartPath:      options.Path,
-		Keyring:        options.Keyring,
-		SkipUpdate:     options.SkipRefresh,
-		RegistryClient: registryClient,
-		Debug:          options.Debug,
-		Getters:        getter.All(settings),
+		Out:              out,
+		ChartPath:        options.Path,
+		Keyring:          options.Keyring,
+		SkipUpdate:       options.SkipRefresh,
+		RegistryClient:   registryClient,
+		Debug:            options.Debug,
+		Getters:          getter.All(settings),
+		RepositoryConfig: repositoryConfig(&RepoOptions{RepositoryConfig: options.RepositoryConfig}),
+		RepositoryCache:  settings.RepositoryCache,
+	}
+	if !options.SkipRefresh && options.RefreshTtl > 0 {
+		// The stale repositories are refreshed here, the manager must not refresh them again
+		manager.SkipUpdate = true
+		if err := refreshStaleRepositories(options.Path, manager.RepositoryConfig, options.RefreshTtl, out); err != nil {
+			return manager, out, err
+		}
+	}
+	return manager, out, nil
+}
+
+// refreshStaleRepositories refreshes the configured repositories referenced by the chart dependencies that weren't
+// refreshed within the TTL (across calls and processes), using conditional requests when supported
+func refreshStaleRepositories(chartPath, repoFile string, ttl time.Duration, out *bytes.Buffer) error {
+	c, err := loader.LoadDir(chartPath)
+	if err != nil {
+		return err
+	}
+	repositories, err := repo.LoadFile(repoFile)
+	if err != nil {
+		if os.IsNotExist(errors.Cause(err)) {
+			return nil
+		}
+		return err
+	}
+	repoRefreshes.Lock()
+	defer repoRefreshes.Unlock()
+	var stale []string
+	seen := make(map[string]bool)
+	for _, dependency := range c.Metadata.Dependencies {
+		entry := dependencyRepository(repositories, dependency.Repository)
+		if entry == nil || seen[entry.Name] {
+			continue
+		}
+		seen[entry.Name] = true
+		if refreshed, ok := repoIndexRefreshedAt(searchIndexPath(entry.Name)); ok && time.Since(refreshed) < ttl {
+			continue
+		}
+		stale = append(stale, entry.Name)
+	}
+	if len(stale) == 0 {
+		return nil
+	}
+	results, err := updateRepositories(&RepoOptions{RepositoryConfig: repoFile, Names: strings.Join(stale, "\n")})
+	if err != nil {
+		return err
+	}
+	// Same as the Helm dependency manager, a failed refresh is reported but the cached index is still used
+	for _, result := range results {
+		if result.err != nil {
+			_, _ = fmt.Fprintf(out, "...Unable to get an update from the %q chart repository (%s):\n\t%s\n",
+				result.entry.Name, result.entry.URL, result.err)
+		} else {
+			_, _ = fmt.Fprintf(out, "...Successfully got an update from the %q chart repository\n", result.entry.Name)
+		}
 	}
-	return manager, out
+	return nil
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"net/http"
+	"net/http/httptest"
+	"path/filepath"
+	"sync/atomic"
+	"testing"
+	"time"
+
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+func TestRefreshStaleRepositoriesWithinTtl(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	var requests atomic.Int32
+	server := httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		requests.Add(1)
+		_, _ = w.Write([]byte(searchIndexYamlForTests))
+	}))
+	defer server.Close()
+	repositoryConfig := filepath.Join(t.TempDir(), "repositories.yaml")
+	f := repo.NewFile()
+	f.Update(&repo.Entry{Name: "catalog", URL: server.URL}, &repo.Entry{Name: "unused", URL: server.URL + "/unused"})
+	if err := f.WriteFile(repositoryConfig, 0600); err != nil {
+		t.Fatal(err)
+	}
+	chartPath := newTestUmbrellaChart(t, "refreshed", "~0.1.0")
+	out := bytes.NewBuffer(make([]byte, 0))
+	for i := 0; i < 3; i++ {
+		if err := refreshStaleRepositories(chartPath, repositoryConfig, time.Hour, out); err != nil {
+			t.Fatalf("Expected refresh to succeed, got %s", err)
+		}
+	}
+	if requests.Load() != 1 {
+		t.Errorf("Expected the referenced repository to be refreshed once, got %d requests", requests.Load())
+	}
+	if _, ok := repoIndexRefreshedAt(searchIndexPath("catalog")); !ok {
+		t.Error("Expected the refresh to be recorded")
+	}
+	if err := refreshStaleRepositories(chartPath, repositoryConfig, time.Nanosecond, out); err != nil {
+		t.Fatalf("Expected refresh to succeed, got %s", err)
+	}
+	if requests.Load() != 2 {
+		t.Errorf("Expected the expired repository to be refreshed again, got %d requests", requests.Load())
+	}
+}
+
+func TestRefreshStaleRepositoriesReportsFailures(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	server := httptest.NewServer(http.NotFoundHandler())
+	defer server.Close()
+	repositoryConfig := filepath.Join(t.TempDir(), "repositories.yaml")
+	f := repo.NewFile()
+	f.Update(&repo.Entry{Name: "catalog", URL: server.URL})
+	if err := f.WriteFile(repositoryConfig, 0600); err != nil {
+		t.Fatal(err)
+	}
+	out := bytes.NewBuffer(make([]byte, 0))
+	if err := refreshStaleRepositories(newTestUmbrellaChart(t, "failed", "~0.1.0"), repositoryConfig, time.Hour, out); err != nil {
+		t.Fatalf("Expected failed refresh to be reported only, got %s", err)
+	}
+	if !bytes.Contains(out.Bytes(), []byte("Unable to get an update from the \"catalog\" chart repository")) {
+		t.Errorf("Expected failure to be reported, got %s", out.String())
+	}
+	if _, ok := repoIndexRefreshedAt(searchIndexPath("catalog")); ok {
+		t.Error("Expected failed refresh not to be recorded")
+	}
+}
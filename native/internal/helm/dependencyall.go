@@ -0,0 +1,452 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"encoding/json"
+	"fmt"
+	"io"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/Masterminds/semver/v3"
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/provenance"
+	"helm.sh/helm/v3/pkg/repo"
+	"sigs.k8s.io/yaml"
+)
+
+type DependencyUpdateAllOptions struct {
+	// Paths of the chart directories to update (one per line)
+	Paths            string
+	RepositoryConfig string
+	SkipRefresh      bool
+	Concurrency      int
+}
+
+const defaultDependencyConcurrency = 8
+
+// dependencyChart is a chart whose dependencies are updated
+type dependencyChart struct {
+	path  string
+	chart *chart.Chart
+	// shared is false if a dependency isn't served by a configured repository (local, OCI or unconfigured),
+	// these charts are updated by the Helm dependency manager
+	shared bool
+	// repos, versions, locked and archives are indexed like the chart dependencies
+	repos       []*repo.Entry
+	versions    []*repo.ChartVersion
+	locked      []*chart.Dependency
+	archives    []*dependencyArchive
+	lockUpdated bool
+	err         error
+}
+
+// dependencyArchive is a distinct dependency chart archive, downloaded once and shared by every chart requiring it
+type dependencyArchive struct {
+	entry        *repo.Entry
+	chartVersion *repo.ChartVersion
+	path         string
+	err          error
+}
+
+// DependencyUpdateAll updates the dependencies (charts/ and Chart.lock) of multiple charts.
+// The repository indexes are refreshed and loaded once, the distinct dependency archives are downloaded
+// concurrently (bounded by Concurrency) into a shared directory (or the chart cache if enabled) and hard-linked
+// (or copied) into each chart.
+// Failures are reported per chart, the returned error is only set if the update couldn't be started.
+func DependencyUpdateAll(options *DependencyUpdateAllOptions) (string, error) {
+	var paths []string
+	for _, p := range strings.Split(options.Paths, "\n") {
+		if strings.TrimSpace(p) != "" {
+			paths = append(paths, p)
+		}
+	}
+	if len(paths) == 0 {
+		return "", errors.New("at least one chart path is required")
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultDependencyConcurrency
+	}
+	repoFile := repositoryConfig(&RepoOptions{RepositoryConfig: options.RepositoryConfig})
+	repositories, err := repo.LoadFile(repoFile)
+	if err != nil && !os.IsNotExist(errors.Cause(err)) {
+		return "", err
+	}
+	charts := make([]*dependencyChart, len(paths))
+	var repoNames []string
+	referenced := make(map[string]bool)
+	allRepos := false
+	for i, p := range paths {
+		charts[i] = loadDependencyChart(p, repositories)
+		for _, entry := range charts[i].repos {
+			if !referenced[entry.Name] {
+				referenced[entry.Name] = true
+				repoNames = append(repoNames, entry.Name)
+			}
+		}
+		// The Helm dependency manager doesn't refresh the repositories by itself (see updateChartDependencies)
+		allRepos = allRepos || (charts[i].err == nil && !charts[i].shared)
+	}
+
+	// Refresh the repository indexes once for all the charts
+	refreshErrors := make(map[string]error)
+	if !options.SkipRefresh && (allRepos || len(repoNames) > 0) {
+		names := strings.Join(repoNames, "\n")
+		if allRepos {
+			names = ""
+		}
+		results, err := updateRepositories(&RepoOptions{RepositoryConfig: repoFile, Names: names, Concurrency: concurrency})
+		if err != nil {
+			return "", err
+		}
+		for _, result := range results {
+			if result.err != nil {
+				refreshErrors[result.entry.Name] = result.err
+			}
+		}
+	}
+
+	// Resolve the dependency versions, each repository index is loaded once
+	indexes := make(map[string]*repo.IndexFile)
+	distinct := make(map[string]*dependencyArchive)
+	var archives []*dependencyArchive
+	for _, c := range charts {
+		if c.err != nil || !c.shared {
+			continue
+		}
+		if c.err = c.resolve(indexes, refreshErrors); c.err != nil {
+			continue
+		}
+		for i, chartVersion := range c.versions {
+			key := dependencyArchiveKey(c.repos[i], chartVersion)
+			archive, found := distinct[key]
+			if !found {
+				archive = &dependencyArchive{entry: c.repos[i], chartVersion: chartVersion}
+				distinct[key] = archive
+				archives = append(archives, archive)
+			}
+			c.archives = append(c.archives, archive)
+		}
+	}
+
+	// Download the distinct archives concurrently
+	directory, err := os.MkdirTemp("", "helm-java-dependencies-")
+	if err != nil {
+		return "", err
+	}
+	defer func() { _ = os.RemoveAll(directory) }()
+	getters := getter.All(cli.New())
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, archive := range archives {
+		wg.Add(1)
+		go func(i int, archive *dependencyArchive) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			archive.fetch(getters, filepath.Join(directory, strconv.Itoa(i)+".tgz"))
+		}(i, archive)
+	}
+	wg.Wait()
+
+	// Install the archives (or delegate to the Helm dependency manager) concurrently
+	for _, c := range charts {
+		if c.err != nil {
+			continue
+		}
+		wg.Add(1)
+		go func(c *dependencyChart) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			if c.shared {
+				c.err = c.install()
+			} else {
+				c.err = updateChartDependencies(c.path, repoFile)
+				c.lockUpdated = c.err == nil
+			}
+		}(c)
+	}
+	wg.Wait()
+
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, c := range charts {
+		values := make(url.Values)
+		values.Set("path", c.path)
+		if c.chart != nil {
+			values.Set("name", c.chart.Metadata.Name)
+			values.Set("dependencies", strconv.Itoa(len(c.chart.Metadata.Dependencies)))
+		}
+		values.Set("lockUpdated", strconv.FormatBool(c.lockUpdated))
+		if c.err != nil {
+			values.Set("error", c.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+func loadDependencyChart(chartPath string, repositories *repo.File) *dependencyChart {
+	c := &dependencyChart{path: chartPath, shared: true}
+	if c.chart, c.err = loader.LoadDir(chartPath); c.err != nil {
+		return c
+	}
+	// apiVersion v1 charts (requirements.yaml and requirements.lock) are left to the Helm dependency manager
+	if c.chart.Metadata.APIVersion == chart.APIVersionV1 {
+		c.shared = false
+		return c
+	}
+	for _, dependency := range c.chart.Metadata.Dependencies {
+		entry := dependencyRepository(repositories, dependency.Repository)
+		if entry == nil {
+			c.shared = false
+			c.repos = nil
+			return c
+		}
+		c.repos = append(c.repos, entry)
+	}
+	return c
+}
+
+// dependencyRepository returns the configured repository of a dependency repository reference (name or URL),
+// nil for local, OCI and unconfigured repositories
+func dependencyRepository(repositories *repo.File, repository string) *repo.Entry {
+	if name, ok := strings.CutPrefix(repository, "@"); ok {
+		return repositories.Get(name)
+	}
+	if name, ok := strings.CutPrefix(repository, "alias:"); ok {
+		return repositories.Get(name)
+	}
+	if !strings.HasPrefix(repository, "http://") && !strings.HasPrefix(repository, "https://") {
+		return nil
+	}
+	for _, entry := range repositories.Repositories {
+		if strings.TrimSuffix(entry.URL, "/") == strings.TrimSuffix(repository, "/") {
+			return entry
+		}
+	}
+	return nil
+}
+
+// resolve finds the newest version of each dependency satisfying its constraint (same as helm dependency update)
+func (c *dependencyChart) resolve(indexes map[string]*repo.IndexFile, refreshErrors map[string]error) error {
+	for i, dependency := range c.chart.Metadata.Dependencies {
+		entry := c.repos[i]
+		if err := refreshErrors[entry.Name]; err != nil {
+			return errors.Wrapf(err, "unable to refresh repository %q", entry.Name)
+		}
+		index, found := indexes[entry.Name]
+		if !found {
+			var err error
+			if index, err = repo.LoadIndexFile(searchIndexPath(entry.Name)); err != nil {
+				return errors.Wrapf(err, "no cached index found for repository %q (update the repository first)", entry.Name)
+			}
+			indexes[entry.Name] = index
+		}
+		chartVersion, err := index.Get(dependency.Name, dependency.Version)
+		if err != nil {
+			return errors.Wrapf(err, "dependency %q can't be satisfied by repository %q", dependency.Name, entry.Name)
+		}
+		// Repository aliases are locked with the repository URL (as the Helm dependency manager does)
+		repository := dependency.Repository
+		if strings.HasPrefix(repository, "@") || strings.HasPrefix(repository, "alias:") {
+			repository = entry.URL
+		}
+		c.versions = append(c.versions, chartVersion)
+		c.locked = append(c.locked, &chart.Dependency{
+			Name:       dependency.Name,
+			Repository: repository,
+			Version:    chartVersion.Version,
+		})
+	}
+	return nil
+}
+
+// install links the dependency archives into the chart's charts/ directory and writes the Chart.lock file
+func (c *dependencyChart) install() error {
+	if len(c.locked) == 0 {
+		return nil
+	}
+	for i, archive := range c.archives {
+		if archive.err != nil {
+			return errors.Wrapf(archive.err, "unable to download dependency %q", c.locked[i].Name)
+		}
+	}
+	chartsDir := filepath.Join(c.path, "charts")
+	if err := os.MkdirAll(chartsDir, 0755); err != nil {
+		return err
+	}
+	targets := make(map[string]bool, len(c.locked))
+	for _, locked := range c.locked {
+		targets[fmt.Sprintf("%s-%s.tgz", locked.Name, locked.Version)] = true
+	}
+	for i, locked := range c.locked {
+		target := fmt.Sprintf("%s-%s.tgz", locked.Name, locked.Version)
+		if err := removeStaleDependencyArchives(chartsDir, locked.Name, targets); err != nil {
+			return err
+		}
+		if err := linkOrCopyFile(c.archives[i].path, filepath.Join(chartsDir, target)); err != nil {
+			return err
+		}
+	}
+	return c.writeLock()
+}
+
+// writeLock writes the Chart.lock file unless the existing one already locks the same dependencies
+func (c *dependencyChart) writeLock() error {
+	requested := make([]*chart.Dependency, 0, len(c.chart.Metadata.Dependencies))
+	for i, dependency := range c.chart.Metadata.Dependencies {
+		d := *dependency
+		d.Repository = c.locked[i].Repository
+		requested = append(requested, &d)
+	}
+	digest, err := hashDependencies(requested, c.locked)
+	if err != nil {
+		return err
+	}
+	if c.chart.Lock != nil && c.chart.Lock.Digest == digest {
+		return nil
+	}
+	data, err := yaml.Marshal(&chart.Lock{Generated: time.Now(), Digest: digest, Dependencies: c.locked})
+	if err != nil {
+		return err
+	}
+	if err = os.WriteFile(filepath.Join(c.path, "Chart.lock"), data, 0644); err != nil {
+		return err
+	}
+	c.lockUpdated = true
+	return nil
+}
+
+// hashDependencies computes the Chart.lock digest (same as Helm's internal resolver.HashReq)
+func hashDependencies(requested, locked []*chart.Dependency) (string, error) {
+	data, err := json.Marshal([2][]*chart.Dependency{requested, locked})
+	if err != nil {
+		return "", err
+	}
+	digest, err := provenance.Digest(bytes.NewBuffer(data))
+	return "sha256:" + digest, err
+}
+
+func dependencyArchiveKey(entry *repo.Entry, chartVersion *repo.ChartVersion) string {
+	// Same key as the chart cache uses for repository charts
+	return "repo|" + entry.URL + "|" + chartVersion.Name + "|" + chartVersion.Version
+}
+
+// fetch provides the archive from the chart cache (if enabled and available) or downloads it to the provided path
+func (a *dependencyArchive) fetch(getters getter.Providers, path string) {
+	key := dependencyArchiveKey(a.entry, a.chartVersion)
+	cache := currentChartCache()
+	if cache != nil {
+		if cachedPath, ok := cache.lookup(key); ok {
+			a.path = cachedPath
+			return
+		}
+		// The index digest might be prefixed (sha256:<hex>), lookupDigest accepts both forms
+		if cachedPath, ok := cache.lookupDigest(a.chartVersion.Digest); ok {
+			a.path = cachedPath
+			return
+		}
+	}
+	data, err := downloadRepoChart(getters, a.entry, a.chartVersion)
+	if err == nil {
+		err = os.WriteFile(path, data, 0644)
+	}
+	if err != nil {
+		a.err = err
+		return
+	}
+	a.path = path
+	if cache != nil {
+		if cachedPath, err := cache.store([]string{key}, path); err == nil {
+			a.path = cachedPath
+		}
+	}
+}
+
+// removeStaleDependencyArchives removes the archives of other versions of a dependency from the charts/ directory
+func removeStaleDependencyArchives(chartsDir, name string, targets map[string]bool) error {
+	entries, err := os.ReadDir(chartsDir)
+	if err != nil {
+		return err
+	}
+	for _, entry := range entries {
+		fileName := entry.Name()
+		if entry.IsDir() || targets[fileName] || !strings.HasPrefix(fileName, name+"-") || !strings.HasSuffix(fileName, ".tgz") {
+			continue
+		}
+		// Skip archives of other charts sharing the prefix (e.g. name-other-1.0.0.tgz)
+		if _, err := semver.NewVersion(strings.TrimSuffix(strings.TrimPrefix(fileName, name+"-"), ".tgz")); err != nil {
+			continue
+		}
+		if err := os.Remove(filepath.Join(chartsDir, fileName)); err != nil {
+			return err
+		}
+	}
+	return nil
+}
+
+// linkOrCopyFile hard-links the source file to the target (replacing it), falls back to a copy across devices
+func linkOrCopyFile(source, target string) error {
+	if err := os.Remove(target); err != nil && !os.IsNotExist(err) {
+		return err
+	}
+	if err := os.Link(source, target); err == nil {
+		return nil
+	}
+	in, err := os.Open(source)
+	if err != nil {
+		return err
+	}
+	defer func() { _ = in.Close() }()
+	out, err := os.OpenFile(target, os.O_CREATE|os.O_WRONLY|os.O_TRUNC, 0644)
+	if err != nil {
+		return err
+	}
+	_, err = io.Copy(out, in)
+	if closeErr := out.Close(); err == nil {
+		err = closeErr
+	}
+	return err
+}
+
+// updateChartDependencies updates the dependencies of a chart with the Helm dependency manager,
+// the repositories have already been refreshed
+func updateChartDependencies(chartPath, repoFile string) error {
+	registryClient, _, releaseRegistryClient, err := newRegistryClient("", "", "", false, false, false)
+	defer releaseRegistryClient()
+	if err != nil {
+		return err
+	}
+	manager, _, err := newManager(&DependencyOptions{Path: chartPath, SkipRefresh: true, RepositoryConfig: repoFile}, registryClient)
+	if err != nil {
+		return err
+	}
+	return manager.Update()
+}
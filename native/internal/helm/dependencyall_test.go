@@ -0,0 +1,158 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"net/url"
+	"os"
+	"path/filepath"
+	"strings"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chartutil"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+func newTestUmbrellaChart(t *testing.T, name, constraint string) string {
+	chartPath, err := chartutil.Create(name, t.TempDir())
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	chartYaml, _ := os.OpenFile(filepath.Join(chartPath, "Chart.yaml"), os.O_APPEND|os.O_WRONLY, 0644)
+	_, _ = chartYaml.WriteString("\ndependencies:\n" +
+		"  - name: cataloged\n" +
+		"    version: " + constraint + "\n" +
+		"    repository: \"@catalog\"\n")
+	_ = chartYaml.Close()
+	return chartPath
+}
+
+func TestDependencyUpdateAll(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	umbrella1 := newTestUmbrellaChart(t, "umbrella-1", "~0.1.0")
+	umbrella2 := newTestUmbrellaChart(t, "umbrella-2", "~0.1.0")
+	unsatisfiable := newTestUmbrellaChart(t, "unsatisfiable", "^2.0.0")
+	// Stale version of the dependency and an unrelated archive sharing the prefix
+	_ = os.MkdirAll(filepath.Join(umbrella1, "charts"), 0755)
+	_ = os.WriteFile(filepath.Join(umbrella1, "charts", "cataloged-0.0.1.tgz"), []byte("stale"), 0644)
+	_ = os.WriteFile(filepath.Join(umbrella1, "charts", "cataloged-extra-1.0.0.tgz"), []byte("other"), 0644)
+	out, err := DependencyUpdateAll(&DependencyUpdateAllOptions{
+		Paths:            strings.Join([]string{umbrella1, umbrella2, unsatisfiable}, "\n"),
+		RepositoryConfig: repositoryConfig,
+		SkipRefresh:      true,
+	})
+	if err != nil {
+		t.Fatalf("Expected dependency update to succeed, got %s", err)
+	}
+	lines := strings.Split(strings.TrimSpace(out), "\n")
+	if len(lines) != 3 {
+		t.Fatalf("Expected a result per chart, got %s", out)
+	}
+	for i, chartPath := range []string{umbrella1, umbrella2} {
+		result, _ := url.ParseQuery(lines[i])
+		if result.Get("error") != "" || result.Get("lockUpdated") != "true" || result.Get("dependencies") != "1" {
+			t.Errorf("Expected %s to be updated, got %s", chartPath, lines[i])
+		}
+		if _, err := os.Stat(filepath.Join(chartPath, "charts", "cataloged-0.1.0.tgz")); err != nil {
+			t.Errorf("Expected dependency archive in %s, got %s", chartPath, err)
+		}
+		lock, _ := os.ReadFile(filepath.Join(chartPath, "Chart.lock"))
+		if !strings.Contains(string(lock), "version: 0.1.0") || !strings.Contains(string(lock), "digest: sha256:") {
+			t.Errorf("Expected Chart.lock with the resolved version, got %s", lock)
+		}
+	}
+	if _, err := os.Stat(filepath.Join(umbrella1, "charts", "cataloged-0.0.1.tgz")); !os.IsNotExist(err) {
+		t.Error("Expected stale dependency archive to be removed")
+	}
+	if _, err := os.Stat(filepath.Join(umbrella1, "charts", "cataloged-extra-1.0.0.tgz")); err != nil {
+		t.Error("Expected unrelated archive to be kept")
+	}
+	failed, _ := url.ParseQuery(lines[2])
+	if !strings.Contains(failed.Get("error"), "dependency \"cataloged\" can't be satisfied") {
+		t.Errorf("Expected unsatisfiable dependency error, got %s", lines[2])
+	}
+}
+
+func TestDependencyUpdateAllKeepsUnchangedLock(t *testing.T) {
+	repositoryConfig := newTestCatalog(t)
+	umbrella := newTestUmbrellaChart(t, "umbrella", "~0.1.0")
+	options := &DependencyUpdateAllOptions{Paths: umbrella, RepositoryConfig: repositoryConfig, SkipRefresh: true}
+	if _, err := DependencyUpdateAll(options); err != nil {
+		t.Fatalf("Expected dependency update to succeed, got %s", err)
+	}
+	out, err := DependencyUpdateAll(options)
+	if err != nil {
+		t.Fatalf("Expected dependency update to succeed, got %s", err)
+	}
+	if result, _ := url.ParseQuery(strings.TrimSpace(out)); result.Get("lockUpdated") != "false" || result.Get("error") != "" {
+		t.Errorf("Expected Chart.lock to be kept, got %s", out)
+	}
+}
+
+func TestDependencyRepository(t *testing.T) {
+	repositories := repo.NewFile()
+	repositories.Update(&repo.Entry{Name: "stable", URL: "https://charts.example.com/stable/"})
+	for reference, expected := range map[string]bool{
+		"@stable":                            true,
+		"alias:stable":                       true,
+		"https://charts.example.com/stable":  true,
+		"https://charts.example.com/stable/": true,
+		"@missing":                           false,
+		"https://charts.example.com/other":   false,
+		"file://../local":                    false,
+		"oci://registry.example.com/charts":  false,
+		"":                                   false,
+	} {
+		if entry := dependencyRepository(repositories, reference); (entry != nil) != expected {
+			t.Errorf("Expected %q to be resolved %t, got %v", reference, expected, entry)
+		}
+	}
+}
+
+func TestDependencyUpdateAllErrors(t *testing.T) {
+	if _, err := DependencyUpdateAll(&DependencyUpdateAllOptions{}); err == nil {
+		t.Error("Expected error for missing chart paths")
+	}
+	out, err := DependencyUpdateAll(&DependencyUpdateAllOptions{
+		Paths:            filepath.Join(t.TempDir(), "missing"),
+		RepositoryConfig: filepath.Join(t.TempDir(), "repositories.yaml"),
+		SkipRefresh:      true,
+	})
+	if err != nil || !strings.Contains(out, "error=") {
+		t.Errorf("Expected per chart error for missing chart, got %s %v", out, err)
+	}
+}
+
+func TestDependencyArchiveFetchFromCacheWithPrefixedDigest(t *testing.T) {
+	cache := newTestChartCache(t, 0)
+	archive, digest := writeTestArchive(t, "dependency-archive")
+	stored, err := cache.store(nil, archive)
+	if err != nil {
+		t.Fatalf("Expected store to succeed, got %s", err)
+	}
+	chartVersion := &repo.ChartVersion{
+		Metadata: &chart.Metadata{Name: "dependency", Version: "0.1.0"},
+		Digest:   "sha256:" + digest,
+		URLs:     []string{"dependency-0.1.0.tgz"},
+	}
+	dependency := &dependencyArchive{entry: &repo.Entry{Name: "dependencies", URL: "http://127.0.0.1:1"}, chartVersion: chartVersion}
+	dependency.fetch(nil, filepath.Join(t.TempDir(), "dependency-0.1.0.tgz"))
+	if dependency.err != nil || dependency.path != stored {
+		t.Errorf("Expected archive to be provided by the chart cache %s, got %s (%v)", stored, dependency.path, dependency.err)
+	}
+}
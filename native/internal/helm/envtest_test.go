@@ -18,10 +18,12 @@ package helm
 
 import (
 	"fmt"
+	"net/url"
 	"os"
 	"path"
 	"path/filepath"
 	"runtime"
+	"strconv"
 	"strings"
 	"testing"
 	"time"
@@ -427,6 +429,105 @@ func TestUpgradeInstall(t *testing.T) {
 	}
 }
 
+func TestUpgradeSkipUnchanged(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-upgrade-skip-unchanged",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-upgrade-skip-unchanged",
+	})
+	upgradeOptions := &UpgradeOptions{
+		KubeConfig:    kubeConfigFile.Name(),
+		Chart:         chart,
+		Name:          "test-upgrade-skip-unchanged",
+		SkipUnchanged: true,
+	}
+	// Unchanged (installed revision)
+	out, err := Upgrade(upgradeOptions)
+	if err != nil {
+		t.Errorf("Expected upgrade to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "UNCHANGED: true") || !strings.Contains(out, "REVISION: 1") {
+		t.Errorf("Expected upgrade to be skipped, got %s", out)
+		return
+	}
+	// Changed values
+	upgradeOptions.Values = "replicaCount=2"
+	out, err = Upgrade(upgradeOptions)
+	if err != nil {
+		t.Errorf("Expected upgrade to succeed, got %s", err)
+		return
+	}
+	if strings.Contains(out, "UNCHANGED: true") || !strings.Contains(out, "REVISION: 2") {
+		t.Errorf("Expected upgrade to create a new revision, got %s", out)
+		return
+	}
+	// Unchanged (revision upgraded with SkipUnchanged)
+	out, err = Upgrade(upgradeOptions)
+	if err != nil {
+		t.Errorf("Expected upgrade to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "UNCHANGED: true") || !strings.Contains(out, "REVISION: 2") {
+		t.Errorf("Expected upgrade to be skipped, got %s", out)
+		return
+	}
+}
+
+func TestUpgradeSkipUnchangedAfterPlainUpgrade(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-upgrade-skip-unchanged-after-plain-upgrade",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-upgrade-skip-unchanged-after-plain-upgrade",
+	})
+	upgradeOptions := &UpgradeOptions{
+		KubeConfig:    kubeConfigFile.Name(),
+		Chart:         chart,
+		Name:          "test-upgrade-skip-unchanged-after-plain-upgrade",
+		Values:        "replicaCount=2",
+		SkipUnchanged: true,
+	}
+	// Fingerprinted revision
+	out, err := Upgrade(upgradeOptions)
+	if err != nil || !strings.Contains(out, "REVISION: 2") {
+		t.Errorf("Expected upgrade to create a new revision, got %s %v", out, err)
+		return
+	}
+	// Plain upgrade with different values
+	out, err = Upgrade(&UpgradeOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-upgrade-skip-unchanged-after-plain-upgrade",
+		Values:     "replicaCount=3",
+	})
+	if err != nil || !strings.Contains(out, "REVISION: 3") {
+		t.Errorf("Expected upgrade to create a new revision, got %s %v", out, err)
+		return
+	}
+	// Original values, must not match the fingerprint of the second revision
+	out, err = Upgrade(upgradeOptions)
+	if err != nil {
+		t.Errorf("Expected upgrade to succeed, got %s", err)
+		return
+	}
+	if strings.Contains(out, "UNCHANGED: true") || !strings.Contains(out, "REVISION: 4") {
+		t.Errorf("Expected upgrade to create a new revision, got %s", out)
+		return
+	}
+}
+
 func TestGetValues(t *testing.T) {
 	cleanUp, kubeConfigFile := setupEnvTest()
 	defer cleanUp()
@@ -770,3 +871,475 @@ func TestStatusInvalidRevision(t *testing.T) {
 		return
 	}
 }
+
+func TestReleaseSet(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	create, _ := Create(&CreateOptions{
+		Name: "test-release-set",
+		Dir:  t.TempDir(),
+	})
+	releases := "name=database&chart=" + url.QueryEscape(create) + "\n" +
+		"name=backend&chart=" + url.QueryEscape(create) + "&dependsOn=database\n" +
+		"name=frontend&chart=" + url.QueryEscape(create) + "&dependsOn=backend&namespace=frontend&createNamespace=true"
+	var outcomes []url.Values
+	out, err := ReleaseSet(&ReleaseSetOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Releases:   releases,
+		Consumer: func(outcome string) error {
+			values, _ := url.ParseQuery(outcome)
+			outcomes = append(outcomes, values)
+			return nil
+		},
+	})
+	if err != nil {
+		t.Errorf("Expected release set to succeed, got %s", err)
+		return
+	}
+	if out != "deployed=3&failed=0&skipped=0&total=3" {
+		t.Errorf("Expected summary with 3 deployed releases, got %s", out)
+		return
+	}
+	for i, name := range []string{"database", "backend", "frontend"} {
+		if outcomes[i].Get("name") != name || outcomes[i].Get("status") != "deployed" || outcomes[i].Get("wave") != strconv.Itoa(i) {
+			t.Errorf("Expected %s to be deployed in wave %d, got %s", name, i, outcomes[i].Encode())
+			return
+		}
+	}
+}
+
+func TestReleaseSetSkipsDependentsOfFailedRelease(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	create, _ := Create(&CreateOptions{
+		Name: "test-release-set",
+		Dir:  t.TempDir(),
+	})
+	releases := "name=broken&chart=" + url.QueryEscape(create) + "&namespace=non-existent\n" +
+		"name=dependent&chart=" + url.QueryEscape(create) + "&dependsOn=non-existent/broken\n" +
+		"name=independent&chart=" + url.QueryEscape(create)
+	statuses := make(map[string]string)
+	out, err := ReleaseSet(&ReleaseSetOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Releases:   releases,
+		Consumer: func(outcome string) error {
+			values, _ := url.ParseQuery(outcome)
+			statuses[values.Get("name")] = values.Get("status")
+			return nil
+		},
+	})
+	if err != nil {
+		t.Errorf("Expected release set to complete, got %s", err)
+		return
+	}
+	if out != "deployed=1&failed=1&skipped=1&total=3" {
+		t.Errorf("Expected summary with a failed and a skipped release, got %s", out)
+		return
+	}
+	if statuses["broken"] != "failed" || statuses["dependent"] != "skipped" || statuses["independent"] != "deployed" {
+		t.Errorf("Expected dependent release to be skipped, got %v", statuses)
+		return
+	}
+}
+
+func TestInstallWatchWaitFailsWithProgress(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	create, _ := Create(&CreateOptions{
+		Name: "test-watch-wait",
+		Dir:  t.TempDir(),
+	})
+	var events []url.Values
+	_, err := Install(&InstallOptions{
+		KubeConfig:   kubeConfigFile.Name(),
+		Chart:        create,
+		Name:         "test-watch-wait",
+		Wait:         true,
+		Timeout:      2 * time.Second,
+		WaitStrategy: "watcher",
+		WaitProgress: func(event string) error {
+			values, _ := url.ParseQuery(event)
+			events = append(events, values)
+			return nil
+		},
+	})
+	if err == nil {
+		t.Error("Expected install to fail (no controllers in the test environment)")
+		return
+	}
+	if !strings.Contains(err.Error(), "resources not ready: Deployment/test-watch-wait (InProgress: ") ||
+		!strings.Contains(err.Error(), "context deadline exceeded") {
+		t.Errorf("Expected pending deployment and deadline exceeded, got %s", err.Error())
+		return
+	}
+	current := make(map[string]string)
+	for _, event := range events {
+		current[event.Get("kind")] = event.Get("status")
+	}
+	if current["Service"] != "Current" || current["ServiceAccount"] != "Current" || current["Deployment"] != "InProgress" {
+		t.Errorf("Expected progress events for every resource, got %v", events)
+		return
+	}
+}
+
+func TestInstallInvalidWaitStrategy(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	create, _ := Create(&CreateOptions{
+		Name: "test-wait-strategy",
+		Dir:  t.TempDir(),
+	})
+	_, err := Install(&InstallOptions{
+		KubeConfig:   kubeConfigFile.Name(),
+		Chart:        create,
+		Name:         "test-wait-strategy",
+		WaitStrategy: "poll",
+	})
+	if err == nil || err.Error() != "invalid wait strategy (poll). Must be \"legacy\" or \"watcher\"" {
+		t.Errorf("Expected invalid wait strategy, got %v", err)
+		return
+	}
+}
+
+func TestUninstallWatchWait(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	create, _ := Create(&CreateOptions{
+		Name: "test-uninstall-wait",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      create,
+		Name:       "test-uninstall-wait",
+	})
+	deleted := 0
+	out, err := Uninstall(&UninstallOptions{
+		KubeConfig:   kubeConfigFile.Name(),
+		ReleaseName:  "test-uninstall-wait",
+		Wait:         true,
+		Timeout:      30 * time.Second,
+		WaitStrategy: "watcher",
+		WaitProgress: func(event string) error {
+			values, _ := url.ParseQuery(event)
+			if values.Get("wait") == "delete" && values.Get("status") == "NotFound" {
+				deleted++
+			}
+			return nil
+		},
+	})
+	if err != nil {
+		t.Errorf("Expected uninstall to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "release \"test-uninstall-wait\" uninstalled") || deleted != 3 {
+		t.Errorf("Expected 3 deleted resources, got %d (%s)", deleted, out)
+		return
+	}
+}
+
+func TestHistoryCompact(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-history-compact",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-history-compact",
+	})
+	for _, values := range []string{"replicaCount=2", "replicaCount=3"} {
+		_, _ = Upgrade(&UpgradeOptions{
+			KubeConfig: kubeConfigFile.Name(),
+			Chart:      chart,
+			Name:       "test-history-compact",
+			Values:     values,
+		})
+	}
+	out, err := HistoryCompact(&HistoryCompactOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Keep:       1,
+	})
+	if err != nil {
+		t.Errorf("Expected history compact to succeed, got %s", err)
+		return
+	}
+	if strings.Count(out, "name=test-history-compact&") != 2 ||
+		!strings.Contains(out, "revision=1&") ||
+		!strings.Contains(out, "revision=2&") {
+		t.Errorf("Expected revisions 1 and 2 to be compacted, got %s", out)
+		return
+	}
+	if strings.Count(out, "outcome=deleted") != 2 || strings.Contains(out, "error=") {
+		t.Errorf("Expected revisions 1 and 2 to be deleted, got %s", out)
+		return
+	}
+	history, _ := History(&HistoryOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-history-compact",
+	})
+	if strings.Count(history, "revision=") != 1 || !strings.Contains(history, "revision=3") {
+		t.Errorf("Expected only revision 3 to be kept, got %s", history)
+	}
+}
+
+func TestRollback(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-rollback",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-rollback",
+	})
+	for _, values := range []string{"replicaCount=2", "replicaCount=3"} {
+		_, _ = Upgrade(&UpgradeOptions{
+			KubeConfig: kubeConfigFile.Name(),
+			Chart:      chart,
+			Name:       "test-rollback",
+			Values:     values,
+		})
+	}
+	out, err := Rollback(&RollbackOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback",
+		Revision:    1,
+	})
+	if err != nil {
+		t.Errorf("Expected rollback to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "NAME: test-rollback") ||
+		!strings.Contains(out, "REVISION: 4") ||
+		!strings.Contains(out, "STATUS: deployed") {
+		t.Errorf("Expected rollback to create revision 4, got %s", out)
+		return
+	}
+	values, _ := GetValues(&GetValuesOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback",
+	})
+	if strings.Contains(values, "replicaCount") {
+		t.Errorf("Expected rollback to restore the revision 1 values, got %s", values)
+		return
+	}
+	history, _ := History(&HistoryOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback",
+	})
+	if strings.Count(history, "status=deployed") != 1 || strings.Count(history, "status=superseded") != 3 {
+		t.Errorf("Expected the previous revisions to be superseded, got %s", history)
+	}
+}
+
+func TestRollbackToPreviousRevisionWithMaxHistory(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-rollback-previous",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-rollback-previous",
+	})
+	_, _ = Upgrade(&UpgradeOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-rollback-previous",
+		Values:     "replicaCount=2",
+	})
+	out, err := Rollback(&RollbackOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback-previous",
+		MaxHistory:  2,
+	})
+	if err != nil {
+		t.Errorf("Expected rollback to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "REVISION: 3") {
+		t.Errorf("Expected rollback to create revision 3, got %s", out)
+		return
+	}
+	history, _ := History(&HistoryOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback-previous",
+	})
+	if strings.Contains(history, "revision=1&") || strings.Count(history, "revision=") != 2 {
+		t.Errorf("Expected the history to be pruned to 2 revisions, got %s", history)
+	}
+}
+
+func TestRollbackNonExistentRevision(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-rollback-invalid",
+		Dir:  t.TempDir(),
+	})
+	_, _ = Install(&InstallOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Chart:      chart,
+		Name:       "test-rollback-invalid",
+	})
+	_, err := Rollback(&RollbackOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback-invalid",
+		Revision:    5,
+	})
+	if err == nil || !strings.Contains(err.Error(), "release has no 5 version") {
+		t.Errorf("Expected rollback to fail, got %v", err)
+	}
+}
+
+func TestRollbackNonExistentRelease(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	_, err := Rollback(&RollbackOptions{
+		KubeConfig:  kubeConfigFile.Name(),
+		ReleaseName: "test-rollback-non-existent",
+	})
+	if err == nil || !strings.Contains(err.Error(), "release: not found") {
+		t.Errorf("Expected rollback to fail, got %v", err)
+	}
+}
+
+func TestUninstallAll(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-uninstall-all",
+		Dir:  t.TempDir(),
+	})
+	for _, name := range []string{"test-uninstall-all-1", "test-uninstall-all-2", "test-uninstall-all-3"} {
+		_, _ = Install(&InstallOptions{
+			KubeConfig: kubeConfigFile.Name(),
+			Chart:      chart,
+			Name:       name,
+		})
+	}
+	out, err := UninstallAll(&UninstallAllOptions{
+		KubeConfig:     kubeConfigFile.Name(),
+		ReleaseNames:   "test-uninstall-all-1\ntest-uninstall-all-2\ntest-uninstall-all-missing",
+		IgnoreNotFound: true,
+		Concurrency:    2,
+	})
+	if err != nil {
+		t.Errorf("Expected uninstall all to succeed, got %s", err)
+		return
+	}
+	lines := strings.Split(strings.TrimSpace(out), "\n")
+	if len(lines) != 3 ||
+		!strings.Contains(lines[0], "name=test-uninstall-all-1&") || !strings.Contains(lines[0], "status=uninstalled") ||
+		!strings.Contains(lines[1], "name=test-uninstall-all-2&") || !strings.Contains(lines[1], "status=uninstalled") ||
+		!strings.Contains(lines[2], "name=test-uninstall-all-missing&") || !strings.Contains(lines[2], "status=not-found") {
+		t.Errorf("Expected a result per release, got %s", out)
+		return
+	}
+	list, _ := List(&ListOptions{KubeConfig: kubeConfigFile.Name()})
+	if strings.Contains(list, "test-uninstall-all-1") || strings.Contains(list, "test-uninstall-all-2") ||
+		!strings.Contains(list, "test-uninstall-all-3") {
+		t.Errorf("Expected only the selected releases to be uninstalled, got %s", list)
+	}
+}
+
+func TestUninstallAllReportsFailures(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	out, err := UninstallAll(&UninstallAllOptions{
+		KubeConfig:   kubeConfigFile.Name(),
+		ReleaseNames: "test-uninstall-all-missing",
+	})
+	if err != nil {
+		t.Errorf("Expected uninstall all to succeed, got %s", err)
+		return
+	}
+	if !strings.Contains(out, "status=failed") || !strings.Contains(out, "error=") {
+		t.Errorf("Expected the failure to be reported, got %s", out)
+	}
+}
+
+func TestUninstallAllWatchWait(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-uninstall-all-wait",
+		Dir:  t.TempDir(),
+	})
+	for _, name := range []string{"test-uninstall-all-wait-1", "test-uninstall-all-wait-2"} {
+		_, _ = Install(&InstallOptions{
+			KubeConfig: kubeConfigFile.Name(),
+			Chart:      chart,
+			Name:       name,
+		})
+	}
+	// Not synchronized, the progress consumer is never invoked concurrently
+	deleted := 0
+	out, err := UninstallAll(&UninstallAllOptions{
+		KubeConfig:   kubeConfigFile.Name(),
+		ReleaseNames: "test-uninstall-all-wait-1\ntest-uninstall-all-wait-2",
+		Wait:         true,
+		Timeout:      30 * time.Second,
+		WaitStrategy: "watcher",
+		WaitProgress: func(event string) error {
+			values, _ := url.ParseQuery(event)
+			if values.Get("wait") == "delete" && values.Get("status") == "NotFound" {
+				deleted++
+			}
+			return nil
+		},
+	})
+	if err != nil {
+		t.Errorf("Expected uninstall all to succeed, got %s", err)
+		return
+	}
+	if strings.Count(out, "status=uninstalled") != 2 || deleted != 6 {
+		t.Errorf("Expected 6 deleted resources, got %d (%s)", deleted, out)
+	}
+}
+
+func TestUninstallAllWithSelector(t *testing.T) {
+	cleanUp, kubeConfigFile := setupEnvTest()
+	defer cleanUp()
+	chart, _ := Create(&CreateOptions{
+		Name: "test-uninstall-all-selector",
+		Dir:  t.TempDir(),
+	})
+	for _, name := range []string{"test-uninstall-all-selector-1", "test-uninstall-all-selector-2"} {
+		_, _ = Install(&InstallOptions{
+			KubeConfig: kubeConfigFile.Name(),
+			Chart:      chart,
+			Name:       name,
+		})
+	}
+	// Label the stored revision of the first release (the storage drivers persist the custom release labels)
+	cfg, _ := NewCfg(&CfgOptions{KubeConfig: kubeConfigFile.Name()})
+	labeled, err := cfg.Releases.Last("test-uninstall-all-selector-1")
+	if err != nil {
+		t.Errorf("Expected release to be found, got %s", err)
+		return
+	}
+	labeled.Labels = map[string]string{"team": "backend"}
+	if err = cfg.Releases.Update(labeled); err != nil {
+		t.Errorf("Expected release labels to be updated, got %s", err)
+		return
+	}
+	out, err := UninstallAll(&UninstallAllOptions{
+		KubeConfig: kubeConfigFile.Name(),
+		Selector:   "team=backend",
+	})
+	if err != nil {
+		t.Errorf("Expected uninstall all to succeed, got %s", err)
+		return
+	}
+	if strings.Count(out, "\n") != 1 || !strings.Contains(out, "name=test-uninstall-all-selector-1&") {
+		t.Errorf("Expected only the labeled release to be uninstalled, got %s", out)
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"crypto/sha256"
+	"encoding/hex"
+	"encoding/json"
+	"fmt"
+	"hash"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/release"
+	"sort"
+)
+
+// releaseFingerprint computes a fingerprint of the rendered manifest (and hooks), merged values and chart digest
+func releaseFingerprint(rel *release.Release) (string, error) {
+	digest := sha256.New()
+	writeFingerprintSection(digest, "manifest", []byte(rel.Manifest))
+	hooks := make([]string, 0, len(rel.Hooks))
+	for _, hook := range rel.Hooks {
+		hooks = append(hooks, hook.Path+"\n"+hook.Manifest)
+	}
+	sort.Strings(hooks)
+	for _, hook := range hooks {
+		writeFingerprintSection(digest, "hook", []byte(hook))
+	}
+	// nil and empty values are equivalent (the storage drivers don't preserve the difference)
+	config := []byte("{}")
+	if len(rel.Config) > 0 {
+		var err error
+		if config, err = json.Marshal(rel.Config); err != nil {
+			return "", err
+		}
+	}
+	writeFingerprintSection(digest, "values", config)
+	if rel.Chart != nil {
+		if err := writeChartDigest(digest, rel.Chart); err != nil {
+			return "", err
+		}
+	}
+	return hex.EncodeToString(digest.Sum(nil)), nil
+}
+
+// writeChartDigest writes the chart contents to the digest
+// Dependencies are excluded since they are not persisted with the release (their templates are part of the manifest)
+func writeChartDigest(digest hash.Hash, ch *chart.Chart) error {
+	metadata, err := json.Marshal(ch.Metadata)
+	if err != nil {
+		return err
+	}
+	writeFingerprintSection(digest, "metadata", metadata)
+	values, err := json.Marshal(ch.Values)
+	if err != nil {
+		return err
+	}
+	writeFingerprintSection(digest, "chart-values", values)
+	writeFingerprintSection(digest, "schema", ch.Schema)
+	for _, files := range [][]*chart.File{ch.Templates, ch.Files} {
+		sorted := make([]*chart.File, 0, len(files))
+		for _, file := range files {
+			if file != nil {
+				sorted = append(sorted, file)
+			}
+		}
+		sort.Slice(sorted, func(i, j int) bool { return sorted[i].Name < sorted[j].Name })
+		for _, file := range sorted {
+			writeFingerprintSection(digest, "file:"+file.Name, file.Data)
+		}
+	}
+	return nil
+}
+
+// writeFingerprintSection writes a length-prefixed section so that contents can't shift between sections
+func writeFingerprintSection(digest hash.Hash, section string, data []byte) {
+	_, _ = fmt.Fprintf(digest, "%s:%d\n", section, len(data))
+	_, _ = digest.Write(data)
+}
+
+// deployedFingerprint returns the fingerprint of the last revision if it's deployed (empty otherwise)
+// The fingerprint is computed from the stored contents, so revisions created by install or by the Helm CLI are
+// compared the same way as the ones upgraded by skip-if-unchanged
+func deployedFingerprint(cfg *action.Configuration, name string) (*release.Release, string, error) {
+	last, err := cfg.Releases.Last(name)
+	if err != nil {
+		return nil, "", err
+	}
+	if last.Info == nil || last.Info.Status != release.StatusDeployed {
+		return last, "", nil
+	}
+	fingerprint, err := releaseFingerprint(last)
+	return last, fingerprint, err
+}
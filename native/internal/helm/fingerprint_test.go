@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"testing"
+
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/release"
+)
+
+func fingerprintTestRelease() *release.Release {
+	return &release.Release{
+		Name:     "fingerprint",
+		Manifest: "apiVersion: v1\nkind: ConfigMap\nmetadata:\n  name: fingerprint\n",
+		Hooks: []*release.Hook{
+			{Path: "templates/tests/a.yaml", Manifest: "kind: Pod"},
+			{Path: "templates/tests/b.yaml", Manifest: "kind: Job"},
+		},
+		Config: map[string]interface{}{"replicaCount": 1},
+		Chart: &chart.Chart{
+			Metadata:  &chart.Metadata{Name: "fingerprint", Version: "0.1.0"},
+			Templates: []*chart.File{{Name: "templates/configmap.yaml", Data: []byte("kind: ConfigMap")}},
+			Values:    map[string]interface{}{"replicaCount": 1},
+		},
+	}
+}
+
+func TestReleaseFingerprint(t *testing.T) {
+	fingerprint, err := releaseFingerprint(fingerprintTestRelease())
+	if err != nil {
+		t.Errorf("Expected fingerprint to succeed, got %s", err)
+		return
+	}
+	if len(fingerprint) != 64 {
+		t.Errorf("Expected fingerprint to be a hex encoded SHA-256 digest, got %s", fingerprint)
+		return
+	}
+	same, _ := releaseFingerprint(fingerprintTestRelease())
+	if same != fingerprint {
+		t.Errorf("Expected fingerprint to be stable, got %s and %s", fingerprint, same)
+	}
+}
+
+func TestReleaseFingerprintIgnoresUnpersistedDifferences(t *testing.T) {
+	expected, _ := releaseFingerprint(fingerprintTestRelease())
+	reordered := fingerprintTestRelease()
+	reordered.Hooks[0], reordered.Hooks[1] = reordered.Hooks[1], reordered.Hooks[0]
+	if reorderedFingerprint, _ := releaseFingerprint(reordered); reorderedFingerprint != expected {
+		t.Errorf("Expected fingerprint to ignore hook order, got %s", reorderedFingerprint)
+	}
+	appended := fingerprintTestRelease()
+	appended.Chart.Templates = append(appended.Chart.Templates, &chart.File{Name: "templates/a.yaml"})
+	prepended := fingerprintTestRelease()
+	prepended.Chart.Templates = append([]*chart.File{{Name: "templates/a.yaml"}}, prepended.Chart.Templates...)
+	appendedFingerprint, _ := releaseFingerprint(appended)
+	prependedFingerprint, _ := releaseFingerprint(prepended)
+	if appendedFingerprint != prependedFingerprint {
+		t.Errorf("Expected fingerprint to ignore template order, got %s and %s", appendedFingerprint, prependedFingerprint)
+	}
+	emptyConfig := fingerprintTestRelease()
+	emptyConfig.Config = map[string]interface{}{}
+	nilConfig := fingerprintTestRelease()
+	nilConfig.Config = nil
+	emptyFingerprint, _ := releaseFingerprint(emptyConfig)
+	nilFingerprint, _ := releaseFingerprint(nilConfig)
+	if emptyFingerprint != nilFingerprint {
+		t.Errorf("Expected fingerprint to treat nil and empty values equally, got %s and %s", emptyFingerprint, nilFingerprint)
+	}
+	dependency := fingerprintTestRelease()
+	dependency.Chart.AddDependency(&chart.Chart{Metadata: &chart.Metadata{Name: "dependency"}})
+	if dependencyFingerprint, _ := releaseFingerprint(dependency); dependencyFingerprint != expected {
+		t.Errorf("Expected fingerprint to ignore chart dependencies, got %s", dependencyFingerprint)
+	}
+}
+
+func TestReleaseFingerprintChanges(t *testing.T) {
+	expected, _ := releaseFingerprint(fingerprintTestRelease())
+	for name, mutate := range map[string]func(rel *release.Release){
+		"manifest":     func(rel *release.Release) { rel.Manifest += "data: {}\n" },
+		"hook":         func(rel *release.Release) { rel.Hooks[0].Manifest = "kind: Secret" },
+		"values":       func(rel *release.Release) { rel.Config["replicaCount"] = 2 },
+		"chart":        func(rel *release.Release) { rel.Chart.Metadata.Version = "0.2.0" },
+		"chart values": func(rel *release.Release) { rel.Chart.Values["replicaCount"] = 2 },
+		"template":     func(rel *release.Release) { rel.Chart.Templates[0].Data = []byte("kind: Secret") },
+		"schema":       func(rel *release.Release) { rel.Chart.Schema = []byte("{}") },
+		"section":      func(rel *release.Release) { rel.Manifest, rel.Hooks = rel.Manifest+"kind: Pod", rel.Hooks[1:] },
+	} {
+		t.Run(name, func(t *testing.T) {
+			rel := fingerprintTestRelease()
+			mutate(rel)
+			if fingerprint, _ := releaseFingerprint(rel); fingerprint == expected {
+				t.Errorf("Expected fingerprint to change, got %s", fingerprint)
+			}
+		})
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"compress/flate"
+	"compress/gzip"
+	"encoding/binary"
+	"hash/crc32"
+	"io"
+	"sync"
+)
+
+const (
+	// parallelGzipBlockSize is the amount of uncompressed data compressed by each worker
+	parallelGzipBlockSize = 1 << 20
+	// parallelGzipThreshold is the minimum size for which splitting the compression pays off
+	parallelGzipThreshold = 2 * parallelGzipBlockSize
+	// flateWindowSize is the maximum distance of a deflate back-reference
+	flateWindowSize = 32 << 10
+)
+
+// writeGzip compresses data into w as a single gzip member with the provided header extra field and comment.
+// Unless concurrency is 0, data larger than parallelGzipThreshold is compressed in blocks by up to concurrency
+// workers (pigz approach).
+// Each block is primed with the preceding 32KiB as dictionary and ends with a sync flush, so the blocks
+// concatenate into a single deflate stream.
+// The output only depends on the data (and whether concurrency is 0), never on the number of workers or their
+// scheduling, so it's reproducible.
+func writeGzip(w io.Writer, data []byte, extra []byte, comment string, concurrency int) error {
+	if concurrency <= 0 || len(data) < parallelGzipThreshold {
+		zipper := gzip.NewWriter(w)
+		zipper.Header.Extra = extra
+		zipper.Header.Comment = comment
+		if _, err := zipper.Write(data); err != nil {
+			return err
+		}
+		return zipper.Close()
+	}
+	blocks := make([]*bytes.Buffer, (len(data)+parallelGzipBlockSize-1)/parallelGzipBlockSize)
+	errs := make([]error, len(blocks))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i := range blocks {
+		wg.Add(1)
+		go func(i int) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			blocks[i], errs[i] = deflateBlock(data, i*parallelGzipBlockSize, i == len(blocks)-1)
+		}(i)
+	}
+	wg.Wait()
+	for _, err := range errs {
+		if err != nil {
+			return err
+		}
+	}
+	if _, err := w.Write(gzipHeader(extra, comment)); err != nil {
+		return err
+	}
+	for _, block := range blocks {
+		if _, err := block.WriteTo(w); err != nil {
+			return err
+		}
+	}
+	trailer := make([]byte, 8)
+	binary.LittleEndian.PutUint32(trailer[0:4], crc32.ChecksumIEEE(data))
+	binary.LittleEndian.PutUint32(trailer[4:8], uint32(len(data)))
+	_, err := w.Write(trailer)
+	return err
+}
+
+func deflateBlock(data []byte, start int, last bool) (*bytes.Buffer, error) {
+	end := min(start+parallelGzipBlockSize, len(data))
+	out := bytes.NewBuffer(make([]byte, 0, (end-start)/2))
+	fw, err := flate.NewWriterDict(out, flate.DefaultCompression, data[max(0, start-flateWindowSize):start])
+	if err != nil {
+		return nil, err
+	}
+	if _, err = fw.Write(data[start:end]); err != nil {
+		return nil, err
+	}
+	if last {
+		err = fw.Close()
+	} else {
+		// Byte-aligned non-final block so that the next block can be appended
+		err = fw.Flush()
+	}
+	return out, err
+}
+
+// gzipHeader replicates the header written by gzip.Writer (no modification time, unknown OS)
+func gzipHeader(extra []byte, comment string) []byte {
+	header := []byte{0x1f, 0x8b, 8, 0, 0, 0, 0, 0, 0, 255}
+	if extra != nil {
+		header[3] |= 0x04
+		header = binary.LittleEndian.AppendUint16(header, uint16(len(extra)))
+		header = append(header, extra...)
+	}
+	if comment != "" {
+		header[3] |= 0x10
+		header = append(header, comment...)
+		header = append(header, 0)
+	}
+	return header
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"compress/gzip"
+	"io"
+	"math/rand"
+	"testing"
+)
+
+func TestWriteGzipParallel(t *testing.T) {
+	// Compressible, but not trivially, data spanning several blocks and a partial last block
+	random := rand.New(rand.NewSource(1))
+	words := []string{"apiVersion: ", "kind: CustomResourceDefinition\n", "metadata:\n", "  name: ", "spec:\n"}
+	data := &bytes.Buffer{}
+	for data.Len() < 3*parallelGzipBlockSize+1234 {
+		data.WriteString(words[random.Intn(len(words))])
+		data.WriteByte(byte('a' + random.Intn(26)))
+	}
+	var outputs [][]byte
+	for _, concurrency := range []int{1, 2, 8} {
+		out := &bytes.Buffer{}
+		if err := writeGzip(out, data.Bytes(), helmArchiveHeader, "Helm", concurrency); err != nil {
+			t.Fatalf("Expected data to be compressed, got %s", err)
+		}
+		reader, err := gzip.NewReader(bytes.NewReader(out.Bytes()))
+		if err != nil {
+			t.Fatalf("Expected valid gzip header, got %s", err)
+		}
+		if reader.Comment != "Helm" || !bytes.Equal(reader.Extra, helmArchiveHeader) {
+			t.Errorf("Expected Helm gzip header, got %q %q", reader.Comment, reader.Extra)
+		}
+		decompressed, err := io.ReadAll(reader)
+		if err != nil {
+			t.Fatalf("Expected valid gzip stream, got %s", err)
+		}
+		if !bytes.Equal(decompressed, data.Bytes()) {
+			t.Errorf("Expected decompressed data to match the original data (concurrency %d)", concurrency)
+		}
+		outputs = append(outputs, out.Bytes())
+	}
+	for _, out := range outputs[1:] {
+		if !bytes.Equal(out, outputs[0]) {
+			t.Error("Expected output to be independent of the concurrency")
+		}
+	}
+}
+
+func TestWriteGzipSmallDataUsesSingleStream(t *testing.T) {
+	data := []byte("small chart")
+	out := &bytes.Buffer{}
+	if err := writeGzip(out, data, nil, "", 8); err != nil {
+		t.Fatalf("Expected data to be compressed, got %s", err)
+	}
+	expected := &bytes.Buffer{}
+	zipper := gzip.NewWriter(expected)
+	_, _ = zipper.Write(data)
+	_ = zipper.Close()
+	if !bytes.Equal(out.Bytes(), expected.Bytes()) {
+		t.Error("Expected small data to be compressed as gzip.Writer does")
+	}
+}
@@ -45,6 +45,8 @@ type CfgOptions struct {
 	Namespace          string
 	AllNamespaces      bool
 	KubeOut            io.Writer
+	// RestClientGetter is a shared client getter for the Namespace (KubeConfig and KubeConfigContents are ignored)
+	RestClientGetter genericclioptions.RESTClientGetter
 }
 
 type CertOptions struct {
@@ -57,21 +59,50 @@ type CertOptions struct {
 }
 
 func NewCfg(options *CfgOptions) (*action.Configuration, error) {
-	settings := cli.New()
-	settings.KubeConfig = options.KubeConfig
 	actionConfig := new(action.Configuration)
 	log := func(format string, v ...interface{}) {
 		if options.KubeOut != nil {
 			_, _ = options.KubeOut.Write([]byte(fmt.Sprintf(format, v...) + "\n"))
 		}
 	}
-	if options.Namespace != "" {
-		settings.SetNamespace(options.Namespace)
+	restClientGetter := options.RestClientGetter
+	if restClientGetter == nil {
+		var err error
+		if restClientGetter, err = newRestClientGetter(options); err != nil {
+			return nil, err
+		}
 	}
-	effectiveNamespace := settings.Namespace()
+	effectiveNamespace := resolveNamespace(restClientGetter, options.Namespace)
 	if options.AllNamespaces {
 		effectiveNamespace = ""
 	}
+	err := actionConfig.Init(restClientGetter, effectiveNamespace, os.Getenv("HELM_DRIVER"), log)
+	if err != nil {
+		return nil, fmt.Errorf("failed to initialize action configuration: %w", err)
+	}
+	actionConfig.RegistryClient = options.RegistryClient
+	return actionConfig, nil
+}
+
+// resolveNamespace returns the namespace, or the kubeconfig's namespace if empty ("default" as fallback)
+func resolveNamespace(restClientGetter genericclioptions.RESTClientGetter, namespace string) string {
+	if namespace != "" {
+		return namespace
+	}
+	if namespace, _, err := restClientGetter.ToRawKubeConfigLoader().Namespace(); err == nil {
+		return namespace
+	}
+	return "default"
+}
+
+// newRestClientGetter returns the Kubernetes client getter for the options' kubeconfig and namespace.
+// The getter caches the discovery information and REST mappings, sharing it reduces the per-command overhead.
+func newRestClientGetter(options *CfgOptions) (genericclioptions.RESTClientGetter, error) {
+	settings := cli.New()
+	settings.KubeConfig = options.KubeConfig
+	if options.Namespace != "" {
+		settings.SetNamespace(options.Namespace)
+	}
 	restClientGetter := settings.RESTClientGetter()
 	// Validate KubeConfigContents upfront if provided
 	if options.KubeConfigContents != "" {
@@ -85,12 +116,7 @@ func NewCfg(options *CfgOptions) (*action.Configuration, error) {
 			return parsedConfig
 		}
 	}
-	err := actionConfig.Init(restClientGetter, effectiveNamespace, os.Getenv("HELM_DRIVER"), log)
-	if err != nil {
-		return nil, fmt.Errorf("failed to initialize action configuration: %w", err)
-	}
-	actionConfig.RegistryClient = options.RegistryClient
-	return actionConfig, nil
+	return restClientGetter, nil
 }
 
 func StatusReport(release *release.Release, showDescription bool, debug bool) string {
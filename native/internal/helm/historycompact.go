@@ -0,0 +1,213 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"fmt"
+	"net/url"
+	"sort"
+	"strconv"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/release"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
+	"k8s.io/client-go/util/flowcontrol"
+)
+
+const (
+	defaultHistoryCompactConcurrency = 4
+	defaultHistoryCompactRateLimit   = 10
+)
+
+const (
+	historyCompactDeleted = "deleted"
+	historyCompactFailed  = "failed"
+	historyCompactDryRun  = "dry-run"
+)
+
+type HistoryCompactOptions struct {
+	// ReleaseName of the release to compact, all the releases in the namespace(s) are compacted if empty
+	ReleaseName   string
+	Keep          int
+	Namespace     string
+	AllNamespaces bool
+	Concurrency   int
+	// RateLimit is the maximum number of revision deletions per second
+	RateLimit          int
+	DryRun             bool
+	KubeConfig         string
+	KubeConfigContents string
+}
+
+// HistoryCompact deletes the superseded revisions of the release(s) keeping the most recent Keep revisions.
+// The last deployed revision and pending revisions are always kept (same as Helm's MaxHistory).
+// Deletion failures are reported per revision, the returned error is only set if the revisions couldn't be listed.
+func HistoryCompact(options *HistoryCompactOptions) (string, error) {
+	if options.Keep < 1 {
+		return "", errors.Errorf("invalid number of revisions to keep (%d), must be at least 1", options.Keep)
+	}
+	restClientGetter, err := newRestClientGetter(&CfgOptions{
+		KubeConfig:         options.KubeConfig,
+		KubeConfigContents: options.KubeConfigContents,
+		Namespace:          options.Namespace,
+	})
+	if err != nil {
+		return "", err
+	}
+	cfg, err := NewCfg(&CfgOptions{
+		Namespace:        options.Namespace,
+		AllNamespaces:    options.AllNamespaces,
+		RestClientGetter: restClientGetter,
+	})
+	if err != nil {
+		return "", err
+	}
+	var revisions []*release.Release
+	if options.ReleaseName != "" {
+		revisions, err = cfg.Releases.History(options.ReleaseName)
+	} else {
+		revisions, err = cfg.Releases.ListReleases()
+	}
+	if err != nil {
+		return "", err
+	}
+	compacted := compactableRevisions(revisions, options.Keep)
+	var errs []error
+	if !options.DryRun {
+		errs = deleteRevisions(cfg, restClientGetter, compacted, options)
+	}
+	out := bytes.NewBuffer(make([]byte, 0))
+	for i, rel := range compacted {
+		values := make(url.Values)
+		values.Set("name", rel.Name)
+		values.Set("namespace", rel.Namespace)
+		values.Set("revision", strconv.Itoa(rel.Version))
+		if tspb := rel.Info.LastDeployed; !tspb.IsZero() {
+			values.Set("updated", tspb.Format(time.RFC1123Z))
+		}
+		values.Set("status", rel.Info.Status.String())
+		values.Set("chart", formatChartname(rel.Chart))
+		values.Set("appVersion", formatAppVersion(rel.Chart))
+		switch {
+		case options.DryRun:
+			values.Set("outcome", historyCompactDryRun)
+		case errs[i] != nil:
+			values.Set("outcome", historyCompactFailed)
+			values.Set("error", errs[i].Error())
+		default:
+			values.Set("outcome", historyCompactDeleted)
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+// compactableRevisions returns the revisions that exceed the most recent keep revisions of each release
+// The last deployed and pending revisions are never returned
+func compactableRevisions(revisions []*release.Release, keep int) []*release.Release {
+	releases := make(map[string][]*release.Release)
+	for _, rel := range revisions {
+		if rel.Info == nil {
+			continue
+		}
+		key := rel.Namespace + "/" + rel.Name
+		releases[key] = append(releases[key], rel)
+	}
+	keys := make([]string, 0, len(releases))
+	for key := range releases {
+		keys = append(keys, key)
+	}
+	sort.Strings(keys)
+	var compacted []*release.Release
+	for _, key := range keys {
+		history := releases[key]
+		sort.Slice(history, func(i, j int) bool { return history[i].Version < history[j].Version })
+		lastDeployed := 0
+		for _, rel := range history {
+			if rel.Info.Status == release.StatusDeployed {
+				lastDeployed = rel.Version
+			}
+		}
+		for _, rel := range history[:max(len(history)-keep, 0)] {
+			if rel.Version != lastDeployed && !rel.Info.Status.IsPending() {
+				compacted = append(compacted, rel)
+			}
+		}
+	}
+	return compacted
+}
+
+// deleteRevisions deletes the revisions in parallel, the deletions are rate limited to prevent API server throttling
+// Returns the deletion error of each revision (nil if it was deleted)
+func deleteRevisions(cfg *action.Configuration, restClientGetter genericclioptions.RESTClientGetter, revisions []*release.Release, options *HistoryCompactOptions) []error {
+	errs := make([]error, len(revisions))
+	if len(revisions) == 0 {
+		return errs
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultHistoryCompactConcurrency
+	}
+	rateLimit := options.RateLimit
+	if rateLimit <= 0 {
+		rateLimit = defaultHistoryCompactRateLimit
+	}
+	rateLimiter := flowcontrol.NewTokenBucketRateLimiter(float32(rateLimit), concurrency)
+	defer rateLimiter.Stop()
+	// The release storage is bound to a namespace, revisions listed across namespaces need a namespaced storage
+	storages := map[string]*action.Configuration{}
+	storageErrs := map[string]error{}
+	for _, rel := range revisions {
+		if _, ok := storages[rel.Namespace]; ok || storageErrs[rel.Namespace] != nil {
+			continue
+		}
+		if !options.AllNamespaces {
+			storages[rel.Namespace] = cfg
+			continue
+		}
+		namespaceCfg, err := NewCfg(&CfgOptions{Namespace: rel.Namespace, RestClientGetter: restClientGetter})
+		if err != nil {
+			storageErrs[rel.Namespace] = err
+			continue
+		}
+		storages[rel.Namespace] = namespaceCfg
+	}
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, rel := range revisions {
+		if err := storageErrs[rel.Namespace]; err != nil {
+			errs[i] = err
+			continue
+		}
+		wg.Add(1)
+		go func(i int, rel *release.Release) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			rateLimiter.Accept()
+			if _, err := storages[rel.Namespace].Releases.Delete(rel.Name, rel.Version); err != nil {
+				errs[i] = errors.Wrapf(err, "failed to delete revision %d of release %s/%s", rel.Version, rel.Namespace, rel.Name)
+			}
+		}(i, rel)
+	}
+	wg.Wait()
+	return errs
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"strconv"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/release"
+)
+
+func compactTestRevision(namespace, name string, version int, status release.Status) *release.Release {
+	return &release.Release{Name: name, Namespace: namespace, Version: version, Info: &release.Info{Status: status}}
+}
+
+func compactedVersions(compacted []*release.Release) []string {
+	var versions []string
+	for _, rel := range compacted {
+		versions = append(versions, rel.Namespace+"/"+rel.Name+":"+strconv.Itoa(rel.Version))
+	}
+	return versions
+}
+
+func TestCompactableRevisionsKeepsMostRecent(t *testing.T) {
+	compacted := compactableRevisions([]*release.Release{
+		compactTestRevision("default", "app", 3, release.StatusSuperseded),
+		compactTestRevision("default", "app", 1, release.StatusSuperseded),
+		compactTestRevision("default", "app", 4, release.StatusDeployed),
+		compactTestRevision("default", "app", 2, release.StatusSuperseded),
+	}, 2)
+	if versions := compactedVersions(compacted); len(versions) != 2 || versions[0] != "default/app:1" || versions[1] != "default/app:2" {
+		t.Errorf("Expected the oldest revisions to be compacted, got %v", versions)
+	}
+}
+
+func TestCompactableRevisionsKeepsLastDeployedAndPending(t *testing.T) {
+	compacted := compactableRevisions([]*release.Release{
+		compactTestRevision("default", "app", 1, release.StatusSuperseded),
+		compactTestRevision("default", "app", 2, release.StatusDeployed),
+		compactTestRevision("default", "app", 3, release.StatusPendingUpgrade),
+		compactTestRevision("default", "app", 4, release.StatusFailed),
+		compactTestRevision("default", "app", 5, release.StatusFailed),
+	}, 1)
+	if versions := compactedVersions(compacted); len(versions) != 2 || versions[0] != "default/app:1" || versions[1] != "default/app:4" {
+		t.Errorf("Expected the last deployed and pending revisions to be kept, got %v", versions)
+	}
+}
+
+func TestCompactableRevisionsGroupsByRelease(t *testing.T) {
+	compacted := compactableRevisions([]*release.Release{
+		compactTestRevision("other", "app", 2, release.StatusDeployed),
+		compactTestRevision("default", "app", 2, release.StatusDeployed),
+		compactTestRevision("default", "other", 1, release.StatusDeployed),
+		compactTestRevision("other", "app", 1, release.StatusSuperseded),
+		compactTestRevision("default", "app", 1, release.StatusSuperseded),
+	}, 1)
+	if versions := compactedVersions(compacted); len(versions) != 2 || versions[0] != "default/app:1" || versions[1] != "other/app:1" {
+		t.Errorf("Expected the revisions to be compacted per release, got %v", versions)
+	}
+}
+
+func TestHistoryCompactInvalidKeep(t *testing.T) {
+	_, err := HistoryCompact(&HistoryCompactOptions{})
+	if err == nil || err.Error() != "invalid number of revisions to keep (0), must be at least 1" {
+		t.Errorf("Expected history compact to fail, got %v", err)
+	}
+}
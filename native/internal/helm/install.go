@@ -28,7 +28,9 @@ import (
 	"helm.sh/helm/v3/pkg/cli"
 	"helm.sh/helm/v3/pkg/cli/values"
 	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/postrender"
 	"helm.sh/helm/v3/pkg/release"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
 	"net/url"
 	"os"
 	"os/signal"
@@ -52,6 +54,7 @@ type InstallOptions struct {
 	Description              string
 	Devel                    bool
 	DependencyUpdate         bool
+	RefreshTtl               time.Duration
 	DisableOpenApiValidation bool
 	DryRun                   bool
 	DryRunOption             string
@@ -67,6 +70,15 @@ type InstallOptions struct {
 	// For testing purposes only, prevents connecting to Kubernetes (happens even with DryRun=true and DryRunOption=client)
 	ClientOnly       bool
 	RepositoryConfig string
+	PostRenderer     postrender.PostRenderer
+	// In-memory chart archive (.tgz), takes precedence over Chart
+	ChartArchive []byte
+	// Shared Kubernetes client getter for the Namespace (e.g. release sets), KubeConfig is ignored if set
+	RestClientGetter genericclioptions.RESTClientGetter
+	// WaitStrategy is the readiness waiter used if Wait is set (legacy polling or watcher)
+	WaitStrategy string
+	// WaitProgress is invoked (never concurrently) with each resource status change (watcher strategy only)
+	WaitProgress func(event string) error
 }
 
 type installOutputs struct {
@@ -89,7 +101,7 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 	if options.Version == "" && options.Devel {
 		options.Version = ">0.0.0-0"
 	}
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -97,6 +109,7 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	outputs.getRegistryClientOut = getRegistryClientOut
 	if err != nil {
 		return nil, outputs, err
@@ -106,6 +119,7 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 		KubeConfig:         options.KubeConfig,
 		KubeConfigContents: options.KubeConfigContents,
 		Namespace:          options.Namespace,
+		RestClientGetter:   options.RestClientGetter,
 	}
 	if options.Debug {
 		cfgOptions.KubeOut = outputs.kubeOut
@@ -114,6 +128,9 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 	if err != nil {
 		return nil, outputs, err
 	}
+	if err := applyWaitStrategy(cfg, options.WaitStrategy, options.WaitProgress); err != nil {
+		return nil, outputs, err
+	}
 	client := action.NewInstall(cfg)
 	client.GenerateName = options.GenerateName
 	client.NameTemplate = options.NameTemplate
@@ -150,7 +167,8 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 	client.DisableOpenAPIValidation = options.DisableOpenApiValidation
 	client.InsecureSkipTLSverify = options.InsecureSkipTLSverify
 	client.PlainHTTP = options.PlainHttp
-	chartRequested, chartPath, err := loadChart(client.ChartPathOptions, options.RepositoryConfig, chartReference)
+	client.PostRenderer = options.PostRenderer
+	chartRequested, chartPath, err := loadChart(client.ChartPathOptions, options.RepositoryConfig, chartReference, options.ChartArchive)
 	if err != nil {
 		return nil, outputs, err
 	}
@@ -160,6 +178,8 @@ func install(options *InstallOptions) (*release.Release, *installOutputs, error)
 	// Dependency management
 	chartRequested, updateOutput, err := updateDependencies(&updateDependenciesOptions{
 		DependencyUpdate: options.DependencyUpdate,
+		RefreshTtl:       options.RefreshTtl,
+		RepositoryConfig: options.RepositoryConfig,
 		Keyring:          options.Keyring,
 		Debug:            options.Debug,
 	}, chartRequested, chartPath)
@@ -226,16 +246,22 @@ func validateDryRunOptionFlag(dryRunOptionFlagValue string) error {
 
 type updateDependenciesOptions struct {
 	DependencyUpdate bool
+	RefreshTtl       time.Duration
+	RepositoryConfig string
 	Keyring          string
 	Debug            bool
 }
 
-func loadChart(chartPathOptions action.ChartPathOptions, repositoryConfig string, chartReference string) (*chart.Chart, string, error) {
+func loadChart(chartPathOptions action.ChartPathOptions, repositoryConfig string, chartReference string, chartArchive []byte) (*chart.Chart, string, error) {
+	if chartArchive != nil {
+		chartRequested, err := loadChartArchive(chartArchive)
+		return chartRequested, "", err
+	}
 	settings := cli.New()
 	if repositoryConfig != "" {
 		settings.RepositoryConfig = repositoryConfig
 	}
-	chartPath, err := chartPathOptions.LocateChart(chartReference, settings)
+	chartPath, err := locateChart(chartPathOptions, settings, chartReference)
 	if err != nil {
 		return nil, "", err
 	}
@@ -243,6 +269,15 @@ func loadChart(chartPathOptions action.ChartPathOptions, repositoryConfig string
 	return chartRequested, chartPath, err
 }
 
+// loadChartArchive loads a chart from an in-memory archive (no filesystem access)
+func loadChartArchive(chartArchive []byte) (*chart.Chart, error) {
+	chartRequested, err := loader.LoadArchive(bytes.NewReader(chartArchive))
+	if err != nil {
+		return nil, errors.Wrap(err, "unable to load chart archive")
+	}
+	return chartRequested, nil
+}
+
 func updateDependencies(options *updateDependenciesOptions, chart *chart.Chart, chartPath string) (*chart.Chart, string, error) {
 	dependencies := chart.Metadata.Dependencies
 	if dependencies == nil {
@@ -254,12 +289,17 @@ func updateDependencies(options *updateDependenciesOptions, chart *chart.Chart,
 	}
 	// Dependencies are invalid, try to update them
 	invalidDependencies = errors.Wrap(invalidDependencies, "An error occurred while checking for chart dependencies. You may need to run `helm dependency build` to fetch missing dependencies")
+	if options.DependencyUpdate && chartPath == "" {
+		return chart, "", errors.Wrap(invalidDependencies, "Dependency update is not supported for in-memory chart archives")
+	}
 	if options.DependencyUpdate {
 		updateOutput, updateError := DependencyUpdate(&DependencyOptions{
-			Path:        chartPath,
-			Keyring:     options.Keyring,
-			SkipRefresh: false,
-			Debug:       options.Debug,
+			Path:             chartPath,
+			Keyring:          options.Keyring,
+			SkipRefresh:      false,
+			RefreshTtl:       options.RefreshTtl,
+			RepositoryConfig: options.RepositoryConfig,
+			Debug:            options.Debug,
 		})
 		if updateError != nil {
 			return nil, updateOutput, errors.Wrap(updateError, "An error occurred while updating chart dependencies")
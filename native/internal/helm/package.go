@@ -17,8 +17,29 @@
 package helm
 
 import (
+	"archive/tar"
+	"bytes"
+	"crypto/sha256"
+	"encoding/hex"
+	"encoding/json"
 	"errors"
+	"fmt"
+	"io"
+	"net/url"
+	"os"
+	"path"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/Masterminds/semver/v3"
 	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/chartutil"
+	"sigs.k8s.io/yaml"
 )
 
 type PackageOptions struct {
@@ -28,6 +49,8 @@ type PackageOptions struct {
 	Key            string
 	Keyring        string
 	PassphraseFile string
+	// Writer receives the chart archive instead of writing it to Destination (see PackageArchive)
+	Writer io.Writer
 }
 
 func Package(options *PackageOptions) error {
@@ -51,3 +74,278 @@ func Package(options *PackageOptions) error {
 	}
 	return nil
 }
+
+// PackageArchive packages the chart into the options Writer without touching the filesystem.
+// Returns the url-encoded name, version, digest (sha256 of the archive), and size of the archive.
+func PackageArchive(options *PackageOptions) (string, error) {
+	if options.Writer == nil {
+		return "", errors.New("a writer is required to package the chart archive")
+	}
+	if options.Sign {
+		// The provenance file is generated from the archive written to disk
+		return "", errors.New("signing is only supported when packaging to a destination directory")
+	}
+	ch, err := loadChartToPackage(options.Path)
+	if err != nil {
+		return "", err
+	}
+	hash := sha256.New()
+	size := &countingWriter{}
+	if err := writeChartArchive(io.MultiWriter(options.Writer, hash, size), ch, time.Now(), 0); err != nil {
+		return "", err
+	}
+	values := make(url.Values)
+	values.Set("name", ch.Metadata.Name)
+	values.Set("version", ch.Metadata.Version)
+	values.Set("digest", "sha256:"+hex.EncodeToString(hash.Sum(nil)))
+	values.Set("size", strconv.FormatInt(size.n, 10))
+	return values.Encode(), nil
+}
+
+type PackageAllOptions struct {
+	// Paths are the chart directories to package (one per line)
+	Paths       string
+	Destination string
+	Concurrency int
+}
+
+type packageResult struct {
+	path     string
+	name     string
+	version  string
+	archive  string
+	digest   string
+	size     int64
+	duration time.Duration
+	err      error
+}
+
+const defaultPackageConcurrency = 4
+
+// PackageAll packages the chart directories concurrently (bounded by Concurrency) into Destination.
+// The archives are reproducible (entries are sorted and share a fixed modification time), large archives are
+// compressed in parallel too.
+// Failures are reported per chart, the returned error is only set if the packaging couldn't be started.
+func PackageAll(options *PackageAllOptions) (string, error) {
+	var paths []string
+	for _, p := range strings.Split(options.Paths, "\n") {
+		if strings.TrimSpace(p) != "" {
+			paths = append(paths, p)
+		}
+	}
+	if len(paths) == 0 {
+		return "", errors.New("at least one chart path is required")
+	}
+	destination := options.Destination
+	if destination == "" {
+		destination = "."
+	}
+	if err := os.MkdirAll(destination, 0755); err != nil {
+		return "", err
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultPackageConcurrency
+	}
+	modTime := reproducibleModTime()
+	results := make([]*packageResult, len(paths))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, p := range paths {
+		wg.Add(1)
+		go func(i int, p string) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			// Idle workers (fewer charts than concurrency) are used to compress large archives
+			results[i] = packageChart(p, destination, modTime, max(1, concurrency/min(concurrency, len(paths))))
+		}(i, p)
+	}
+	wg.Wait()
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, result := range results {
+		values := make(url.Values)
+		values.Set("path", result.path)
+		values.Set("name", result.name)
+		values.Set("version", result.version)
+		values.Set("archive", result.archive)
+		values.Set("digest", result.digest)
+		values.Set("size", strconv.FormatInt(result.size, 10))
+		values.Set("durationMillis", strconv.FormatInt(result.duration.Milliseconds(), 10))
+		if result.err != nil {
+			values.Set("error", result.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+func packageChart(chartPath, destination string, modTime time.Time, concurrency int) *packageResult {
+	start := time.Now()
+	result := &packageResult{path: chartPath}
+	defer func() { result.duration = time.Since(start) }()
+	ch, err := loadChartToPackage(chartPath)
+	if err != nil {
+		result.err = err
+		return result
+	}
+	result.name = ch.Metadata.Name
+	result.version = ch.Metadata.Version
+	archive, err := filepath.Abs(filepath.Join(destination, fmt.Sprintf("%s-%s.tgz", ch.Name(), ch.Metadata.Version)))
+	if err != nil {
+		result.err = err
+		return result
+	}
+	// Write to a temporary file and rename, readers never see a partial archive
+	tmp, err := os.CreateTemp(destination, "."+filepath.Base(archive)+"-*")
+	if err != nil {
+		result.err = err
+		return result
+	}
+	defer func() { _ = os.Remove(tmp.Name()) }()
+	hash := sha256.New()
+	size := &countingWriter{}
+	err = writeChartArchive(io.MultiWriter(tmp, hash, size), ch, modTime, concurrency)
+	if closeErr := tmp.Close(); err == nil {
+		err = closeErr
+	}
+	if err == nil {
+		err = os.Chmod(tmp.Name(), 0644)
+	}
+	if err == nil {
+		err = os.Rename(tmp.Name(), archive)
+	}
+	if err != nil {
+		result.err = err
+		return result
+	}
+	result.archive = archive
+	result.digest = "sha256:" + hex.EncodeToString(hash.Sum(nil))
+	result.size = size.n
+	return result
+}
+
+// loadChartToPackage loads the chart directory performing the same checks as action.Package
+func loadChartToPackage(chartPath string) (*chart.Chart, error) {
+	ch, err := loader.LoadDir(chartPath)
+	if err != nil {
+		return nil, err
+	}
+	if _, err := semver.StrictNewVersion(ch.Metadata.Version); err != nil {
+		return nil, err
+	}
+	if reqs := ch.Metadata.Dependencies; reqs != nil {
+		if err := action.CheckDependencies(ch, reqs); err != nil {
+			return nil, err
+		}
+	}
+	return ch, nil
+}
+
+// reproducibleModTime is the modification time of the reproducible archive entries, SOURCE_DATE_EPOCH or the Unix epoch
+func reproducibleModTime() time.Time {
+	if epoch, err := strconv.ParseInt(os.Getenv("SOURCE_DATE_EPOCH"), 10, 64); err == nil {
+		return time.Unix(epoch, 0).UTC()
+	}
+	return time.Unix(0, 0).UTC()
+}
+
+// helmArchiveHeader is the gzip header extra field set by chartutil.Save
+var helmArchiveHeader = []byte("+aHR0cHM6Ly95b3V0dS5iZS96OVV6MWljandyTQo=")
+
+// writeChartArchive replicates chartutil.Save writing the archive to w instead of a file.
+// All the entries get the provided modTime, large archives are compressed by up to concurrency workers
+// (0 compresses the archive as a single stream, as chartutil.Save does).
+func writeChartArchive(w io.Writer, c *chart.Chart, modTime time.Time, concurrency int) error {
+	if err := c.Validate(); err != nil {
+		return fmt.Errorf("chart validation: %w", err)
+	}
+	archive := &bytes.Buffer{}
+	twriter := tar.NewWriter(archive)
+	if err := writeChartArchiveContents(twriter, c, "", modTime); err != nil {
+		return err
+	}
+	if err := twriter.Close(); err != nil {
+		return err
+	}
+	return writeGzip(w, archive.Bytes(), helmArchiveHeader, "Helm", concurrency)
+}
+
+func writeChartArchiveContents(out *tar.Writer, c *chart.Chart, prefix string, modTime time.Time) error {
+	base := path.Join(prefix, c.Name())
+	// Dependencies of v1 charts are saved in requirements.yaml
+	savedDependencies := c.Metadata.Dependencies
+	if c.Metadata.APIVersion == chart.APIVersionV1 {
+		c.Metadata.Dependencies = nil
+	}
+	cdata, err := yaml.Marshal(c.Metadata)
+	c.Metadata.Dependencies = savedDependencies
+	if err != nil {
+		return err
+	}
+	if err := writeChartArchiveFile(out, path.Join(base, chartutil.ChartfileName), cdata, modTime); err != nil {
+		return err
+	}
+	if c.Metadata.APIVersion == chart.APIVersionV2 && c.Lock != nil {
+		ldata, err := yaml.Marshal(c.Lock)
+		if err != nil {
+			return err
+		}
+		if err := writeChartArchiveFile(out, path.Join(base, "Chart.lock"), ldata, modTime); err != nil {
+			return err
+		}
+	}
+	for _, f := range c.Raw {
+		if f.Name == chartutil.ValuesfileName {
+			if err := writeChartArchiveFile(out, path.Join(base, chartutil.ValuesfileName), f.Data, modTime); err != nil {
+				return err
+			}
+		}
+	}
+	if c.Schema != nil {
+		if !json.Valid(c.Schema) {
+			return errors.New("Invalid JSON in " + chartutil.SchemafileName)
+		}
+		if err := writeChartArchiveFile(out, path.Join(base, chartutil.SchemafileName), c.Schema, modTime); err != nil {
+			return err
+		}
+	}
+	for _, f := range c.Templates {
+		if err := writeChartArchiveFile(out, path.Join(base, f.Name), f.Data, modTime); err != nil {
+			return err
+		}
+	}
+	for _, f := range c.Files {
+		if err := writeChartArchiveFile(out, path.Join(base, f.Name), f.Data, modTime); err != nil {
+			return err
+		}
+	}
+	for _, dep := range c.Dependencies() {
+		if err := writeChartArchiveContents(out, dep, path.Join(base, chartutil.ChartsDir), modTime); err != nil {
+			return err
+		}
+	}
+	return nil
+}
+
+func writeChartArchiveFile(out *tar.Writer, name string, body []byte, modTime time.Time) error {
+	if err := out.WriteHeader(&tar.Header{
+		Name:    name,
+		Mode:    0644,
+		Size:    int64(len(body)),
+		ModTime: modTime,
+	}); err != nil {
+		return err
+	}
+	_, err := out.Write(body)
+	return err
+}
+
+type countingWriter struct {
+	n int64
+}
+
+func (w *countingWriter) Write(p []byte) (int, error) {
+	w.n += int64(len(p))
+	return len(p), nil
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"crypto/sha256"
+	"encoding/hex"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/chartutil"
+)
+
+func TestPackageArchive(t *testing.T) {
+	dir := t.TempDir()
+	chartPath, err := chartutil.Create("in-memory", dir)
+	if err != nil {
+		t.Fatalf("Expected chart to be created, got %s", err)
+	}
+	archive := &bytes.Buffer{}
+	out, err := PackageArchive(&PackageOptions{Path: chartPath, Writer: archive})
+	if err != nil {
+		t.Fatalf("Expected chart to be packaged, got %s", err)
+	}
+	values, _ := url.ParseQuery(out)
+	sum := sha256.Sum256(archive.Bytes())
+	if values.Get("digest") != "sha256:"+hex.EncodeToString(sum[:]) {
+		t.Errorf("Expected digest to match the archive, got %s", values.Get("digest"))
+	}
+	if values.Get("size") != strconv.Itoa(archive.Len()) {
+		t.Errorf("Expected size %d, got %s", archive.Len(), values.Get("size"))
+	}
+	packaged, err := loader.LoadArchive(archive)
+	if err != nil {
+		t.Fatalf("Expected archive to be loadable, got %s", err)
+	}
+	if packaged.Name() != "in-memory" || packaged.Metadata.Version != "0.1.0" || len(packaged.Templates) == 0 {
+		t.Errorf("Expected packaged chart with templates, got %s %s", packaged.Name(), packaged.Metadata.Version)
+	}
+	if matches, _ := filepath.Glob(filepath.Join(dir, "*.tgz")); len(matches) > 0 {
+		t.Errorf("Expected no archive in the filesystem, got %v", matches)
+	}
+}
+
+func TestPackageArchiveWithSign(t *testing.T) {
+	_, err := PackageArchive(&PackageOptions{Path: t.TempDir(), Writer: &bytes.Buffer{}, Sign: true})
+	if err == nil {
+		t.Error("Expected error when signing an in-memory archive")
+	}
+}
+
+func TestPackageAllReproducible(t *testing.T) {
+	dir := t.TempDir()
+	first, _ := chartutil.Create("first", dir)
+	second, _ := chartutil.Create("second", dir)
+	var digests []string
+	for _, destination := range []string{filepath.Join(dir, "one"), filepath.Join(dir, "two")} {
+		out, err := PackageAll(&PackageAllOptions{
+			Paths:       first + "\n" + second + "\n" + filepath.Join(dir, "missing"),
+			Destination: destination,
+			Concurrency: 2,
+		})
+		if err != nil {
+			t.Fatalf("Expected charts to be packaged, got %s", err)
+		}
+		lines := strings.Split(strings.TrimSpace(out), "\n")
+		if len(lines) != 3 {
+			t.Fatalf("Expected 3 results, got %d", len(lines))
+		}
+		for i, line := range lines[:2] {
+			values, _ := url.ParseQuery(line)
+			if values.Get("error") != "" {
+				t.Fatalf("Expected chart %d to be packaged, got %s", i, values.Get("error"))
+			}
+			archive, err := os.ReadFile(values.Get("archive"))
+			if err != nil {
+				t.Fatalf("Expected archive to be written, got %s", err)
+			}
+			sum := sha256.Sum256(archive)
+			if values.Get("digest") != "sha256:"+hex.EncodeToString(sum[:]) {
+				t.Errorf("Expected digest to match the archive, got %s", values.Get("digest"))
+			}
+			digests = append(digests, values.Get("digest"))
+		}
+		if values, _ := url.ParseQuery(lines[2]); values.Get("error") == "" {
+			t.Error("Expected error for missing chart")
+		}
+	}
+	if digests[0] != digests[2] || digests[1] != digests[3] {
+		t.Errorf("Expected reproducible archives, got %v", digests)
+	}
+}
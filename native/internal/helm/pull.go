@@ -0,0 +1,234 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"fmt"
+	"io"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/chartutil"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/downloader"
+	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/registry"
+)
+
+type PullOptions struct {
+	CertOptions
+	// Charts to pull, one url-encoded entry per line (chart=<reference>&version=<version constraint>)
+	Charts           string
+	Destination      string
+	Untar            bool
+	UntarDir         string
+	Verify           bool
+	Devel            bool
+	Username         string
+	Password         string
+	Concurrency      int
+	RepositoryConfig string
+}
+
+type pullRequest struct {
+	chart   string
+	version string
+}
+
+type pullResult struct {
+	pullRequest
+	path     string
+	bytes    int64
+	duration time.Duration
+	err      error
+}
+
+const defaultPullConcurrency = 4
+
+// Pull downloads the requested charts concurrently (bounded by Concurrency) sharing the registry client and getters.
+// Failures are reported per chart, the returned error is only set if the pull couldn't be started.
+func Pull(options *PullOptions) (string, error) {
+	requests, err := parsePullRequests(options.Charts, options.Devel)
+	if err != nil {
+		return "", err
+	}
+	registryClient, _, releaseRegistryClient, err := newRegistryClient(
+		options.CertFile,
+		options.KeyFile,
+		options.CaFile,
+		options.InsecureSkipTLSverify,
+		options.PlainHttp,
+		false,
+	)
+	defer releaseRegistryClient()
+	if err != nil {
+		return "", err
+	}
+	settings := cli.New()
+	if options.RepositoryConfig != "" {
+		settings.RepositoryConfig = options.RepositoryConfig
+	}
+	destination := options.Destination
+	if destination == "" {
+		destination = "."
+	}
+	if err = os.MkdirAll(destination, 0755); err != nil {
+		return "", err
+	}
+	getters := getter.All(settings)
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultPullConcurrency
+	}
+	results := make([]*pullResult, len(requests))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, request := range requests {
+		wg.Add(1)
+		go func(i int, request pullRequest) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			results[i] = pullChart(options, settings, getters, registryClient, destination, request)
+		}(i, request)
+	}
+	wg.Wait()
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, result := range results {
+		values := make(url.Values)
+		values.Set("chart", result.chart)
+		values.Set("version", result.version)
+		values.Set("path", result.path)
+		values.Set("bytes", strconv.FormatInt(result.bytes, 10))
+		values.Set("durationMillis", strconv.FormatInt(result.duration.Milliseconds(), 10))
+		if result.err != nil {
+			values.Set("error", result.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+func parsePullRequests(charts string, devel bool) ([]pullRequest, error) {
+	var requests []pullRequest
+	for _, line := range strings.Split(charts, "\n") {
+		if strings.TrimSpace(line) == "" {
+			continue
+		}
+		values, err := url.ParseQuery(line)
+		if err != nil {
+			return nil, errors.Wrapf(err, "invalid chart entry %q", line)
+		}
+		request := pullRequest{chart: values.Get("chart"), version: values.Get("version")}
+		if request.chart == "" {
+			return nil, errors.Errorf("invalid chart entry %q, chart reference is required", line)
+		}
+		if request.version == "" && devel {
+			request.version = ">0.0.0-0"
+		}
+		requests = append(requests, request)
+	}
+	if len(requests) == 0 {
+		return nil, errors.New("at least one chart reference is required")
+	}
+	return requests, nil
+}
+
+// pullChart replicates action.Pull.Run for a single chart using the shared clients
+func pullChart(options *PullOptions, settings *cli.EnvSettings, getters getter.Providers, registryClient *registry.Client,
+	destination string, request pullRequest) *pullResult {
+	start := time.Now()
+	result := &pullResult{pullRequest: request}
+	defer func() { result.duration = time.Since(start) }()
+	chartDownloader := downloader.ChartDownloader{
+		Out:     io.Discard,
+		Keyring: options.Keyring,
+		Verify:  downloader.VerifyNever,
+		Getters: getters,
+		Options: []getter.Option{
+			getter.WithBasicAuth(options.Username, options.Password),
+			getter.WithTLSClientConfig(options.CertFile, options.KeyFile, options.CaFile),
+			getter.WithInsecureSkipVerifyTLS(options.InsecureSkipTLSverify),
+			getter.WithPlainHTTP(options.PlainHttp),
+		},
+		RegistryClient:   registryClient,
+		RepositoryConfig: settings.RepositoryConfig,
+		RepositoryCache:  settings.RepositoryCache,
+	}
+	if registry.IsOCI(request.chart) {
+		chartDownloader.Options = append(chartDownloader.Options, getter.WithRegistryClient(registryClient))
+	}
+	if options.Verify {
+		chartDownloader.Verify = downloader.VerifyAlways
+	}
+	downloadDestination := destination
+	if options.Untar {
+		tmp, err := os.MkdirTemp("", "helm-java-pull-")
+		if err != nil {
+			result.err = err
+			return result
+		}
+		defer func() { _ = os.RemoveAll(tmp) }()
+		downloadDestination = tmp
+	}
+	saved, _, err := chartDownloader.DownloadTo(request.chart, request.version, downloadDestination)
+	if err != nil {
+		result.err = err
+		return result
+	}
+	if info, statErr := os.Stat(saved); statErr == nil {
+		result.bytes = info.Size()
+	}
+	result.path = saved
+	if options.Untar {
+		result.path, result.err = untarChart(options.UntarDir, destination, saved)
+	}
+	return result
+}
+
+func untarChart(untarDir, destination, saved string) (string, error) {
+	if untarDir == "" {
+		untarDir = "."
+	}
+	if !filepath.IsAbs(untarDir) {
+		untarDir = filepath.Join(destination, untarDir)
+	}
+	if err := os.MkdirAll(untarDir, 0755); err != nil {
+		return "", err
+	}
+	// The archive is expanded into a directory named after the chart (not after the reference)
+	chartRequested, err := loader.Load(saved)
+	if err != nil {
+		return "", err
+	}
+	target := filepath.Join(untarDir, chartRequested.Name())
+	if _, err := os.Stat(target); err == nil {
+		return "", errors.Errorf("failed to untar: a file or directory with the name %s already exists", target)
+	}
+	if err := chartutil.ExpandFile(untarDir, saved); err != nil {
+		return "", err
+	}
+	return target, nil
+}
@@ -17,7 +17,20 @@
 package helm
 
 import (
+	"bytes"
+	"fmt"
+	"net/url"
+	"os"
+	"path"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
 	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/registry"
 )
 
 type PushOptions struct {
@@ -25,10 +38,12 @@ type PushOptions struct {
 	Chart  string
 	Remote string
 	Debug  bool
+	// ChartArchive is an in-memory chart archive (.tgz) pushed instead of Chart
+	ChartArchive []byte
 }
 
 func Push(options *PushOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -36,9 +51,16 @@ func Push(options *PushOptions) (string, error) {
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
+	if options.ChartArchive != nil {
+		// The archive is already in memory, push it directly instead of going through the filesystem
+		_, _, err = pushChartArchive(registryClient, options.ChartArchive, options.Remote,
+			registry.PushOptCreationTime(time.Now().Format(time.RFC3339)))
+		return appendToOutOrErr(getRegistryClientOut(), "", err)
+	}
 
 	cfg, err := NewCfg(&CfgOptions{RegistryClient: registryClient})
 	if err != nil {
@@ -57,3 +79,167 @@ func Push(options *PushOptions) (string, error) {
 	// Append debug messages to out or err
 	return appendToOutOrErr(getRegistryClientOut(), out, err)
 }
+
+type PushAllOptions struct {
+	CertOptions
+	// Charts are url-encoded lines with the chart archive path (chart) and optionally the remote (remote)
+	Charts      string
+	Remote      string
+	Concurrency int
+}
+
+type pushRequest struct {
+	chart  string
+	remote string
+}
+
+type pushResult struct {
+	pushRequest
+	ref      string
+	digest   string
+	bytes    int64
+	duration time.Duration
+	err      error
+}
+
+const defaultPushConcurrency = 4
+
+// PushAll uploads the chart archives concurrently (bounded by Concurrency) sharing a single registry client.
+// Blobs already present in the registry are not uploaded again.
+// Failures are reported per chart, the returned error is only set if the push couldn't be started.
+func PushAll(options *PushAllOptions) (string, error) {
+	requests, err := parsePushRequests(options.Charts, options.Remote)
+	if err != nil {
+		return "", err
+	}
+	registryClient, _, releaseRegistryClient, err := newRegistryClient(
+		options.CertFile,
+		options.KeyFile,
+		options.CaFile,
+		options.InsecureSkipTLSverify,
+		options.PlainHttp,
+		false,
+	)
+	defer releaseRegistryClient()
+	if err != nil {
+		return "", err
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultPushConcurrency
+	}
+	results := make([]*pushResult, len(requests))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, request := range requests {
+		wg.Add(1)
+		go func(i int, request pushRequest) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			results[i] = pushChart(registryClient, request)
+		}(i, request)
+	}
+	wg.Wait()
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, result := range results {
+		values := make(url.Values)
+		values.Set("chart", result.chart)
+		values.Set("ref", result.ref)
+		values.Set("digest", result.digest)
+		values.Set("bytes", strconv.FormatInt(result.bytes, 10))
+		values.Set("durationMillis", strconv.FormatInt(result.duration.Milliseconds(), 10))
+		if result.err != nil {
+			values.Set("error", result.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+func parsePushRequests(charts, defaultRemote string) ([]pushRequest, error) {
+	var requests []pushRequest
+	for _, line := range strings.Split(charts, "\n") {
+		if strings.TrimSpace(line) == "" {
+			continue
+		}
+		values, err := url.ParseQuery(line)
+		if err != nil {
+			return nil, errors.Wrapf(err, "invalid chart entry %q", line)
+		}
+		request := pushRequest{chart: values.Get("chart"), remote: values.Get("remote")}
+		if request.remote == "" {
+			request.remote = defaultRemote
+		}
+		if request.chart == "" || request.remote == "" {
+			return nil, errors.Errorf("invalid chart entry %q, chart and remote are required", line)
+		}
+		requests = append(requests, request)
+	}
+	if len(requests) == 0 {
+		return nil, errors.New("at least one chart is required")
+	}
+	return requests, nil
+}
+
+// pushChart replicates pusher.OCIPusher for a single chart using the shared client (the archive is read only once)
+func pushChart(registryClient *registry.Client, request pushRequest) *pushResult {
+	start := time.Now()
+	result := &pushResult{pushRequest: request}
+	defer func() { result.duration = time.Since(start) }()
+	stat, err := os.Stat(request.chart)
+	if err != nil {
+		if os.IsNotExist(err) {
+			err = errors.Errorf("%s: no such file", request.chart)
+		}
+		result.err = err
+		return result
+	}
+	if stat.IsDir() {
+		result.err = errors.New("cannot push directory, must provide chart archive (.tgz)")
+		return result
+	}
+	chartBytes, err := os.ReadFile(request.chart)
+	if err != nil {
+		result.err = err
+		return result
+	}
+	pushOpts := []registry.PushOption{
+		// The time the chart was "created" is semantically the time the chart archive file was last written(modified)
+		registry.PushOptCreationTime(stat.ModTime().Format(time.RFC3339)),
+	}
+	provRef := fmt.Sprintf("%s.prov", request.chart)
+	if _, err := os.Stat(provRef); err == nil {
+		provBytes, err := os.ReadFile(provRef)
+		if err != nil {
+			result.err = err
+			return result
+		}
+		pushOpts = append(pushOpts, registry.PushOptProvData(provBytes))
+	}
+	result.ref, result.digest, result.err = pushChartArchive(registryClient, chartBytes, request.remote, pushOpts...)
+	if result.err != nil {
+		return result
+	}
+	result.bytes = int64(len(chartBytes))
+	return result
+}
+
+// pushChartArchive pushes the in-memory chart archive, returns the pushed reference and manifest digest
+func pushChartArchive(registryClient *registry.Client, chartBytes []byte, remote string, pushOpts ...registry.PushOption) (string, string, error) {
+	if !registry.IsOCI(remote) {
+		return "", "", errors.Errorf("scheme prefix missing from remote (e.g. \"%s://\")", registry.OCIScheme)
+	}
+	meta, err := loader.LoadArchive(bytes.NewReader(chartBytes))
+	if err != nil {
+		return "", "", err
+	}
+	ref := fmt.Sprintf("%s:%s",
+		path.Join(strings.TrimPrefix(remote, fmt.Sprintf("%s://", registry.OCIScheme)), meta.Metadata.Name),
+		meta.Metadata.Version)
+	pushed, err := registryClient.Push(chartBytes, ref, pushOpts...)
+	if err != nil {
+		return ref, "", err
+	}
+	return ref, pushed.Manifest.Digest, nil
+}
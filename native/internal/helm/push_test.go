@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"path/filepath"
+	"strings"
+	"testing"
+)
+
+func TestParsePushRequests(t *testing.T) {
+	requests, err := parsePushRequests("chart=%2Ftmp%2Ffirst.tgz\nchart=second.tgz&remote=oci%3A%2F%2Fother\n", "oci://default")
+	if err != nil {
+		t.Fatalf("Expected requests to be parsed, got %s", err)
+	}
+	if len(requests) != 2 || requests[0].chart != "/tmp/first.tgz" || requests[0].remote != "oci://default" ||
+		requests[1].remote != "oci://other" {
+		t.Errorf("Expected charts with default and explicit remotes, got %v", requests)
+	}
+	if _, err = parsePushRequests("chart=first.tgz", ""); err == nil {
+		t.Error("Expected error for chart without remote")
+	}
+	if _, err = parsePushRequests("", "oci://default"); err == nil {
+		t.Error("Expected error for no charts")
+	}
+}
+
+func TestPushChartErrors(t *testing.T) {
+	dir := t.TempDir()
+	for remote, chart := range map[string]string{
+		"https://not-oci":  filepath.Join(dir, "chart.tgz"),
+		"oci://localhost":  filepath.Join(dir, "missing.tgz"),
+		"oci://localhost/": dir,
+	} {
+		result := pushChart(nil, pushRequest{chart: chart, remote: remote})
+		if result.err == nil {
+			t.Errorf("Expected error for %s -> %s", chart, remote)
+		}
+	}
+	result := pushChart(nil, pushRequest{chart: filepath.Join(dir, "missing.tgz"), remote: "oci://localhost"})
+	if !strings.Contains(result.err.Error(), "no such file") {
+		t.Errorf("Expected missing file error, got %s", result.err)
+	}
+}
@@ -18,6 +18,8 @@ package helm
 
 import (
 	"bytes"
+	"io"
+	"sync"
 
 	"github.com/sirupsen/logrus"
 	"helm.sh/helm/v3/pkg/action"
@@ -33,7 +35,9 @@ type RegistryOptions struct {
 }
 
 func RegistryLogin(options *RegistryOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	// Pooled clients keep the credentials they were created with
+	defer resetRegistryClients()
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -41,6 +45,7 @@ func RegistryLogin(options *RegistryOptions) (string, error) {
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
@@ -65,7 +70,9 @@ func RegistryLogin(options *RegistryOptions) (string, error) {
 }
 
 func RegistryLogout(options *RegistryOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	// Pooled clients keep the credentials they were created with
+	defer resetRegistryClients()
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -73,6 +80,7 @@ func RegistryLogout(options *RegistryOptions) (string, error) {
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
@@ -91,31 +99,116 @@ func RegistryLogout(options *RegistryOptions) (string, error) {
 	return appendToOutOrErr(debugBuffer, getRegistryClientOut().String(), err)
 }
 
-func newRegistryClient(certFile, keyFile, caFile string, insecureSkipTlsverify, plainHttp, debug bool) (*registry.Client, func() *bytes.Buffer, error) {
-	debugCapture := NewDebugCapture(debug)
-	var registryClient *registry.Client
-	out := bytes.NewBuffer(make([]byte, 0))
-	var err error
-	// https://github.com/helm/helm/blob/415af5b0e9a673bd0ed66f852c2a2634bb1c6ef7/cmd/helm/root.go#L262
-	if certFile != "" && keyFile != "" || caFile != "" || insecureSkipTlsverify {
-		registryClient, err = registry.NewRegistryClientWithTLS(
-			out, certFile, keyFile, caFile, insecureSkipTlsverify, "", debug)
-	} else {
-		opts := []registry.ClientOption{
-			registry.ClientOptEnableCache(false),
-			registry.ClientOptWriter(out),
-			registry.ClientOptDebug(debug),
-		}
-		if plainHttp {
-			opts = append(opts, registry.ClientOptPlainHTTP())
-		}
-		registryClient, err = registry.NewClient(opts...)
+// registryClientKey identifies the registry clients that can be shared (same TLS and transport settings)
+type registryClientKey struct {
+	certFile              string
+	keyFile               string
+	caFile                string
+	insecureSkipTlsverify bool
+	plainHttp             bool
+}
+
+// pooledRegistryClient is a registry client kept across calls.
+// It keeps its credentials store, TLS configuration, keep-alive connections and bearer tokens.
+type pooledRegistryClient struct {
+	client *registry.Client
+	out    *registryClientWriter
+}
+
+// registryClientWriter forwards the registry client output to the output of the call currently using it
+type registryClientWriter struct {
+	sync.Mutex
+	out io.Writer
+}
+
+func (w *registryClientWriter) Write(p []byte) (int, error) {
+	w.Lock()
+	defer w.Unlock()
+	if w.out == nil {
+		return len(p), nil
 	}
+	return w.out.Write(p)
+}
+
+func (w *registryClientWriter) redirect(out io.Writer) {
+	w.Lock()
+	defer w.Unlock()
+	w.out = out
+}
+
+const maxIdleRegistryClients = 8
 
+// registryClients holds the idle registry clients, each client is used by a single call at a time
+var registryClients = struct {
+	sync.Mutex
+	idle map[registryClientKey][]*pooledRegistryClient
+}{idle: map[registryClientKey][]*pooledRegistryClient{}}
+
+// resetRegistryClients discards the idle registry clients (e.g. after the stored credentials change)
+func resetRegistryClients() {
+	registryClients.Lock()
+	defer registryClients.Unlock()
+	registryClients.idle = map[registryClientKey][]*pooledRegistryClient{}
+}
+
+// newRegistryClient returns a registry client for exclusive use until release is invoked.
+// Clients are pooled by TLS and transport settings, debug clients are never pooled.
+func newRegistryClient(certFile, keyFile, caFile string, insecureSkipTlsverify, plainHttp, debug bool) (*registry.Client, func() *bytes.Buffer, func(), error) {
+	debugCapture := NewDebugCapture(debug)
+	out := bytes.NewBuffer(make([]byte, 0))
 	getOutput := func() *bytes.Buffer {
 		debugCapture.StopAndAppendTo(out)
 		return out
 	}
+	if debug {
+		registryClient, err := createRegistryClient(out, certFile, keyFile, caFile, insecureSkipTlsverify, plainHttp, debug)
+		return registryClient, getOutput, func() {}, err
+	}
+	key := registryClientKey{certFile, keyFile, caFile, insecureSkipTlsverify, plainHttp}
+	var pooled *pooledRegistryClient
+	registryClients.Lock()
+	if idle := registryClients.idle[key]; len(idle) > 0 {
+		pooled = idle[len(idle)-1]
+		registryClients.idle[key] = idle[:len(idle)-1]
+	}
+	registryClients.Unlock()
+	if pooled == nil {
+		writer := &registryClientWriter{}
+		registryClient, err := createRegistryClient(writer, certFile, keyFile, caFile, insecureSkipTlsverify, plainHttp, false)
+		if err != nil {
+			return nil, getOutput, func() {}, err
+		}
+		pooled = &pooledRegistryClient{client: registryClient, out: writer}
+	}
+	pooled.out.redirect(out)
+	var once sync.Once
+	release := func() {
+		once.Do(func() {
+			pooled.out.redirect(nil)
+			registryClients.Lock()
+			defer registryClients.Unlock()
+			if len(registryClients.idle[key]) < maxIdleRegistryClients {
+				registryClients.idle[key] = append(registryClients.idle[key], pooled)
+			}
+		})
+	}
+	return pooled.client, getOutput, release, nil
+}
 
-	return registryClient, getOutput, err
+func createRegistryClient(out io.Writer, certFile, keyFile, caFile string, insecureSkipTlsverify, plainHttp, debug bool) (*registry.Client, error) {
+	// https://github.com/helm/helm/blob/415af5b0e9a673bd0ed66f852c2a2634bb1c6ef7/cmd/helm/root.go#L262
+	if certFile != "" && keyFile != "" || caFile != "" || insecureSkipTlsverify {
+		return registry.NewRegistryClientWithTLS(
+			out, certFile, keyFile, caFile, insecureSkipTlsverify, "", debug)
+	}
+	opts := []registry.ClientOption{
+		// Bearer tokens are reused across requests (and across calls for pooled clients)
+		registry.ClientOptEnableCache(true),
+		registry.ClientOptWriter(out),
+		registry.ClientOptDebug(debug),
+	}
+	if plainHttp {
+		opts = append(opts, registry.ClientOptPlainHTTP())
+	}
+	return registry.NewClient(opts...)
 }
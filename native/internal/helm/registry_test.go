@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"net/http"
+	"net/http/httptest"
+	"strings"
+	"sync/atomic"
+	"testing"
+)
+
+func TestNewRegistryClientReusesReleasedClients(t *testing.T) {
+	resetRegistryClients()
+	first, _, release, err := newRegistryClient("", "", "", false, true, false)
+	if err != nil {
+		t.Fatal(err)
+	}
+	second, _, releaseSecond, _ := newRegistryClient("", "", "", false, true, false)
+	if first == second {
+		t.Error("Expected client in use not to be shared")
+	}
+	release()
+	releaseSecond()
+	third, _, releaseThird, _ := newRegistryClient("", "", "", false, true, false)
+	defer releaseThird()
+	if third != first && third != second {
+		t.Error("Expected released client to be reused")
+	}
+	other, _, releaseOther, _ := newRegistryClient("", "", "", false, false, false)
+	defer releaseOther()
+	if other == first || other == second {
+		t.Error("Expected clients with different settings not to be shared")
+	}
+}
+
+func TestNewRegistryClientDebugNotPooled(t *testing.T) {
+	resetRegistryClients()
+	first, getOutput, release, _ := newRegistryClient("", "", "", false, false, true)
+	getOutput()
+	release()
+	second, getOutput, release, _ := newRegistryClient("", "", "", false, false, true)
+	getOutput()
+	release()
+	if first == second {
+		t.Error("Expected debug clients not to be pooled")
+	}
+}
+
+func TestResetRegistryClients(t *testing.T) {
+	resetRegistryClients()
+	first, _, release, _ := newRegistryClient("", "", "", false, false, false)
+	release()
+	release() // Idempotent
+	resetRegistryClients()
+	second, _, releaseSecond, _ := newRegistryClient("", "", "", false, false, false)
+	defer releaseSecond()
+	if first == second {
+		t.Error("Expected reset to discard idle clients")
+	}
+}
+
+func TestRegistryClientWriterRedirect(t *testing.T) {
+	writer := &registryClientWriter{}
+	if n, err := writer.Write([]byte("discarded")); n != 9 || err != nil {
+		t.Errorf("Expected writes without target to be discarded, got %d %v", n, err)
+	}
+	_, out, release, _ := newRegistryClient("", "", "", false, false, false)
+	defer release()
+	if out().Len() != 0 {
+		t.Error("Expected empty output for a new call")
+	}
+}
+
+func TestPooledRegistryClientReusesTokens(t *testing.T) {
+	t.Setenv("HELM_CONFIG_HOME", t.TempDir())
+	resetRegistryClients()
+	defer resetRegistryClients()
+	var tokenRequests atomic.Int32
+	var server *httptest.Server
+	server = httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		switch {
+		case r.URL.Path == "/token":
+			tokenRequests.Add(1)
+			w.Header().Set("Content-Type", "application/json")
+			_, _ = w.Write([]byte(`{"token":"registry-token"}`))
+		case r.Header.Get("Authorization") != "Bearer registry-token":
+			w.Header().Set("WWW-Authenticate",
+				`Bearer realm="`+server.URL+`/token",service="test",scope="repository:charts/test:pull"`)
+			w.WriteHeader(http.StatusUnauthorized)
+		case r.URL.Path == "/v2/charts/test/tags/list":
+			w.Header().Set("Content-Type", "application/json")
+			_, _ = w.Write([]byte(`{"name":"charts/test","tags":["0.1.0"]}`))
+		default:
+			w.WriteHeader(http.StatusNotFound)
+		}
+	}))
+	defer server.Close()
+	ref := strings.TrimPrefix(server.URL, "http://") + "/charts/test"
+	for i := 0; i < 2; i++ {
+		registryClient, _, release, err := newRegistryClient("", "", "", false, true, false)
+		if err != nil {
+			t.Fatal(err)
+		}
+		if tags, err := registryClient.Tags(ref); err != nil || len(tags) != 1 {
+			t.Fatalf("Expected tags to be listed, got %v %v", tags, err)
+		}
+		release()
+	}
+	if tokenRequests.Load() != 1 {
+		t.Errorf("Expected the pooled client to reuse the token, got %d token requests", tokenRequests.Load())
+	}
+}
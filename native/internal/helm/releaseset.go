@@ -0,0 +1,429 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"net/url"
+	"os"
+	"slices"
+	"strconv"
+	"strings"
+	"sync"
+	"sync/atomic"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/cli"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
+)
+
+type ReleaseSetOptions struct {
+	// Releases are the url-encoded release definitions (one per line)
+	Releases    string
+	Concurrency int
+	// FailFast skips every pending release after the first failure, otherwise only the dependents of a failed release are skipped
+	FailFast           bool
+	KubeConfig         string
+	KubeConfigContents string
+	RepositoryConfig   string
+	// Consumer is invoked (never concurrently) with each release outcome as soon as it's available
+	Consumer func(outcome string) error
+}
+
+type releaseSetRelease struct {
+	// key is the namespace/name release identifier
+	key          string
+	options      *UpgradeOptions
+	dependsOn    []string
+	dependencies []*releaseSetRelease
+	// wave is the topological level of the release (0 for releases without dependencies)
+	wave int
+	// deployed is only safe to read once done is closed
+	deployed bool
+	done     chan struct{}
+}
+
+type releaseSetOutcome struct {
+	release  *releaseSetRelease
+	status   string
+	revision int
+	started  time.Time
+	duration time.Duration
+	err      error
+}
+
+type releaseSetChart struct {
+	once sync.Once
+	path string
+	err  error
+}
+
+type releaseSet struct {
+	options           *ReleaseSetOptions
+	restClientGetters map[string]genericclioptions.RESTClientGetter
+	semaphore         chan struct{}
+	stopped           atomic.Bool
+	chartsMutex       sync.Mutex
+	charts            map[string]*releaseSetChart
+}
+
+const (
+	defaultReleaseSetConcurrency = 4
+	defaultReleaseSetTimeout     = 300 * time.Second
+	releaseSetStatusDeployed     = "deployed"
+	releaseSetStatusFailed       = "failed"
+	releaseSetStatusSkipped      = "skipped"
+)
+
+// ReleaseSet installs or upgrades a set of releases honoring their dependencies (dependsOn).
+// Each release starts as soon as all of its dependencies are deployed, bounded by Concurrency, the Kubernetes
+// clients are shared per namespace and each distinct chart (reference and version) is located only once.
+// The outcomes are streamed to the Consumer in completion order, failures are reported per release and the returned
+// error is only set if the release set couldn't be started (invalid definitions, dependency cycles) or completed.
+func ReleaseSet(options *ReleaseSetOptions) (string, error) {
+	if options.Consumer == nil {
+		return "", errors.New("a consumer is required to receive the release outcomes")
+	}
+	// Releases without a namespace are deployed to the kubeconfig's (or HELM_NAMESPACE) one, resolve it upfront so
+	// that keys, duplicates and dependencies refer to the namespace the release actually lives in
+	defaultRestClientGetter, err := newRestClientGetter(&CfgOptions{
+		KubeConfig:         options.KubeConfig,
+		KubeConfigContents: options.KubeConfigContents,
+	})
+	if err != nil {
+		return "", err
+	}
+	releases, err := parseReleaseSet(options.Releases, func(namespace string) string {
+		return resolveNamespace(defaultRestClientGetter, namespace)
+	})
+	if err != nil {
+		return "", err
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultReleaseSetConcurrency
+	}
+	set := &releaseSet{
+		options:           options,
+		restClientGetters: make(map[string]genericclioptions.RESTClientGetter),
+		semaphore:         make(chan struct{}, concurrency),
+		charts:            make(map[string]*releaseSetChart),
+	}
+	for _, r := range releases {
+		if _, ok := set.restClientGetters[r.options.Namespace]; ok {
+			continue
+		}
+		restClientGetter, err := newRestClientGetter(&CfgOptions{
+			KubeConfig:         options.KubeConfig,
+			KubeConfigContents: options.KubeConfigContents,
+			Namespace:          r.options.Namespace,
+		})
+		if err != nil {
+			return "", err
+		}
+		set.restClientGetters[r.options.Namespace] = restClientGetter
+	}
+	results := make(chan *releaseSetOutcome, len(releases))
+	for _, r := range releases {
+		go func(r *releaseSetRelease) {
+			defer close(r.done)
+			outcome := set.run(r)
+			r.deployed = outcome.status == releaseSetStatusDeployed
+			results <- outcome
+		}(r)
+	}
+	counts := make(map[string]int)
+	var consumerErr error
+	for completed := 1; completed <= len(releases); completed++ {
+		outcome := <-results
+		counts[outcome.status]++
+		if consumerErr != nil {
+			// Drain the remaining releases (skipped once stopped)
+			continue
+		}
+		values := releaseSetOutcomeValues(outcome)
+		values.Set("completed", strconv.Itoa(completed))
+		values.Set("total", strconv.Itoa(len(releases)))
+		if err := options.Consumer(values.Encode()); err != nil {
+			consumerErr = err
+			set.stopped.Store(true)
+		}
+	}
+	if consumerErr != nil {
+		return "", errors.Wrap(consumerErr, "release set consumer failed")
+	}
+	summary := make(url.Values)
+	summary.Set("total", strconv.Itoa(len(releases)))
+	summary.Set(releaseSetStatusDeployed, strconv.Itoa(counts[releaseSetStatusDeployed]))
+	summary.Set(releaseSetStatusFailed, strconv.Itoa(counts[releaseSetStatusFailed]))
+	summary.Set(releaseSetStatusSkipped, strconv.Itoa(counts[releaseSetStatusSkipped]))
+	return summary.Encode(), nil
+}
+
+// run waits for the release dependencies and installs or upgrades the release
+func (s *releaseSet) run(r *releaseSetRelease) *releaseSetOutcome {
+	for _, dependency := range r.dependencies {
+		<-dependency.done
+		if !dependency.deployed {
+			return &releaseSetOutcome{release: r, status: releaseSetStatusSkipped,
+				err: errors.Errorf("dependency %q was not deployed", dependency.key)}
+		}
+	}
+	s.semaphore <- struct{}{}
+	defer func() { <-s.semaphore }()
+	if s.stopped.Load() {
+		return &releaseSetOutcome{release: r, status: releaseSetStatusSkipped,
+			err: errors.New("release set stopped after a failure")}
+	}
+	outcome := &releaseSetOutcome{release: r, started: time.Now()}
+	options := *r.options
+	options.KubeConfig = s.options.KubeConfig
+	options.KubeConfigContents = s.options.KubeConfigContents
+	options.RepositoryConfig = s.options.RepositoryConfig
+	options.RestClientGetter = s.restClientGetters[options.Namespace]
+	chartPath, err := s.locateChart(&options)
+	if err == nil {
+		options.Chart = chartPath
+		rel, _, upgradeErr := upgrade(&options)
+		if rel != nil {
+			outcome.revision = rel.Version
+		}
+		err = upgradeErr
+	}
+	outcome.duration = time.Since(outcome.started)
+	if err != nil {
+		if s.options.FailFast {
+			s.stopped.Store(true)
+		}
+		outcome.status = releaseSetStatusFailed
+		outcome.err = err
+		return outcome
+	}
+	outcome.status = releaseSetStatusDeployed
+	return outcome
+}
+
+// locateChart returns the local path of the release chart, each distinct chart is located (downloaded) only once
+func (s *releaseSet) locateChart(options *UpgradeOptions) (string, error) {
+	if _, err := os.Stat(options.Chart); err == nil {
+		return options.Chart, nil
+	}
+	version := options.Version
+	if version == "" && options.Devel {
+		version = ">0.0.0-0"
+	}
+	key := options.Chart + "|" + version
+	s.chartsMutex.Lock()
+	c, ok := s.charts[key]
+	if !ok {
+		c = &releaseSetChart{}
+		s.charts[key] = c
+	}
+	s.chartsMutex.Unlock()
+	c.once.Do(func() {
+		registryClient, _, releaseRegistryClient, err := newRegistryClient("", "", "", false, false, false)
+		defer releaseRegistryClient()
+		if err != nil {
+			c.err = err
+			return
+		}
+		chartPathOptions := action.ChartPathOptions{Version: version}
+		chartPathOptions.SetRegistryClient(registryClient)
+		settings := cli.New()
+		if s.options.RepositoryConfig != "" {
+			settings.RepositoryConfig = s.options.RepositoryConfig
+		}
+		c.path, c.err = locateChart(chartPathOptions, settings, options.Chart)
+	})
+	return c.path, c.err
+}
+
+func releaseSetOutcomeValues(outcome *releaseSetOutcome) url.Values {
+	values := make(url.Values)
+	values.Set("type", "release")
+	values.Set("name", outcome.release.options.Name)
+	values.Set("namespace", outcome.release.options.Namespace)
+	values.Set("status", outcome.status)
+	values.Set("wave", strconv.Itoa(outcome.release.wave))
+	if outcome.revision > 0 {
+		values.Set("revision", strconv.Itoa(outcome.revision))
+	}
+	if !outcome.started.IsZero() {
+		values.Set("startedMillis", strconv.FormatInt(outcome.started.UnixMilli(), 10))
+		values.Set("durationMillis", strconv.FormatInt(outcome.duration.Milliseconds(), 10))
+	}
+	if outcome.err != nil {
+		values.Set("error", outcome.err.Error())
+	}
+	return values
+}
+
+// parseReleaseSet parses the release definitions, resolves their namespaces and dependencies and computes their waves
+func parseReleaseSet(encodedReleases string, namespaceResolver func(string) string) ([]*releaseSetRelease, error) {
+	var releases []*releaseSetRelease
+	keys := make(map[string]*releaseSetRelease)
+	for _, line := range strings.Split(encodedReleases, "\n") {
+		if strings.TrimSpace(line) == "" {
+			continue
+		}
+		r, err := parseReleaseSetRelease(line, namespaceResolver)
+		if err != nil {
+			return nil, err
+		}
+		if keys[r.key] != nil {
+			return nil, errors.Errorf("release %q is specified more than once", r.key)
+		}
+		keys[r.key] = r
+		releases = append(releases, r)
+	}
+	if len(releases) == 0 {
+		return nil, errors.New("at least one release is required")
+	}
+	for _, r := range releases {
+		for _, dependsOn := range r.dependsOn {
+			dependency, err := resolveReleaseSetDependency(releases, keys, r, dependsOn)
+			if err != nil {
+				return nil, err
+			}
+			if !slices.Contains(r.dependencies, dependency) {
+				r.dependencies = append(r.dependencies, dependency)
+			}
+		}
+	}
+	if err := computeReleaseSetWaves(releases); err != nil {
+		return nil, err
+	}
+	return releases, nil
+}
+
+func parseReleaseSetRelease(line string, namespaceResolver func(string) string) (*releaseSetRelease, error) {
+	values, err := url.ParseQuery(line)
+	if err != nil {
+		return nil, errors.Wrapf(err, "invalid release entry %q", line)
+	}
+	name := values.Get("name")
+	if name == "" {
+		return nil, errors.Errorf("release name is required (%q)", line)
+	}
+	if values.Get("chart") == "" {
+		return nil, errors.Errorf("chart is required for release %q", name)
+	}
+	timeout := defaultReleaseSetTimeout
+	if encodedTimeout := values.Get("timeout"); encodedTimeout != "" {
+		seconds, err := strconv.Atoi(encodedTimeout)
+		if err != nil || seconds < 0 {
+			return nil, errors.Errorf("invalid timeout %q for release %q", encodedTimeout, name)
+		}
+		timeout = time.Duration(seconds) * time.Second
+	}
+	var dependsOn []string
+	for _, dependency := range strings.Split(values.Get("dependsOn"), ",") {
+		if dependency = strings.TrimSpace(dependency); dependency != "" {
+			dependsOn = append(dependsOn, dependency)
+		}
+	}
+	namespace := namespaceResolver(values.Get("namespace"))
+	return &releaseSetRelease{
+		key:       namespace + "/" + name,
+		dependsOn: dependsOn,
+		done:      make(chan struct{}),
+		options: &UpgradeOptions{
+			Name:            name,
+			Namespace:       namespace,
+			Chart:           values.Get("chart"),
+			Version:         values.Get("version"),
+			Values:          values.Get("values"),
+			ValuesFiles:     values.Get("valuesFiles"),
+			Description:     values.Get("description"),
+			Install:         true,
+			CreateNamespace: values.Get("createNamespace") == "true",
+			Atomic:          values.Get("atomic") == "true",
+			Wait:            values.Get("wait") == "true",
+			Timeout:         timeout,
+			Devel:           values.Get("devel") == "true",
+		},
+	}, nil
+}
+
+// resolveReleaseSetDependency resolves a namespace/name dependency, or a name dependency which is looked up in the
+// release namespace first and then in the rest of the set
+func resolveReleaseSetDependency(releases []*releaseSetRelease, keys map[string]*releaseSetRelease, r *releaseSetRelease, dependsOn string) (*releaseSetRelease, error) {
+	if strings.Contains(dependsOn, "/") {
+		if dependency := keys[dependsOn]; dependency != nil {
+			return dependency, nil
+		}
+		return nil, errors.Errorf("release %q depends on unknown release %q", r.key, dependsOn)
+	}
+	if dependency := keys[r.options.Namespace+"/"+dependsOn]; dependency != nil {
+		return dependency, nil
+	}
+	var candidates []*releaseSetRelease
+	for _, candidate := range releases {
+		if candidate.options.Name == dependsOn {
+			candidates = append(candidates, candidate)
+		}
+	}
+	switch len(candidates) {
+	case 0:
+		return nil, errors.Errorf("release %q depends on unknown release %q", r.key, dependsOn)
+	case 1:
+		return candidates[0], nil
+	default:
+		return nil, errors.Errorf("release %q dependency %q is ambiguous, use namespace/name", r.key, dependsOn)
+	}
+}
+
+// computeReleaseSetWaves sorts the releases topologically (Kahn's algorithm) assigning their wave, fails on cycles
+func computeReleaseSetWaves(releases []*releaseSetRelease) error {
+	pending := make(map[*releaseSetRelease]int, len(releases))
+	dependents := make(map[*releaseSetRelease][]*releaseSetRelease)
+	var wave []*releaseSetRelease
+	for _, r := range releases {
+		pending[r] = len(r.dependencies)
+		for _, dependency := range r.dependencies {
+			dependents[dependency] = append(dependents[dependency], r)
+		}
+		if len(r.dependencies) == 0 {
+			wave = append(wave, r)
+		}
+	}
+	sorted := 0
+	for w := 0; len(wave) > 0; w++ {
+		var next []*releaseSetRelease
+		for _, r := range wave {
+			r.wave = w
+			sorted++
+			for _, dependent := range dependents[r] {
+				pending[dependent]--
+				if pending[dependent] == 0 {
+					next = append(next, dependent)
+				}
+			}
+		}
+		wave = next
+	}
+	if sorted < len(releases) {
+		var cyclic []string
+		for _, r := range releases {
+			if pending[r] > 0 {
+				cyclic = append(cyclic, r.key)
+			}
+		}
+		return errors.Errorf("release dependencies contain a cycle: %s", strings.Join(cyclic, ", "))
+	}
+	return nil
+}
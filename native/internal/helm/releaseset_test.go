@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"strings"
+	"testing"
+)
+
+func TestParseReleaseSetWaves(t *testing.T) {
+	releases, err := parseReleaseSet(
+		"name=database&namespace=data&chart=bitnami%2Fpostgresql\n" +
+			"name=cache&namespace=data&chart=bitnami%2Fredis\n" +
+			"name=backend&namespace=apps&chart=.%2Fbackend&dependsOn=data%2Fdatabase%2Ccache\n" +
+			"name=frontend&namespace=apps&chart=.%2Ffrontend&dependsOn=backend&timeout=60",
+		defaultNamespaceResolver)
+	if err != nil {
+		t.Errorf("Expected parse to succeed, got %s", err)
+		return
+	}
+	waves := make(map[string]int)
+	for _, r := range releases {
+		waves[r.key] = r.wave
+	}
+	expected := map[string]int{"data/database": 0, "data/cache": 0, "apps/backend": 1, "apps/frontend": 2}
+	for key, wave := range expected {
+		if waves[key] != wave {
+			t.Errorf("Expected %s in wave %d, got %d", key, wave, waves[key])
+		}
+	}
+	if releases[3].options.Timeout.Seconds() != 60 || !releases[3].options.Install {
+		t.Errorf("Expected frontend to install with a 60s timeout, got %v", releases[3].options)
+	}
+}
+
+func TestParseReleaseSetErrors(t *testing.T) {
+	for _, tc := range []struct {
+		name     string
+		releases string
+		expected string
+	}{
+		{"empty", "\n", "at least one release is required"},
+		{"missing chart", "name=a", "chart is required for release \"a\""},
+		{"duplicate", "name=a&chart=c\nname=a&chart=c", "release \"default/a\" is specified more than once"},
+		{"unknown", "name=a&chart=c&dependsOn=b", "release \"default/a\" depends on unknown release \"b\""},
+		{"ambiguous", "name=a&chart=c&dependsOn=b\nname=b&namespace=x&chart=c\nname=b&namespace=y&chart=c", "is ambiguous"},
+		{"cycle", "name=a&chart=c&dependsOn=b\nname=b&chart=c&dependsOn=a\nname=c&chart=c", "release dependencies contain a cycle: default/a, default/b"},
+		{"self", "name=a&chart=c&dependsOn=a", "release dependencies contain a cycle: default/a"},
+		{"timeout", "name=a&chart=c&timeout=soon", "invalid timeout \"soon\" for release \"a\""},
+	} {
+		t.Run(tc.name, func(t *testing.T) {
+			_, err := parseReleaseSet(tc.releases, defaultNamespaceResolver)
+			if err == nil || !strings.Contains(err.Error(), tc.expected) {
+				t.Errorf("Expected error containing %q, got %v", tc.expected, err)
+			}
+		})
+	}
+}
+
+func TestParseReleaseSetResolvesNamespaces(t *testing.T) {
+	releases, err := parseReleaseSet(
+		"name=database&chart=bitnami%2Fpostgresql\n" +
+			"name=backend&namespace=default&chart=.%2Fbackend&dependsOn=default%2Fdatabase",
+		defaultNamespaceResolver)
+	if err != nil {
+		t.Errorf("Expected parse to succeed, got %s", err)
+		return
+	}
+	if releases[0].key != "default/database" || releases[0].options.Namespace != "default" {
+		t.Errorf("Expected database to be keyed by the resolved namespace, got %q (%q)", releases[0].key, releases[0].options.Namespace)
+	}
+	if len(releases[1].dependencies) != 1 || releases[1].dependencies[0] != releases[0] {
+		t.Errorf("Expected backend to depend on database, got %v", releases[1].dependencies)
+	}
+	_, err = parseReleaseSet("name=a&chart=c\nname=a&namespace=default&chart=c", defaultNamespaceResolver)
+	if err == nil || !strings.Contains(err.Error(), "release \"default/a\" is specified more than once") {
+		t.Errorf("Expected duplicate error for the same resolved namespace, got %v", err)
+	}
+}
+
+func TestReleaseSetRequiresConsumer(t *testing.T) {
+	_, err := ReleaseSet(&ReleaseSetOptions{Releases: "name=a&chart=c"})
+	if err == nil || err.Error() != "a consumer is required to receive the release outcomes" {
+		t.Errorf("Expected consumer error, got %v", err)
+	}
+}
+
+func defaultNamespaceResolver(namespace string) string {
+	if namespace == "" {
+		return "default"
+	}
+	return namespace
+}
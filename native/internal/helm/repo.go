@@ -47,36 +47,24 @@ type RepoOptions struct {
 	KeyFile               string
 	CaFile                string
 	InsecureSkipTlsVerify bool
+	Repositories          string
+	Concurrency           int
+	Timeout               int
 }
 
 func RepoAdd(options *RepoOptions) error {
 	// https://github.com/helm/helm/blob/d7805e68ae646e60411dad365a7de8baa728e631/cmd/helm/repo_add.go#L101
 	// Implementation logic is in cmd package
-	repoFile := repositoryConfig(options)
-	// Ensure the file directory exists as it is required for file locking
-	err := os.MkdirAll(filepath.Dir(repoFile), os.ModePerm)
-	if err != nil && !os.IsExist(err) {
+	entries, err := repoAddEntries(options)
+	if err != nil {
 		return err
 	}
-
-	// Acquire a file lock for process synchronization
-	repoFileExt := filepath.Ext(repoFile)
-	var lockPath string
-	if len(repoFileExt) > 0 && len(repoFileExt) < len(repoFile) {
-		lockPath = strings.TrimSuffix(repoFile, repoFileExt) + ".lock"
-	} else {
-		lockPath = repoFile + ".lock"
-	}
-	fileLock := flock.New(lockPath)
-	lockCtx, cancel := context.WithTimeout(context.Background(), 30*time.Second)
-	defer cancel()
-	locked, err := fileLock.TryLockContext(lockCtx, time.Second)
-	if err == nil && locked {
-		defer fileLock.Unlock()
-	}
+	repoFile := repositoryConfig(options)
+	unlock, err := lockRepositoryConfig(repoFile)
 	if err != nil {
 		return err
 	}
+	defer unlock()
 
 	b, err := os.ReadFile(repoFile)
 	if err != nil && !os.IsNotExist(err) {
@@ -88,40 +76,135 @@ func RepoAdd(options *RepoOptions) error {
 		return err
 	}
 
-	c := repo.Entry{
-		Name:                  options.Name,
-		URL:                   options.Url,
-		Username:              options.Username,
-		Password:              options.Password,
-		CertFile:              options.CertFile,
-		KeyFile:               options.KeyFile,
-		CAFile:                options.CaFile,
-		InsecureSkipTLSverify: options.InsecureSkipTlsVerify,
+	// Download the indexes concurrently, the configuration is only written if all of them are valid
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultRepoUpdateConcurrency
 	}
-
-	// Check if the repo name is legal
-	if strings.Contains(options.Name, "/") {
-		return errors.Errorf(
-			"repository name (%s) contains '/', please specify a different name without '/'", options.Name)
+	errs := make([]error, len(entries))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, c := range entries {
+		wg.Add(1)
+		go func(i int, c *repo.Entry) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			errs[i] = downloadRepoIndex(c)
+		}(i, c)
+	}
+	wg.Wait()
+	var messages []string
+	for _, err := range errs {
+		if err != nil {
+			messages = append(messages, err.Error())
+		}
+	}
+	if len(messages) > 0 {
+		return errors.New(strings.Join(messages, "\n"))
 	}
 
-	r, err := repo.NewChartRepository(&c, getter.All(cli.New()))
-	if err != nil {
+	for _, c := range entries {
+		f.Update(c)
+	}
+	if err := f.WriteFile(repoFile, 0600); err != nil {
 		return err
 	}
+	return nil
+}
 
-	if _, err := r.DownloadIndexFile(); err != nil {
-		return errors.Wrapf(err, "looks like %q is not a valid chart repository or cannot be reached", options.Url)
+// repoAddEntries returns the repositories to add (the single repository options and/or the Repositories lines)
+func repoAddEntries(options *RepoOptions) ([]*repo.Entry, error) {
+	var entries []*repo.Entry
+	if options.Name != "" || options.Url != "" || options.Repositories == "" {
+		entries = append(entries, &repo.Entry{
+			Name:                  options.Name,
+			URL:                   options.Url,
+			Username:              options.Username,
+			Password:              options.Password,
+			CertFile:              options.CertFile,
+			KeyFile:               options.KeyFile,
+			CAFile:                options.CaFile,
+			InsecureSkipTLSverify: options.InsecureSkipTlsVerify,
+		})
 	}
+	for _, line := range strings.Split(options.Repositories, "\n") {
+		if strings.TrimSpace(line) == "" {
+			continue
+		}
+		values, err := url.ParseQuery(line)
+		if err != nil {
+			return nil, errors.Wrapf(err, "invalid repository entry %q", line)
+		}
+		entries = append(entries, &repo.Entry{
+			Name:                  values.Get("name"),
+			URL:                   values.Get("url"),
+			Username:              values.Get("username"),
+			Password:              values.Get("password"),
+			CertFile:              values.Get("certFile"),
+			KeyFile:               values.Get("keyFile"),
+			CAFile:                values.Get("caFile"),
+			InsecureSkipTLSverify: values.Get("insecureSkipTlsVerify") == "true",
+		})
+	}
+	names := make(map[string]bool, len(entries))
+	for _, c := range entries {
+		// Check if the repo name is legal
+		if strings.Contains(c.Name, "/") {
+			return nil, errors.Errorf(
+				"repository name (%s) contains '/', please specify a different name without '/'", c.Name)
+		}
+		if names[c.Name] {
+			return nil, errors.Errorf("repository name (%s) is specified more than once", c.Name)
+		}
+		names[c.Name] = true
+	}
+	return entries, nil
+}
 
-	f.Update(&c)
-
-	if err := f.WriteFile(repoFile, 0600); err != nil {
+func downloadRepoIndex(c *repo.Entry) error {
+	r, err := repo.NewChartRepository(c, getter.All(cli.New()))
+	if err != nil {
 		return err
 	}
+	indexPath, err := r.DownloadIndexFile()
+	if err != nil {
+		return errors.Wrapf(err, "looks like %q is not a valid chart repository or cannot be reached", c.URL)
+	}
+	markRepoIndexRefreshed(indexPath)
+	// The binary index is an optimization, readers fall back to the index.yaml
+	_ = writeBinaryIndex(indexPath)
+	invalidateSearchIndex(c.Name)
 	return nil
 }
 
+// lockRepositoryConfig acquires a file lock for process synchronization of the repository configuration
+func lockRepositoryConfig(repoFile string) (func(), error) {
+	// Ensure the file directory exists as it is required for file locking
+	err := os.MkdirAll(filepath.Dir(repoFile), os.ModePerm)
+	if err != nil && !os.IsExist(err) {
+		return nil, err
+	}
+	repoFileExt := filepath.Ext(repoFile)
+	var lockPath string
+	if len(repoFileExt) > 0 && len(repoFileExt) < len(repoFile) {
+		lockPath = strings.TrimSuffix(repoFile, repoFileExt) + ".lock"
+	} else {
+		lockPath = repoFile + ".lock"
+	}
+	fileLock := flock.New(lockPath)
+	lockCtx, cancel := context.WithTimeout(context.Background(), 30*time.Second)
+	defer cancel()
+	locked, err := fileLock.TryLockContext(lockCtx, time.Second)
+	if err != nil {
+		return nil, err
+	}
+	if !locked {
+		return func() {}, nil
+	}
+	return func() { _ = fileLock.Unlock() }, nil
+}
+
 func RepoList(options *RepoOptions) (string, error) {
 	f, err := repo.LoadFile(repositoryConfig(options))
 	if err != nil {
@@ -139,69 +222,42 @@ func RepoRemove(options *RepoOptions) error {
 		return nil
 	}
 	repoFile := repositoryConfig(options)
+	unlock, err := lockRepositoryConfig(repoFile)
+	if err != nil {
+		return err
+	}
+	defer unlock()
 	r, err := repo.LoadFile(repoFile)
 	if err != nil {
 		return err
 	}
-	for _, name := range strings.Split(options.Names, "\n") {
+	names := strings.Split(options.Names, "\n")
+	for _, name := range names {
 		if !r.Remove(name) {
 			return errors.Errorf("no repo named %q found", name)
 		}
-		if err := r.WriteFile(repoFile, 0600); err != nil {
-			return err
-		}
 	}
+	if err := r.WriteFile(repoFile, 0600); err != nil {
+		return err
+	}
+	invalidateSearchIndex(names...)
 	return nil
 }
 
 func RepoUpdate(options *RepoOptions) (string, error) {
-	repoFile := repositoryConfig(options)
-	r, err := repo.LoadFile(repoFile)
+	results, err := updateRepositories(options)
 	if err != nil {
 		return "", err
 	}
-
-	var repos []*repo.ChartRepository
-	updateAllRepos := len(options.Names) == 0
-
-	// Grab list of repositories to update
-	for _, repositoryFile := range r.Repositories {
-		var addRepo bool
-		if updateAllRepos {
-			addRepo = true
-		} else {
-			for _, name := range strings.Split(options.Names, "\n") {
-				if name == repositoryFile.Name {
-					addRepo = true
-					break
-				}
-			}
-		}
-		if addRepo {
-			chartRepo, err := repo.NewChartRepository(repositoryFile, getter.All(cli.New()))
-			if err != nil {
-				return "", err
-			}
-			repos = append(repos, chartRepo)
-		}
-	}
-
-	// Update the repositories
-	var wg sync.WaitGroup
 	repoUpdatedList := bytes.NewBuffer(make([]byte, 0))
 	var repoFailList []string
-	for _, re := range repos {
-		wg.Add(1)
-		go func(chartRepository *repo.ChartRepository) {
-			defer wg.Done()
-			if _, err := chartRepository.DownloadIndexFile(); err != nil {
-				repoFailList = append(repoFailList, chartRepository.Config.URL)
-			} else {
-				_, _ = fmt.Fprintln(repoUpdatedList, urlEncode(chartRepository.Config))
-			}
-		}(re)
+	for _, result := range results {
+		if result.err != nil {
+			repoFailList = append(repoFailList, result.entry.URL)
+		} else {
+			_, _ = fmt.Fprintln(repoUpdatedList, urlEncode(result.entry))
+		}
 	}
-	wg.Wait()
 	if len(repoFailList) > 0 {
 		return repoUpdatedList.String(), fmt.Errorf("failed to update the following repositories: %s", repoFailList)
 	}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"archive/tar"
+	"bytes"
+	"compress/gzip"
+	"crypto/sha256"
+	"encoding/hex"
+	"encoding/json"
+	"fmt"
+	"io"
+	"net/url"
+	"os"
+	"path"
+	"path/filepath"
+	"runtime"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chart/loader"
+	"helm.sh/helm/v3/pkg/helmpath"
+	"helm.sh/helm/v3/pkg/repo"
+	"helm.sh/helm/v3/pkg/urlutil"
+	"sigs.k8s.io/yaml"
+)
+
+type RepoIndexOptions struct {
+	Dir   string
+	Url   string
+	Merge string
+}
+
+// repoIndexArchive is the state of an archive the last time the directory was indexed
+type repoIndexArchive struct {
+	Size    int64     `json:"size"`
+	ModTime time.Time `json:"modTime"`
+	Digest  string    `json:"digest"`
+}
+
+type repoIndexTask struct {
+	archive string
+	// path is the archive path relative to the indexed directory
+	path      string
+	filename  string
+	parentUrl string
+	info      os.FileInfo
+	digest    string
+	metadata  *chart.Metadata
+	reused    *repo.ChartVersion
+	err       error
+}
+
+// RepoIndex replicates helm repo index.
+// Archives are hashed and their Chart.yaml extracted in parallel (in a single read of each file).
+// Entries of archives whose size and modification time didn't change since the previous run are reused
+// from the existing index.yaml.
+// Archives that aren't valid charts are skipped (same as helm) and reported, one line per archive after the index path.
+func RepoIndex(options *RepoIndexOptions) (string, error) {
+	out, skipped, err := indexDirectory(options)
+	if err != nil {
+		return "", err
+	}
+	result := bytes.NewBuffer(make([]byte, 0))
+	_, _ = fmt.Fprintln(result, url.Values{"index": []string{out}}.Encode())
+	for _, task := range skipped {
+		values := make(url.Values)
+		values.Set("skipped", task.path)
+		values.Set("error", task.err.Error())
+		_, _ = fmt.Fprintln(result, values.Encode())
+	}
+	return result.String(), nil
+}
+
+// indexDirectory writes the index.yaml of the directory and returns its path along with the skipped archives
+func indexDirectory(options *RepoIndexOptions) (string, []*repoIndexTask, error) {
+	dir, err := filepath.Abs(options.Dir)
+	if err != nil {
+		return "", nil, err
+	}
+	if info, err := os.Stat(dir); err != nil || !info.IsDir() {
+		return "", nil, errors.Errorf("%s is not a directory", options.Dir)
+	}
+	out := filepath.Join(dir, "index.yaml")
+	archives, err := filepath.Glob(filepath.Join(dir, "*.tgz"))
+	if err != nil {
+		return "", nil, err
+	}
+	moreArchives, err := filepath.Glob(filepath.Join(dir, "**/*.tgz"))
+	if err != nil {
+		return "", nil, err
+	}
+	archives = append(archives, moreArchives...)
+
+	// State of the previous run
+	var previous *repo.IndexFile
+	if _, err := os.Stat(out); err == nil {
+		previous, _ = repo.LoadIndexFile(out)
+	}
+	statePath := repoIndexStatePath(dir)
+	state := map[string]*repoIndexArchive{}
+	if data, err := os.ReadFile(statePath); err == nil && previous != nil {
+		_ = json.Unmarshal(data, &state)
+	}
+
+	tasks := make([]*repoIndexTask, 0, len(archives))
+	for _, archive := range archives {
+		fname, err := filepath.Rel(dir, archive)
+		if err != nil {
+			return "", nil, err
+		}
+		fname = filepath.ToSlash(fname)
+		relPath := fname
+		parentDir, fname := filepath.Split(fname)
+		parentDir = strings.TrimSuffix(parentDir, "/")
+		parentUrl, err := urlutil.URLJoin(options.Url, parentDir)
+		if err != nil {
+			parentUrl = path.Join(options.Url, parentDir)
+		}
+		info, err := os.Stat(archive)
+		if err != nil {
+			return "", nil, err
+		}
+		tasks = append(tasks, &repoIndexTask{archive: archive, path: relPath, filename: fname, parentUrl: parentUrl, info: info})
+	}
+
+	semaphore := make(chan struct{}, runtime.NumCPU())
+	var wg sync.WaitGroup
+	for _, task := range tasks {
+		if cached := state[task.archive]; cached != nil &&
+			cached.Size == task.info.Size() && cached.ModTime.Equal(task.info.ModTime()) {
+			if task.reused = previousChartVersion(previous, task, cached.Digest); task.reused != nil {
+				task.digest = cached.Digest
+				continue
+			}
+		}
+		wg.Add(1)
+		go func(task *repoIndexTask) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			task.digest, task.metadata, task.err = readChartArchive(task.archive)
+		}(task)
+	}
+	wg.Wait()
+
+	index := repo.NewIndexFile()
+	newState := map[string]*repoIndexArchive{}
+	var skipped []*repoIndexTask
+	for _, task := range tasks {
+		if task.reused != nil {
+			index.Entries[task.reused.Name] = append(index.Entries[task.reused.Name], task.reused)
+		} else if task.err == nil {
+			if err := index.MustAdd(task.metadata, task.filename, task.parentUrl, task.digest); err != nil {
+				task.err = errors.Wrapf(err, "failed adding %s to index", task.filename)
+			}
+		}
+		if task.err != nil {
+			// Assume this is not a chart (same as helm)
+			skipped = append(skipped, task)
+			continue
+		}
+		newState[task.archive] = &repoIndexArchive{Size: task.info.Size(), ModTime: task.info.ModTime(), Digest: task.digest}
+	}
+
+	if options.Merge != "" {
+		var merge *repo.IndexFile
+		if _, err := os.Stat(options.Merge); os.IsNotExist(err) {
+			merge = repo.NewIndexFile()
+			if err := merge.WriteFile(options.Merge, 0644); err != nil {
+				return "", nil, err
+			}
+		} else {
+			if merge, err = repo.LoadIndexFile(options.Merge); err != nil {
+				return "", nil, errors.Wrap(err, "merge failed")
+			}
+		}
+		index.Merge(merge)
+	}
+	index.SortEntries()
+	if err := index.WriteFile(out, 0644); err != nil {
+		return "", nil, err
+	}
+	// The state is an optimization, a failure to persist it only means archives are read again in the next run
+	if data, err := json.Marshal(newState); err == nil {
+		if err = os.MkdirAll(filepath.Dir(statePath), 0755); err == nil {
+			_ = writeFileAtomically(statePath, data)
+		}
+	}
+	return out, skipped, nil
+}
+
+func repoIndexStatePath(dir string) string {
+	sum := sha256.Sum256([]byte(dir))
+	return helmpath.CachePath("repository-index", hex.EncodeToString(sum[:])+".json")
+}
+
+// previousChartVersion returns the entry of the previous index for the archive (same URL and digest)
+func previousChartVersion(previous *repo.IndexFile, task *repoIndexTask, digest string) *repo.ChartVersion {
+	if previous == nil {
+		return nil
+	}
+	archiveUrl := task.filename
+	if task.parentUrl != "" {
+		var err error
+		if archiveUrl, err = urlutil.URLJoin(task.parentUrl, task.filename); err != nil {
+			archiveUrl = path.Join(task.parentUrl, task.filename)
+		}
+	}
+	for _, chartVersions := range previous.Entries {
+		for _, chartVersion := range chartVersions {
+			if chartVersion.Digest == digest && len(chartVersion.URLs) > 0 && chartVersion.URLs[0] == archiveUrl {
+				return chartVersion
+			}
+		}
+	}
+	return nil
+}
+
+// readChartArchive computes the digest of the archive and extracts its Chart.yaml reading the file only once.
+// Charts that need to be fully loaded to compute their metadata (apiVersion v1 with requirements) fall back to the loader.
+func readChartArchive(archive string) (string, *chart.Metadata, error) {
+	f, err := os.Open(archive)
+	if err != nil {
+		return "", nil, err
+	}
+	defer func() { _ = f.Close() }()
+	hash := sha256.New()
+	tee := io.TeeReader(f, hash)
+	metadata, requirements, err := readChartMetadata(tee)
+	if err != nil {
+		return "", nil, err
+	}
+	// Hash the remainder of the file
+	if _, err = io.Copy(io.Discard, tee); err != nil {
+		return "", nil, err
+	}
+	digest := hex.EncodeToString(hash.Sum(nil))
+	if requirements {
+		loaded, err := loader.Load(archive)
+		if err != nil {
+			return "", nil, err
+		}
+		metadata = loaded.Metadata
+	}
+	// Same validation as the chart loader (helm skips the archives it can't load)
+	if err = metadata.Validate(); err != nil {
+		return "", nil, err
+	}
+	return digest, metadata, nil
+}
+
+// readChartMetadata returns the Chart.yaml of the chart archive and whether the chart has a requirements.yaml
+func readChartMetadata(r io.Reader) (*chart.Metadata, bool, error) {
+	gz, err := gzip.NewReader(r)
+	if err != nil {
+		return nil, false, err
+	}
+	defer func() { _ = gz.Close() }()
+	tr := tar.NewReader(gz)
+	var metadata *chart.Metadata
+	requirements := false
+	for {
+		header, err := tr.Next()
+		if err == io.EOF {
+			break
+		}
+		if err != nil {
+			return nil, false, err
+		}
+		// Only files at the root of the chart directory
+		parts := strings.Split(strings.TrimPrefix(filepath.ToSlash(header.Name), "/"), "/")
+		if len(parts) != 2 {
+			continue
+		}
+		switch parts[1] {
+		case "Chart.yaml":
+			data, err := io.ReadAll(tr)
+			if err != nil {
+				return nil, false, err
+			}
+			metadata = new(chart.Metadata)
+			if err = yaml.Unmarshal(data, metadata); err != nil {
+				return nil, false, errors.Wrap(err, "cannot load Chart.yaml")
+			}
+			if metadata.APIVersion == "" {
+				// Same default as the chart loader
+				metadata.APIVersion = chart.APIVersionV1
+			}
+		case "requirements.yaml":
+			requirements = true
+		}
+	}
+	if metadata == nil {
+		return nil, false, errors.New("Chart.yaml file is missing")
+	}
+	return metadata, requirements && metadata.APIVersion != chart.APIVersionV2, nil
+}
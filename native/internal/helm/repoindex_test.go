@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"archive/tar"
+	"compress/gzip"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strings"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+func newTestChartArchives(t *testing.T, names ...string) string {
+	dir := t.TempDir()
+	for _, name := range names {
+		newTestChartArchivesInto(t, dir, name)
+	}
+	return dir
+}
+
+func TestRepoIndex(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	dir := newTestChartArchives(t, "first", "second")
+	out, _, err := indexDirectory(&RepoIndexOptions{Dir: dir, Url: "https://example.com/charts"})
+	if err != nil {
+		t.Fatalf("Expected index to be generated, got %s", err)
+	}
+	index, err := repo.LoadIndexFile(out)
+	if err != nil {
+		t.Fatalf("Expected valid index, got %s", err)
+	}
+	first, err := index.Get("first", "0.1.0")
+	if err != nil {
+		t.Fatalf("Expected first chart to be indexed, got %s", err)
+	}
+	if first.URLs[0] != "https://example.com/charts/first-0.1.0.tgz" || len(first.Digest) != 64 || first.AppVersion == "" {
+		t.Errorf("Expected first chart entry with url, digest and app version, got %v %s %s", first.URLs, first.Digest, first.AppVersion)
+	}
+	if !index.Has("second", "0.1.0") {
+		t.Error("Expected second chart to be indexed")
+	}
+}
+
+func TestRepoIndexReusesUnchangedArchives(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	dir := newTestChartArchives(t, "first", "second")
+	out, _, _ := indexDirectory(&RepoIndexOptions{Dir: dir})
+	previous, _ := repo.LoadIndexFile(out)
+	// Replace the second archive with a different chart
+	if err := os.Remove(filepath.Join(dir, "second-0.1.0.tgz")); err != nil {
+		t.Fatal(err)
+	}
+	newTestChartArchivesInto(t, dir, "third")
+	out, _, err := indexDirectory(&RepoIndexOptions{Dir: dir})
+	if err != nil {
+		t.Fatalf("Expected index to be generated, got %s", err)
+	}
+	index, _ := repo.LoadIndexFile(out)
+	if !index.Entries["first"][0].Created.Equal(previous.Entries["first"][0].Created) {
+		t.Error("Expected unchanged archive entry to be reused")
+	}
+	if index.Has("second", "0.1.0") || !index.Has("third", "0.1.0") {
+		t.Error("Expected index to reflect removed and added archives")
+	}
+}
+
+func TestRepoIndexMerge(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	merge := filepath.Join(t.TempDir(), "index.yaml")
+	other, _, _ := indexDirectory(&RepoIndexOptions{Dir: newTestChartArchives(t, "other")})
+	if err := os.Rename(other, merge); err != nil {
+		t.Fatal(err)
+	}
+	out, _, err := indexDirectory(&RepoIndexOptions{Dir: newTestChartArchives(t, "first"), Merge: merge})
+	if err != nil {
+		t.Fatalf("Expected index to be generated, got %s", err)
+	}
+	index, _ := repo.LoadIndexFile(out)
+	if !index.Has("first", "0.1.0") || !index.Has("other", "0.1.0") {
+		t.Error("Expected merged index to contain both charts")
+	}
+}
+
+func TestRepoIndexSkipsInvalidCharts(t *testing.T) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	dir := newTestChartArchives(t, "first")
+	writeTestChartArchive(t, filepath.Join(dir, "no-version.tgz"), "apiVersion: v2\nname: no-version\n")
+	if err := os.WriteFile(filepath.Join(dir, "not-a-chart.tgz"), []byte("not an archive"), 0644); err != nil {
+		t.Fatal(err)
+	}
+	out, err := RepoIndex(&RepoIndexOptions{Dir: dir})
+	if err != nil {
+		t.Fatalf("Expected index to be generated, got %s", err)
+	}
+	lines := strings.Split(strings.TrimSpace(out), "\n")
+	if len(lines) != 3 {
+		t.Fatalf("Expected index and 2 skipped archives, got %v", lines)
+	}
+	indexLine, _ := url.ParseQuery(lines[0])
+	index, err := repo.LoadIndexFile(indexLine.Get("index"))
+	if err != nil {
+		t.Fatalf("Expected valid index, got %s", err)
+	}
+	if !index.Has("first", "0.1.0") || len(index.Entries) != 1 {
+		t.Errorf("Expected only the valid chart to be indexed, got %v", index.Entries)
+	}
+	skipped := map[string]string{}
+	for _, line := range lines[1:] {
+		values, _ := url.ParseQuery(line)
+		skipped[values.Get("skipped")] = values.Get("error")
+	}
+	if !strings.Contains(skipped["no-version.tgz"], "version is required") {
+		t.Errorf("Expected chart without version to be reported, got %v", skipped)
+	}
+	if skipped["not-a-chart.tgz"] == "" {
+		t.Errorf("Expected invalid archive to be reported, got %v", skipped)
+	}
+}
+
+func TestRepoIndexNotADirectory(t *testing.T) {
+	if _, err := RepoIndex(&RepoIndexOptions{Dir: filepath.Join(t.TempDir(), "missing")}); err == nil {
+		t.Error("Expected error for missing directory")
+	}
+}
+
+func newTestChartArchivesInto(t *testing.T, dir string, name string) {
+	create, err := Create(&CreateOptions{Name: name, Dir: t.TempDir()})
+	if err != nil {
+		t.Fatal(err)
+	}
+	if err = Package(&PackageOptions{Path: create, Destination: dir}); err != nil {
+		t.Fatal(err)
+	}
+}
+
+func writeTestChartArchive(t *testing.T, archive string, chartYaml string) {
+	f, err := os.Create(archive)
+	if err != nil {
+		t.Fatal(err)
+	}
+	defer func() { _ = f.Close() }()
+	gz := gzip.NewWriter(f)
+	tw := tar.NewWriter(gz)
+	if err = tw.WriteHeader(&tar.Header{Name: "chart/Chart.yaml", Mode: 0644, Size: int64(len(chartYaml))}); err != nil {
+		t.Fatal(err)
+	}
+	if _, err = tw.Write([]byte(chartYaml)); err != nil {
+		t.Fatal(err)
+	}
+	if err = tw.Close(); err != nil {
+		t.Fatal(err)
+	}
+	if err = gz.Close(); err != nil {
+		t.Fatal(err)
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"fmt"
+	"net/url"
+	"os"
+	"sort"
+	"strconv"
+	"sync"
+	"time"
+
+	"github.com/Masterminds/semver/v3"
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+type RepoIndexQueryOptions struct {
+	Repo       string
+	Chart      string
+	Constraint string
+	Latest     bool
+}
+
+type indexChartVersion struct {
+	name        string
+	version     string
+	semver      *semver.Version
+	appVersion  string
+	description string
+	digest      string
+	created     string
+	deprecated  bool
+}
+
+// repoIndexView is the typed view of a repository index, valid while its index file remains unchanged
+type repoIndexView struct {
+	modTime time.Time
+	size    int64
+	// names of the charts (sorted)
+	names []string
+	// charts maps each chart name to its versions (newest first)
+	charts map[string][]*indexChartVersion
+}
+
+// repoIndexViews holds the repository index views across calls, keyed by repository index file path
+var repoIndexViews = struct {
+	sync.Mutex
+	repos map[string]*repoIndexView
+}{repos: map[string]*repoIndexView{}}
+
+// RepoIndexQuery lists the chart versions of a repository (optionally restricted to a chart and semver constraint).
+// If Latest is set, only the newest matching version of each chart is returned.
+func RepoIndexQuery(options *RepoIndexQueryOptions) (string, error) {
+	if options.Repo == "" {
+		return "", errors.New("repository name is required")
+	}
+	view, err := loadRepoIndexView(options.Repo)
+	if err != nil {
+		return "", err
+	}
+	var constraint *semver.Constraints
+	if options.Constraint != "" {
+		if constraint, err = semver.NewConstraint(options.Constraint); err != nil {
+			return "", errors.Wrapf(err, "invalid version constraint %q", options.Constraint)
+		}
+	}
+	names := view.names
+	if options.Chart != "" {
+		if _, found := view.charts[options.Chart]; !found {
+			return "", errors.Errorf("chart %q not found in repository %q", options.Chart, options.Repo)
+		}
+		names = []string{options.Chart}
+	}
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, name := range names {
+		for _, chartVersion := range view.charts[name] {
+			if constraint != nil && (chartVersion.semver == nil || !constraint.Check(chartVersion.semver)) {
+				continue
+			}
+			values := make(url.Values)
+			values.Set("name", chartVersion.name)
+			values.Set("version", chartVersion.version)
+			values.Set("appVersion", chartVersion.appVersion)
+			values.Set("description", chartVersion.description)
+			values.Set("digest", chartVersion.digest)
+			values.Set("created", chartVersion.created)
+			values.Set("deprecated", strconv.FormatBool(chartVersion.deprecated))
+			_, _ = fmt.Fprintln(out, values.Encode())
+			if options.Latest {
+				break
+			}
+		}
+	}
+	return out.String(), nil
+}
+
+// loadRepoIndexView returns the view of the repository index, it's only reloaded if the index file changed
+func loadRepoIndexView(repoName string) (*repoIndexView, error) {
+	indexPath := searchIndexPath(repoName)
+	info, err := os.Stat(indexPath)
+	if err != nil {
+		return nil, errors.Wrapf(err, "no cached index found for repository %q (update the repository first)", repoName)
+	}
+	repoIndexViews.Lock()
+	cached := repoIndexViews.repos[indexPath]
+	repoIndexViews.Unlock()
+	if cached != nil && cached.modTime.Equal(info.ModTime()) && cached.size == info.Size() {
+		return cached, nil
+	}
+	view, err := newRepoIndexView(indexPath)
+	if err != nil {
+		return nil, err
+	}
+	view.modTime = info.ModTime()
+	view.size = info.Size()
+	repoIndexViews.Lock()
+	repoIndexViews.repos[indexPath] = view
+	repoIndexViews.Unlock()
+	return view, nil
+}
+
+func newRepoIndexView(indexPath string) (*repoIndexView, error) {
+	view := &repoIndexView{charts: map[string][]*indexChartVersion{}}
+	add := func(chartVersion *indexChartVersion) {
+		chartVersion.semver, _ = semver.NewVersion(chartVersion.version)
+		view.charts[chartVersion.name] = append(view.charts[chartVersion.name], chartVersion)
+	}
+	if binary, err := openBinaryIndex(indexPath); err == nil {
+		for record := 0; record < binary.count; record++ {
+			add(&indexChartVersion{
+				name:        binary.field(record, binaryIndexFieldName),
+				version:     binary.field(record, binaryIndexFieldVersion),
+				appVersion:  binary.field(record, binaryIndexFieldAppVersion),
+				description: binary.field(record, binaryIndexFieldDescription),
+				digest:      binary.field(record, binaryIndexFieldDigest),
+				created:     binary.field(record, binaryIndexFieldCreated),
+				deprecated:  binary.field(record, binaryIndexFieldDeprecated) == "true",
+			})
+		}
+		_ = binary.Close()
+	} else {
+		indexFile, err := repo.LoadIndexFile(indexPath)
+		if err != nil {
+			return nil, err
+		}
+		for name, chartVersions := range indexFile.Entries {
+			for _, chartVersion := range chartVersions {
+				created := ""
+				if !chartVersion.Created.IsZero() {
+					created = chartVersion.Created.Format(time.RFC3339Nano)
+				}
+				add(&indexChartVersion{
+					name:        name,
+					version:     chartVersion.Version,
+					appVersion:  chartVersion.AppVersion,
+					description: chartVersion.Description,
+					digest:      chartVersion.Digest,
+					created:     created,
+					deprecated:  chartVersion.Deprecated,
+				})
+			}
+		}
+	}
+	for name, chartVersions := range view.charts {
+		view.names = append(view.names, name)
+		// Newest first, versions that aren't valid semver go last
+		sort.SliceStable(chartVersions, func(i, j int) bool {
+			if chartVersions[i].semver == nil || chartVersions[j].semver == nil {
+				return chartVersions[j].semver == nil && chartVersions[i].semver != nil
+			}
+			return chartVersions[i].semver.GreaterThan(chartVersions[j].semver)
+		})
+	}
+	sort.Strings(view.names)
+	return view, nil
+}
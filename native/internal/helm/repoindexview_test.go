@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"os"
+	"path/filepath"
+	"strings"
+	"testing"
+)
+
+func newTestRepoIndexView(t *testing.T, binary bool) {
+	t.Setenv("HELM_CACHE_HOME", t.TempDir())
+	indexPath := searchIndexPath("view")
+	if err := os.MkdirAll(filepath.Dir(indexPath), 0755); err != nil {
+		t.Fatal(err)
+	}
+	if err := os.WriteFile(indexPath, []byte(searchIndexYamlForTests), 0644); err != nil {
+		t.Fatal(err)
+	}
+	if binary {
+		if err := writeBinaryIndex(indexPath); err != nil {
+			t.Fatal(err)
+		}
+	}
+}
+
+func TestRepoIndexQueryVersions(t *testing.T) {
+	for _, binary := range []bool{false, true} {
+		newTestRepoIndexView(t, binary)
+		out, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "view", Chart: "nginx"})
+		if err != nil {
+			t.Fatalf("Expected query to succeed, got %s", err)
+		}
+		lines := strings.Split(strings.TrimSpace(out), "\n")
+		if len(lines) != 3 || !strings.HasSuffix(lines[0], "&version=1.1.0") || !strings.HasSuffix(lines[2], "&version=1.0.0") {
+			t.Errorf("Expected nginx versions newest first (binary=%t), got %s", binary, out)
+		}
+		if !strings.Contains(lines[2], "appVersion=1.25.0") {
+			t.Errorf("Expected app version (binary=%t), got %s", binary, lines[2])
+		}
+	}
+}
+
+func TestRepoIndexQueryLatestWithConstraint(t *testing.T) {
+	newTestRepoIndexView(t, true)
+	out, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "view", Chart: "nginx", Constraint: "<1.1.0", Latest: true})
+	if err != nil {
+		t.Fatalf("Expected query to succeed, got %s", err)
+	}
+	if strings.Count(out, "\n") != 1 || !strings.HasSuffix(out, "&version=1.0.0\n") {
+		t.Errorf("Expected 1.0.0 as latest stable version below 1.1.0, got %s", out)
+	}
+}
+
+func TestRepoIndexQueryLatestPerChart(t *testing.T) {
+	newTestRepoIndexView(t, true)
+	out, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "view", Latest: true})
+	if err != nil {
+		t.Fatalf("Expected query to succeed, got %s", err)
+	}
+	lines := strings.Split(strings.TrimSpace(out), "\n")
+	if len(lines) != 2 || !strings.Contains(lines[0], "name=nginx") || !strings.Contains(lines[1], "name=proxy-tools") {
+		t.Errorf("Expected a line per chart sorted by name, got %s", out)
+	}
+}
+
+func TestRepoIndexQueryErrors(t *testing.T) {
+	newTestRepoIndexView(t, false)
+	if _, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "view", Chart: "missing"}); err == nil {
+		t.Error("Expected error for missing chart")
+	}
+	if _, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "view", Constraint: "not a constraint"}); err == nil {
+		t.Error("Expected error for invalid constraint")
+	}
+	if _, err := RepoIndexQuery(&RepoIndexQueryOptions{Repo: "missing"}); err == nil {
+		t.Error("Expected error for missing repository")
+	}
+}
@@ -38,9 +38,11 @@ import (
 var servers = cmap.New[*ActiveServer]()
 
 type RepoServerOptions struct {
-	Glob     string
-	Username string
-	Password string
+	Glob        string
+	Username    string
+	Password    string
+	StorageRoot string
+	Concurrency int
 }
 
 type ActiveServer struct {
@@ -103,7 +105,17 @@ func RepoOciServerStart(options *RepoServerOptions) (*repotest.OCIServer, error)
 	config := &configuration.Configuration{}
 	config.HTTP.Addr = fmt.Sprintf(":%d", port)
 	config.HTTP.DrainTimeout = time.Duration(1) * time.Second
-	config.Storage = map[string]configuration.Parameters{"inmemory": map[string]interface{}{}}
+	// Filesystem storage so that memory isn't retained by the process and throughput is comparable to a real registry
+	storageRoot := options.StorageRoot
+	if storageRoot == "" {
+		storageRoot = filepath.Join(testDir, "storage")
+	}
+	storage := configuration.Parameters{"rootdirectory": storageRoot}
+	if options.Concurrency > 0 {
+		// Bounds the concurrent storage operations (the driver enforces a minimum of 25)
+		storage["maxthreads"] = options.Concurrency
+	}
+	config.Storage = configuration.Storage{"filesystem": storage}
 	config.Auth = configuration.Auth{
 		"htpasswd": configuration.Parameters{
 			"realm": "localhost",
@@ -135,7 +147,9 @@ func serverStop(server *ActiveServer) {
 		server.server.Stop()
 	}
 	if server.ociServer != nil {
-		// server.ociServer.Stop() //TODO can't be stopped for now ¯\_(ツ)_/¯
+		ctx, cancel := context.WithTimeout(context.Background(), 5*time.Second)
+		_ = server.ociServer.Registry.Shutdown(ctx)
+		cancel()
 	}
 	_ = os.RemoveAll(server.dir)
 	_ = os.RemoveAll(server.id)
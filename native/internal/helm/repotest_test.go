@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"net/http"
+	"os"
+	"path/filepath"
+	"testing"
+	"time"
+)
+
+func TestRepoOciServerStop(t *testing.T) {
+	storageRoot := filepath.Join(t.TempDir(), "storage")
+	server, err := RepoOciServerStart(&RepoServerOptions{StorageRoot: storageRoot, Concurrency: 32})
+	if err != nil {
+		t.Fatalf("Expected server to start, got %s", err)
+	}
+	if !waitForRegistry(server.RegistryURL) {
+		t.Fatalf("Expected registry at %s to be reachable", server.RegistryURL)
+	}
+	RepoServerStop(server.RegistryURL)
+	if _, err := http.Get("http://" + server.RegistryURL + "/v2/"); err == nil {
+		t.Errorf("Expected registry at %s to be stopped", server.RegistryURL)
+	}
+	if _, ok := servers.Get(server.RegistryURL); ok {
+		t.Errorf("Expected registry at %s to be removed from the active servers", server.RegistryURL)
+	}
+	if _, err := os.Stat(server.Dir); !os.IsNotExist(err) {
+		t.Errorf("Expected server directory %s to be removed", server.Dir)
+	}
+}
+
+func waitForRegistry(registryUrl string) bool {
+	for i := 0; i < 50; i++ {
+		if response, err := http.Get("http://" + registryUrl + "/v2/"); err == nil {
+			_ = response.Body.Close()
+			return true
+		}
+		time.Sleep(100 * time.Millisecond)
+	}
+	return false
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"context"
+	"encoding/json"
+	"fmt"
+	"io"
+	"net/http"
+	"net/url"
+	"os"
+	"path/filepath"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/chartutil"
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/helmpath"
+	"helm.sh/helm/v3/pkg/repo"
+	"helm.sh/helm/v3/pkg/tlsutil"
+)
+
+const (
+	repoUpdateUpdated   = "updated"
+	repoUpdateUnchanged = "unchanged"
+	repoUpdateFailed    = "failed"
+)
+
+const defaultRepoUpdateConcurrency = 8
+
+type repoUpdateResult struct {
+	entry    *repo.Entry
+	status   string
+	bytes    int64
+	duration time.Duration
+	err      error
+}
+
+// repoIndexValidators are the HTTP cache validators of a downloaded index.yaml (stored next to it)
+type repoIndexValidators struct {
+	Url          string `json:"url"`
+	ETag         string `json:"etag,omitempty"`
+	LastModified string `json:"lastModified,omitempty"`
+}
+
+// RepoUpdateResults updates the repositories and reports the outcome for each of them.
+// Failures are reported per repository, the returned error is only set if the update couldn't be started.
+func RepoUpdateResults(options *RepoOptions) (string, error) {
+	results, err := updateRepositories(options)
+	if err != nil {
+		return "", err
+	}
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, result := range results {
+		values := make(url.Values)
+		values.Set("name", result.entry.Name)
+		values.Set("url", result.entry.URL)
+		values.Set("status", result.status)
+		values.Set("bytes", strconv.FormatInt(result.bytes, 10))
+		values.Set("durationMillis", strconv.FormatInt(result.duration.Milliseconds(), 10))
+		if result.err != nil {
+			values.Set("error", result.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+// updateRepositories downloads the index of the selected repositories concurrently (bounded by Concurrency)
+func updateRepositories(options *RepoOptions) ([]*repoUpdateResult, error) {
+	r, err := repo.LoadFile(repositoryConfig(options))
+	if err != nil {
+		return nil, err
+	}
+
+	var repos []*repo.ChartRepository
+	updateAllRepos := len(options.Names) == 0
+
+	// Grab list of repositories to update
+	for _, repositoryFile := range r.Repositories {
+		var addRepo bool
+		if updateAllRepos {
+			addRepo = true
+		} else {
+			for _, name := range strings.Split(options.Names, "\n") {
+				if name == repositoryFile.Name {
+					addRepo = true
+					break
+				}
+			}
+		}
+		if addRepo {
+			chartRepo, err := repo.NewChartRepository(repositoryFile, getter.All(cli.New()))
+			if err != nil {
+				return nil, err
+			}
+			repos = append(repos, chartRepo)
+		}
+	}
+
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultRepoUpdateConcurrency
+	}
+	timeout := time.Duration(options.Timeout) * time.Second
+	results := make([]*repoUpdateResult, len(repos))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, chartRepository := range repos {
+		wg.Add(1)
+		go func(i int, chartRepository *repo.ChartRepository) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			results[i] = updateRepository(chartRepository, timeout)
+		}(i, chartRepository)
+	}
+	wg.Wait()
+	return results, nil
+}
+
+func updateRepository(chartRepository *repo.ChartRepository, timeout time.Duration) *repoUpdateResult {
+	start := time.Now()
+	result := &repoUpdateResult{entry: chartRepository.Config}
+	defer func() { result.duration = time.Since(start) }()
+	indexPath := filepath.Join(chartRepository.CachePath, helmpath.CacheIndexFile(chartRepository.Config.Name))
+	indexUrl, err := repo.ResolveReferenceURL(chartRepository.Config.URL, "index.yaml")
+	if err == nil {
+		result.status, result.bytes, err = fetchIndexFile(chartRepository, indexUrl, indexPath, timeout)
+	}
+	if err != nil {
+		result.status = repoUpdateFailed
+		result.err = err
+		return result
+	}
+	markRepoIndexRefreshed(indexPath)
+	if result.status == repoUpdateUpdated {
+		_ = writeBinaryIndex(indexPath)
+		invalidateSearchIndex(chartRepository.Config.Name)
+	} else if binaryIndex, err := openBinaryIndex(indexPath); err == nil {
+		_ = binaryIndex.Close()
+	} else {
+		_ = writeBinaryIndex(indexPath)
+	}
+	return result
+}
+
+// fetchIndexFile downloads the repository index using a conditional request when the cached index has validators.
+// Non-HTTP repositories (getter plugins) are always downloaded by Helm (no timeout or conditional request support).
+//
+// Helm's HTTP getter can neither send additional request headers nor expose the response headers,
+// so HTTP repositories are requested directly, replicating the getter options that
+// repo.ChartRepository.DownloadIndexFile applies to the index request:
+//   - WithURL + WithBasicAuth + WithPassCredentialsAll: credentials (both username and password) are only sent to
+//     the repository host unless pass-credentials-all is set
+//   - WithTLSClientConfig + WithInsecureSkipVerifyTLS: client certificate, CA file and insecure-skip-tls-verify
+//     (same tlsutil configuration)
+//   - the default Helm User-Agent and the proxy from the environment
+//
+// The remaining getter options (custom user agent, custom transport, timeout) aren't set for repository indexes by Helm,
+// the timeout is replaced by the per-repository Timeout.
+func fetchIndexFile(chartRepository *repo.ChartRepository, indexUrl, indexPath string, timeout time.Duration) (string, int64, error) {
+	parsedUrl, err := url.Parse(indexUrl)
+	if err != nil {
+		return "", 0, err
+	}
+	if parsedUrl.Scheme != "http" && parsedUrl.Scheme != "https" {
+		if _, err = chartRepository.DownloadIndexFile(); err != nil {
+			return "", 0, err
+		}
+		_ = os.Remove(repoIndexValidatorsPath(indexPath))
+		info, err := os.Stat(indexPath)
+		if err != nil {
+			return "", 0, err
+		}
+		return repoUpdateUpdated, info.Size(), nil
+	}
+	entry := chartRepository.Config
+	client, err := newRepoHttpClient(entry)
+	if err != nil {
+		return "", 0, err
+	}
+	ctx := context.Background()
+	if timeout > 0 {
+		var cancel context.CancelFunc
+		ctx, cancel = context.WithTimeout(ctx, timeout)
+		defer cancel()
+	}
+	req, err := http.NewRequestWithContext(ctx, http.MethodGet, indexUrl, nil)
+	if err != nil {
+		return "", 0, err
+	}
+	req.Header.Set("User-Agent", repoUserAgent())
+	// Same as Helm's HTTP getter, credentials are only sent to the repository host unless stated otherwise
+	if entry.Username != "" && entry.Password != "" {
+		repoUrl, err := url.Parse(entry.URL)
+		if err == nil && (entry.PassCredentialsAll || (repoUrl.Scheme == parsedUrl.Scheme && repoUrl.Host == parsedUrl.Host)) {
+			req.SetBasicAuth(entry.Username, entry.Password)
+		}
+	}
+	if validators := readRepoIndexValidators(indexPath); validators != nil && validators.Url == indexUrl {
+		if validators.ETag != "" {
+			req.Header.Set("If-None-Match", validators.ETag)
+		}
+		if validators.LastModified != "" {
+			req.Header.Set("If-Modified-Since", validators.LastModified)
+		}
+	}
+	resp, err := client.Do(req)
+	if err != nil {
+		return "", 0, err
+	}
+	defer func() { _ = resp.Body.Close() }()
+	if resp.StatusCode == http.StatusNotModified {
+		return repoUpdateUnchanged, 0, nil
+	}
+	if resp.StatusCode != http.StatusOK {
+		return "", 0, errors.Errorf("failed to fetch %s : %s", indexUrl, resp.Status)
+	}
+	index, err := io.ReadAll(resp.Body)
+	if err != nil {
+		return "", 0, err
+	}
+	if err = writeIndexFile(chartRepository, indexPath, index); err != nil {
+		return "", 0, err
+	}
+	validators := &repoIndexValidators{
+		Url:          indexUrl,
+		ETag:         resp.Header.Get("ETag"),
+		LastModified: resp.Header.Get("Last-Modified"),
+	}
+	if validators.ETag == "" && validators.LastModified == "" {
+		_ = os.Remove(repoIndexValidatorsPath(indexPath))
+	} else if data, err := json.Marshal(validators); err == nil {
+		_ = writeFileAtomically(repoIndexValidatorsPath(indexPath), data)
+	}
+	return repoUpdateUpdated, int64(len(index)), nil
+}
+
+// writeIndexFile replicates the cache handling of repo.ChartRepository.DownloadIndexFile (index and chart list files)
+func writeIndexFile(chartRepository *repo.ChartRepository, indexPath string, index []byte) error {
+	if err := os.MkdirAll(filepath.Dir(indexPath), 0755); err != nil {
+		return err
+	}
+	tmp, err := os.CreateTemp(filepath.Dir(indexPath), chartCacheTmpPrefix+"*")
+	if err != nil {
+		return err
+	}
+	defer func() { _ = os.Remove(tmp.Name()) }()
+	_, err = tmp.Write(index)
+	if closeErr := tmp.Close(); err == nil {
+		err = closeErr
+	}
+	if err != nil {
+		return err
+	}
+	indexFile, err := repo.LoadIndexFile(tmp.Name())
+	if err != nil {
+		return err
+	}
+	var charts strings.Builder
+	for name := range indexFile.Entries {
+		_, _ = fmt.Fprintln(&charts, name)
+	}
+	chartsPath := filepath.Join(chartRepository.CachePath, helmpath.CacheChartsFile(chartRepository.Config.Name))
+	if err = writeFileAtomically(chartsPath, []byte(charts.String())); err != nil {
+		return err
+	}
+	if err = os.Chmod(tmp.Name(), 0644); err != nil {
+		return err
+	}
+	return os.Rename(tmp.Name(), indexPath)
+}
+
+func repoIndexValidatorsPath(indexPath string) string {
+	return strings.TrimSuffix(indexPath, ".yaml") + ".validators.json"
+}
+
+// repoIndexRefreshedPath is a marker file whose modification time is the last successful refresh of the index
+// (the index file itself isn't modified if the repository reports it as unchanged)
+func repoIndexRefreshedPath(indexPath string) string {
+	return strings.TrimSuffix(indexPath, ".yaml") + ".refreshed"
+}
+
+func markRepoIndexRefreshed(indexPath string) {
+	marker := repoIndexRefreshedPath(indexPath)
+	now := time.Now()
+	if err := os.Chtimes(marker, now, now); os.IsNotExist(err) {
+		_ = os.WriteFile(marker, nil, 0644)
+	}
+}
+
+// repoIndexRefreshedAt returns the time of the last successful refresh of the index (false if unknown)
+func repoIndexRefreshedAt(indexPath string) (time.Time, bool) {
+	if _, err := os.Stat(indexPath); err != nil {
+		return time.Time{}, false
+	}
+	info, err := os.Stat(repoIndexRefreshedPath(indexPath))
+	if err != nil {
+		return time.Time{}, false
+	}
+	return info.ModTime(), true
+}
+
+func readRepoIndexValidators(indexPath string) *repoIndexValidators {
+	if _, err := os.Stat(indexPath); err != nil {
+		return nil
+	}
+	data, err := os.ReadFile(repoIndexValidatorsPath(indexPath))
+	if err != nil {
+		return nil
+	}
+	validators := &repoIndexValidators{}
+	if err = json.Unmarshal(data, validators); err != nil {
+		return nil
+	}
+	return validators
+}
+
+// repoUserAgent is the User-Agent sent by Helm's HTTP getter
+func repoUserAgent() string {
+	return "Helm/" + strings.TrimPrefix(chartutil.DefaultCapabilities.HelmVersion.Version, "v")
+}
+
+// newRepoHttpClient creates an HTTP client with the same TLS configuration as Helm's HTTP getter for the repository
+func newRepoHttpClient(entry *repo.Entry) (*http.Client, error) {
+	transport := http.DefaultTransport.(*http.Transport).Clone()
+	if (entry.CertFile != "" && entry.KeyFile != "") || entry.CAFile != "" || entry.InsecureSkipTLSverify {
+		tlsConfig, err := tlsutil.NewClientTLS(entry.CertFile, entry.KeyFile, entry.CAFile, entry.InsecureSkipTLSverify)
+		if err != nil {
+			return nil, errors.Wrap(err, "can't create TLS config for client")
+		}
+		transport.TLSClientConfig = tlsConfig
+	}
+	return &http.Client{Transport: transport}, nil
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"net/http"
+	"net/http/httptest"
+	"path/filepath"
+	"strings"
+	"sync/atomic"
+	"testing"
+
+	"helm.sh/helm/v3/pkg/cli"
+	"helm.sh/helm/v3/pkg/getter"
+	"helm.sh/helm/v3/pkg/helmpath"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+func newTestChartRepository(t *testing.T, serverUrl string) *repo.ChartRepository {
+	chartRepository, err := repo.NewChartRepository(&repo.Entry{Name: "conditional", URL: serverUrl}, getter.All(cli.New()))
+	if err != nil {
+		t.Fatal(err)
+	}
+	chartRepository.CachePath = t.TempDir()
+	return chartRepository
+}
+
+func TestUpdateRepositoryConditional(t *testing.T) {
+	var downloads atomic.Int32
+	server := httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		if r.Header.Get("If-None-Match") == `"v1"` {
+			w.WriteHeader(http.StatusNotModified)
+			return
+		}
+		downloads.Add(1)
+		w.Header().Set("ETag", `"v1"`)
+		_, _ = w.Write([]byte(searchIndexYamlForTests))
+	}))
+	defer server.Close()
+	chartRepository := newTestChartRepository(t, server.URL)
+	first := updateRepository(chartRepository, 0)
+	if first.err != nil || first.status != repoUpdateUpdated || first.bytes != int64(len(searchIndexYamlForTests)) {
+		t.Fatalf("Expected index to be downloaded, got %s (%d bytes, %v)", first.status, first.bytes, first.err)
+	}
+	indexPath := filepath.Join(chartRepository.CachePath, helmpath.CacheIndexFile("conditional"))
+	if _, err := repo.LoadIndexFile(indexPath); err != nil {
+		t.Errorf("Expected cached index to be valid, got %s", err)
+	}
+	if binaryIndex, err := openBinaryIndex(indexPath); err != nil {
+		t.Errorf("Expected binary index to be written, got %s", err)
+	} else {
+		_ = binaryIndex.Close()
+	}
+	second := updateRepository(chartRepository, 0)
+	if second.err != nil || second.status != repoUpdateUnchanged || second.bytes != 0 {
+		t.Errorf("Expected index to be unchanged, got %s (%d bytes, %v)", second.status, second.bytes, second.err)
+	}
+	if downloads.Load() != 1 {
+		t.Errorf("Expected a single download, got %d", downloads.Load())
+	}
+}
+
+func TestUpdateRepositoryInvalidIndex(t *testing.T) {
+	server := httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		_, _ = w.Write([]byte("not: an index"))
+	}))
+	defer server.Close()
+	result := updateRepository(newTestChartRepository(t, server.URL), 0)
+	if result.status != repoUpdateFailed || result.err == nil {
+		t.Errorf("Expected invalid index to fail, got %s", result.status)
+	}
+}
+
+func TestUpdateRepositoryNotFound(t *testing.T) {
+	server := httptest.NewServer(http.NotFoundHandler())
+	defer server.Close()
+	result := updateRepository(newTestChartRepository(t, server.URL), 0)
+	if result.status != repoUpdateFailed || result.err == nil {
+		t.Errorf("Expected missing index to fail, got %s", result.status)
+	}
+}
+
+func TestUpdateRepositorySameRequestAsHelmGetter(t *testing.T) {
+	var userAgent, username, password string
+	server := httptest.NewServer(http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		userAgent = r.Header.Get("User-Agent")
+		username, password, _ = r.BasicAuth()
+		_, _ = w.Write([]byte(searchIndexYamlForTests))
+	}))
+	defer server.Close()
+	chartRepository := newTestChartRepository(t, server.URL)
+	chartRepository.Config.Username = "user"
+	chartRepository.Config.Password = "secret"
+	if result := updateRepository(chartRepository, 0); result.err != nil {
+		t.Fatalf("Expected index to be downloaded, got %s", result.err)
+	}
+	if !strings.HasPrefix(userAgent, "Helm/") {
+		t.Errorf("Expected Helm User-Agent, got %s", userAgent)
+	}
+	if username != "user" || password != "secret" {
+		t.Errorf("Expected repository credentials, got %s:%s", username, password)
+	}
+}
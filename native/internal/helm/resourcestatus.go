@@ -0,0 +1,240 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"fmt"
+
+	"k8s.io/apimachinery/pkg/apis/meta/v1/unstructured"
+)
+
+// Resource statuses (equivalent to the kstatus statuses)
+const (
+	resourceStatusUnknown    = "Unknown"
+	resourceStatusCurrent    = "Current"
+	resourceStatusInProgress = "InProgress"
+	resourceStatusFailed     = "Failed"
+	resourceStatusNotFound   = "NotFound"
+)
+
+// resourceStatus computes the readiness of a resource following the kstatus conventions:
+// the observed generation must be up to date, well-known kinds are evaluated by their status fields and any other
+// kind by its Stalled, Reconciling and Ready conditions (Current if none is present).
+// Jobs are only required to complete if waitForJobs is set.
+func resourceStatus(obj *unstructured.Unstructured, waitForJobs bool) (string, string) {
+	if obj.GetDeletionTimestamp() != nil {
+		return resourceStatusInProgress, "Resource scheduled for deletion"
+	}
+	if observedGeneration, found := nestedInt(obj, "status", "observedGeneration"); found && observedGeneration < obj.GetGeneration() {
+		return resourceStatusInProgress, fmt.Sprintf("%s generation is %d, but latest observed generation is %d",
+			obj.GetKind(), obj.GetGeneration(), observedGeneration)
+	}
+	groupKind := obj.GroupVersionKind().GroupKind()
+	switch groupKind.Group + "/" + groupKind.Kind {
+	case "apps/Deployment":
+		return deploymentStatus(obj)
+	case "apps/StatefulSet":
+		return statefulSetStatus(obj)
+	case "apps/DaemonSet":
+		return daemonSetStatus(obj)
+	case "apps/ReplicaSet":
+		return replicaSetStatus(obj)
+	case "/Pod":
+		return podStatus(obj)
+	case "batch/Job":
+		if !waitForJobs {
+			return resourceStatusCurrent, "Job is not awaited"
+		}
+		return jobStatus(obj)
+	case "/PersistentVolumeClaim":
+		if phase, _, _ := unstructured.NestedString(obj.Object, "status", "phase"); phase != "Bound" {
+			return resourceStatusInProgress, fmt.Sprintf("PVC is not Bound. phase: %s", phase)
+		}
+		return resourceStatusCurrent, "PVC is Bound"
+	case "/Service":
+		return serviceStatus(obj)
+	case "apiextensions.k8s.io/CustomResourceDefinition":
+		return crdStatus(obj)
+	}
+	return conditionsStatus(obj)
+}
+
+func deploymentStatus(obj *unstructured.Unstructured) (string, string) {
+	if _, reason, _, _ := resourceCondition(obj, "Progressing"); reason == "ProgressDeadlineExceeded" {
+		return resourceStatusFailed, "Progress deadline exceeded"
+	}
+	replicas := specReplicas(obj)
+	statusReplicas, _ := nestedInt(obj, "status", "replicas")
+	updated, _ := nestedInt(obj, "status", "updatedReplicas")
+	ready, _ := nestedInt(obj, "status", "readyReplicas")
+	available, _ := nestedInt(obj, "status", "availableReplicas")
+	switch {
+	case updated < replicas:
+		return resourceStatusInProgress, fmt.Sprintf("Updated: %d/%d", updated, replicas)
+	case statusReplicas > updated:
+		return resourceStatusInProgress, fmt.Sprintf("Pending termination: %d", statusReplicas-updated)
+	case available < updated:
+		return resourceStatusInProgress, fmt.Sprintf("Available: %d/%d", available, updated)
+	case ready < replicas:
+		return resourceStatusInProgress, fmt.Sprintf("Ready: %d/%d", ready, replicas)
+	}
+	return resourceStatusCurrent, fmt.Sprintf("Deployment is available. Replicas: %d", statusReplicas)
+}
+
+func statefulSetStatus(obj *unstructured.Unstructured) (string, string) {
+	if strategy, _, _ := unstructured.NestedString(obj.Object, "spec", "updateStrategy", "type"); strategy == "OnDelete" {
+		return resourceStatusCurrent, "StatefulSet is using the OnDelete update strategy"
+	}
+	replicas := specReplicas(obj)
+	ready, _ := nestedInt(obj, "status", "readyReplicas")
+	if ready < replicas {
+		return resourceStatusInProgress, fmt.Sprintf("Ready: %d/%d", ready, replicas)
+	}
+	partition, _ := nestedInt(obj, "spec", "updateStrategy", "rollingUpdate", "partition")
+	updated, _ := nestedInt(obj, "status", "updatedReplicas")
+	if updated < replicas-partition {
+		return resourceStatusInProgress, fmt.Sprintf("Updated: %d/%d", updated, replicas-partition)
+	}
+	currentRevision, _, _ := unstructured.NestedString(obj.Object, "status", "currentRevision")
+	updateRevision, _, _ := unstructured.NestedString(obj.Object, "status", "updateRevision")
+	if partition == 0 && currentRevision != updateRevision {
+		return resourceStatusInProgress, fmt.Sprintf("Waiting for revision %s", updateRevision)
+	}
+	return resourceStatusCurrent, fmt.Sprintf("StatefulSet is ready. Replicas: %d", ready)
+}
+
+func daemonSetStatus(obj *unstructured.Unstructured) (string, string) {
+	desired, _ := nestedInt(obj, "status", "desiredNumberScheduled")
+	updated, _ := nestedInt(obj, "status", "updatedNumberScheduled")
+	available, _ := nestedInt(obj, "status", "numberAvailable")
+	ready, _ := nestedInt(obj, "status", "numberReady")
+	switch {
+	case updated < desired:
+		return resourceStatusInProgress, fmt.Sprintf("Updated: %d/%d", updated, desired)
+	case available < desired:
+		return resourceStatusInProgress, fmt.Sprintf("Available: %d/%d", available, desired)
+	case ready < desired:
+		return resourceStatusInProgress, fmt.Sprintf("Ready: %d/%d", ready, desired)
+	}
+	return resourceStatusCurrent, fmt.Sprintf("DaemonSet is ready. Scheduled: %d", desired)
+}
+
+func replicaSetStatus(obj *unstructured.Unstructured) (string, string) {
+	replicas := specReplicas(obj)
+	ready, _ := nestedInt(obj, "status", "readyReplicas")
+	available, _ := nestedInt(obj, "status", "availableReplicas")
+	switch {
+	case ready < replicas:
+		return resourceStatusInProgress, fmt.Sprintf("Ready: %d/%d", ready, replicas)
+	case available < replicas:
+		return resourceStatusInProgress, fmt.Sprintf("Available: %d/%d", available, replicas)
+	}
+	return resourceStatusCurrent, fmt.Sprintf("ReplicaSet is available. Replicas: %d", replicas)
+}
+
+func podStatus(obj *unstructured.Unstructured) (string, string) {
+	phase, _, _ := unstructured.NestedString(obj.Object, "status", "phase")
+	switch phase {
+	case "Succeeded":
+		return resourceStatusCurrent, "Pod has completed successfully"
+	case "Failed":
+		return resourceStatusFailed, "Pod has failed"
+	}
+	if status, _, _, _ := resourceCondition(obj, "Ready"); status == "True" {
+		return resourceStatusCurrent, "Pod is Ready"
+	}
+	return resourceStatusInProgress, fmt.Sprintf("Pod phase: %s", phase)
+}
+
+func jobStatus(obj *unstructured.Unstructured) (string, string) {
+	if status, _, message, _ := resourceCondition(obj, "Failed"); status == "True" {
+		return resourceStatusFailed, fmt.Sprintf("Job has failed: %s", message)
+	}
+	if status, _, _, _ := resourceCondition(obj, "Complete"); status == "True" {
+		return resourceStatusCurrent, "Job has completed successfully"
+	}
+	succeeded, _ := nestedInt(obj, "status", "succeeded")
+	return resourceStatusInProgress, fmt.Sprintf("Job in progress. Succeeded: %d", succeeded)
+}
+
+func serviceStatus(obj *unstructured.Unstructured) (string, string) {
+	if serviceType, _, _ := unstructured.NestedString(obj.Object, "spec", "type"); serviceType != "LoadBalancer" {
+		return resourceStatusCurrent, "Service is ready"
+	}
+	if ingress, _, _ := unstructured.NestedSlice(obj.Object, "status", "loadBalancer", "ingress"); len(ingress) == 0 {
+		return resourceStatusInProgress, "Waiting for the load balancer ingress"
+	}
+	return resourceStatusCurrent, "Service is ready"
+}
+
+func crdStatus(obj *unstructured.Unstructured) (string, string) {
+	if status, _, message, _ := resourceCondition(obj, "NamesAccepted"); status == "False" {
+		return resourceStatusFailed, message
+	}
+	if status, _, _, _ := resourceCondition(obj, "Established"); status != "True" {
+		return resourceStatusInProgress, "CRD is not established"
+	}
+	return resourceStatusCurrent, "CRD is established"
+}
+
+// conditionsStatus computes the status of any other kind from its (kstatus standard and Ready) conditions
+func conditionsStatus(obj *unstructured.Unstructured) (string, string) {
+	if status, reason, message, _ := resourceCondition(obj, "Stalled"); status == "True" {
+		return resourceStatusFailed, conditionMessage(reason, message)
+	}
+	if status, reason, message, _ := resourceCondition(obj, "Reconciling"); status == "True" {
+		return resourceStatusInProgress, conditionMessage(reason, message)
+	}
+	if status, reason, message, found := resourceCondition(obj, "Ready"); found && status != "True" {
+		return resourceStatusInProgress, conditionMessage(reason, message)
+	}
+	return resourceStatusCurrent, "Resource is current"
+}
+
+func conditionMessage(reason, message string) string {
+	if message == "" {
+		return reason
+	}
+	return message
+}
+
+// resourceCondition returns the status, reason and message of the resource condition with the given type
+func resourceCondition(obj *unstructured.Unstructured, conditionType string) (string, string, string, bool) {
+	conditions, _, _ := unstructured.NestedSlice(obj.Object, "status", "conditions")
+	for _, c := range conditions {
+		condition, ok := c.(map[string]interface{})
+		if !ok || condition["type"] != conditionType {
+			continue
+		}
+		status, _ := condition["status"].(string)
+		reason, _ := condition["reason"].(string)
+		message, _ := condition["message"].(string)
+		return status, reason, message, true
+	}
+	return "", "", "", false
+}
+
+func specReplicas(obj *unstructured.Unstructured) int64 {
+	if replicas, found := nestedInt(obj, "spec", "replicas"); found {
+		return replicas
+	}
+	return 1
+}
+
+func nestedInt(obj *unstructured.Unstructured, fields ...string) (int64, bool) {
+	value, found, err := unstructured.NestedInt64(obj.Object, fields...)
+	return value, found && err == nil
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"testing"
+
+	"k8s.io/apimachinery/pkg/apis/meta/v1/unstructured"
+	"sigs.k8s.io/yaml"
+)
+
+func TestResourceStatus(t *testing.T) {
+	for _, tc := range []struct {
+		name            string
+		manifest        string
+		waitForJobs     bool
+		expectedStatus  string
+		expectedMessage string
+	}{
+		{"outdated generation", `
+apiVersion: apps/v1
+kind: Deployment
+metadata: {generation: 2}
+status: {observedGeneration: 1}`, false, resourceStatusInProgress, "Deployment generation is 2, but latest observed generation is 1"},
+		{"deployment updating", `
+apiVersion: apps/v1
+kind: Deployment
+spec: {replicas: 3}
+status: {replicas: 3, updatedReplicas: 1}`, false, resourceStatusInProgress, "Updated: 1/3"},
+		{"deployment not available", `
+apiVersion: apps/v1
+kind: Deployment
+spec: {replicas: 3}
+status: {replicas: 3, updatedReplicas: 3, readyReplicas: 3, availableReplicas: 2}`, false, resourceStatusInProgress, "Available: 2/3"},
+		{"deployment available", `
+apiVersion: apps/v1
+kind: Deployment
+status: {replicas: 1, updatedReplicas: 1, readyReplicas: 1, availableReplicas: 1}`, false, resourceStatusCurrent, "Deployment is available. Replicas: 1"},
+		{"deployment progress deadline exceeded", `
+apiVersion: apps/v1
+kind: Deployment
+status: {conditions: [{type: Progressing, status: "False", reason: ProgressDeadlineExceeded}]}`, false, resourceStatusFailed, "Progress deadline exceeded"},
+		{"statefulset revision", `
+apiVersion: apps/v1
+kind: StatefulSet
+spec: {replicas: 2}
+status: {readyReplicas: 2, updatedReplicas: 2, currentRevision: a, updateRevision: b}`, false, resourceStatusInProgress, "Waiting for revision b"},
+		{"daemonset not ready", `
+apiVersion: apps/v1
+kind: DaemonSet
+status: {desiredNumberScheduled: 2, updatedNumberScheduled: 2, numberAvailable: 2, numberReady: 1}`, false, resourceStatusInProgress, "Ready: 1/2"},
+		{"pod ready", `
+apiVersion: v1
+kind: Pod
+status: {phase: Running, conditions: [{type: Ready, status: "True"}]}`, false, resourceStatusCurrent, "Pod is Ready"},
+		{"pod pending", `
+apiVersion: v1
+kind: Pod
+status: {phase: Pending}`, false, resourceStatusInProgress, "Pod phase: Pending"},
+		{"job not awaited", `
+apiVersion: batch/v1
+kind: Job`, false, resourceStatusCurrent, "Job is not awaited"},
+		{"job in progress", `
+apiVersion: batch/v1
+kind: Job
+status: {succeeded: 0}`, true, resourceStatusInProgress, "Job in progress. Succeeded: 0"},
+		{"job failed", `
+apiVersion: batch/v1
+kind: Job
+status: {conditions: [{type: Failed, status: "True", message: BackoffLimitExceeded}]}`, true, resourceStatusFailed, "Job has failed: BackoffLimitExceeded"},
+		{"pvc pending", `
+apiVersion: v1
+kind: PersistentVolumeClaim
+status: {phase: Pending}`, false, resourceStatusInProgress, "PVC is not Bound. phase: Pending"},
+		{"load balancer without ingress", `
+apiVersion: v1
+kind: Service
+spec: {type: LoadBalancer}`, false, resourceStatusInProgress, "Waiting for the load balancer ingress"},
+		{"cluster ip service", `
+apiVersion: v1
+kind: Service
+spec: {type: ClusterIP}`, false, resourceStatusCurrent, "Service is ready"},
+		{"crd not established", `
+apiVersion: apiextensions.k8s.io/v1
+kind: CustomResourceDefinition`, false, resourceStatusInProgress, "CRD is not established"},
+		{"custom resource not ready", `
+apiVersion: example.com/v1
+kind: Widget
+status: {conditions: [{type: Ready, status: "False", reason: Provisioning}]}`, false, resourceStatusInProgress, "Provisioning"},
+		{"custom resource stalled", `
+apiVersion: example.com/v1
+kind: Widget
+status: {conditions: [{type: Stalled, status: "True", message: Invalid spec}]}`, false, resourceStatusFailed, "Invalid spec"},
+		{"custom resource without conditions", `
+apiVersion: example.com/v1
+kind: Widget`, false, resourceStatusCurrent, "Resource is current"},
+	} {
+		t.Run(tc.name, func(t *testing.T) {
+			manifest, _ := yaml.YAMLToJSON([]byte(tc.manifest))
+			obj := &unstructured.Unstructured{}
+			if err := obj.UnmarshalJSON(manifest); err != nil {
+				t.Fatalf("Invalid manifest: %s", err)
+			}
+			status, message := resourceStatus(obj, tc.waitForJobs)
+			if status != tc.expectedStatus || message != tc.expectedMessage {
+				t.Errorf("Expected %s (%s), got %s (%s)", tc.expectedStatus, tc.expectedMessage, status, message)
+			}
+		})
+	}
+}
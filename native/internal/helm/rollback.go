@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"context"
+	"crypto/sha256"
+	"encoding/hex"
+	"fmt"
+	"os"
+	"strconv"
+	"sync"
+	"time"
+
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/release"
+	"helm.sh/helm/v3/pkg/storage/driver"
+	metav1 "k8s.io/apimachinery/pkg/apis/meta/v1"
+	"k8s.io/apimachinery/pkg/labels"
+	"k8s.io/apimachinery/pkg/runtime/schema"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
+	"k8s.io/client-go/metadata"
+	"k8s.io/client-go/tools/clientcmd"
+)
+
+type RollbackOptions struct {
+	ReleaseName string
+	// Revision to roll back to, the previous revision if 0
+	Revision           int
+	Namespace          string
+	Wait               bool
+	WaitForJobs        bool
+	Timeout            time.Duration
+	CleanupOnFail      bool
+	Force              bool
+	NoHooks            bool
+	MaxHistory         int
+	DryRun             bool
+	KubeConfig         string
+	KubeConfigContents string
+	Debug              bool
+	// WaitStrategy is the readiness waiter used if Wait is set (legacy polling or watcher)
+	WaitStrategy string
+	// WaitProgress is invoked (never concurrently) with each resource status change (watcher strategy only)
+	WaitProgress func(event string) error
+}
+
+func Rollback(options *RollbackOptions) (string, error) {
+	cfgOptions := &CfgOptions{
+		KubeConfig:         options.KubeConfig,
+		KubeConfigContents: options.KubeConfigContents,
+		Namespace:          options.Namespace,
+	}
+	restClientGetter, err := sessionRestClientGetter(cfgOptions)
+	if err != nil {
+		return "", err
+	}
+	cfgOptions.RestClientGetter = restClientGetter
+	kubeOut := bytes.NewBuffer(make([]byte, 0))
+	if options.Debug {
+		cfgOptions.KubeOut = kubeOut
+	}
+	cfg, err := NewCfg(cfgOptions)
+	if err != nil {
+		return "", err
+	}
+	if err := applyWaitStrategy(cfg, options.WaitStrategy, options.WaitProgress); err != nil {
+		return "", err
+	}
+	if err := useRevisionIndex(cfg, restClientGetter, options.Namespace); err != nil {
+		return "", err
+	}
+	client := action.NewRollback(cfg)
+	client.Version = options.Revision
+	client.Wait = options.Wait
+	client.WaitForJobs = options.WaitForJobs
+	client.Timeout = options.Timeout
+	client.CleanupOnFail = options.CleanupOnFail
+	client.Force = options.Force
+	client.DisableHooks = options.NoHooks
+	client.MaxHistory = options.MaxHistory
+	client.DryRun = options.DryRun
+	if err := client.Run(options.ReleaseName); err != nil {
+		return appendToOutOrErr(kubeOut, "", err)
+	}
+	rel, err := cfg.Releases.Last(options.ReleaseName)
+	return appendToOutOrErr(kubeOut, StatusReport(rel, false, options.Debug), err)
+}
+
+const (
+	maxSessionRestClientGetters = 16
+	// sessionRestClientGetterTTL is the time an unused getter (and the credentials it holds) is kept
+	sessionRestClientGetterTTL = 10 * time.Minute
+)
+
+type sessionRestClientGetterEntry struct {
+	restClientGetter genericclioptions.RESTClientGetter
+	lastUsed         time.Time
+}
+
+var (
+	sessionRestClientGettersMutex sync.Mutex
+	sessionRestClientGetters      = make(map[string]*sessionRestClientGetterEntry)
+)
+
+// sessionRestClientGetter returns a Kubernetes client getter shared by the commands of this process (session)
+// targeting the same kubeconfig and namespace, its discovery information, REST mappings and connections are reused.
+// Getters unused for sessionRestClientGetterTTL are discarded, as are the least recently used ones beyond
+// maxSessionRestClientGetters.
+func sessionRestClientGetter(options *CfgOptions) (genericclioptions.RESTClientGetter, error) {
+	key := sessionRestClientGetterKey(options)
+	now := time.Now()
+	sessionRestClientGettersMutex.Lock()
+	defer sessionRestClientGettersMutex.Unlock()
+	for k, entry := range sessionRestClientGetters {
+		if now.Sub(entry.lastUsed) > sessionRestClientGetterTTL {
+			delete(sessionRestClientGetters, k)
+		}
+	}
+	if entry, ok := sessionRestClientGetters[key]; ok {
+		entry.lastUsed = now
+		return entry.restClientGetter, nil
+	}
+	restClientGetter, err := newRestClientGetter(options)
+	if err != nil {
+		return nil, err
+	}
+	for len(sessionRestClientGetters) >= maxSessionRestClientGetters {
+		leastRecentlyUsed := ""
+		for k, entry := range sessionRestClientGetters {
+			if leastRecentlyUsed == "" || entry.lastUsed.Before(sessionRestClientGetters[leastRecentlyUsed].lastUsed) {
+				leastRecentlyUsed = k
+			}
+		}
+		delete(sessionRestClientGetters, leastRecentlyUsed)
+	}
+	sessionRestClientGetters[key] = &sessionRestClientGetterEntry{restClientGetter: restClientGetter, lastUsed: now}
+	return restClientGetter, nil
+}
+
+// sessionRestClientGetterKey identifies the getter by its options and the state of the kubeconfig files,
+// a modified kubeconfig file (the provided one or any of the default loading precedence) requires a new getter
+func sessionRestClientGetterKey(options *CfgOptions) string {
+	digest := sha256.New()
+	_, _ = fmt.Fprintf(digest, "%s\n%s\n%s\n", options.KubeConfig, os.Getenv("KUBECONFIG"), options.Namespace)
+	kubeConfigFiles := []string{options.KubeConfig}
+	if options.KubeConfig == "" {
+		kubeConfigFiles = clientcmd.NewDefaultClientConfigLoadingRules().GetLoadingPrecedence()
+	}
+	for _, kubeConfigFile := range kubeConfigFiles {
+		if info, err := os.Stat(kubeConfigFile); err == nil {
+			_, _ = fmt.Fprintf(digest, "%s:%d:%d\n", kubeConfigFile, info.Size(), info.ModTime().UnixNano())
+		} else {
+			_, _ = fmt.Fprintf(digest, "%s:-\n", kubeConfigFile)
+		}
+	}
+	_, _ = digest.Write([]byte(options.KubeConfigContents))
+	return hex.EncodeToString(digest.Sum(nil))
+}
+
+// useRevisionIndex replaces the Kubernetes release storage driver with a revisionIndexDriver
+func useRevisionIndex(cfg *action.Configuration, restClientGetter genericclioptions.RESTClientGetter, namespace string) error {
+	var resource string
+	switch cfg.Releases.Driver.Name() {
+	case driver.SecretsDriverName:
+		resource = "secrets"
+	case driver.ConfigMapsDriverName:
+		resource = "configmaps"
+	default:
+		// Other drivers (memory, SQL) are queried as usual
+		return nil
+	}
+	restConfig, err := restClientGetter.ToRESTConfig()
+	if err != nil {
+		return err
+	}
+	metadataClient, err := metadata.NewForConfig(restConfig)
+	if err != nil {
+		return err
+	}
+	gvr := schema.GroupVersionResource{Version: "v1", Resource: resource}
+	cfg.Releases.Driver = &revisionIndexDriver{
+		Driver:         cfg.Releases.Driver,
+		metadataClient: metadataClient.Resource(gvr).Namespace(resolveNamespace(restClientGetter, namespace)),
+	}
+	return nil
+}
+
+// revisionIndexDriver is a release storage driver that resolves the release history from the storage object labels
+// (metadata-only list) instead of fetching and decoding every revision.
+// Only the last revision is fetched and decoded, the rest are returned as stubs with the name, namespace, version, and
+// status, which is what Helm needs to find the last and target revisions of a rollback or to prune the history.
+// Any other query is delegated to the wrapped driver.
+type revisionIndexDriver struct {
+	driver.Driver
+	metadataClient metadata.ResourceInterface
+}
+
+func (d *revisionIndexDriver) Query(query map[string]string) ([]*release.Release, error) {
+	if len(query) != 2 || query["name"] == "" || query["owner"] != "helm" {
+		return d.Driver.Query(query)
+	}
+	list, err := d.metadataClient.List(context.Background(), metav1.ListOptions{
+		LabelSelector: labels.Set(query).String(),
+	})
+	if err != nil {
+		return nil, err
+	}
+	var revisions []*release.Release
+	lastKey := ""
+	last := -1
+	for _, item := range list.Items {
+		version, err := strconv.Atoi(item.Labels["version"])
+		if err != nil {
+			continue
+		}
+		revisions = append(revisions, &release.Release{
+			Name:      item.Labels["name"],
+			Namespace: item.Namespace,
+			Version:   version,
+			Info:      &release.Info{Status: release.Status(item.Labels["status"])},
+		})
+		if last == -1 || version > revisions[last].Version {
+			last = len(revisions) - 1
+			lastKey = item.Name
+		}
+	}
+	if len(revisions) == 0 {
+		return nil, driver.ErrReleaseNotFound
+	}
+	lastRevision, err := d.Driver.Get(lastKey)
+	if err != nil {
+		return nil, err
+	}
+	revisions[last] = lastRevision
+	return revisions, nil
+}
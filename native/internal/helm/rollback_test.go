@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"os"
+	"path/filepath"
+	"strconv"
+	"testing"
+	"time"
+)
+
+func resetSessionRestClientGetters() {
+	sessionRestClientGettersMutex.Lock()
+	defer sessionRestClientGettersMutex.Unlock()
+	sessionRestClientGetters = make(map[string]*sessionRestClientGetterEntry)
+}
+
+func TestSessionRestClientGetterReusedUntilKubeConfigChanges(t *testing.T) {
+	resetSessionRestClientGetters()
+	defer resetSessionRestClientGetters()
+	kubeConfig := filepath.Join(t.TempDir(), "config")
+	if err := os.WriteFile(kubeConfig, []byte("apiVersion: v1\nkind: Config\n"), 0600); err != nil {
+		t.Fatal(err)
+	}
+	// Kubeconfig resolved from the default loading precedence
+	t.Setenv("KUBECONFIG", kubeConfig)
+	first, _ := sessionRestClientGetter(&CfgOptions{})
+	second, _ := sessionRestClientGetter(&CfgOptions{})
+	if first != second {
+		t.Error("Expected getter to be reused for an unchanged kubeconfig")
+	}
+	modified := time.Now().Add(time.Minute)
+	if err := os.Chtimes(kubeConfig, modified, modified); err != nil {
+		t.Fatal(err)
+	}
+	if third, _ := sessionRestClientGetter(&CfgOptions{}); third == first {
+		t.Error("Expected a new getter for a modified kubeconfig")
+	}
+}
+
+func TestSessionRestClientGetterBounded(t *testing.T) {
+	resetSessionRestClientGetters()
+	defer resetSessionRestClientGetters()
+	first, _ := sessionRestClientGetter(&CfgOptions{Namespace: "namespace-0"})
+	sessionRestClientGettersMutex.Lock()
+	for _, entry := range sessionRestClientGetters {
+		entry.lastUsed = time.Now().Add(-time.Minute)
+	}
+	sessionRestClientGettersMutex.Unlock()
+	for i := 1; i <= maxSessionRestClientGetters; i++ {
+		_, _ = sessionRestClientGetter(&CfgOptions{Namespace: "namespace-" + strconv.Itoa(i)})
+	}
+	sessionRestClientGettersMutex.Lock()
+	size := len(sessionRestClientGetters)
+	sessionRestClientGettersMutex.Unlock()
+	if size != maxSessionRestClientGetters {
+		t.Errorf("Expected %d getters to be kept, got %d", maxSessionRestClientGetters, size)
+	}
+	if again, _ := sessionRestClientGetter(&CfgOptions{Namespace: "namespace-0"}); again == first {
+		t.Error("Expected least recently used getter to be discarded")
+	}
+}
+
+func TestSessionRestClientGetterExpires(t *testing.T) {
+	resetSessionRestClientGetters()
+	defer resetSessionRestClientGetters()
+	first, _ := sessionRestClientGetter(&CfgOptions{Namespace: "expires"})
+	sessionRestClientGettersMutex.Lock()
+	for _, entry := range sessionRestClientGetters {
+		entry.lastUsed = time.Now().Add(-sessionRestClientGetterTTL - time.Second)
+	}
+	sessionRestClientGettersMutex.Unlock()
+	if second, _ := sessionRestClientGetter(&CfgOptions{Namespace: "expires"}); second == first {
+		t.Error("Expected expired getter to be discarded")
+	}
+}
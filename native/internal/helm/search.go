@@ -21,13 +21,10 @@ import (
 	"fmt"
 	"github.com/Masterminds/semver/v3"
 	"github.com/pkg/errors"
-	"helm.sh/helm/v3/cmd/helm/search"
-	"helm.sh/helm/v3/pkg/helmpath"
 	"helm.sh/helm/v3/pkg/repo"
 	"net/url"
-	"path/filepath"
+	"regexp"
 	"strconv"
-	"strings"
 )
 
 type SearchOptions struct {
@@ -36,6 +33,8 @@ type SearchOptions struct {
 	Regexp           bool
 	Devel            bool
 	Version          string
+	// MaxResults limits the number of (sorted) results returned, unlimited if <= 0
+	MaxResults int
 }
 
 // https://github.com/helm/helm/blob/0e72b64797da47c33537d0a8519c9c2e9e6c9362/cmd/helm/search_repo.go#L63
@@ -60,41 +59,47 @@ func SearchRepo(options *SearchOptions) (string, error) {
 	if err != nil {
 		return "", err
 	}
-	searchIndex := search.NewIndex()
+	repoNames := make([]string, 0, len(repositoriesYaml.Repositories))
 	for _, repository := range repositoriesYaml.Repositories {
-		name := repository.Name
-		indexPath := filepath.Join(helmpath.CachePath("repository"), helmpath.CacheIndexFile(name))
-		index, err := repo.LoadIndexFile(indexPath)
-		if err != nil {
-			// TODO: see how to propagate warnings to the Java implementation
-			continue
-		}
-		searchIndex.AddRepo(name, index, true)
+		repoNames = append(repoNames, repository.Name)
 	}
-	var searchResults []*search.Result
-	if len(options.Keyword) == 0 {
-		searchResults = searchIndex.All()
-	} else {
-		searchResults, err = searchIndex.Search(options.Keyword, searchMaxScore, options.Regexp)
+	var matcher *regexp.Regexp
+	if options.Regexp && len(options.Keyword) > 0 {
+		if matcher, err = regexp.Compile(options.Keyword); err != nil {
+			return "", err
+		}
 	}
-	search.SortScore(searchResults)
 	constraint, err := semver.NewConstraint(options.Version)
 	if err != nil {
 		return "", errors.Wrap(err, "an invalid version/constraint format")
 	}
+	// Indexes are kept across calls and only rebuilt when the repository index files change
+	var searchResults []searchMatch
+	for _, index := range loadSearchIndexes(repoNames) {
+		if index == nil {
+			// TODO: see how to propagate warnings to the Java implementation
+			continue
+		}
+		for _, match := range index.search(options.Keyword, options.Regexp, matcher) {
+			if match.score < searchMaxScore && match.entry.semver != nil && constraint.Check(match.entry.semver) {
+				searchResults = append(searchResults, match)
+			}
+		}
+	}
+	sortSearchMatches(searchResults)
+	if options.MaxResults > 0 && len(searchResults) > options.MaxResults {
+		searchResults = searchResults[:options.MaxResults]
+	}
 	out := bytes.NewBuffer(make([]byte, 0))
 	for _, searchResult := range searchResults {
-		v, err := semver.NewVersion(searchResult.Chart.Version)
-		if err == nil && constraint.Check(v) {
-			values := make(url.Values)
-			values.Set("name", searchResult.Name)
-			values.Set("score", strconv.Itoa(searchResult.Score))
-			values.Set("chartVersion", searchResult.Chart.Version)
-			values.Set("appVersion", searchResult.Chart.AppVersion)
-			values.Set("description", searchResult.Chart.Description)
-			values.Set("keywords", strings.Join(searchResult.Chart.Metadata.Keywords, ","))
-			_, _ = fmt.Fprintln(out, values.Encode())
-		}
+		values := make(url.Values)
+		values.Set("name", searchResult.name)
+		values.Set("score", strconv.Itoa(searchResult.score))
+		values.Set("chartVersion", searchResult.entry.version)
+		values.Set("appVersion", searchResult.entry.appVersion)
+		values.Set("description", searchResult.entry.description)
+		values.Set("keywords", searchResult.entry.keywords)
+		_, _ = fmt.Fprintln(out, values.Encode())
 	}
 	return out.String(), nil
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"os"
+	"path"
+	"path/filepath"
+	"regexp"
+	"sort"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/Masterminds/semver/v3"
+	"helm.sh/helm/v3/pkg/helmpath"
+	"helm.sh/helm/v3/pkg/repo"
+)
+
+// searchSeparator separates the fields of a searchable line (same as helm's search package)
+const searchSeparator = "\v"
+
+// searchEntry is a chart version with the fields required to search and report it
+type searchEntry struct {
+	// name is the repository qualified chart name (repo/chart)
+	name string
+	// line is the lowercase "chart\vrepo/chart\vdescription\vkeywords" matched by the search terms
+	line string
+	// regexpLine is line in its original case, regular expressions are case-sensitive (same as helm's search package)
+	regexpLine  string
+	version     string
+	semver      *semver.Version
+	appVersion  string
+	description string
+	keywords    string
+}
+
+// repoSearchIndex is the search index for a single repository, valid while its index file remains unchanged
+type repoSearchIndex struct {
+	modTime time.Time
+	size    int64
+	entries []*searchEntry
+	// trigrams is an inverted index from each 3-byte sequence to the (sorted) positions of the entries containing it
+	trigrams map[uint32][]int32
+}
+
+type searchMatch struct {
+	entry *searchEntry
+	name  string
+	score int
+}
+
+// searchIndexes holds the repository search indexes across calls, keyed by repository index file path
+var searchIndexes = struct {
+	sync.Mutex
+	repos map[string]*repoSearchIndex
+}{repos: map[string]*repoSearchIndex{}}
+
+func searchIndexPath(repoName string) string {
+	return filepath.Join(helmpath.CachePath("repository"), helmpath.CacheIndexFile(repoName))
+}
+
+// invalidateSearchIndex discards the cached search index (and index view) of the provided repositories
+func invalidateSearchIndex(repoNames ...string) {
+	searchIndexes.Lock()
+	defer searchIndexes.Unlock()
+	repoIndexViews.Lock()
+	defer repoIndexViews.Unlock()
+	for _, repoName := range repoNames {
+		delete(searchIndexes.repos, searchIndexPath(repoName))
+		delete(repoIndexViews.repos, searchIndexPath(repoName))
+	}
+}
+
+// loadSearchIndexes returns the search index for each of the repositories (in the same order).
+// Indexes are only rebuilt (concurrently) for the repositories whose index file changed since they were built.
+// Repositories whose index can't be loaded are omitted (nil).
+func loadSearchIndexes(repoNames []string) []*repoSearchIndex {
+	indexes := make([]*repoSearchIndex, len(repoNames))
+	var wg sync.WaitGroup
+	for i, repoName := range repoNames {
+		indexPath := searchIndexPath(repoName)
+		info, err := os.Stat(indexPath)
+		if err != nil {
+			continue
+		}
+		searchIndexes.Lock()
+		cached := searchIndexes.repos[indexPath]
+		searchIndexes.Unlock()
+		if cached != nil && cached.modTime.Equal(info.ModTime()) && cached.size == info.Size() {
+			indexes[i] = cached
+			continue
+		}
+		wg.Add(1)
+		go func(i int, repoName, indexPath string, info os.FileInfo) {
+			defer wg.Done()
+			index, err := newRepoSearchIndex(repoName, indexPath)
+			if err != nil {
+				return
+			}
+			index.modTime = info.ModTime()
+			index.size = info.Size()
+			searchIndexes.Lock()
+			searchIndexes.repos[indexPath] = index
+			searchIndexes.Unlock()
+			indexes[i] = index
+		}(i, repoName, indexPath, info)
+	}
+	wg.Wait()
+	return indexes
+}
+
+func newRepoSearchIndex(repoName, indexPath string) (*repoSearchIndex, error) {
+	index := &repoSearchIndex{trigrams: map[uint32][]int32{}}
+	// Chart versions are unique per name and version (later occurrences replace earlier ones)
+	positions := map[string]int{}
+	add := func(chartName, version, appVersion, description string, keywords []string) {
+		name := path.Join(repoName, chartName)
+		regexpLine := chartName + searchSeparator +
+			repoName + "/" + chartName + searchSeparator +
+			description + searchSeparator +
+			strings.Join(keywords, " ")
+		entry := &searchEntry{
+			name:        name,
+			line:        strings.ToLower(regexpLine),
+			regexpLine:  regexpLine,
+			version:     version,
+			appVersion:  appVersion,
+			description: description,
+			keywords:    strings.Join(keywords, ","),
+		}
+		entry.semver, _ = semver.NewVersion(version)
+		if position, found := positions[name+searchSeparator+version]; found {
+			index.entries[position] = entry
+			return
+		}
+		positions[name+searchSeparator+version] = len(index.entries)
+		index.entries = append(index.entries, entry)
+	}
+	if binary, err := openBinaryIndex(indexPath); err == nil {
+		for record := 0; record < binary.count; record++ {
+			add(binary.field(record, binaryIndexFieldName),
+				binary.field(record, binaryIndexFieldVersion),
+				binary.field(record, binaryIndexFieldAppVersion),
+				binary.field(record, binaryIndexFieldDescription),
+				binary.list(record, binaryIndexFieldKeywords))
+		}
+		_ = binary.Close()
+	} else {
+		indexFile, err := repo.LoadIndexFile(indexPath)
+		if err != nil {
+			return nil, err
+		}
+		for _, chartVersions := range indexFile.Entries {
+			for _, chartVersion := range chartVersions {
+				add(chartVersion.Name, chartVersion.Version, chartVersion.AppVersion, chartVersion.Description, chartVersion.Keywords)
+			}
+		}
+	}
+	for position, entry := range index.entries {
+		for _, trigram := range trigramsOf(entry.line) {
+			index.trigrams[trigram] = append(index.trigrams[trigram], int32(position))
+		}
+	}
+	return index, nil
+}
+
+// trigramsOf returns the distinct 3-byte sequences of s
+func trigramsOf(s string) []uint32 {
+	if len(s) < 3 {
+		return nil
+	}
+	seen := make(map[uint32]struct{}, len(s))
+	trigrams := make([]uint32, 0, len(s))
+	for i := 0; i+3 <= len(s); i++ {
+		trigram := uint32(s[i])<<16 | uint32(s[i+1])<<8 | uint32(s[i+2])
+		if _, found := seen[trigram]; !found {
+			seen[trigram] = struct{}{}
+			trigrams = append(trigrams, trigram)
+		}
+	}
+	return trigrams
+}
+
+// candidates returns the positions of the entries that might contain the (lowercase) term, nil if all entries might
+func (index *repoSearchIndex) candidates(term string) []int32 {
+	trigrams := trigramsOf(term)
+	if len(trigrams) == 0 {
+		return nil
+	}
+	postings := make([][]int32, 0, len(trigrams))
+	for _, trigram := range trigrams {
+		posting, found := index.trigrams[trigram]
+		if !found {
+			return []int32{}
+		}
+		postings = append(postings, posting)
+	}
+	sort.Slice(postings, func(i, j int) bool { return len(postings[i]) < len(postings[j]) })
+	result := postings[0]
+	for _, posting := range postings[1:] {
+		result = intersectSorted(result, posting)
+		if len(result) == 0 {
+			break
+		}
+	}
+	return result
+}
+
+func intersectSorted(a, b []int32) []int32 {
+	result := make([]int32, 0, len(a))
+	for i, j := 0, 0; i < len(a) && j < len(b); {
+		switch {
+		case a[i] < b[j]:
+			i++
+		case a[i] > b[j]:
+			j++
+		default:
+			result = append(result, a[i])
+			i++
+			j++
+		}
+	}
+	return result
+}
+
+// search returns the entries matching the keyword with the same semantics as helm's search.Index
+func (index *repoSearchIndex) search(keyword string, useRegexp bool, matcher *regexp.Regexp) []searchMatch {
+	var matches []searchMatch
+	if keyword == "" {
+		for _, entry := range index.entries {
+			matches = append(matches, searchMatch{entry: entry, name: entry.name})
+		}
+		return matches
+	}
+	if useRegexp {
+		for _, entry := range index.entries {
+			if location := matcher.FindStringIndex(entry.regexpLine); location != nil {
+				matches = append(matches, searchMatch{entry: entry, name: entry.name, score: searchScore(location[0], entry.regexpLine)})
+			}
+		}
+		return matches
+	}
+	term := strings.ToLower(keyword)
+	match := func(entry *searchEntry) {
+		if location := strings.Index(entry.line, term); location >= 0 {
+			matches = append(matches, searchMatch{entry: entry, name: strings.ToLower(entry.name), score: searchScore(location, entry.line)})
+		}
+	}
+	if candidates := index.candidates(term); candidates != nil {
+		for _, position := range candidates {
+			match(index.entries[position])
+		}
+	} else {
+		for _, entry := range index.entries {
+			match(entry)
+		}
+	}
+	return matches
+}
+
+// searchScore is the number of fields preceding the match (lower is better)
+func searchScore(location int, line string) int {
+	return strings.Count(line[:location], searchSeparator)
+}
+
+// sortSearchMatches replicates helm's search.SortScore (score, name, and newest version first)
+func sortSearchMatches(matches []searchMatch) {
+	sort.SliceStable(matches, func(i, j int) bool {
+		first, second := matches[i], matches[j]
+		if first.score != second.score {
+			return first.score < second.score
+		}
+		if first.name == second.name {
+			if first.entry.semver == nil || second.entry.semver == nil {
+				return true
+			}
+			return first.entry.semver.GreaterThan(second.entry.semver)
+		}
+		return first.name < second.name
+	})
+}
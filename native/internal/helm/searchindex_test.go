@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"os"
+	"path/filepath"
+	"regexp"
+	"testing"
+)
+
+const searchIndexYamlForTests = `apiVersion: v1
+entries:
+  nginx:
+  - name: nginx
+    version: 1.0.0
+    appVersion: 1.25.0
+    description: A web server
+    keywords: [http, proxy]
+  - name: nginx
+    version: 1.1.0-rc.1
+    description: A web server
+  - name: nginx
+    version: 1.1.0
+    description: A web server
+  proxy-tools:
+  - name: proxy-tools
+    version: 0.1.0
+    description: Tools to configure an NGINX reverse proxy
+`
+
+func newTestRepoSearchIndex(t *testing.T) *repoSearchIndex {
+	indexPath := filepath.Join(t.TempDir(), "repo-index.yaml")
+	if err := os.WriteFile(indexPath, []byte(searchIndexYamlForTests), 0644); err != nil {
+		t.Fatal(err)
+	}
+	index, err := newRepoSearchIndex("repo", indexPath)
+	if err != nil {
+		t.Fatalf("Expected index to be built, got %s", err)
+	}
+	return index
+}
+
+func TestRepoSearchIndexLiteral(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	matches := index.search("NGINX", false, nil)
+	sortSearchMatches(matches)
+	if len(matches) != 4 {
+		t.Fatalf("Expected 4 matches, got %d", len(matches))
+	}
+	if matches[0].name != "repo/nginx" || matches[0].score != 0 || matches[0].entry.version != "1.1.0" {
+		t.Errorf("Expected newest nginx version with score 0 first, got %s %s (%d)", matches[0].name, matches[0].entry.version, matches[0].score)
+	}
+	last := matches[len(matches)-1]
+	if last.name != "repo/proxy-tools" || last.score != 2 {
+		t.Errorf("Expected description match with score 2 last, got %s (%d)", last.name, last.score)
+	}
+}
+
+func TestRepoSearchIndexShortTerm(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	if matches := index.search("ng", false, nil); len(matches) != 4 {
+		t.Errorf("Expected 4 matches for a term shorter than a trigram, got %d", len(matches))
+	}
+}
+
+func TestRepoSearchIndexNoMatch(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	if matches := index.search("postgres", false, nil); len(matches) != 0 {
+		t.Errorf("Expected no matches, got %d", len(matches))
+	}
+}
+
+func TestRepoSearchIndexKeywords(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	matches := index.search("http", false, nil)
+	if len(matches) != 1 || matches[0].score != 3 || matches[0].entry.keywords != "http,proxy" {
+		t.Errorf("Expected single keyword match with score 3, got %v", matches)
+	}
+}
+
+func TestRepoSearchIndexRegexp(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	matches := index.search("^proxy", true, regexp.MustCompile("^proxy"))
+	if len(matches) != 1 || matches[0].name != "repo/proxy-tools" || matches[0].score != 0 {
+		t.Errorf("Expected single regexp match, got %v", matches)
+	}
+}
+
+func TestRepoSearchIndexRegexpIsCaseSensitive(t *testing.T) {
+	index := newTestRepoSearchIndex(t)
+	if matches := index.search("an NGINX", true, regexp.MustCompile("an NGINX")); len(matches) != 1 || matches[0].name != "repo/proxy-tools" {
+		t.Errorf("Expected single regexp match in original case, got %v", matches)
+	}
+	if matches := index.search("an nginx", true, regexp.MustCompile("an nginx")); len(matches) != 0 {
+		t.Errorf("Expected no regexp match in lowercase, got %v", matches)
+	}
+}
@@ -17,9 +17,14 @@
 package helm
 
 import (
+	"bytes"
 	"fmt"
 	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/chartutil"
 	"helm.sh/helm/v3/pkg/cli"
+	"sigs.k8s.io/yaml"
+	"slices"
 	"strings"
 )
 
@@ -34,6 +39,8 @@ type ShowOptions struct {
 	Insecure     bool
 	PlainHttp    bool
 	Debug        bool
+	// In-memory chart archive (.tgz), takes precedence over Path
+	ChartArchive []byte
 }
 
 func Show(options *ShowOptions) (string, error) {
@@ -53,7 +60,14 @@ func Show(options *ShowOptions) (string, error) {
 	if format == "" {
 		return "", fmt.Errorf("invalid output format: %s", options.OutputFormat)
 	}
-	registryClient, _, err := newRegistryClient(
+	if options.ChartArchive != nil {
+		chartRequested, err := loadChartArchive(options.ChartArchive)
+		if err != nil {
+			return "", err
+		}
+		return showChart(chartRequested, format)
+	}
+	registryClient, _, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -61,6 +75,7 @@ func Show(options *ShowOptions) (string, error) {
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
 		return "", err
 	}
@@ -71,9 +86,53 @@ func Show(options *ShowOptions) (string, error) {
 	client := action.NewShowWithConfig(format, cfg)
 	client.SetRegistryClient(registryClient)
 	client.Version = options.Version
-	cp, err := client.ChartPathOptions.LocateChart(options.Path, cli.New())
+	cp, err := locateChart(client.ChartPathOptions, cli.New(), options.Path)
 	if err != nil {
 		return "", err
 	}
 	return client.Run(cp)
 }
+
+var readmeFileNames = []string{"readme.md", "readme.txt", "readme"}
+
+// showChart replicates action.Show.Run for an already loaded chart
+func showChart(chartRequested *chart.Chart, format action.ShowOutputFormat) (string, error) {
+	cf, err := yaml.Marshal(chartRequested.Metadata)
+	if err != nil {
+		return "", err
+	}
+	var out strings.Builder
+	if format == action.ShowChart || format == action.ShowAll {
+		_, _ = fmt.Fprintf(&out, "%s\n", cf)
+	}
+	if (format == action.ShowValues || format == action.ShowAll) && chartRequested.Values != nil {
+		if format == action.ShowAll {
+			_, _ = fmt.Fprintln(&out, "---")
+		}
+		for _, f := range chartRequested.Raw {
+			if f.Name == chartutil.ValuesfileName {
+				_, _ = fmt.Fprintln(&out, string(f.Data))
+			}
+		}
+	}
+	if format == action.ShowReadme || format == action.ShowAll {
+		for _, f := range chartRequested.Files {
+			if f != nil && slices.Contains(readmeFileNames, strings.ToLower(f.Name)) {
+				if format == action.ShowAll {
+					_, _ = fmt.Fprintln(&out, "---")
+				}
+				_, _ = fmt.Fprintf(&out, "%s\n", f.Data)
+				break
+			}
+		}
+	}
+	if format == action.ShowCRDs || format == action.ShowAll {
+		for _, crd := range chartRequested.CRDObjects() {
+			if format == action.ShowAll && !bytes.HasPrefix(crd.File.Data, []byte("---")) {
+				_, _ = fmt.Fprintln(&out, "---")
+			}
+			_, _ = fmt.Fprintf(&out, "%s\n", string(crd.File.Data))
+		}
+	}
+	return out.String(), nil
+}
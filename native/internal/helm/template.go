@@ -20,6 +20,9 @@ import (
 	"bytes"
 	"fmt"
 	"strings"
+	"time"
+
+	"helm.sh/helm/v3/pkg/postrender"
 )
 
 type TemplateOptions struct {
@@ -30,12 +33,16 @@ type TemplateOptions struct {
 	Namespace        string
 	KubeVersion      string
 	DependencyUpdate bool
+	RefreshTtl       time.Duration
 	SkipCRDs         bool
 	Values           string
 	SetFiles         string
 	ValuesFiles      string
 	Debug            bool
 	RepositoryConfig string
+	PostRenderer     postrender.PostRenderer
+	// In-memory chart archive (.tgz), takes precedence over Chart
+	ChartArchive []byte
 }
 
 func Template(options *TemplateOptions) (string, error) {
@@ -55,12 +62,15 @@ func Template(options *TemplateOptions) (string, error) {
 		Namespace:        options.Namespace,
 		KubeVersion:      options.KubeVersion,
 		DependencyUpdate: options.DependencyUpdate,
+		RefreshTtl:       options.RefreshTtl,
 		SkipCRDs:         options.SkipCRDs,
 		Values:           options.Values,
 		SetFiles:         options.SetFiles,
 		ValuesFiles:      options.ValuesFiles,
 		Debug:            options.Debug,
 		RepositoryConfig: options.RepositoryConfig,
+		PostRenderer:     options.PostRenderer,
+		ChartArchive:     options.ChartArchive,
 	})
 
 	if err != nil && !options.Debug {
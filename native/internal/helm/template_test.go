@@ -17,12 +17,61 @@
 package helm
 
 import (
+	"bytes"
+	"errors"
+	"helm.sh/helm/v3/pkg/chart/loader"
 	"helm.sh/helm/v3/pkg/chartutil"
 	"os"
 	"strings"
 	"testing"
 )
 
+func TestTemplateFromArchive(t *testing.T) {
+	create, _ := Create(&CreateOptions{
+		Name: "chart-for-archive-template-tests",
+		Dir:  t.TempDir(),
+	})
+	chartRequested, _ := loader.Load(create)
+	archivePath, _ := chartutil.Save(chartRequested, t.TempDir())
+	archive, _ := os.ReadFile(archivePath)
+	t.Run("with defaults", func(t *testing.T) {
+		manifests, err := Template(&TemplateOptions{
+			ChartArchive: archive,
+		})
+		if err != nil {
+			t.Errorf("Expected template to succeed, got %s", err)
+			return
+		}
+		if !strings.Contains(manifests, "name: release-name-chart-for-archive-template-tests") {
+			t.Errorf("Expected template to include provided name, got %s", manifests)
+			return
+		}
+	})
+	t.Run("with invalid archive", func(t *testing.T) {
+		_, err := Template(&TemplateOptions{
+			ChartArchive: []byte("not-a-chart-archive"),
+		})
+		if err == nil || !strings.Contains(err.Error(), "unable to load chart archive") {
+			t.Errorf("Expected template to fail with invalid archive, got %v", err)
+			return
+		}
+	})
+	t.Run("show chart", func(t *testing.T) {
+		out, err := Show(&ShowOptions{
+			OutputFormat: "chart",
+			ChartArchive: archive,
+		})
+		if err != nil {
+			t.Errorf("Expected show to succeed, got %s", err)
+			return
+		}
+		if !strings.Contains(out, "name: chart-for-archive-template-tests") {
+			t.Errorf("Expected show to include chart name, got %s", out)
+			return
+		}
+	})
+}
+
 func TestTemplateFromLocal(t *testing.T) {
 	create, _ := Create(&CreateOptions{
 		Name: "chart-for-template-tests",
@@ -86,6 +135,40 @@ func TestTemplateFromLocal(t *testing.T) {
 			return
 		}
 	})
+	t.Run("with post renderer", func(t *testing.T) {
+		manifests, err := Template(&TemplateOptions{
+			Chart: create,
+			PostRenderer: postRendererFunc(func(renderedManifests *bytes.Buffer) (*bytes.Buffer, error) {
+				return bytes.NewBufferString(strings.ReplaceAll(renderedManifests.String(), "release-name", "post-rendered")), nil
+			}),
+		})
+		if err != nil {
+			t.Errorf("Expected template to succeed, got %s", err)
+			return
+		}
+		if !strings.Contains(manifests, "name: post-rendered-chart-for-template-tests") {
+			t.Errorf("Expected template to include post-rendered name, got %s", manifests)
+			return
+		}
+	})
+	t.Run("with failing post renderer", func(t *testing.T) {
+		_, err := Template(&TemplateOptions{
+			Chart: create,
+			PostRenderer: postRendererFunc(func(renderedManifests *bytes.Buffer) (*bytes.Buffer, error) {
+				return nil, errors.New("post-renderer failure")
+			}),
+		})
+		if err == nil || !strings.Contains(err.Error(), "post-renderer failure") {
+			t.Errorf("Expected template to fail with post-renderer error, got %v", err)
+			return
+		}
+	})
+}
+
+type postRendererFunc func(renderedManifests *bytes.Buffer) (*bytes.Buffer, error)
+
+func (f postRendererFunc) Run(renderedManifests *bytes.Buffer) (*bytes.Buffer, error) {
+	return f(renderedManifests)
 }
 
 func TestTemplateFromReference(t *testing.T) {
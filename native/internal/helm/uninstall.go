@@ -20,6 +20,7 @@ import (
 	"bytes"
 	"fmt"
 	"helm.sh/helm/v3/pkg/action"
+	"time"
 )
 
 type UninstallOptions struct {
@@ -33,6 +34,13 @@ type UninstallOptions struct {
 	KubeConfig         string
 	KubeConfigContents string
 	Debug              bool
+	// Wait for the deletion of the release resources
+	Wait    bool
+	Timeout time.Duration
+	// WaitStrategy is the deletion waiter used if Wait is set (legacy polling or watcher)
+	WaitStrategy string
+	// WaitProgress is invoked (never concurrently) with each resource status change (watcher strategy only)
+	WaitProgress func(event string) error
 }
 
 func Uninstall(options *UninstallOptions) (string, error) {
@@ -49,11 +57,16 @@ func Uninstall(options *UninstallOptions) (string, error) {
 	if err != nil {
 		return "", err
 	}
+	if err := applyWaitStrategy(cfg, options.WaitStrategy, options.WaitProgress); err != nil {
+		return "", err
+	}
 	client := action.NewUninstall(cfg)
 	client.DryRun = options.DryRun
 	client.DisableHooks = options.NoHooks
 	client.IgnoreNotFound = options.IgnoreNotFound
 	client.KeepHistory = options.KeepHistory
+	client.Wait = options.Wait
+	client.Timeout = options.Timeout
 	client.DeletionPropagation = "background"
 	if options.Cascade != "" {
 		client.DeletionPropagation = options.Cascade
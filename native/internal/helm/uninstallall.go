@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"bytes"
+	"fmt"
+	"net/url"
+	"sort"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/action"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
+)
+
+const defaultUninstallConcurrency = 8
+
+const (
+	uninstallStatusUninstalled = "uninstalled"
+	uninstallStatusNotFound    = "not-found"
+	uninstallStatusFailed      = "failed"
+)
+
+type UninstallAllOptions struct {
+	// ReleaseNames to uninstall from the Namespace (one per line)
+	ReleaseNames string
+	// Selector for the releases to uninstall (release storage labels), combined with ReleaseNames
+	Selector       string
+	Namespace      string
+	AllNamespaces  bool
+	Concurrency    int
+	DryRun         bool
+	NoHooks        bool
+	IgnoreNotFound bool
+	KeepHistory    bool
+	Cascade        string
+	// Wait for the deletion of the release resources
+	Wait         bool
+	Timeout      time.Duration
+	WaitStrategy string
+	// WaitProgress is invoked (never concurrently, even across releases) with each resource status change
+	WaitProgress       func(event string) error
+	KubeConfig         string
+	KubeConfigContents string
+}
+
+type uninstallTarget struct {
+	name      string
+	namespace string
+}
+
+type uninstallResult struct {
+	uninstallTarget
+	status   string
+	info     string
+	duration time.Duration
+	err      error
+}
+
+// UninstallAll uninstalls the releases concurrently (bounded by Concurrency) and returns a result line per release.
+// The Kubernetes client getters (discovery and REST mapping caches) are shared per namespace.
+// Failures are reported per release, the command only fails if the releases can't be resolved.
+func UninstallAll(options *UninstallAllOptions) (string, error) {
+	cascade := options.Cascade
+	if cascade == "" {
+		cascade = "background"
+	}
+	if err := validateCascadeFlag(&action.Uninstall{DeletionPropagation: cascade}); err != nil {
+		return "", err
+	}
+	getters := make(map[string]genericclioptions.RESTClientGetter)
+	restClientGetter := func(namespace string) (genericclioptions.RESTClientGetter, error) {
+		if getter, ok := getters[namespace]; ok {
+			return getter, nil
+		}
+		getter, err := newRestClientGetter(&CfgOptions{
+			KubeConfig:         options.KubeConfig,
+			KubeConfigContents: options.KubeConfigContents,
+			Namespace:          namespace,
+		})
+		if err != nil {
+			return nil, err
+		}
+		getters[namespace] = getter
+		return getter, nil
+	}
+	defaultGetter, err := restClientGetter(options.Namespace)
+	if err != nil {
+		return "", err
+	}
+	targets, err := uninstallTargets(options, defaultGetter)
+	if err != nil {
+		return "", err
+	}
+	for _, target := range targets {
+		if _, err := restClientGetter(target.namespace); err != nil {
+			return "", err
+		}
+	}
+	progress := options.WaitProgress
+	if progress != nil {
+		var mutex sync.Mutex
+		progress = func(event string) error {
+			mutex.Lock()
+			defer mutex.Unlock()
+			return options.WaitProgress(event)
+		}
+	}
+	concurrency := options.Concurrency
+	if concurrency <= 0 {
+		concurrency = defaultUninstallConcurrency
+	}
+	results := make([]*uninstallResult, len(targets))
+	semaphore := make(chan struct{}, concurrency)
+	var wg sync.WaitGroup
+	for i, target := range targets {
+		wg.Add(1)
+		go func(i int, target uninstallTarget) {
+			defer wg.Done()
+			semaphore <- struct{}{}
+			defer func() { <-semaphore }()
+			results[i] = uninstallRelease(options, cascade, getters[target.namespace], progress, target)
+		}(i, target)
+	}
+	wg.Wait()
+	out := bytes.NewBuffer(make([]byte, 0))
+	for _, result := range results {
+		values := make(url.Values)
+		values.Set("name", result.name)
+		values.Set("namespace", result.namespace)
+		values.Set("status", result.status)
+		values.Set("info", result.info)
+		values.Set("durationMillis", strconv.FormatInt(result.duration.Milliseconds(), 10))
+		if result.err != nil {
+			values.Set("error", result.err.Error())
+		}
+		_, _ = fmt.Fprintln(out, values.Encode())
+	}
+	return out.String(), nil
+}
+
+// uninstallTargets resolves the releases from the names and the storage label selector (deduplicated)
+func uninstallTargets(options *UninstallAllOptions, restClientGetter genericclioptions.RESTClientGetter) ([]uninstallTarget, error) {
+	namespace := resolveNamespace(restClientGetter, options.Namespace)
+	var targets []uninstallTarget
+	seen := make(map[uninstallTarget]bool)
+	add := func(target uninstallTarget) {
+		if !seen[target] {
+			seen[target] = true
+			targets = append(targets, target)
+		}
+	}
+	for _, name := range strings.Split(options.ReleaseNames, "\n") {
+		if name = strings.TrimSpace(name); name != "" {
+			add(uninstallTarget{name: name, namespace: namespace})
+		}
+	}
+	if options.Selector != "" {
+		cfg, err := NewCfg(&CfgOptions{
+			Namespace:        options.Namespace,
+			AllNamespaces:    options.AllNamespaces,
+			RestClientGetter: restClientGetter,
+		})
+		if err != nil {
+			return nil, err
+		}
+		client := action.NewList(cfg)
+		client.All = true
+		client.AllNamespaces = options.AllNamespaces
+		client.Selector = options.Selector
+		client.SetStateMask()
+		releases, err := client.Run()
+		if err != nil {
+			return nil, err
+		}
+		sort.Slice(releases, func(i, j int) bool {
+			if releases[i].Namespace != releases[j].Namespace {
+				return releases[i].Namespace < releases[j].Namespace
+			}
+			return releases[i].Name < releases[j].Name
+		})
+		for _, rel := range releases {
+			add(uninstallTarget{name: rel.Name, namespace: rel.Namespace})
+		}
+	}
+	if len(targets) == 0 && options.Selector == "" {
+		return nil, errors.New("at least one release name or a selector is required")
+	}
+	return targets, nil
+}
+
+func uninstallRelease(options *UninstallAllOptions, cascade string, restClientGetter genericclioptions.RESTClientGetter, progress func(event string) error, target uninstallTarget) *uninstallResult {
+	start := time.Now()
+	result := &uninstallResult{uninstallTarget: target, status: uninstallStatusFailed}
+	defer func() { result.duration = time.Since(start) }()
+	cfg, err := NewCfg(&CfgOptions{Namespace: target.namespace, RestClientGetter: restClientGetter})
+	if err != nil {
+		result.err = err
+		return result
+	}
+	if result.err = applyWaitStrategy(cfg, options.WaitStrategy, progress); result.err != nil {
+		return result
+	}
+	client := action.NewUninstall(cfg)
+	client.DryRun = options.DryRun
+	client.DisableHooks = options.NoHooks
+	client.IgnoreNotFound = options.IgnoreNotFound
+	client.KeepHistory = options.KeepHistory
+	client.Wait = options.Wait
+	client.Timeout = options.Timeout
+	client.DeletionPropagation = cascade
+	res, err := client.Run(target.name)
+	switch {
+	case err != nil:
+		result.err = err
+	case res == nil:
+		// IgnoreNotFound
+		result.status = uninstallStatusNotFound
+	default:
+		result.status = uninstallStatusUninstalled
+		result.info = res.Info
+	}
+	return result
+}
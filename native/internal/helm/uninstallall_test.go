@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"testing"
+)
+
+func TestUninstallTargetsFromNames(t *testing.T) {
+	options := &UninstallAllOptions{
+		ReleaseNames: "first\n\n second \nfirst\nthird",
+		Namespace:    "preview",
+	}
+	restClientGetter, _ := newRestClientGetter(&CfgOptions{Namespace: options.Namespace})
+	targets, err := uninstallTargets(options, restClientGetter)
+	if err != nil {
+		t.Errorf("Expected targets to be resolved, got %s", err)
+		return
+	}
+	expected := []uninstallTarget{{"first", "preview"}, {"second", "preview"}, {"third", "preview"}}
+	if len(targets) != len(expected) {
+		t.Errorf("Expected %v, got %v", expected, targets)
+		return
+	}
+	for i := range expected {
+		if targets[i] != expected[i] {
+			t.Errorf("Expected %v, got %v", expected, targets)
+			return
+		}
+	}
+}
+
+func TestUninstallTargetsRequiresNamesOrSelector(t *testing.T) {
+	restClientGetter, _ := newRestClientGetter(&CfgOptions{})
+	_, err := uninstallTargets(&UninstallAllOptions{ReleaseNames: "\n"}, restClientGetter)
+	if err == nil || err.Error() != "at least one release name or a selector is required" {
+		t.Errorf("Expected targets to fail, got %v", err)
+	}
+}
+
+func TestUninstallAllInvalidCascade(t *testing.T) {
+	_, err := UninstallAll(&UninstallAllOptions{ReleaseNames: "release", Cascade: "invalid"})
+	if err == nil || err.Error() != "invalid cascade value (invalid). Must be \"background\", \"foreground\", or \"orphan\"" {
+		t.Errorf("Expected uninstall all to fail, got %v", err)
+	}
+}
@@ -20,7 +20,11 @@ import (
 	"bytes"
 	"context"
 	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/chart"
+	"helm.sh/helm/v3/pkg/postrender"
+	"helm.sh/helm/v3/pkg/release"
 	"helm.sh/helm/v3/pkg/storage/driver"
+	"k8s.io/cli-runtime/pkg/genericclioptions"
 	"time"
 )
 
@@ -42,6 +46,7 @@ type UpgradeOptions struct {
 	Description              string
 	Devel                    bool
 	DependencyUpdate         bool
+	RefreshTtl               time.Duration
 	DisableOpenApiValidation bool
 	DryRun                   bool
 	DryRunOption             string
@@ -57,10 +62,32 @@ type UpgradeOptions struct {
 	// For testing purposes only, prevents connecting to Kubernetes (happens even with DryRun=true and DryRunOption=client)
 	ClientOnly       bool
 	RepositoryConfig string
+	PostRenderer     postrender.PostRenderer
+	// In-memory chart archive (.tgz), takes precedence over Chart
+	ChartArchive []byte
+	// Shared Kubernetes client getter for the Namespace (e.g. release sets), KubeConfig is ignored if set
+	RestClientGetter genericclioptions.RESTClientGetter
+	// WaitStrategy is the readiness waiter used if Wait is set (legacy polling or watcher)
+	WaitStrategy string
+	// WaitProgress is invoked (never concurrently) with each resource status change (watcher strategy only)
+	WaitProgress func(event string) error
+	// SkipUnchanged returns the deployed revision without upgrading if its fingerprint matches the rendered upgrade
+	SkipUnchanged bool
+	// MaxHistory limits the maximum number of revisions saved per release (0 for no limit)
+	MaxHistory int
 }
 
+// unchangedReportLine flags the command output of upgrades skipped because the release is unchanged
+const unchangedReportLine = "UNCHANGED: true\n"
+
 func Upgrade(options *UpgradeOptions) (string, error) {
-	registryClient, getRegistryClientOut, err := newRegistryClient(
+	_, out, err := upgrade(options)
+	return out, err
+}
+
+// upgrade upgrades (or installs) the release, returns the resulting release and the command output
+func upgrade(options *UpgradeOptions) (*release.Release, string, error) {
+	registryClient, getRegistryClientOut, releaseRegistryClient, err := newRegistryClient(
 		options.CertFile,
 		options.KeyFile,
 		options.CaFile,
@@ -68,8 +95,9 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 		options.PlainHttp,
 		options.Debug,
 	)
+	defer releaseRegistryClient()
 	if err != nil {
-		return "", err
+		return nil, "", err
 	}
 	kubeOut := bytes.NewBuffer(make([]byte, 0))
 	cfgOptions := &CfgOptions{
@@ -77,13 +105,17 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 		KubeConfig:         options.KubeConfig,
 		KubeConfigContents: options.KubeConfigContents,
 		Namespace:          options.Namespace,
+		RestClientGetter:   options.RestClientGetter,
 	}
 	if options.Debug {
 		cfgOptions.KubeOut = kubeOut
 	}
 	cfg, err := NewCfg(cfgOptions)
 	if err != nil {
-		return "", err
+		return nil, "", err
+	}
+	if err := applyWaitStrategy(cfg, options.WaitStrategy, options.WaitProgress); err != nil {
+		return nil, "", err
 	}
 
 	// Install if release doesn't exist
@@ -91,7 +123,7 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 		histClient := action.NewHistory(cfg)
 		histClient.Max = 1
 		if _, err := histClient.Run(options.Name); err == driver.ErrReleaseNotFound {
-			return Install(&InstallOptions{
+			installOptions := &InstallOptions{
 				Name:                     options.Name,
 				GenerateName:             false,
 				NameTemplate:             "",
@@ -103,6 +135,7 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 				Description:              options.Description,
 				Devel:                    options.Devel,
 				DependencyUpdate:         options.DependencyUpdate,
+				RefreshTtl:               options.RefreshTtl,
 				DisableOpenApiValidation: options.DisableOpenApiValidation,
 				DryRun:                   options.DryRun,
 				DryRunOption:             options.DryRunOption,
@@ -113,12 +146,23 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 				SetFiles:                 options.SetFiles,
 				ValuesFiles:              options.ValuesFiles,
 				KubeConfig:               options.KubeConfig,
+				KubeConfigContents:       options.KubeConfigContents,
 				CertOptions:              options.CertOptions,
 				Debug:                    options.Debug,
 				ClientOnly:               options.ClientOnly,
-			})
+				RepositoryConfig:         options.RepositoryConfig,
+				PostRenderer:             options.PostRenderer,
+				ChartArchive:             options.ChartArchive,
+				RestClientGetter:         options.RestClientGetter,
+				WaitStrategy:             options.WaitStrategy,
+				WaitProgress:             options.WaitProgress,
+			}
+			rel, outputs, err := install(installOptions)
+			out, err := appendToOutOrErr(concat(cStr(outputs.updateOutput), cBuf(outputs.getRegistryClientOut()), cBuf(outputs.kubeOut)),
+				StatusReport(rel, false, options.Debug), err)
+			return rel, out, err
 		} else if err != nil {
-			return "", err
+			return nil, "", err
 		}
 	}
 
@@ -149,34 +193,87 @@ func Upgrade(options *UpgradeOptions) (string, error) {
 	client.InsecureSkipTLSverify = options.InsecureSkipTLSverify
 	client.PlainHTTP = options.PlainHttp
 	client.Keyring = options.Keyring
+	client.PostRenderer = options.PostRenderer
+	client.MaxHistory = options.MaxHistory
 
 	chartReference := options.Chart
-	chartRequested, chartPath, err := loadChart(client.ChartPathOptions, options.RepositoryConfig, chartReference)
+	chartRequested, chartPath, err := loadChart(client.ChartPathOptions, options.RepositoryConfig, chartReference, options.ChartArchive)
 	if err != nil {
-		return "", err
+		return nil, "", err
 	}
 	// Dependency management
 	chartRequested, updateOutput, err := updateDependencies(&updateDependenciesOptions{
 		DependencyUpdate: options.DependencyUpdate,
+		RefreshTtl:       options.RefreshTtl,
+		RepositoryConfig: options.RepositoryConfig,
 		Keyring:          options.Keyring,
 		Debug:            options.Debug,
 	}, chartRequested, chartPath)
 	if err != nil {
-		return "", err
+		return nil, "", err
 	}
 	// Dry Run options
 	if invalidDryRun := validateDryRunOptionFlag(client.DryRunOption); invalidDryRun != nil {
-		return "", invalidDryRun
+		return nil, "", invalidDryRun
 	}
 	ctx := context.Background()
 	// Values
 	vals, err := mergeValues(options.Values, options.SetFiles, options.ValuesFiles)
 	if err != nil {
-		return "", err
+		return nil, "", err
+	}
+	// Skip the upgrade if the rendered release matches the deployed revision
+	if options.SkipUnchanged && !options.DryRun {
+		deployed, err := unchangedRelease(ctx, cfg, client, options, chartRequested)
+		if err != nil {
+			return nil, "", err
+		}
+		if deployed != nil {
+			out, err := appendToOutOrErr(concat(cStr(updateOutput), cBuf(getRegistryClientOut()), cBuf(kubeOut)),
+				unchangedReportLine+StatusReport(deployed, false, options.Debug), nil)
+			return deployed, out, err
+		}
 	}
 	// Run
-	release, err := client.RunWithContext(ctx, options.Name, chartRequested, vals)
+	rel, err := client.RunWithContext(ctx, options.Name, chartRequested, vals)
 	// Generate report
-	out := StatusReport(release, false, options.Debug)
-	return appendToOutOrErr(concat(cStr(updateOutput), cBuf(getRegistryClientOut()), cBuf(kubeOut)), out, err)
+	out, err := appendToOutOrErr(concat(cStr(updateOutput), cBuf(getRegistryClientOut()), cBuf(kubeOut)),
+		StatusReport(rel, false, options.Debug), err)
+	return rel, out, err
+}
+
+// unchangedRelease renders the upgrade with a client-side dry run and compares its fingerprint with the last revision
+// Returns the last revision if it's deployed and unchanged (nil otherwise)
+func unchangedRelease(ctx context.Context, cfg *action.Configuration, client *action.Upgrade, options *UpgradeOptions, chartRequested *chart.Chart) (*release.Release, error) {
+	// Values are merged again since the upgrade might modify the provided map
+	vals, err := mergeValues(options.Values, options.SetFiles, options.ValuesFiles)
+	if err != nil {
+		return nil, err
+	}
+	dryRun := action.NewUpgrade(cfg)
+	dryRun.Namespace = client.Namespace
+	dryRun.ResetValues = client.ResetValues
+	dryRun.ReuseValues = client.ReuseValues
+	dryRun.ResetThenReuseValues = client.ResetThenReuseValues
+	dryRun.SkipCRDs = client.SkipCRDs
+	dryRun.PostRenderer = client.PostRenderer
+	dryRun.DisableOpenAPIValidation = true
+	dryRun.DryRun = true
+	dryRun.DryRunOption = "client"
+	rendered, err := dryRun.RunWithContext(ctx, options.Name, chartRequested, vals)
+	if err != nil {
+		return nil, err
+	}
+	fingerprint, err := releaseFingerprint(rendered)
+	if err != nil {
+		return nil, err
+	}
+	last, deployed, err := deployedFingerprint(cfg, options.Name)
+	if err != nil {
+		return nil, err
+	}
+	if deployed != fingerprint {
+		return nil, nil
+	}
+	return last, nil
 }
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package helm
+
+import (
+	"context"
+	"net/url"
+	"strconv"
+	"strings"
+	"sync"
+	"time"
+
+	"github.com/pkg/errors"
+	"helm.sh/helm/v3/pkg/action"
+	"helm.sh/helm/v3/pkg/kube"
+	"k8s.io/apimachinery/pkg/api/meta"
+	metav1 "k8s.io/apimachinery/pkg/apis/meta/v1"
+	"k8s.io/apimachinery/pkg/apis/meta/v1/unstructured"
+	"k8s.io/apimachinery/pkg/fields"
+	"k8s.io/apimachinery/pkg/runtime/schema"
+	"k8s.io/apimachinery/pkg/watch"
+	"k8s.io/client-go/dynamic"
+)
+
+const (
+	waitStrategyLegacy  = "legacy"
+	waitStrategyWatcher = "watcher"
+)
+
+// watchWaiter replaces the polling waits of the Helm Kubernetes client (a GET per resource and interval) with a
+// single list and watch per resource type and namespace, the resources are evaluated on every change.
+type watchWaiter struct {
+	*kube.Client
+	// progress is invoked (never concurrently) with each resource status change
+	progress func(event string) error
+}
+
+type waitGroupKey struct {
+	resource  schema.GroupVersionResource
+	namespace string
+}
+
+type waitGroup struct {
+	client    dynamic.ResourceInterface
+	resources map[string]*waitResource
+}
+
+type waitResource struct {
+	kind      string
+	namespace string
+	name      string
+	status    string
+	message   string
+}
+
+type waitTracker struct {
+	sync.Mutex
+	mode      string
+	desired   string
+	resources []*waitResource
+	pending   int
+	progress  func(event string) error
+	cancel    context.CancelFunc
+	// progressErr is the progress consumer failure (if any), the wait is canceled
+	progressErr error
+	// failed is the first resource that reached the Failed status (if any), the wait is canceled
+	failed *waitResource
+}
+
+// applyWaitStrategy sets the waiter of the action configuration's Kubernetes client for the strategy
+func applyWaitStrategy(cfg *action.Configuration, strategy string, progress func(event string) error) error {
+	switch strategy {
+	case "", waitStrategyLegacy:
+		return nil
+	case waitStrategyWatcher:
+		// Client-only configurations use a fake Kubernetes client that never waits
+		if kubeClient, ok := cfg.KubeClient.(*kube.Client); ok {
+			cfg.KubeClient = &watchWaiter{Client: kubeClient, progress: progress}
+		}
+		return nil
+	default:
+		return errors.Errorf("invalid wait strategy (%s). Must be \"%s\" or \"%s\"", strategy, waitStrategyLegacy, waitStrategyWatcher)
+	}
+}
+
+func (w *watchWaiter) Wait(resources kube.ResourceList, timeout time.Duration) error {
+	return w.wait(resources, timeout, "ready", func(obj *unstructured.Unstructured) (string, string) {
+		return resourceStatus(obj, false)
+	})
+}
+
+func (w *watchWaiter) WaitWithJobs(resources kube.ResourceList, timeout time.Duration) error {
+	return w.wait(resources, timeout, "ready", func(obj *unstructured.Unstructured) (string, string) {
+		return resourceStatus(obj, true)
+	})
+}
+
+func (w *watchWaiter) WaitForDelete(resources kube.ResourceList, timeout time.Duration) error {
+	return w.wait(resources, timeout, "delete", func(obj *unstructured.Unstructured) (string, string) {
+		if obj.GetDeletionTimestamp() != nil {
+			return resourceStatusInProgress, "Resource is terminating"
+		}
+		return resourceStatusInProgress, "Resource still exists"
+	})
+}
+
+// wait watches the resources until all of them reach the desired status (Current, or NotFound when deleting)
+func (w *watchWaiter) wait(resources kube.ResourceList, timeout time.Duration, mode string, evaluate func(obj *unstructured.Unstructured) (string, string)) error {
+	if len(resources) == 0 {
+		return nil
+	}
+	dynamicClient, err := w.Factory.DynamicClient()
+	if err != nil {
+		return err
+	}
+	ctx, cancel := context.WithTimeout(context.Background(), timeout)
+	defer cancel()
+	tracker := &waitTracker{mode: mode, desired: resourceStatusCurrent, progress: w.progress, cancel: cancel}
+	if mode == "delete" {
+		tracker.desired = resourceStatusNotFound
+	}
+	groups := make(map[waitGroupKey]*waitGroup)
+	for _, info := range resources {
+		key := waitGroupKey{resource: info.Mapping.Resource, namespace: info.Namespace}
+		group := groups[key]
+		if group == nil {
+			var client dynamic.ResourceInterface = dynamicClient.Resource(info.Mapping.Resource)
+			if info.Mapping.Scope.Name() == meta.RESTScopeNameNamespace {
+				client = dynamicClient.Resource(info.Mapping.Resource).Namespace(info.Namespace)
+			}
+			group = &waitGroup{client: client, resources: make(map[string]*waitResource)}
+			groups[key] = group
+		}
+		if group.resources[info.Name] != nil {
+			continue
+		}
+		resource := &waitResource{
+			kind:      info.Mapping.GroupVersionKind.Kind,
+			namespace: info.Namespace,
+			name:      info.Name,
+			status:    resourceStatusUnknown,
+		}
+		group.resources[info.Name] = resource
+		tracker.resources = append(tracker.resources, resource)
+	}
+	tracker.pending = len(tracker.resources)
+	errs := make(chan error, len(groups))
+	for _, group := range groups {
+		go func(group *waitGroup) {
+			errs <- tracker.watch(ctx, group, evaluate)
+		}(group)
+	}
+	var waitErr error
+	for range groups {
+		if err := <-errs; err != nil && waitErr == nil {
+			waitErr = err
+			cancel()
+		}
+	}
+	tracker.Lock()
+	defer tracker.Unlock()
+	if tracker.progressErr != nil {
+		return errors.Wrap(tracker.progressErr, "wait progress consumer failed")
+	}
+	if tracker.failed != nil {
+		return errors.Errorf("resource %s failed: %s", tracker.failed.describe(), tracker.failed.message)
+	}
+	if waitErr != nil && tracker.pending > 0 && mode == "delete" {
+		return errors.Wrapf(waitErr, "resources not deleted: %s", tracker.pendingSummary())
+	}
+	if waitErr != nil && tracker.pending > 0 {
+		return errors.Wrapf(waitErr, "resources not ready: %s", tracker.pendingSummary())
+	}
+	return waitErr
+}
+
+// watch lists and watches the group resources until all of them reach the desired status, the resources are listed
+// again if the watch expires
+func (t *waitTracker) watch(ctx context.Context, group *waitGroup, evaluate func(obj *unstructured.Unstructured) (string, string)) error {
+	listOptions := metav1.ListOptions{}
+	if len(group.resources) == 1 {
+		for name := range group.resources {
+			listOptions.FieldSelector = fields.OneTermEqualSelector("metadata.name", name).String()
+		}
+	}
+	for {
+		list, err := group.client.List(ctx, listOptions)
+		if err != nil {
+			return contextErrOr(ctx, err)
+		}
+		found := make(map[string]bool, len(group.resources))
+		for i := range list.Items {
+			if resource := group.resources[list.Items[i].GetName()]; resource != nil {
+				found[resource.name] = true
+				status, message := evaluate(&list.Items[i])
+				t.update(resource, status, message)
+			}
+		}
+		for name, resource := range group.resources {
+			if !found[name] {
+				t.update(resource, resourceStatusNotFound, "Resource not found")
+			}
+		}
+		if t.done(group) {
+			return nil
+		}
+		watchOptions := listOptions
+		watchOptions.ResourceVersion = list.GetResourceVersion()
+		watchOptions.AllowWatchBookmarks = true
+		watcher, err := group.client.Watch(ctx, watchOptions)
+		if err != nil {
+			return contextErrOr(ctx, err)
+		}
+		done, err := t.consume(ctx, watcher, group, evaluate)
+		watcher.Stop()
+		if done || err != nil {
+			return err
+		}
+	}
+}
+
+// consume processes the watch events, returns false (and no error) if the watch must be restarted
+func (t *waitTracker) consume(ctx context.Context, watcher watch.Interface, group *waitGroup, evaluate func(obj *unstructured.Unstructured) (string, string)) (bool, error) {
+	for {
+		select {
+		case <-ctx.Done():
+			return false, ctx.Err()
+		case event, ok := <-watcher.ResultChan():
+			if !ok || event.Type == watch.Error {
+				// The watch expired or the resource version is too old
+				return false, nil
+			}
+			obj, ok := event.Object.(*unstructured.Unstructured)
+			if !ok {
+				continue
+			}
+			resource := group.resources[obj.GetName()]
+			if resource == nil {
+				continue
+			}
+			switch event.Type {
+			case watch.Added, watch.Modified:
+				status, message := evaluate(obj)
+				t.update(resource, status, message)
+			case watch.Deleted:
+				t.update(resource, resourceStatusNotFound, "Resource deleted")
+			}
+			if t.done(group) {
+				return true, nil
+			}
+		}
+	}
+}
+
+// update records the resource status and notifies the progress consumer if it changed.
+// The wait is canceled as soon as a resource fails, it won't become ready without further changes.
+func (t *waitTracker) update(resource *waitResource, status, message string) {
+	t.Lock()
+	defer t.Unlock()
+	if resource.status == status && resource.message == message {
+		return
+	}
+	if resource.status == t.desired {
+		t.pending++
+	}
+	if status == t.desired {
+		t.pending--
+	}
+	resource.status = status
+	resource.message = message
+	if status == resourceStatusFailed && t.failed == nil {
+		t.failed = resource
+		defer t.cancel()
+	}
+	if t.progress == nil || t.progressErr != nil {
+		return
+	}
+	values := make(url.Values)
+	values.Set("wait", t.mode)
+	values.Set("kind", resource.kind)
+	values.Set("namespace", resource.namespace)
+	values.Set("name", resource.name)
+	values.Set("status", status)
+	values.Set("message", message)
+	values.Set("pending", strconv.Itoa(t.pending))
+	values.Set("total", strconv.Itoa(len(t.resources)))
+	if err := t.progress(values.Encode()); err != nil {
+		t.progressErr = err
+		t.cancel()
+	}
+}
+
+func (t *waitTracker) done(group *waitGroup) bool {
+	t.Lock()
+	defer t.Unlock()
+	for _, resource := range group.resources {
+		if resource.status != t.desired {
+			return false
+		}
+	}
+	return true
+}
+
+// describe identifies the resource as kind/namespace/name (kind/name for cluster-scoped resources)
+func (r *waitResource) describe() string {
+	if r.namespace == "" {
+		return r.kind + "/" + r.name
+	}
+	return r.kind + "/" + r.namespace + "/" + r.name
+}
+
+// pendingSummary describes the resources that didn't reach the desired status (the tracker must be locked)
+func (t *waitTracker) pendingSummary() string {
+	var pending []string
+	for _, resource := range t.resources {
+		if resource.status != t.desired {
+			pending = append(pending, resource.kind+"/"+resource.name+" ("+resource.status+": "+resource.message+")")
+		}
+	}
+	return strings.Join(pending, ", ")
+}
+
+func contextErrOr(ctx context.Context, err error) error {
+	if ctx.Err() != nil {
+		return ctx.Err()
+	}
+	return err
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package helm
+
+import (
+	"context"
+	"strings"
+	"testing"
+)
+
+func TestWaitTrackerFailedResourceCancelsWait(t *testing.T) {
+	ctx, cancel := context.WithCancel(context.Background())
+	defer cancel()
+	var events []string
+	progress := func(event string) error {
+		events = append(events, event)
+		return nil
+	}
+	resource := &waitResource{kind: "Job", namespace: "default", name: "migrations", status: resourceStatusUnknown}
+	tracker := &waitTracker{
+		mode:      "ready",
+		desired:   resourceStatusCurrent,
+		resources: []*waitResource{resource},
+		pending:   1,
+		progress:  progress,
+		cancel:    cancel,
+	}
+	tracker.update(resource, resourceStatusInProgress, "Job in progress")
+	if ctx.Err() != nil {
+		t.Fatal("Expected wait not to be canceled for resources in progress")
+	}
+	tracker.update(resource, resourceStatusFailed, "Job has failed: BackoffLimitExceeded")
+	if ctx.Err() == nil {
+		t.Error("Expected wait to be canceled when a resource fails")
+	}
+	if tracker.failed != resource || tracker.failed.describe() != "Job/default/migrations" {
+		t.Errorf("Expected failed resource to be recorded, got %v", tracker.failed)
+	}
+	if len(events) != 2 || !strings.Contains(events[1], "status=Failed") {
+		t.Errorf("Expected failure to be reported to the progress consumer, got %v", events)
+	}
+}
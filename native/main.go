@@ -27,6 +27,21 @@ typedef struct {
 	char* stdErr;
 } Result;
 
+typedef char* (*PostRenderer)(char* manifests, int length, int* resultLength);
+
+typedef int (*ArchiveWriter)(char* data, int length);
+
+typedef int (*CatalogConsumer)(char* entry);
+
+typedef int (*ReleaseSetConsumer)(char* outcome);
+
+typedef int (*WaitListener)(char* event);
+
+struct ChartCacheOptions {
+	char*     directory;
+	long long maxSize;
+};
+
 struct CreateOptions {
 	char* name;
 	char* dir;
@@ -38,6 +53,14 @@ struct DependencyOptions  {
 	int   skipRefresh;
 	int   verify;
 	int   debug;
+	int   refreshTtl;
+};
+
+struct DependencyUpdateAllOptions {
+	char* paths;
+	char* repositoryConfig;
+	int   skipRefresh;
+	int   concurrency;
 };
 
 struct HistoryOptions {
@@ -48,6 +71,18 @@ struct HistoryOptions {
     char* kubeConfigContents;
 };
 
+struct HistoryCompactOptions {
+	char* releaseName;
+	int   keep;
+	char* namespace;
+	int   allNamespaces;
+	int   concurrency;
+	int   rateLimit;
+	int   dryRun;
+	char* kubeConfig;
+	char* kubeConfigContents;
+};
+
 struct InstallOptions {
 	char* name;
 	int   generateName;
@@ -81,6 +116,12 @@ struct InstallOptions {
 	int   debug;
 	int   clientOnly;
 	char* repositoryConfig;
+	PostRenderer postRenderer;
+	void* chartArchive;
+	int   chartArchiveSize;
+	int   refreshTtl;
+	char* waitStrategy;
+	WaitListener waitListener;
 };
 
 struct LintOptions {
@@ -110,6 +151,43 @@ struct PackageOptions {
 	char* key;
 	char* keyring;
 	char* passhraseFile;
+	ArchiveWriter archiveWriter;
+};
+
+struct PackageAllOptions {
+	char* paths;
+	char* destination;
+	int   concurrency;
+};
+
+struct PullOptions {
+	char* charts;
+	char* destination;
+	int   untar;
+	char* untarDir;
+	int   verify;
+	char* keyring;
+	int   devel;
+	char* username;
+	char* password;
+	char* certFile;
+	char* keyFile;
+	char* caFile;
+	int   insecureSkipTlsVerify;
+	int   plainHttp;
+	int   concurrency;
+	char* repositoryConfig;
+};
+
+struct PushAllOptions {
+	char* charts;
+	char* remote;
+	char* certFile;
+	char* keyFile;
+	char* caFile;
+	int   insecureSkipTlsVerify;
+	int   plainHttp;
+	int   concurrency;
 };
 
 struct PushOptions {
@@ -121,6 +199,8 @@ struct PushOptions {
 	int   insecureSkipTlsVerify;
 	int   plainHttp;
 	int   debug;
+	void* chartArchive;
+	int   chartArchiveSize;
 };
 
 struct RegistryOptions {
@@ -135,6 +215,29 @@ struct RegistryOptions {
 	int   debug;
 };
 
+struct ReleaseSetOptions {
+	char* releases;
+	int   concurrency;
+	int   failFast;
+	char* kubeConfig;
+	char* kubeConfigContents;
+	char* repositoryConfig;
+	ReleaseSetConsumer consumer;
+};
+
+struct RepoIndexOptions {
+	char* dir;
+	char* url;
+	char* merge;
+};
+
+struct RepoIndexQueryOptions {
+	char* repo;
+	char* chart;
+	char* constraint;
+	int   latest;
+};
+
 struct RepoOptions {
 	char* repositoryConfig;
 	char* name;
@@ -146,12 +249,36 @@ struct RepoOptions {
 	char* keyFile;
 	char* caFile;
 	int   insecureSkipTlsVerify;
+	char* repositories;
+	int   concurrency;
+	int   timeout;
 };
 
 struct RepoServerOptions {
 	char* glob;
 	char* username;
 	char* password;
+	char* storageRoot;
+	int   concurrency;
+};
+
+struct RollbackOptions {
+	char* releaseName;
+	int   revision;
+	char* namespace;
+	int   wait;
+	int   waitForJobs;
+	int   timeout;
+	int   cleanupOnFail;
+	int   force;
+	int   noHooks;
+	int   maxHistory;
+	int   dryRun;
+	char* kubeConfig;
+	char* kubeConfigContents;
+	int   debug;
+	char* waitStrategy;
+	WaitListener waitListener;
 };
 
 struct SearchOptions {
@@ -160,6 +287,30 @@ struct SearchOptions {
 	int   regexp;
 	int   devel;
 	char* version;
+	int   maxResults;
+};
+
+struct CatalogOptions {
+	char* repositoryConfig;
+	char* repos;
+	char* sections;
+	int   latest;
+	int   concurrency;
+	CatalogConsumer consumer;
+};
+
+struct ChartInfoOptions {
+	char* path;
+	char* sections;
+	char* version;
+	char* certFile;
+	char* keyFile;
+	char* caFile;
+	int   insecure;
+	int   plainHttp;
+	int   debug;
+	void* chartArchive;
+	int   chartArchiveSize;
 };
 
 struct ShowOptions {
@@ -172,6 +323,8 @@ struct ShowOptions {
 	int   insecure;
 	int   plainHttp;
 	int   debug;
+	void* chartArchive;
+	int   chartArchiveSize;
 };
 
 struct TemplateOptions {
@@ -193,6 +346,10 @@ struct TemplateOptions {
 	char* keyring;
 	int   debug;
 	char* repositoryConfig;
+	PostRenderer postRenderer;
+	void* chartArchive;
+	int   chartArchiveSize;
+	int   refreshTtl;
 };
 
 struct TestOptions {
@@ -233,6 +390,29 @@ struct UninstallOptions {
 	char* kubeConfig;
 	char* kubeConfigContents;
 	int   debug;
+	int   wait;
+	int   timeout;
+	char* waitStrategy;
+	WaitListener waitListener;
+};
+
+struct UninstallAllOptions {
+	char* releaseNames;
+	char* selector;
+	char* namespace;
+	int   allNamespaces;
+	int   concurrency;
+	int   dryRun;
+	int   noHooks;
+	int   ignoreNotFound;
+	int   keepHistory;
+	char* cascade;
+	int   wait;
+	int   timeout;
+	char* waitStrategy;
+	WaitListener waitListener;
+	char* kubeConfig;
+	char* kubeConfigContents;
 };
 
 struct UpgradeOptions {
@@ -272,6 +452,14 @@ struct UpgradeOptions {
 	int   debug;
 	int   clientOnly;
 	char* repositoryConfig;
+	PostRenderer postRenderer;
+	void* chartArchive;
+	int   chartArchiveSize;
+	int   refreshTtl;
+	char* waitStrategy;
+	WaitListener waitListener;
+	int   skipUnchanged;
+	int   maxHistory;
 };
 */
 import "C"
@@ -319,6 +507,16 @@ func runCommand(f func() (string, error)) C.Result {
 	}
 }
 
+//export ChartCacheConfigure
+func ChartCacheConfigure(options *C.struct_ChartCacheOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return "", helm.ChartCacheConfigure(&helm.ChartCacheOptions{
+			Directory: C.GoString(options.directory),
+			MaxSize:   int64(options.maxSize),
+		})
+	})
+}
+
 //export Create
 func Create(options *C.struct_CreateOptions) C.Result {
 	return runCommand(func() (string, error) {
@@ -337,6 +535,7 @@ func DependencyBuild(options *C.struct_DependencyOptions) C.Result {
 			Path:        C.GoString(options.path),
 			Keyring:     C.GoString(options.keyring),
 			SkipRefresh: options.skipRefresh == 1,
+			RefreshTtl:  time.Duration(int(options.refreshTtl)) * time.Second,
 			Verify:      options.verify == 1,
 			Debug:       options.debug == 1,
 		})
@@ -359,12 +558,25 @@ func DependencyUpdate(options *C.struct_DependencyOptions) C.Result {
 			Path:        C.GoString(options.path),
 			Keyring:     C.GoString(options.keyring),
 			SkipRefresh: options.skipRefresh == 1,
+			RefreshTtl:  time.Duration(int(options.refreshTtl)) * time.Second,
 			Verify:      options.verify == 1,
 			Debug:       options.debug == 1,
 		})
 	})
 }
 
+//export DependencyUpdateAll
+func DependencyUpdateAll(options *C.struct_DependencyUpdateAllOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.DependencyUpdateAll(&helm.DependencyUpdateAllOptions{
+			Paths:            C.GoString(options.paths),
+			RepositoryConfig: C.GoString(options.repositoryConfig),
+			SkipRefresh:      options.skipRefresh == 1,
+			Concurrency:      int(options.concurrency),
+		})
+	})
+}
+
 //export History
 func History(options *C.struct_HistoryOptions) C.Result {
 	return runCommand(func() (string, error) {
@@ -378,6 +590,23 @@ func History(options *C.struct_HistoryOptions) C.Result {
 	})
 }
 
+//export HistoryCompact
+func HistoryCompact(options *C.struct_HistoryCompactOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.HistoryCompact(&helm.HistoryCompactOptions{
+			ReleaseName:        C.GoString(options.releaseName),
+			Keep:               int(options.keep),
+			Namespace:          C.GoString(options.namespace),
+			AllNamespaces:      options.allNamespaces == 1,
+			Concurrency:        int(options.concurrency),
+			RateLimit:          int(options.rateLimit),
+			DryRun:             options.dryRun == 1,
+			KubeConfig:         C.GoString(options.kubeConfig),
+			KubeConfigContents: C.GoString(options.kubeConfigContents),
+		})
+	})
+}
+
 //export Install
 func Install(options *C.struct_InstallOptions) C.Result {
 	var timeout time.Duration
@@ -400,6 +629,7 @@ func Install(options *C.struct_InstallOptions) C.Result {
 			Description:              C.GoString(options.description),
 			Devel:                    options.devel == 1,
 			DependencyUpdate:         options.dependencyUpdate == 1,
+			RefreshTtl:               time.Duration(int(options.refreshTtl)) * time.Second,
 			DisableOpenApiValidation: options.disableOpenApiValidation == 1,
 			DryRun:                   options.dryRun == 1,
 			DryRunOption:             C.GoString(options.dryRunOption),
@@ -422,6 +652,10 @@ func Install(options *C.struct_InstallOptions) C.Result {
 			Debug:            options.debug == 1,
 			ClientOnly:       options.clientOnly == 1,
 			RepositoryConfig: C.GoString(options.repositoryConfig),
+			PostRenderer:     newPostRenderer(unsafe.Pointer(options.postRenderer)),
+			ChartArchive:     toBytes(options.chartArchive, options.chartArchiveSize),
+			WaitStrategy:     C.GoString(options.waitStrategy),
+			WaitProgress:     newWaitListener(unsafe.Pointer(options.waitListener)),
 		})
 	})
 }
@@ -490,15 +724,56 @@ func Status(options *C.struct_StatusOptions) C.Result {
 //export Package
 func Package(options *C.struct_PackageOptions) C.Result {
 	return runCommand(func() (string, error) {
-		err := helm.Package(&helm.PackageOptions{
+		packageOptions := &helm.PackageOptions{
 			Path:           C.GoString(options.path),
 			Destination:    C.GoString(options.destination),
 			Sign:           options.sign == 1,
 			Key:            C.GoString(options.key),
 			Keyring:        C.GoString(options.keyring),
 			PassphraseFile: C.GoString(options.passhraseFile),
+			Writer:         newArchiveWriter(unsafe.Pointer(options.archiveWriter)),
+		}
+		if packageOptions.Writer != nil {
+			return helm.PackageArchive(packageOptions)
+		}
+		return "", helm.Package(packageOptions)
+	})
+}
+
+//export PackageAll
+func PackageAll(options *C.struct_PackageAllOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.PackageAll(&helm.PackageAllOptions{
+			Paths:       C.GoString(options.paths),
+			Destination: C.GoString(options.destination),
+			Concurrency: int(options.concurrency),
+		})
+	})
+}
+
+//export Pull
+func Pull(options *C.struct_PullOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.Pull(&helm.PullOptions{
+			Charts:      C.GoString(options.charts),
+			Destination: C.GoString(options.destination),
+			Untar:       options.untar == 1,
+			UntarDir:    C.GoString(options.untarDir),
+			Verify:      options.verify == 1,
+			Devel:       options.devel == 1,
+			Username:    C.GoString(options.username),
+			Password:    C.GoString(options.password),
+			CertOptions: helm.CertOptions{
+				CertFile:              C.GoString(options.certFile),
+				KeyFile:               C.GoString(options.keyFile),
+				CaFile:                C.GoString(options.caFile),
+				InsecureSkipTLSverify: options.insecureSkipTlsVerify == 1,
+				PlainHttp:             options.plainHttp == 1,
+				Keyring:               C.GoString(options.keyring),
+			},
+			Concurrency:      int(options.concurrency),
+			RepositoryConfig: C.GoString(options.repositoryConfig),
 		})
-		return "", err
 	})
 }
 
@@ -515,7 +790,26 @@ func Push(options *C.struct_PushOptions) C.Result {
 				InsecureSkipTLSverify: options.insecureSkipTlsVerify == 1,
 				PlainHttp:             options.plainHttp == 1,
 			},
-			Debug: options.debug == 1,
+			Debug:        options.debug == 1,
+			ChartArchive: toBytes(options.chartArchive, options.chartArchiveSize),
+		})
+	})
+}
+
+//export PushAll
+func PushAll(options *C.struct_PushAllOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.PushAll(&helm.PushAllOptions{
+			Charts: C.GoString(options.charts),
+			Remote: C.GoString(options.remote),
+			CertOptions: helm.CertOptions{
+				CertFile:              C.GoString(options.certFile),
+				KeyFile:               C.GoString(options.keyFile),
+				CaFile:                C.GoString(options.caFile),
+				InsecureSkipTLSverify: options.insecureSkipTlsVerify == 1,
+				PlainHttp:             options.plainHttp == 1,
+			},
+			Concurrency: int(options.concurrency),
 		})
 	})
 }
@@ -556,6 +850,21 @@ func RegistryLogout(options *C.struct_RegistryOptions) C.Result {
 	})
 }
 
+//export ReleaseSet
+func ReleaseSet(options *C.struct_ReleaseSetOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.ReleaseSet(&helm.ReleaseSetOptions{
+			Releases:           C.GoString(options.releases),
+			Concurrency:        int(options.concurrency),
+			FailFast:           options.failFast == 1,
+			KubeConfig:         C.GoString(options.kubeConfig),
+			KubeConfigContents: C.GoString(options.kubeConfigContents),
+			RepositoryConfig:   C.GoString(options.repositoryConfig),
+			Consumer:           newReleaseSetConsumer(unsafe.Pointer(options.consumer)),
+		})
+	})
+}
+
 //export RepoAdd
 func RepoAdd(options *C.struct_RepoOptions) C.Result {
 	return runCommand(func() (string, error) {
@@ -569,6 +878,31 @@ func RepoAdd(options *C.struct_RepoOptions) C.Result {
 			KeyFile:               C.GoString(options.keyFile),
 			CaFile:                C.GoString(options.caFile),
 			InsecureSkipTlsVerify: options.insecureSkipTlsVerify == 1,
+			Repositories:          C.GoString(options.repositories),
+			Concurrency:           int(options.concurrency),
+		})
+	})
+}
+
+//export RepoIndex
+func RepoIndex(options *C.struct_RepoIndexOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.RepoIndex(&helm.RepoIndexOptions{
+			Dir:   C.GoString(options.dir),
+			Url:   C.GoString(options.url),
+			Merge: C.GoString(options.merge),
+		})
+	})
+}
+
+//export RepoIndexQuery
+func RepoIndexQuery(options *C.struct_RepoIndexQueryOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.RepoIndexQuery(&helm.RepoIndexQueryOptions{
+			Repo:       C.GoString(options.repo),
+			Chart:      C.GoString(options.chart),
+			Constraint: C.GoString(options.constraint),
+			Latest:     options.latest == 1,
 		})
 	})
 }
@@ -598,6 +932,20 @@ func RepoUpdate(options *C.struct_RepoOptions) C.Result {
 		return helm.RepoUpdate(&helm.RepoOptions{
 			RepositoryConfig: C.GoString(options.repositoryConfig),
 			Names:            C.GoString(options.names),
+			Concurrency:      int(options.concurrency),
+			Timeout:          int(options.timeout),
+		})
+	})
+}
+
+//export RepoUpdateResults
+func RepoUpdateResults(options *C.struct_RepoOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.RepoUpdateResults(&helm.RepoOptions{
+			RepositoryConfig: C.GoString(options.repositoryConfig),
+			Names:            C.GoString(options.names),
+			Concurrency:      int(options.concurrency),
+			Timeout:          int(options.timeout),
 		})
 	})
 }
@@ -621,9 +969,11 @@ func RepoServerStart(options *C.struct_RepoServerOptions) C.Result {
 func RepoOciServerStart(options *C.struct_RepoServerOptions) C.Result {
 	return runCommand(func() (string, error) {
 		srv, err := helm.RepoOciServerStart(&helm.RepoServerOptions{
-			Glob:     C.GoString(options.glob),
-			Username: C.GoString(options.username),
-			Password: C.GoString(options.password),
+			Glob:        C.GoString(options.glob),
+			Username:    C.GoString(options.username),
+			Password:    C.GoString(options.password),
+			StorageRoot: C.GoString(options.storageRoot),
+			Concurrency: int(options.concurrency),
 		})
 		if srv != nil {
 			return srv.RegistryURL, err
@@ -648,6 +998,36 @@ func RepoServerStopAll() C.Result {
 	})
 }
 
+//export Rollback
+func Rollback(options *C.struct_RollbackOptions) C.Result {
+	var timeout time.Duration
+	if options.timeout > 0 {
+		timeout = time.Duration(int(options.timeout)) * time.Second
+	} else {
+		timeout = time.Duration(300) * time.Second
+	}
+	return runCommand(func() (string, error) {
+		return helm.Rollback(&helm.RollbackOptions{
+			ReleaseName:        C.GoString(options.releaseName),
+			Revision:           int(options.revision),
+			Namespace:          C.GoString(options.namespace),
+			Wait:               options.wait == 1,
+			WaitForJobs:        options.waitForJobs == 1,
+			Timeout:            timeout,
+			CleanupOnFail:      options.cleanupOnFail == 1,
+			Force:              options.force == 1,
+			NoHooks:            options.noHooks == 1,
+			MaxHistory:         int(options.maxHistory),
+			DryRun:             options.dryRun == 1,
+			KubeConfig:         C.GoString(options.kubeConfig),
+			KubeConfigContents: C.GoString(options.kubeConfigContents),
+			Debug:              options.debug == 1,
+			WaitStrategy:       C.GoString(options.waitStrategy),
+			WaitProgress:       newWaitListener(unsafe.Pointer(options.waitListener)),
+		})
+	})
+}
+
 //export SearchRepo
 func SearchRepo(options *C.struct_SearchOptions) C.Result {
 	return runCommand(func() (string, error) {
@@ -657,6 +1037,7 @@ func SearchRepo(options *C.struct_SearchOptions) C.Result {
 			Regexp:           options.regexp == 1,
 			Devel:            options.devel == 1,
 			Version:          C.GoString(options.version),
+			MaxResults:       int(options.maxResults),
 		})
 	})
 }
@@ -674,6 +1055,41 @@ func Show(options *C.struct_ShowOptions) C.Result {
 			Insecure:     options.insecure == 1,
 			PlainHttp:    options.plainHttp == 1,
 			Debug:        options.debug == 1,
+			ChartArchive: toBytes(options.chartArchive, options.chartArchiveSize),
+		})
+	})
+}
+
+//export Catalog
+func Catalog(options *C.struct_CatalogOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.Catalog(&helm.CatalogOptions{
+			RepositoryConfig: C.GoString(options.repositoryConfig),
+			Repos:            C.GoString(options.repos),
+			Sections:         C.GoString(options.sections),
+			Latest:           options.latest == 1,
+			Concurrency:      int(options.concurrency),
+			Consumer:         newCatalogConsumer(unsafe.Pointer(options.consumer)),
+		})
+	})
+}
+
+//export ChartInfo
+func ChartInfo(options *C.struct_ChartInfoOptions) C.Result {
+	return runCommand(func() (string, error) {
+		return helm.ChartInfo(&helm.ChartInfoOptions{
+			ShowOptions: helm.ShowOptions{
+				Path:         C.GoString(options.path),
+				Version:      C.GoString(options.version),
+				CertFile:     C.GoString(options.certFile),
+				KeyFile:      C.GoString(options.keyFile),
+				CaFile:       C.GoString(options.caFile),
+				Insecure:     options.insecure == 1,
+				PlainHttp:    options.plainHttp == 1,
+				Debug:        options.debug == 1,
+				ChartArchive: toBytes(options.chartArchive, options.chartArchiveSize),
+			},
+			Sections: C.GoString(options.sections),
 		})
 	})
 }
@@ -688,6 +1104,7 @@ func Template(options *C.struct_TemplateOptions) C.Result {
 			Namespace:        C.GoString(options.namespace),
 			KubeVersion:      C.GoString(options.kubeVersion),
 			DependencyUpdate: options.dependencyUpdate == 1,
+			RefreshTtl:       time.Duration(int(options.refreshTtl)) * time.Second,
 			SkipCRDs:         options.skipCRDs == 1,
 			Values:           C.GoString(options.values),
 			SetFiles:         C.GoString(options.setFiles),
@@ -702,6 +1119,8 @@ func Template(options *C.struct_TemplateOptions) C.Result {
 			},
 			Debug:            options.debug == 1,
 			RepositoryConfig: C.GoString(options.repositoryConfig),
+			PostRenderer:     newPostRenderer(unsafe.Pointer(options.postRenderer)),
+			ChartArchive:     toBytes(options.chartArchive, options.chartArchiveSize),
 		})
 	})
 }
@@ -728,6 +1147,12 @@ func Test(options *C.struct_TestOptions) C.Result {
 
 //export Uninstall
 func Uninstall(options *C.struct_UninstallOptions) C.Result {
+	var timeout time.Duration
+	if options.timeout > 0 {
+		timeout = time.Duration(int(options.timeout)) * time.Second
+	} else {
+		timeout = time.Duration(300) * time.Second
+	}
 	return runCommand(func() (string, error) {
 		return helm.Uninstall(&helm.UninstallOptions{
 			ReleaseName:        C.GoString(options.releaseName),
@@ -740,6 +1165,40 @@ func Uninstall(options *C.struct_UninstallOptions) C.Result {
 			KubeConfig:         C.GoString(options.kubeConfig),
 			KubeConfigContents: C.GoString(options.kubeConfigContents),
 			Debug:              options.debug == 1,
+			Wait:               options.wait == 1,
+			Timeout:            timeout,
+			WaitStrategy:       C.GoString(options.waitStrategy),
+			WaitProgress:       newWaitListener(unsafe.Pointer(options.waitListener)),
+		})
+	})
+}
+
+//export UninstallAll
+func UninstallAll(options *C.struct_UninstallAllOptions) C.Result {
+	var timeout time.Duration
+	if options.timeout > 0 {
+		timeout = time.Duration(int(options.timeout)) * time.Second
+	} else {
+		timeout = time.Duration(300) * time.Second
+	}
+	return runCommand(func() (string, error) {
+		return helm.UninstallAll(&helm.UninstallAllOptions{
+			ReleaseNames:       C.GoString(options.releaseNames),
+			Selector:           C.GoString(options.selector),
+			Namespace:          C.GoString(options.namespace),
+			AllNamespaces:      options.allNamespaces == 1,
+			Concurrency:        int(options.concurrency),
+			DryRun:             options.dryRun == 1,
+			NoHooks:            options.noHooks == 1,
+			IgnoreNotFound:     options.ignoreNotFound == 1,
+			KeepHistory:        options.keepHistory == 1,
+			Cascade:            C.GoString(options.cascade),
+			Wait:               options.wait == 1,
+			Timeout:            timeout,
+			WaitStrategy:       C.GoString(options.waitStrategy),
+			WaitProgress:       newWaitListener(unsafe.Pointer(options.waitListener)),
+			KubeConfig:         C.GoString(options.kubeConfig),
+			KubeConfigContents: C.GoString(options.kubeConfigContents),
 		})
 	})
 }
@@ -770,6 +1229,7 @@ func Upgrade(options *C.struct_UpgradeOptions) C.Result {
 			Description:              C.GoString(options.description),
 			Devel:                    options.devel == 1,
 			DependencyUpdate:         options.dependencyUpdate == 1,
+			RefreshTtl:               time.Duration(int(options.refreshTtl)) * time.Second,
 			DisableOpenApiValidation: options.disableOpenApiValidation == 1,
 			DryRun:                   options.dryRun == 1,
 			DryRunOption:             C.GoString(options.dryRunOption),
@@ -792,6 +1252,12 @@ func Upgrade(options *C.struct_UpgradeOptions) C.Result {
 			Debug:            options.debug == 1,
 			ClientOnly:       options.clientOnly == 1,
 			RepositoryConfig: C.GoString(options.repositoryConfig),
+			PostRenderer:     newPostRenderer(unsafe.Pointer(options.postRenderer)),
+			ChartArchive:     toBytes(options.chartArchive, options.chartArchiveSize),
+			WaitStrategy:     C.GoString(options.waitStrategy),
+			WaitProgress:     newWaitListener(unsafe.Pointer(options.waitListener)),
+			SkipUnchanged:    options.skipUnchanged == 1,
+			MaxHistory:       int(options.maxHistory),
 		})
 	})
 }
@@ -820,6 +1286,15 @@ func toString(readFile *os.File, writeFile *os.File) string {
 	}
 }
 
+// toBytes exposes the memory provided by the caller as a byte slice (no copy).
+// The slice must not be retained once the exported function returns.
+func toBytes(pointer unsafe.Pointer, size C.int) []byte {
+	if pointer == nil {
+		return nil
+	}
+	return unsafe.Slice((*byte)(pointer), int(size))
+}
+
 func toCString(str string) *C.char {
 	if len(strings.TrimSpace(str)) == 0 {
 		return nil
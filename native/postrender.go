@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package main
+
+/*
+typedef char* (*post_renderer_fn)(char* manifests, int length, int* resultLength);
+
+static inline char* invokePostRenderer(void* fn, char* manifests, int length, int* resultLength) {
+	return ((post_renderer_fn) fn)(manifests, length, resultLength);
+}
+*/
+import "C"
+import (
+	"bytes"
+	"errors"
+	"unsafe"
+
+	"helm.sh/helm/v3/pkg/postrender"
+)
+
+// callbackPostRenderer is a postrender.PostRenderer that delegates to a function pointer provided by the caller.
+// The rendered manifests are shared with the callback (no copy), the callback must not retain the pointer.
+type callbackPostRenderer struct {
+	callback unsafe.Pointer
+}
+
+func newPostRenderer(callback unsafe.Pointer) postrender.PostRenderer {
+	if callback == nil {
+		return nil
+	}
+	return &callbackPostRenderer{callback: callback}
+}
+
+func (r *callbackPostRenderer) Run(renderedManifests *bytes.Buffer) (*bytes.Buffer, error) {
+	manifests := renderedManifests.Bytes()
+	var manifestsPointer *C.char
+	if len(manifests) > 0 {
+		manifestsPointer = (*C.char)(unsafe.Pointer(&manifests[0]))
+	}
+	var resultLength C.int
+	result := C.invokePostRenderer(r.callback, manifestsPointer, C.int(len(manifests)), &resultLength)
+	if result == nil {
+		return nil, errors.New("post-renderer callback failed")
+	}
+	return bytes.NewBuffer(C.GoBytes(unsafe.Pointer(result), resultLength)), nil
+}
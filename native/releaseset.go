@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package main
+
+/*
+#include <stdlib.h>
+
+typedef int (*release_set_consumer_fn)(char* outcome);
+
+static inline int invokeReleaseSetConsumer(void* fn, char* outcome) {
+	return ((release_set_consumer_fn) fn)(outcome);
+}
+*/
+import "C"
+import (
+	"errors"
+	"unsafe"
+)
+
+// newReleaseSetConsumer returns a function that delegates each release outcome to a function pointer provided by the caller.
+// The outcome is only valid during the invocation, the callback must not retain the pointer.
+func newReleaseSetConsumer(callback unsafe.Pointer) func(outcome string) error {
+	if callback == nil {
+		return nil
+	}
+	return func(outcome string) error {
+		cOutcome := C.CString(outcome)
+		defer C.free(unsafe.Pointer(cOutcome))
+		if C.invokeReleaseSetConsumer(callback, cOutcome) != 0 {
+			return errors.New("release set consumer callback failed")
+		}
+		return nil
+	}
+}
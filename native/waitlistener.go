@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Marc Nuri
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package main
+
+/*
+#include <stdlib.h>
+
+typedef int (*wait_listener_fn)(char* event);
+
+static inline int invokeWaitListener(void* fn, char* event) {
+	return ((wait_listener_fn) fn)(event);
+}
+*/
+import "C"
+import (
+	"errors"
+	"unsafe"
+)
+
+// newWaitListener returns a function that delegates each resource wait event to a function pointer provided by the caller.
+// The event is only valid during the invocation, the callback must not retain the pointer.
+func newWaitListener(callback unsafe.Pointer) func(event string) error {
+	if callback == nil {
+		return nil
+	}
+	return func(event string) error {
+		cEvent := C.CString(event)
+		defer C.free(unsafe.Pointer(cEvent))
+		if C.invokeWaitListener(callback, cEvent) != 0 {
+			return errors.New("wait listener callback failed")
+		}
+		return nil
+	}
+}